@@ -11,7 +11,6 @@ import android.widget.TextView;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 import io.github.muntashirakon.rapidfuzz.RapidFuzz;
 import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
@@ -71,8 +70,8 @@ public class MainActivity extends AppCompatActivity {
                 .append(getTestResult(100, RapidFuzz.ratio(s9, s9a)))
                 .append(getTestHeader(i++, "ratio", s1, s2))
                 .append(getTestResult(73.33, RapidFuzz.ratio(s1, s2)))
-                .append(getTestHeader(i++, "ratio", s1.toLowerCase(Locale.ROOT), s2.toLowerCase(Locale.ROOT)))
-                .append(getTestResult(100, RapidFuzz.ratio(s1.toLowerCase(Locale.ROOT), s2.toLowerCase(Locale.ROOT))))
+                .append(getTestHeader(i++, "ratio (lowercase)", s1, s2))
+                .append(getTestResult(100, RapidFuzz.ratio(s1, s2, RapidFuzz.TYPE_RATIO, 0, RapidFuzz.FLAG_LOWERCASE)))
                 .append(getTestHeader(i++, "partialRatio", s1, s1))
                 .append(getTestResult(100, RapidFuzz.partialRatio(s1, s1)))
                 .append(getTestHeader(i++, "ratio", s1, s3))
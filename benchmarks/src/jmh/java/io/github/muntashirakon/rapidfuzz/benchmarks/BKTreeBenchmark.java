@@ -0,0 +1,127 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.BKTree;
+import io.github.muntashirakon.rapidfuzz.StringMetricCached;
+
+/**
+ * Compares {@link BKTree#search(String, int)} with computing the bounded distance to every word via
+ * {@link StringMetricCached#distance(String[], int)}. The fraction of the tree visited by the searches is reported
+ * by {@link #treeSearch(VisitCounters)} via {@link VisitCounters}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BKTreeBenchmark {
+    private static final int QUERY_COUNT = 16;
+
+    /**
+     * Counts the words in the trees searched and the words visited by the searches. The visited fraction is
+     * {@code visitedWords / words}. Both are known for each query in advance, so counting takes no time.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class VisitCounters {
+        public long words;
+        public long visitedWords;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            words = 0;
+            visitedWords = 0;
+        }
+    }
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"8"})
+    public int length;
+
+    @Param({BenchmarkData.ASCII, BenchmarkData.UNICODE})
+    public String charset;
+
+    @Param({"1", "2", "3"})
+    public int maxDistance;
+
+    private String[] mQueries;
+    private String[] mWords;
+    private long[] mVisitedWords;
+    private BKTree mTree;
+    private int mNextQuery;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.newRandom();
+        mWords = new String[size];
+        for (int i = 0; i < size; ++i) {
+            mWords[i] = BenchmarkData.randomString(random, charset, length);
+        }
+        // Queries are misspelt words of the dictionary, so that each of them has at least one match
+        mQueries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            mQueries[i] = BenchmarkData.mutate(random, charset, mWords[random.nextInt(size)], 0.1);
+        }
+        mTree = new BKTree(Arrays.asList(mWords));
+        mVisitedWords = new long[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            long visited = mTree.getVisitedCount();
+            mTree.search(mQueries[i], maxDistance);
+            mVisitedWords[i] = mTree.getVisitedCount() - visited;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mTree.close();
+    }
+
+    @Benchmark
+    public int[] bruteForce() {
+        try (StringMetricCached metric = new StringMetricCached(nextQuery())) {
+            return metric.distance(mWords, maxDistance);
+        }
+    }
+
+    @Benchmark
+    public List<BKTree.Match> treeSearch(VisitCounters counters) {
+        int i = nextQueryIndex();
+        counters.words += size;
+        counters.visitedWords += mVisitedWords[i];
+        return mTree.search(mQueries[i], maxDistance);
+    }
+
+    private String nextQuery() {
+        return mQueries[nextQueryIndex()];
+    }
+
+    private int nextQueryIndex() {
+        int i = mNextQuery;
+        mNextQuery = (mNextQuery + 1) % QUERY_COUNT;
+        return i;
+    }
+}
@@ -0,0 +1,96 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates reproducible inputs for the benchmarks.
+ */
+final class BenchmarkData {
+    static final String ASCII = "ascii";
+    static final String UNICODE = "unicode";
+
+    private static final int[] ASCII_CODE_POINTS = getCodePoints(new int[][]{{'a', 'z'}, {'0', '9'}});
+    // Bengali, Cyrillic, CJK and emoji, the latter being outside the Basic Multilingual Plane
+    private static final int[] UNICODE_CODE_POINTS = getCodePoints(new int[][]{{0x0985, 0x09B9}, {0x0430, 0x044F},
+            {0x4E00, 0x4E7F}, {0x1F600, 0x1F64F}});
+
+    private BenchmarkData() {
+    }
+
+    static Random newRandom() {
+        return new Random(0x5EED);
+    }
+
+    /**
+     * Generate a string of words separated by spaces.
+     *
+     * @param length Length of the string in UTF-16 code units
+     */
+    static String randomString(Random random, String charset, int length) {
+        int[] codePoints = getCodePoints(charset);
+        StringBuilder sb = new StringBuilder(length + 1);
+        while (sb.length() < length) {
+            if (sb.length() > 0 && random.nextInt(6) == 0) {
+                sb.append(' ');
+            } else {
+                sb.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Generate choices that are derived from the query, so that their scores are spread over the whole range.
+     */
+    static String[] randomChoices(Random random, String charset, String query, int count) {
+        String[] choices = new String[count];
+        for (int i = 0; i < count; ++i) {
+            choices[i] = mutate(random, charset, query, random.nextDouble());
+        }
+        return choices;
+    }
+
+    /**
+     * Replace each code point of the string with a random one with the given probability.
+     */
+    static String mutate(Random random, String charset, String s, double rate) {
+        int[] codePoints = getCodePoints(charset);
+        StringBuilder sb = new StringBuilder(s.length() + 1);
+        for (int i = 0; i < s.length(); i = s.offsetByCodePoints(i, 1)) {
+            if (random.nextDouble() < rate) {
+                sb.appendCodePoint(codePoints[random.nextInt(codePoints.length)]);
+            } else {
+                sb.appendCodePoint(s.codePointAt(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int[] getCodePoints(String charset) {
+        switch (charset) {
+            case ASCII:
+                return ASCII_CODE_POINTS;
+            case UNICODE:
+                return UNICODE_CODE_POINTS;
+            default:
+                throw new IllegalArgumentException("Unknown charset " + charset);
+        }
+    }
+
+    private static int[] getCodePoints(int[][] ranges) {
+        int count = 0;
+        for (int[] range : ranges) {
+            count += range[1] - range[0] + 1;
+        }
+        int[] codePoints = new int[count];
+        int i = 0;
+        for (int[] range : ranges) {
+            for (int codePoint = range[0]; codePoint <= range[1]; ++codePoint) {
+                codePoints[i++] = codePoint;
+            }
+        }
+        return codePoints;
+    }
+}
@@ -0,0 +1,87 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzz;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
+import io.github.muntashirakon.rapidfuzz.ScorePairs;
+
+/**
+ * Scores every string of a list against every other one, comparing nested {@link RapidFuzz#ratio(String, String, int)}
+ * calls with the {@code RapidFuzzCached#cdist*} methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CdistBenchmark {
+    @Param({"100", "1000"})
+    public int size;
+
+    @Param({"" + RapidFuzz.TYPE_RATIO, "" + RapidFuzz.TYPE_WEIGHTED_RATIO})
+    public int ratioType;
+
+    @Param({"32"})
+    public int length;
+
+    @Param({BenchmarkData.ASCII, BenchmarkData.UNICODE})
+    public String charset;
+
+    /**
+     * Number of native threads, or 0 to use one per available processor.
+     */
+    @Param({"1", "0"})
+    public int threads;
+
+    private String[] mStrings;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.newRandom();
+        String base = BenchmarkData.randomString(random, charset, length);
+        mStrings = BenchmarkData.randomChoices(random, charset, base, size);
+    }
+
+    @Benchmark
+    public float[] nested() {
+        float[] scores = new float[size * size];
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                scores[i * size + j] = (float) RapidFuzz.ratio(mStrings[i], mStrings[j], ratioType);
+            }
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public float[] cdist() {
+        return RapidFuzzCached.cdist(mStrings, mStrings, ratioType, 0.0, 0, threads);
+    }
+
+    @Benchmark
+    public byte[] cdistQuantized() {
+        return RapidFuzzCached.cdistQuantized(mStrings, mStrings, ratioType, 0.0, 0, threads);
+    }
+
+    @Benchmark
+    public ScorePairs cdistSparse() {
+        return RapidFuzzCached.cdistSparse(mStrings, mStrings, ratioType, 90.0, 0, threads);
+    }
+}
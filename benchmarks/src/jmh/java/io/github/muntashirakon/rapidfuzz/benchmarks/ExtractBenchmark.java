@@ -0,0 +1,198 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.AliasIndex;
+import io.github.muntashirakon.rapidfuzz.ChoiceIndex;
+import io.github.muntashirakon.rapidfuzz.ExtractResults;
+import io.github.muntashirakon.rapidfuzz.RapidFuzz;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+/**
+ * Runs each {@code extract*} path of {@link RapidFuzzCached}, {@link ChoiceIndex} and {@link AliasIndex} over lists
+ * of choices of different sizes. The {@code *Primitive} benchmarks reuse a scorer and an {@link ExtractResults}, so running them with
+ * {@code -prof gc} should report no allocations per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ExtractBenchmark {
+    private static final int LIMIT = 10;
+
+    public static class Choice {
+        final String mName;
+        final List<String> mAliases;
+
+        Choice(String name, List<String> aliases) {
+            mName = name;
+            mAliases = aliases;
+        }
+    }
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"" + RapidFuzz.TYPE_RATIO, "" + RapidFuzz.TYPE_WEIGHTED_RATIO})
+    public int ratioType;
+
+    @Param({"32"})
+    public int length;
+
+    @Param({BenchmarkData.ASCII, BenchmarkData.UNICODE})
+    public String charset;
+
+    private String mQuery;
+    private String[] mChoices;
+    private List<String> mChoiceList;
+    private List<Choice> mObjects;
+    private ChoiceIndex mIndex;
+    private AliasIndex<Choice> mAliasIndex;
+    private RapidFuzzCached mScorer;
+    private ExtractResults mResults;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.newRandom();
+        mQuery = BenchmarkData.randomString(random, charset, length);
+        mChoices = BenchmarkData.randomChoices(random, charset, mQuery, size);
+        mChoiceList = Arrays.asList(mChoices);
+        mObjects = new ArrayList<>(size);
+        for (String choice : mChoices) {
+            mObjects.add(new Choice(choice, Collections.singletonList(choice)));
+        }
+        mIndex = new ChoiceIndex(mChoiceList);
+        mAliasIndex = new AliasIndex<>(mObjects, c -> c.mAliases);
+        mScorer = new RapidFuzzCached(mQuery, ratioType);
+        mResults = new ExtractResults();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mScorer.close();
+        mIndex.close();
+        mAliasIndex.close();
+    }
+
+    @Benchmark
+    public List<Result<String>> extractAll() {
+        return RapidFuzzCached.extractAll(mQuery, mChoices, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public List<Result<String>> extractAllCollection() {
+        return RapidFuzzCached.extractAll(mQuery, mChoiceList, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public List<Result<Choice>> extractAllChoiceGenerator() {
+        return RapidFuzzCached.extractAll(mQuery, mObjects, (RapidFuzzCached.ChoiceGenerator<Choice>) c -> c.mName,
+                ratioType, 0.0);
+    }
+
+    @Benchmark
+    public List<Result<Choice>> extractAllChoicesGenerator() {
+        return RapidFuzzCached.extractAll(mQuery, mObjects,
+                (RapidFuzzCached.ChoicesGenerator<Choice>) c -> c.mAliases, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public List<Result<String>> extractAllParallel() {
+        return RapidFuzzCached.extractAll(mQuery, mChoices, ratioType, 0.0, (Executor) null);
+    }
+
+    @Benchmark
+    public List<Result<String>> extract() {
+        return RapidFuzzCached.extract(mQuery, mChoices, ratioType, LIMIT, 0.0);
+    }
+
+    @Benchmark
+    public List<Result<String>> extractParallel() {
+        return RapidFuzzCached.extract(mQuery, mChoices, ratioType, LIMIT, 0.0, (Executor) null);
+    }
+
+    @Benchmark
+    public Result<String> extractOne() {
+        return RapidFuzzCached.extractOne(mQuery, mChoices, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public Result<Choice> extractOneChoicesGenerator() {
+        return RapidFuzzCached.extractOne(mQuery, mObjects,
+                (RapidFuzzCached.ChoicesGenerator<Choice>) c -> c.mAliases, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public Result<String> extractOneParallel() {
+        return RapidFuzzCached.extractOne(mQuery, mChoices, ratioType, 0.0, (Executor) null);
+    }
+
+    @Benchmark
+    public List<Result<String>> indexExtractAll() {
+        return mIndex.extractAll(mQuery, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public List<Result<String>> indexExtractTop() {
+        return mIndex.extractTop(mQuery, ratioType, LIMIT, 0.0);
+    }
+
+    @Benchmark
+    public Result<String> indexExtractOne() {
+        return mIndex.extractOne(mQuery, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public int extractAllPrimitive() {
+        return mScorer.extractAll(mChoices, 0.0, mResults);
+    }
+
+    @Benchmark
+    public int extractTopPrimitive() {
+        return mScorer.extractTop(mChoices, LIMIT, 0.0, mResults);
+    }
+
+    @Benchmark
+    public int indexExtractAllPrimitive() {
+        return mIndex.extractAll(mScorer, 0.0, mResults);
+    }
+
+    @Benchmark
+    public int indexExtractTopPrimitive() {
+        return mIndex.extractTop(mScorer, LIMIT, 0.0, mResults);
+    }
+
+    @Benchmark
+    public List<Result<Choice>> aliasIndexExtractAll() {
+        return mAliasIndex.extractAll(mQuery, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public Result<Choice> aliasIndexExtractOne() {
+        return mAliasIndex.extractOne(mQuery, ratioType, 0.0);
+    }
+}
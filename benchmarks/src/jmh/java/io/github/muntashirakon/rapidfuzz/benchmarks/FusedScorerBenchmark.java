@@ -0,0 +1,102 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.FusedScorer;
+import io.github.muntashirakon.rapidfuzz.RapidFuzz;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
+
+/**
+ * Scores sentences with the ratio, token sort, token set and partial ratios, comparing a {@link FusedScorer} with a
+ * {@link RapidFuzzCached} for each ratio type.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FusedScorerBenchmark {
+    private static final int[] RATIO_TYPES = {RapidFuzz.TYPE_RATIO, RapidFuzz.TYPE_TOKEN_SORT_RATIO,
+            RapidFuzz.TYPE_TOKEN_SET_RATIO, RapidFuzz.TYPE_PARTIAL_RATIO};
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"2", "8"})
+    public int wordCount;
+
+    @Param({BenchmarkData.ASCII, BenchmarkData.UNICODE})
+    public String charset;
+
+    private String[] mChoices;
+    private RapidFuzzCached[] mScorers;
+    private FusedScorer mFused;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.newRandom();
+        String[] words = new String[wordCount];
+        for (int i = 0; i < wordCount; ++i) {
+            words[i] = BenchmarkData.randomString(random, charset, 3 + random.nextInt(6));
+        }
+        String query = String.join(" ", words);
+        // Choices share a shuffled, misspelt subset of the words of the query
+        mChoices = new String[size];
+        for (int i = 0; i < size; ++i) {
+            StringBuilder choice = new StringBuilder();
+            for (int j = 0; j < wordCount; ++j) {
+                String word = random.nextInt(4) == 0 ? BenchmarkData.randomString(random, charset, 5)
+                        : BenchmarkData.mutate(random, charset, words[random.nextInt(wordCount)], 0.2);
+                if (j > 0) choice.append(' ');
+                choice.append(word);
+            }
+            mChoices[i] = choice.toString();
+        }
+        mScorers = new RapidFuzzCached[RATIO_TYPES.length];
+        for (int i = 0; i < RATIO_TYPES.length; ++i) {
+            mScorers[i] = new RapidFuzzCached(query, RATIO_TYPES[i]);
+        }
+        mFused = new FusedScorer(query, RATIO_TYPES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (RapidFuzzCached scorer : mScorers) {
+            scorer.close();
+        }
+        mFused.close();
+    }
+
+    @Benchmark
+    public double[] separateScorers() {
+        double[] scores = new double[mChoices.length * RATIO_TYPES.length];
+        for (int i = 0; i < mChoices.length; ++i) {
+            for (int j = 0; j < RATIO_TYPES.length; ++j) {
+                scores[i * RATIO_TYPES.length + j] = mScorers[j].ratio(mChoices[i]);
+            }
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public double[] fusedScorer() {
+        return mFused.ratio(mChoices, 0.0);
+    }
+}
@@ -0,0 +1,68 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzz;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
+
+/**
+ * Measures the cost of a single call into native code with strings that are too short for scoring to matter, i.e. the
+ * binding of the native methods and the dispatch to the ratio type. Only public methods are called, so that the same
+ * benchmark can be run against different versions of the library to compare their bindings. As the Java classes
+ * declare the native methods, each version has to be checked out and run with {@code -Pjmh.includes=JniBenchmark};
+ * {@code -Prapidfuzz.libraryPath} alone does not make a comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JniBenchmark {
+    @Param({"1", "9"})
+    public int ratioType;
+
+    private final String mQuery = "ab";
+    private final String mChoice = "ac";
+    private RapidFuzzCached mCached;
+
+    @Setup
+    public void setUp() {
+        mCached = new RapidFuzzCached(mQuery, ratioType);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mCached.close();
+    }
+
+    @Benchmark
+    public double oneShotByType() {
+        return RapidFuzz.ratio(mQuery, mChoice, ratioType, 0.0);
+    }
+
+    @Benchmark
+    public double cached() {
+        return mCached.ratio(mChoice);
+    }
+
+    @Benchmark
+    public void newAndClose() {
+        new RapidFuzzCached(mQuery, ratioType).close();
+    }
+}
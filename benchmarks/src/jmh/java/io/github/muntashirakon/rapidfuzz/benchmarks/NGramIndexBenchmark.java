@@ -0,0 +1,157 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.NGramIndex;
+import io.github.muntashirakon.rapidfuzz.RapidFuzz;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+/**
+ * Compares the latency of {@link NGramIndex} with a brute-force {@link RapidFuzzCached#extractAll} and
+ * {@link RapidFuzzCached#extract}. The recall of the index, i.e. the fraction of the brute-force top matches that it
+ * finds, is reported by {@link #indexExtractTop(RecallCounters)} via {@link RecallCounters}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class NGramIndexBenchmark {
+    private static final int LIMIT = 10;
+    private static final int QUERY_COUNT = 16;
+
+    /**
+     * Counts the brute-force top matches of the queries run by the index and how many of them it finds. The recall is
+     * {@code foundMatches / matches}. Both are known for each query in advance, so counting takes no time.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RecallCounters {
+        public long matches;
+        public long foundMatches;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            matches = 0;
+            foundMatches = 0;
+        }
+    }
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"" + RapidFuzz.TYPE_RATIO, "" + RapidFuzz.TYPE_WEIGHTED_RATIO})
+    public int ratioType;
+
+    @Param({"32"})
+    public int length;
+
+    @Param({BenchmarkData.ASCII, BenchmarkData.UNICODE})
+    public String charset;
+
+    @Param({"100", "1000", "10000"})
+    public int maxCandidates;
+
+    private String[] mQueries;
+    private String[] mChoices;
+    private int[] mMatches;
+    private int[] mFoundMatches;
+    private NGramIndex mIndex;
+    private int mNextQuery;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.newRandom();
+        String base = BenchmarkData.randomString(random, charset, length);
+        mChoices = BenchmarkData.randomChoices(random, charset, base, size);
+        // Queries are close to the base like the best of the choices, so that each of them has a few good matches
+        mQueries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            mQueries[i] = BenchmarkData.mutate(random, charset, base, 0.1);
+        }
+        mIndex = new NGramIndex(Arrays.asList(mChoices), NGramIndex.DEFAULT_N, RapidFuzz.FLAG_CODE_POINTS);
+        mIndex.setMaxCandidates(maxCandidates);
+        countMatches();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mIndex.close();
+    }
+
+    @Benchmark
+    public List<Result<String>> bruteForceExtractAll() {
+        return RapidFuzzCached.extractAll(nextQuery(), mChoices, ratioType, 0.0, RapidFuzz.FLAG_CODE_POINTS);
+    }
+
+    @Benchmark
+    public List<Result<String>> bruteForceExtract() {
+        return RapidFuzzCached.extract(nextQuery(), mChoices, ratioType, LIMIT, 0.0, RapidFuzz.FLAG_CODE_POINTS);
+    }
+
+    @Benchmark
+    public List<Result<String>> indexExtractTop(RecallCounters counters) {
+        int i = nextQueryIndex();
+        counters.matches += mMatches[i];
+        counters.foundMatches += mFoundMatches[i];
+        return mIndex.extractTop(mQueries[i], ratioType, LIMIT, 0.0);
+    }
+
+    @Benchmark
+    public List<Result<String>> indexExtractAll() {
+        return mIndex.extractAll(nextQuery(), ratioType, 0.0);
+    }
+
+    private String nextQuery() {
+        return mQueries[nextQueryIndex()];
+    }
+
+    private int nextQueryIndex() {
+        int i = mNextQuery;
+        mNextQuery = (mNextQuery + 1) % QUERY_COUNT;
+        return i;
+    }
+
+    /**
+     * Count the brute-force top matches of each query and how many of them are also found by the index.
+     */
+    private void countMatches() {
+        mMatches = new int[QUERY_COUNT];
+        mFoundMatches = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; ++i) {
+            Set<Integer> ids = new HashSet<>();
+            for (Result<String> result : mIndex.extractTop(mQueries[i], ratioType, LIMIT, 0.0)) {
+                ids.add(result.getIndex());
+            }
+            for (Result<String> result : RapidFuzzCached.extract(mQueries[i], mChoices, ratioType, LIMIT, 0.0,
+                    RapidFuzz.FLAG_CODE_POINTS)) {
+                ++mMatches[i];
+                if (ids.contains(result.getIndex())) ++mFoundMatches[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzz;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
+import io.github.muntashirakon.rapidfuzz.ScorerCache;
+
+/**
+ * Scores a single pair of strings with each ratio type, comparing the one-shot {@link RapidFuzz} methods with
+ * {@link RapidFuzzCached}. The difference between short and long strings shows the fixed JNI overhead of a call.
+ * {@link #oneShotWithScorerCache(CacheState)} repeats the same one-shot call with the {@link ScorerCache} enabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScorerBenchmark {
+    /**
+     * Enables the {@link ScorerCache} while a benchmark that uses it runs.
+     */
+    @State(Scope.Benchmark)
+    public static class CacheState {
+        @Setup
+        public void setUp() {
+            ScorerCache.setEnabled(true);
+        }
+
+        @TearDown
+        public void tearDown() {
+            ScorerCache.setEnabled(false);
+        }
+    }
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int ratioType;
+
+    @Param({"8", "32", "128", "512"})
+    public int length;
+
+    @Param({BenchmarkData.ASCII, BenchmarkData.UNICODE})
+    public String charset;
+
+    /**
+     * A combination of the {@code RapidFuzz#FLAG_*} constants.
+     */
+    @Param({"0"})
+    public int flags;
+
+    private String mQuery;
+    private String mChoice;
+    private RapidFuzzCached mCached;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.newRandom();
+        mQuery = BenchmarkData.randomString(random, charset, length);
+        mChoice = BenchmarkData.mutate(random, charset, mQuery, 0.3);
+        mCached = new RapidFuzzCached(mQuery, ratioType, flags);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mCached.close();
+    }
+
+    @Benchmark
+    public double oneShot() {
+        return RapidFuzz.ratio(mQuery, mChoice, ratioType, 0.0, flags);
+    }
+
+    @Benchmark
+    public double oneShotWithScorerCache(CacheState state) {
+        return RapidFuzz.ratio(mQuery, mChoice, ratioType, 0.0, flags);
+    }
+
+    @Benchmark
+    public double cached() {
+        return mCached.ratio(mChoice);
+    }
+
+    @Benchmark
+    public double cachedIncludingSetup() {
+        try (RapidFuzzCached cached = new RapidFuzzCached(mQuery, ratioType, flags)) {
+            return cached.ratio(mChoice);
+        }
+    }
+}
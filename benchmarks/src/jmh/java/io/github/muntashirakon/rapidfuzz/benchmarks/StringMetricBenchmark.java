@@ -0,0 +1,111 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzz;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached;
+import io.github.muntashirakon.rapidfuzz.StringMetric;
+import io.github.muntashirakon.rapidfuzz.StringMetricCached;
+
+/**
+ * Compares bounded and unbounded edit distances with {@link RapidFuzz#TYPE_RATIO} over a list of choices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringMetricBenchmark {
+    @Param({"8", "32", "128"})
+    public int length;
+
+    @Param({BenchmarkData.ASCII, BenchmarkData.UNICODE})
+    public String charset;
+
+    @Param({"1000"})
+    public int size;
+
+    /**
+     * Maximum distance of the bounded Levenshtein distance.
+     */
+    @Param({"2"})
+    public int max;
+
+    private String mQuery;
+    private String[] mChoices;
+    private StringMetricCached mLevenshtein;
+    private StringMetricCached mWeightedLevenshtein;
+    private RapidFuzzCached mRatio;
+
+    @Setup
+    public void setUp() {
+        Random random = BenchmarkData.newRandom();
+        mQuery = BenchmarkData.randomString(random, charset, length);
+        mChoices = BenchmarkData.randomChoices(random, charset, mQuery, size);
+        mLevenshtein = new StringMetricCached(mQuery);
+        mWeightedLevenshtein = new StringMetricCached(mQuery, 1, 1, 2);
+        mRatio = new RapidFuzzCached(mQuery, RapidFuzz.TYPE_RATIO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mLevenshtein.close();
+        mWeightedLevenshtein.close();
+        mRatio.close();
+    }
+
+    @Benchmark
+    public int oneShotLevenshtein() {
+        int sum = 0;
+        for (String choice : mChoices) {
+            sum += StringMetric.levenshtein(mQuery, choice, max);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] levenshtein() {
+        return mLevenshtein.distance(mChoices, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int[] boundedLevenshtein() {
+        return mLevenshtein.distance(mChoices, max);
+    }
+
+    @Benchmark
+    public int[] boundedWeightedLevenshtein() {
+        return mWeightedLevenshtein.distance(mChoices, max);
+    }
+
+    @Benchmark
+    public double[] normalizedLevenshtein() {
+        return mLevenshtein.normalized(mChoices, 0.0);
+    }
+
+    @Benchmark
+    public double ratio() {
+        double sum = 0;
+        for (String choice : mChoices) {
+            sum += mRatio.ratio(choice);
+        }
+        return sum;
+    }
+}
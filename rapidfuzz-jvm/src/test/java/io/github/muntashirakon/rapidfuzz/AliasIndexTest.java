@@ -0,0 +1,162 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.ChoicesGenerator;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.ExtractTest.assertResultsEqual;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SET_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class AliasIndexTest {
+    private static final double DELTA = 1e-9;
+    private static final String[] WORDS = {"new", "york", "jets", "giants", "dallas", "cowboys", "atlanta", "falcons",
+            "NY", "big", "apple"};
+    private static final ChoicesGenerator<List<String>> GENERATOR = object -> object;
+
+    @Test
+    public void extractMatchesBestAlias() {
+        Random random = new Random(21);
+        List<List<String>> objects = randomObjects(random, 300);
+        String[] queries = {"new york", "NY jets", "big apple", "cowboys dallas", "falcon"};
+        for (int flags : new int[]{0, FLAG_DEFAULT_PROCESS}) {
+            try (AliasIndex<List<String>> index = new AliasIndex<>(objects, GENERATOR, flags)) {
+                assertEquals(flags, index.getFlags());
+                assertEquals(objects.size(), index.size());
+                int aliasCount = 0;
+                for (List<String> aliases : objects) {
+                    aliasCount += aliases.size();
+                }
+                assertEquals(aliasCount, index.getAliasCount());
+                for (String query : queries) {
+                    for (int ratioType : new int[]{TYPE_RATIO, TYPE_PARTIAL_RATIO, TYPE_TOKEN_SET_RATIO,
+                            TYPE_WEIGHTED_RATIO}) {
+                        for (double cutoff : new double[]{0, 50, 80}) {
+                            List<Result<List<String>>> expected = bruteForce(query, objects, ratioType, cutoff,
+                                    flags);
+                            assertResultsEqual(expected, index.extractAll(query, ratioType, cutoff));
+                            assertResultsEqual(getTop(expected, 5), index.extractTop(query, ratioType, 5, cutoff));
+                            assertBest(expected, index.extractOne(query, ratioType, cutoff));
+                            if (flags == 0) {
+                                // The generator overloads compare the strings as they are
+                                assertResultsEqual(expected, RapidFuzzCached.extractAll(query, objects, GENERATOR,
+                                        ratioType, cutoff));
+                                assertBest(expected, RapidFuzzCached.extractOne(query, objects, GENERATOR, ratioType,
+                                        cutoff));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void objectsWithoutAliases() {
+        List<List<String>> objects = Arrays.asList(Collections.<String>emptyList(), Arrays.asList("apple", "maple"),
+                Collections.<String>emptyList());
+        try (AliasIndex<List<String>> index = new AliasIndex<>(objects, GENERATOR)) {
+            List<Result<List<String>>> results = index.extractAll("apple", TYPE_RATIO, 0);
+            assertEquals(3, results.size());
+            assertEquals(0, results.get(0).getScore(), 0);
+            assertEquals(100, results.get(1).getScore(), 0);
+            assertSame(objects.get(1), results.get(1).getObject());
+            assertEquals(1, index.extractOne("apple", TYPE_RATIO, 0).getIndex());
+            assertEquals(Collections.singletonList(1), ExtractTest.getIndices(index.extractAll("apple", TYPE_RATIO,
+                    1)));
+        }
+        try (AliasIndex<List<String>> index = new AliasIndex<>(Collections.<List<String>>emptyList(), GENERATOR)) {
+            assertTrue(index.extractAll("apple").isEmpty());
+            assertTrue(index.extractTop("apple", 1).isEmpty());
+            assertNull(index.extractOne("apple"));
+            assertThrows(IllegalArgumentException.class, () -> index.extractTop("apple", TYPE_RATIO, 0, 0));
+            assertThrows(IndexOutOfBoundsException.class, () -> index.get(0));
+        }
+    }
+
+    @Test
+    public void nullAliasesAreRejected() {
+        List<List<String>> objects = Arrays.asList(Collections.singletonList("apple"), Arrays.asList("maple", null));
+        assertThrows(IllegalArgumentException.class, () -> new AliasIndex<>(objects, GENERATOR));
+        // The generator overloads skip a null alias like the other batch calls skip null choices
+        Result<List<String>> result = RapidFuzzCached.extractOne("maple", objects, GENERATOR, TYPE_RATIO, 0);
+        assertEquals(1, result.getIndex());
+        assertEquals(100, result.getScore(), 0);
+        List<Result<List<String>>> results = RapidFuzzCached.extractAll("maple", objects, GENERATOR, TYPE_RATIO, 90);
+        assertEquals(Collections.singletonList(1), ExtractTest.getIndices(results));
+    }
+
+    private static List<Result<List<String>>> bruteForce(String query, List<List<String>> objects, int ratioType,
+                                                         double cutoff, int flags) {
+        List<Result<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < objects.size(); ++i) {
+            double best = 0;
+            for (String alias : objects.get(i)) {
+                best = Math.max(best, RapidFuzz.ratio(query, alias, ratioType, 0, flags));
+            }
+            if (best >= cutoff) {
+                results.add(new Result<>(objects.get(i), best, i));
+            }
+        }
+        return results;
+    }
+
+    private static <T> List<Result<T>> getTop(List<Result<T>> results, int limit) {
+        List<Result<T>> sorted = new ArrayList<>(results);
+        // Stable, so equal scores stay in the order of the indices
+        Collections.sort(sorted, Comparator.comparingDouble((Result<T> result) -> result.getScore()).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    // The last of the best objects is selected
+    private static <T> void assertBest(List<Result<T>> expected, Result<T> actual) {
+        Result<T> best = null;
+        for (Result<T> result : expected) {
+            if (best == null || result.getScore() >= best.getScore()) best = result;
+        }
+        if (best == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(best.getIndex(), actual.getIndex());
+        assertEquals(best.getScore(), actual.getScore(), DELTA);
+        assertSame(best.getObject(), actual.getObject());
+    }
+
+    private static List<List<String>> randomObjects(Random random, int count) {
+        List<List<String>> objects = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            List<String> aliases = new ArrayList<>();
+            int aliasCount = random.nextInt(4);
+            for (int j = 0; j < aliasCount; ++j) {
+                StringBuilder sb = new StringBuilder();
+                int wordCount = 1 + random.nextInt(3);
+                for (int k = 0; k < wordCount; ++k) {
+                    if (k > 0) sb.append(' ');
+                    sb.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                aliases.add(sb.toString());
+            }
+            objects.add(aliases);
+        }
+        return objects;
+    }
+}
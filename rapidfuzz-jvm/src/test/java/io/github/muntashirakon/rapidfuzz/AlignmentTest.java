@@ -0,0 +1,224 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.ALIGNMENT_STRIDE;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_LOWERCASE;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_STRIP_NON_ALPHANUMERIC;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_TRIM_WHITESPACE;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SORT_RATIO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The alignments must reproduce the scores they are behind: the matching blocks that of ratio and the window that of
+ * partial_ratio.
+ */
+public class AlignmentTest {
+    private static final double DELTA = 1e-9;
+    // Processing keeps the length of these strings apart from trimming
+    private static final String[] ASCII = {"a", "A", "b", "B", "1", " ", "\t", "-", ".", "!"};
+    private static final String[] UNICODE = {"a", "b", "c", "A", " ", "\u00e9", "\ud83d\ude00", "\ud83d\ude01"};
+    private static final int[] ASCII_FLAGS = {0, FLAG_LOWERCASE, FLAG_STRIP_NON_ALPHANUMERIC, FLAG_TRIM_WHITESPACE,
+            FLAG_DEFAULT_PROCESS, FLAG_DEFAULT_PROCESS | FLAG_CODE_POINTS};
+    private static final int[] UNICODE_FLAGS = {0, FLAG_CODE_POINTS, FLAG_LOWERCASE | FLAG_CODE_POINTS};
+
+    @Test
+    public void matchingBlocksReproduceRatio() {
+        Random random = new Random(5);
+        for (int i = 0; i < 300; ++i) {
+            String s1 = randomString(random, ASCII, 20);
+            String s2 = randomString(random, ASCII, 20);
+            for (int flags : ASCII_FLAGS) {
+                checkMatchingBlocks(s1, s2, flags);
+            }
+            s1 = randomString(random, UNICODE, 20);
+            s2 = randomString(random, UNICODE, 20);
+            for (int flags : UNICODE_FLAGS) {
+                checkMatchingBlocks(s1, s2, flags);
+            }
+        }
+        // Longer than a machine word
+        String s1 = randomString(random, ASCII, 200);
+        String s2 = randomString(random, ASCII, 150);
+        for (int flags : ASCII_FLAGS) {
+            checkMatchingBlocks(s1, s2, flags);
+            checkMatchingBlocks(s2, s1, flags);
+        }
+    }
+
+    @Test
+    public void partialRatioAlignmentReproducesPartialRatio() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; ++i) {
+            // The shorter string is s1 or s2 alike
+            String s1 = randomString(random, ASCII, 8);
+            String s2 = randomString(random, ASCII, 20);
+            for (int flags : ASCII_FLAGS) {
+                checkPartialRatioAlignment(s1, s2, flags);
+                checkPartialRatioAlignment(s2, s1, flags);
+            }
+            s1 = randomString(random, UNICODE, 8);
+            s2 = randomString(random, UNICODE, 20);
+            for (int flags : UNICODE_FLAGS) {
+                checkPartialRatioAlignment(s1, s2, flags);
+                checkPartialRatioAlignment(s2, s1, flags);
+            }
+        }
+    }
+
+    @Test
+    public void partialRatioWindows() {
+        assertArrayEquals(new int[]{0, 4, 5, 9}, RapidFuzz.getPartialRatioAlignment("test", "this test!"));
+        assertArrayEquals(new int[]{5, 9, 0, 4}, RapidFuzz.getPartialRatioAlignment("this test!", "test"));
+        // Substrings cut short by either end of the longer string
+        String[] windows = {"cdxxxxxx", "xxxxxxab", "xxabcxxx"};
+        for (String longer : windows) {
+            checkPartialRatioAlignment("abcd", longer, 0);
+            checkPartialRatioAlignment(longer, "abcd", 0);
+        }
+        // Surrogate pairs count as a single unit
+        checkPartialRatioAlignment("\ud83d\ude00b", "aa\ud83d\ude00bcc", FLAG_CODE_POINTS);
+        assertArrayEquals(new int[]{0, 3, 2, 5},
+                RapidFuzz.getPartialRatioAlignment("\ud83d\ude00b", "aa\ud83d\ude00bcc", FLAG_CODE_POINTS));
+    }
+
+    @Test
+    public void emptyStrings() {
+        assertEquals(0, RapidFuzz.getMatchingBlocks("", "").length);
+        assertEquals(0, RapidFuzz.getMatchingBlocks("", "abc").length);
+        assertEquals(0, RapidFuzz.getMatchingBlocks("abc", "").length);
+        assertEquals(0, RapidFuzz.getMatchingBlocks("abc", "xyz").length);
+        assertArrayEquals(new int[]{0, 0, 0, 0}, RapidFuzz.getPartialRatioAlignment("", ""));
+        assertArrayEquals(new int[]{0, 0, 0, 0}, RapidFuzz.getPartialRatioAlignment("", "abc"));
+        assertArrayEquals(new int[]{0, 0, 0, 0}, RapidFuzz.getPartialRatioAlignment("abc", ""));
+        // Empty once processed
+        assertEquals(0, RapidFuzz.getMatchingBlocks("  ", "abc", FLAG_DEFAULT_PROCESS).length);
+        int[] alignment = RapidFuzz.getPartialRatioAlignment("abc", " - ", FLAG_DEFAULT_PROCESS);
+        assertEquals(ALIGNMENT_STRIDE, alignment.length);
+        assertEquals(alignment[0], alignment[1]);
+        assertEquals(alignment[2], alignment[3]);
+    }
+
+    @Test
+    public void cachedAlignments() {
+        String query = "Test Query";
+        String[] choices = {"the test queries", null, "query", "", "TEST", "unrelated"};
+        int[] types = {TYPE_RATIO, TYPE_PARTIAL_RATIO, TYPE_QUICK_RATIO};
+        for (int type : types) {
+            try (RapidFuzzCached scorer = new RapidFuzzCached(query, type, FLAG_DEFAULT_PROCESS)) {
+                ExtractResults results = new ExtractResults();
+                scorer.extractTop(choices, choices.length, 0, results);
+                int[] offsets = new int[results.size() + 1];
+                int[] alignments = scorer.getAlignments(choices, results, offsets);
+                assertEquals(alignments.length, offsets[results.size()]);
+                for (int i = 0; i < results.size(); ++i) {
+                    String choice = choices[results.getIndex(i)];
+                    int[] expected = type == TYPE_PARTIAL_RATIO
+                            ? RapidFuzz.getPartialRatioAlignment(query, choice, FLAG_DEFAULT_PROCESS)
+                            : RapidFuzz.getMatchingBlocks(query, choice, FLAG_DEFAULT_PROCESS);
+                    assertArrayEquals(expected, scorer.getAlignment(choice));
+                    assertArrayEquals(expected, Arrays.copyOfRange(alignments, offsets[i], offsets[i + 1]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cachedAlignmentsCheckIndices() {
+        String[] choices = {"a", "b", "c", "abc"};
+        try (RapidFuzzCached scorer = new RapidFuzzCached("abc", TYPE_RATIO, 0)) {
+            ExtractResults results = new ExtractResults();
+            scorer.extractAll(choices, 0, results);
+            int[] offsets = new int[results.size() + 1];
+            try {
+                // The results refer to choices beyond the end of the array
+                scorer.getAlignments(new String[]{"a", "b"}, results, offsets);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                scorer.getAlignments(choices, results, new int[results.size()]);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        try (RapidFuzzCached scorer = new RapidFuzzCached("abc", TYPE_TOKEN_SORT_RATIO, 0)) {
+            scorer.getAlignment("abc");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    private static void checkMatchingBlocks(String s1, String s2, int flags) {
+        String message = "flags " + flags + ": '" + s1 + "' / '" + s2 + "'";
+        int[] blocks = RapidFuzz.getMatchingBlocks(s1, s2, flags);
+        assertEquals(message, 0, blocks.length % ALIGNMENT_STRIDE);
+        // Apart from trimming, processing keeps the positions of the units of these strings
+        String p1 = FlagsTest.process(s1, flags & ~FLAG_TRIM_WHITESPACE);
+        String p2 = FlagsTest.process(s2, flags & ~FLAG_TRIM_WHITESPACE);
+        int sum = 0;
+        int end1 = 0;
+        int end2 = 0;
+        for (int i = 0; i < blocks.length; i += ALIGNMENT_STRIDE) {
+            assertTrue(message, blocks[i] >= end1 && blocks[i + 2] >= end2);
+            assertTrue(message, blocks[i] < blocks[i + 1] && blocks[i + 2] < blocks[i + 3]);
+            String block = p1.substring(blocks[i], blocks[i + 1]);
+            assertEquals(message, block, p2.substring(blocks[i + 2], blocks[i + 3]));
+            sum += length(block, flags);
+            end1 = blocks[i + 1];
+            end2 = blocks[i + 3];
+        }
+        int lengths = length(FlagsTest.process(s1, flags), flags) + length(FlagsTest.process(s2, flags), flags);
+        double expected = lengths == 0 ? 100 : 200.0 * sum / lengths;
+        assertEquals(message, RapidFuzz.ratio(s1, s2, TYPE_RATIO, 0, flags), expected, DELTA);
+    }
+
+    private static void checkPartialRatioAlignment(String s1, String s2, int flags) {
+        String message = "flags " + flags + ": '" + s1 + "' / '" + s2 + "'";
+        int[] alignment = RapidFuzz.getPartialRatioAlignment(s1, s2, flags);
+        assertEquals(message, ALIGNMENT_STRIDE, alignment.length);
+        String processed1 = FlagsTest.process(s1, flags);
+        String processed2 = FlagsTest.process(s2, flags);
+        String window1 = FlagsTest.process(s1, flags & ~FLAG_TRIM_WHITESPACE).substring(alignment[0], alignment[1]);
+        String window2 = FlagsTest.process(s2, flags & ~FLAG_TRIM_WHITESPACE).substring(alignment[2], alignment[3]);
+        // The shorter string is aligned as a whole
+        boolean swapped = length(processed1, flags) > length(processed2, flags);
+        assertEquals(message, swapped ? processed2 : processed1, swapped ? window2 : window1);
+        assertTrue(message, length(swapped ? window1 : window2, flags)
+                <= length(swapped ? processed2 : processed1, flags));
+        double expected = RapidFuzz.ratio(s1, s2, TYPE_PARTIAL_RATIO, 0, flags);
+        if (processed1.isEmpty() || processed2.isEmpty()) {
+            assertEquals(message, "", window1);
+            assertEquals(message, "", window2);
+            return;
+        }
+        assertEquals(message, expected, RapidFuzz.ratio(window1, window2, TYPE_RATIO, 0, flags & FLAG_CODE_POINTS),
+                DELTA);
+    }
+
+    private static int length(String s, int flags) {
+        return (flags & FLAG_CODE_POINTS) != 0 ? s.codePointCount(0, s.length()) : s.length();
+    }
+
+    private static String randomString(Random random, String[] units, int maxLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; ++i) {
+            sb.append(units[random.nextInt(units.length)]);
+        }
+        return sb.toString();
+    }
+}
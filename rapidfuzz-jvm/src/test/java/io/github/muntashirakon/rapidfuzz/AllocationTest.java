@@ -0,0 +1,115 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.ENCODING_UTF_8;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the extract methods taking an {@link ExtractResults} allocate nothing on the Java heap once the scorer
+ * and the holder are reused and the holder is large enough.
+ */
+public class AllocationTest {
+    private static final int CALLS = 10000;
+    // Slack for the measurement itself, far below a single Result per call
+    private static final long MAX_BYTES = 4096;
+    private static final String QUERY = "new york jets";
+    private static final String[] CHOICES = {"Atlanta Falcons", "New York Jets", "New York Giants", "Dallas Cowboys",
+            "New York Yankees", "", "Jets"};
+
+    private com.sun.management.ThreadMXBean mThreadMXBean;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        mThreadMXBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(mThreadMXBean.isThreadAllocatedMemorySupported());
+        mThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void rapidFuzzCached() {
+        try (RapidFuzzCached scorer = new RapidFuzzCached(QUERY, TYPE_RATIO, FLAG_DEFAULT_PROCESS)) {
+            ExtractResults results = new ExtractResults();
+            assertNoAllocation(() -> scorer.extractAll(CHOICES, 50, results));
+            assertEquals(3, results.size());
+            assertNoAllocation(() -> scorer.extractTop(CHOICES, 2, 0, results));
+            assertEquals(1, results.getIndex(0));
+        }
+    }
+
+    @Test
+    public void rapidFuzzCachedBytes() {
+        StringBuilder sb = new StringBuilder();
+        int[] offsets = new int[CHOICES.length + 1];
+        for (int i = 0; i < CHOICES.length; ++i) {
+            sb.append(CHOICES[i]);
+            offsets[i + 1] = sb.length();
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        try (RapidFuzzCached scorer = new RapidFuzzCached(QUERY, TYPE_RATIO, FLAG_DEFAULT_PROCESS)) {
+            ExtractResults results = new ExtractResults();
+            assertNoAllocation(() -> scorer.extractAll(bytes, offsets, CHOICES.length, ENCODING_UTF_8, 50, results));
+            assertEquals(3, results.size());
+            assertNoAllocation(() -> scorer.extractTop(bytes, offsets, CHOICES.length, 2, ENCODING_UTF_8, 0,
+                    results));
+            assertEquals(1, results.getIndex(0));
+            assertNoAllocation(() -> scorer.extractAll(direct, offsets, CHOICES.length, ENCODING_UTF_8, 50,
+                    results));
+            assertEquals(3, results.size());
+        }
+    }
+
+    @Test
+    public void choiceIndex() {
+        try (ChoiceIndex index = new ChoiceIndex(Arrays.asList(CHOICES), FLAG_DEFAULT_PROCESS);
+             RapidFuzzCached scorer = new RapidFuzzCached(QUERY, TYPE_RATIO, FLAG_DEFAULT_PROCESS)) {
+            ExtractResults results = new ExtractResults();
+            assertNoAllocation(() -> index.extractAll(scorer, 50, results));
+            assertEquals(3, results.size());
+            assertNoAllocation(() -> index.extractTop(scorer, 2, 0, results));
+            assertEquals(1, results.getIndex(0));
+        }
+    }
+
+    @Test
+    public void resultsAllocate() {
+        // Makes sure that the measurement would notice the Results of the regular extract methods
+        long bytes = getAllocatedBytes(() -> RapidFuzzCached.extractAll(QUERY, CHOICES, TYPE_RATIO, 50,
+                FLAG_DEFAULT_PROCESS));
+        assertTrue(bytes > MAX_BYTES);
+    }
+
+    private void assertNoAllocation(Runnable runnable) {
+        long bytes = getAllocatedBytes(runnable);
+        assertTrue(bytes + " bytes allocated by " + CALLS + " calls", bytes <= MAX_BYTES);
+    }
+
+    private long getAllocatedBytes(Runnable runnable) {
+        // Grows the holder and compiles the code paths before measuring
+        for (int i = 0; i < CALLS; ++i) {
+            runnable.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long start = mThreadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < CALLS; ++i) {
+            runnable.run();
+        }
+        return mThreadMXBean.getThreadAllocatedBytes(threadId) - start;
+    }
+}
@@ -0,0 +1,238 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class BKTreeTest {
+    private static final String ALPHABET = "abcdefAB -";
+    private static final String EMOJI = "\ud83d\ude00";
+    // Offsets of the fields of the file header
+    private static final int COUNT_OFFSET = 16;
+    private static final int BUFFER_LENGTH_OFFSET = 24;
+
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void nullWordsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BKTree(Arrays.asList("a", null)));
+        try (BKTree tree = new BKTree(Arrays.asList("apple", "apply"))) {
+            assertThrows(IllegalArgumentException.class, () -> tree.search(null, 1));
+            assertThrows(IllegalArgumentException.class, () -> tree.search("apple", -1));
+        }
+    }
+
+    @Test
+    public void searchMatchesBruteForce() {
+        Random random = new Random(18);
+        List<String> words = randomWords(random, 2000, false);
+        for (int flags : new int[]{0, FLAG_DEFAULT_PROCESS}) {
+            try (BKTree tree = new BKTree(words, flags)) {
+                assertEquals(flags, tree.getFlags());
+                assertEquals(words.size(), tree.size());
+                for (int i = 0; i < 30; ++i) {
+                    String query = i % 2 == 0 ? words.get(random.nextInt(words.size())) : randomWord(random, false);
+                    for (int k = 0; k <= 2; ++k) {
+                        assertMatches(bruteForce(words, query, k, flags), tree.search(query, k));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void searchInCodePoints() {
+        Random random = new Random(18);
+        List<String> words = randomWords(random, 1000, true);
+        try (BKTree tree = new BKTree(words, FLAG_CODE_POINTS)) {
+            for (int i = 0; i < 30; ++i) {
+                String query = randomWord(random, true);
+                for (int k = 0; k <= 2; ++k) {
+                    assertMatches(bruteForce(words, query, k, FLAG_CODE_POINTS), tree.search(query, k));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void emptyTreeAndDuplicates() {
+        try (BKTree tree = new BKTree(Collections.<String>emptyList())) {
+            assertEquals(0, tree.size());
+            assertTrue(tree.search("apple", 3).isEmpty());
+        }
+        try (BKTree tree = new BKTree(Arrays.asList("apple", "apple", "maple"))) {
+            List<BKTree.Match> matches = tree.search("apple", 0);
+            assertEquals(2, matches.size());
+            assertEquals(0, matches.get(0).getId());
+            assertEquals(1, matches.get(1).getId());
+            assertEquals("apple", matches.get(1).getWord());
+            assertNull(tree.get(3));
+        }
+    }
+
+    @Test
+    public void visitedCount() {
+        Random random = new Random(18);
+        List<String> words = randomWords(random, 2000, false);
+        try (BKTree tree = new BKTree(words)) {
+            assertEquals(0, tree.getSearchCount());
+            assertEquals(0, tree.getVisitedCount());
+            tree.search(words.get(0), 1);
+            tree.search(words.get(1), 1);
+            assertEquals(2, tree.getSearchCount());
+            assertTrue(tree.getVisitedCount() > 0);
+            // The triangle inequality rules out most of the tree for a small distance
+            assertTrue(tree.getVisitedCount() < 2L * words.size());
+        }
+    }
+
+    @Test
+    public void saveAndLoad() throws IOException {
+        Random random = new Random(18);
+        List<String> words = randomWords(random, 500, true);
+        for (int flags : new int[]{0, FLAG_DEFAULT_PROCESS | FLAG_CODE_POINTS}) {
+            File file = mTemporaryFolder.newFile();
+            try (BKTree tree = new BKTree(words, flags)) {
+                tree.save(file);
+                try (BKTree loaded = BKTree.load(file)) {
+                    assertEquals(flags, loaded.getFlags());
+                    assertEquals(words.size(), loaded.size());
+                    for (int id = 0; id < words.size(); ++id) {
+                        assertEquals(words.get(id), loaded.get(id));
+                    }
+                    for (int i = 0; i < 20; ++i) {
+                        String query = randomWord(random, true);
+                        assertMatches(tree.search(query, 2), loaded.search(query, 2));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void invalidFilesAreRejected() throws IOException {
+        List<String> words = randomWords(new Random(18), 100, false);
+        File file = mTemporaryFolder.newFile();
+        try (BKTree tree = new BKTree(words, FLAG_DEFAULT_PROCESS)) {
+            tree.save(file);
+        }
+        byte[] bytes = MappedChoiceIndexTest.readAll(file);
+        assertThrows(IOException.class, () -> BKTree.load(new File(mTemporaryFolder.getRoot(), "missing")));
+        assertInvalid(new byte[0]);
+        assertInvalid(Arrays.copyOf(bytes, 16));
+        assertInvalid(Arrays.copyOf(bytes, bytes.length - 1));
+        assertInvalid(Arrays.copyOf(bytes, bytes.length + 1));
+        byte[] corrupted = bytes.clone();
+        corrupted[0] = 'X';
+        assertInvalid(corrupted);
+        // Huge sizes must be rejected before anything is allocated for them
+        File huge = write(bytes);
+        MappedChoiceIndexTest.writeInt(huge, COUNT_OFFSET, Integer.MAX_VALUE);
+        assertInvalid(huge);
+        huge = write(bytes);
+        MappedChoiceIndexTest.writeLong(huge, BUFFER_LENGTH_OFFSET, Long.MAX_VALUE);
+        assertInvalid(huge);
+        huge = write(bytes);
+        MappedChoiceIndexTest.writeLong(huge, BUFFER_LENGTH_OFFSET, 1L << 40);
+        assertInvalid(huge);
+    }
+
+    private void assertInvalid(byte[] bytes) throws IOException {
+        assertInvalid(write(bytes));
+    }
+
+    private static void assertInvalid(File file) {
+        assertThrows(IOException.class, () -> BKTree.load(file));
+    }
+
+    private File write(byte[] bytes) throws IOException {
+        File file = mTemporaryFolder.newFile();
+        try (FileOutputStream os = new FileOutputStream(file)) {
+            os.write(bytes);
+        }
+        return file;
+    }
+
+    private static void assertMatches(List<BKTree.Match> expected, List<BKTree.Match> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getDistance(), actual.get(i).getDistance());
+            assertEquals(expected.get(i).getWord(), actual.get(i).getWord());
+        }
+    }
+
+    private static List<BKTree.Match> bruteForce(List<String> words, String query, int maxDistance, int flags) {
+        List<BKTree.Match> matches = new ArrayList<>();
+        Map<Integer, Character> codePoints = new HashMap<>();
+        String s1 = toUnits(FlagsTest.process(query, flags), flags, codePoints);
+        for (int id = 0; id < words.size(); ++id) {
+            String s2 = toUnits(FlagsTest.process(words.get(id), flags), flags, codePoints);
+            int distance = StringMetricTest.levenshtein(s1, s2, 1, 1, 1);
+            if (distance <= maxDistance) {
+                matches.add(new BKTree.Match(words.get(id), distance, id));
+            }
+        }
+        // Stable, so equal distances stay in the order of the IDs
+        Collections.sort(matches, (o1, o2) -> Integer.compare(o1.getDistance(), o2.getDistance()));
+        return matches;
+    }
+
+    // Replaces each code point by a distinct code unit, so that distances in code units are those in code points
+    private static String toUnits(String s, int flags, Map<Integer, Character> codePoints) {
+        if ((flags & FLAG_CODE_POINTS) == 0) return s;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i += Character.charCount(s.codePointAt(i))) {
+            int codePoint = s.codePointAt(i);
+            Character unit = codePoints.get(codePoint);
+            if (unit == null) {
+                unit = (char) (0x100 + codePoints.size());
+                codePoints.put(codePoint, unit);
+            }
+            sb.append(unit);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> randomWords(Random random, int count, boolean emoji) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            words.add(randomWord(random, emoji));
+        }
+        return words;
+    }
+
+    private static String randomWord(Random random, boolean emoji) {
+        StringBuilder sb = new StringBuilder();
+        int length = 3 + random.nextInt(6);
+        for (int i = 0; i < length; ++i) {
+            if (emoji && random.nextInt(5) == 0) {
+                sb.append(EMOJI);
+            } else {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,234 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.ENCODING_LATIN_1;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.ENCODING_UTF_8;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Strings given as bytes must be scored exactly like the strings decoded by Java.
+ */
+public class ByteStringTest {
+    private static final double DELTA = 1e-9;
+    private static final int[] FLAGS = {0, FLAG_CODE_POINTS, FLAG_DEFAULT_PROCESS, FLAG_DEFAULT_PROCESS
+            | FLAG_CODE_POINTS};
+    private static final String TEXT = "New York Jets, M\u00fcnchen \u09ac\u09be\u0982\u09b2\u09be "
+            + "\u041c\u043e\u0441\u043a\u0432\u0430 \u6771\u4eac \ud83d\ude00";
+    // Ill-formed UTF-8: lone trail bytes, truncated sequences, overlong forms, an encoded surrogate, code points above
+    // U+10FFFF and bytes that never occur in UTF-8
+    private static final byte[][] MALFORMED = {
+            {(byte) 0x80}, {(byte) 0xBF, 'a'}, {(byte) 0xC3}, {'a', (byte) 0xE2, (byte) 0x82},
+            {(byte) 0xF0, (byte) 0x9F, (byte) 0x98}, {(byte) 0xC0, (byte) 0x80}, {(byte) 0xC1, (byte) 0xBF},
+            {(byte) 0xE0, (byte) 0x80, (byte) 0x80}, {(byte) 0xF0, (byte) 0x80, (byte) 0x80, (byte) 0x80},
+            {(byte) 0xED, (byte) 0xA0, (byte) 0x80}, {(byte) 0xED, (byte) 0xBF, (byte) 0xBF, 'b'},
+            {(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80}, {(byte) 0xF5, (byte) 0x80},
+            {(byte) 0xFE}, {(byte) 0xFF, 'x', (byte) 0xE2, 'y'},
+    };
+
+    @Test
+    public void utf8MatchesJava() {
+        Random random = new Random(20);
+        List<byte[]> strings = new ArrayList<>();
+        for (int i = 0; i < 40; ++i) {
+            strings.add(randomText(random).getBytes(StandardCharsets.UTF_8));
+        }
+        for (byte[] malformed : MALFORMED) {
+            strings.add(malformed);
+        }
+        for (int i = 0; i < 40; ++i) {
+            strings.add(randomBytes(random, 12));
+        }
+        assertScores(strings, ENCODING_UTF_8, StandardCharsets.UTF_8, random);
+    }
+
+    @Test
+    public void malformedUtf8IsReplaced() {
+        for (byte[] malformed : MALFORMED) {
+            // Same as the string decoded by Java, whose replacement characters are valid UTF-8
+            byte[] decoded = new String(malformed, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+            assertEquals(100, RapidFuzz.ratio(malformed, 0, malformed.length, decoded, 0, decoded.length,
+                    ENCODING_UTF_8, TYPE_RATIO, 0, 0), 0);
+        }
+    }
+
+    @Test
+    public void latin1MatchesJava() {
+        Random random = new Random(20);
+        List<byte[]> strings = new ArrayList<>();
+        for (int i = 0; i < 60; ++i) {
+            strings.add(randomBytes(random, 12));
+        }
+        assertScores(strings, ENCODING_LATIN_1, StandardCharsets.ISO_8859_1, random);
+    }
+
+    @Test
+    public void batchMatchesStrings() {
+        Random random = new Random(20);
+        for (int encoding : new int[]{ENCODING_UTF_8, ENCODING_LATIN_1}) {
+            Charset charset = encoding == ENCODING_UTF_8 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            // Garbage before the first choice, which is skipped by the first offset
+            os.write(0xFF);
+            int count = 200;
+            int[] offsets = new int[count + 1];
+            offsets[0] = 1;
+            String[] choices = new String[count];
+            for (int i = 0; i < count; ++i) {
+                byte[] bytes = i % 10 == 9 ? MALFORMED[i / 10 % MALFORMED.length]
+                        : randomText(random).getBytes(charset);
+                os.write(bytes, 0, bytes.length);
+                offsets[i + 1] = os.size();
+                choices[i] = new String(bytes, charset);
+            }
+            byte[] bytes = os.toByteArray();
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes);
+            ByteBuffer heap = ByteBuffer.wrap(bytes);
+            String query = choices[3].substring(0, Math.min(choices[3].length(), 8));
+            for (int flags : FLAGS) {
+                try (RapidFuzzCached scorer = new RapidFuzzCached(query, TYPE_WEIGHTED_RATIO, flags)) {
+                    ExtractResults expected = new ExtractResults();
+                    ExtractResults actual = new ExtractResults();
+                    scorer.extractAll(choices, 30, expected);
+                    scorer.extractAll(bytes, offsets, count, encoding, 30, actual);
+                    assertResults(expected, actual);
+                    scorer.extractAll(direct, offsets, count, encoding, 30, actual);
+                    assertResults(expected, actual);
+                    scorer.extractAll(heap, offsets, count, encoding, 30, actual);
+                    assertResults(expected, actual);
+                    scorer.extractTop(choices, 5, 0, expected);
+                    scorer.extractTop(bytes, offsets, count, 5, encoding, 0, actual);
+                    assertResults(expected, actual);
+                    scorer.extractTop(direct, offsets, count, 5, encoding, 0, actual);
+                    assertResults(expected, actual);
+                    // Fewer choices than the offsets allow
+                    scorer.extractTop(bytes, offsets, 0, 5, encoding, 0, actual);
+                    assertEquals(0, actual.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void invalidRanges() {
+        byte[] bytes = "apple".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IndexOutOfBoundsException.class, () -> RapidFuzz.ratio(bytes, -1, 2, bytes, 0, 5, ENCODING_UTF_8,
+                TYPE_RATIO, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> RapidFuzz.ratio(bytes, 0, 5, bytes, 1, 5, ENCODING_UTF_8,
+                TYPE_RATIO, 0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> RapidFuzz.ratio(bytes, 0, -1, bytes, 0, 5,
+                ENCODING_UTF_8, TYPE_RATIO, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzz.ratio(bytes, 0, 5, bytes, 0, 5, 3, TYPE_RATIO,
+                0, 0));
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzz.ratio(ByteBuffer.wrap(bytes).asReadOnlyBuffer(),
+                ByteBuffer.wrap(bytes), ENCODING_UTF_8, TYPE_RATIO, 0, 0));
+        try (RapidFuzzCached scorer = new RapidFuzzCached("apple")) {
+            ExtractResults results = new ExtractResults();
+            assertThrows(IndexOutOfBoundsException.class, () -> scorer.ratio(bytes, 3, 3, ENCODING_UTF_8, 0));
+            assertThrows(IllegalArgumentException.class, () -> scorer.ratio(bytes, 0, 5, 0, 0));
+            assertThrows(IllegalArgumentException.class, () -> scorer.extractAll(bytes, new int[]{0, 3, 2}, 2,
+                    ENCODING_UTF_8, 0, results));
+            assertThrows(IndexOutOfBoundsException.class, () -> scorer.extractAll(bytes, new int[]{0, 6}, 1,
+                    ENCODING_UTF_8, 0, results));
+            assertThrows(IndexOutOfBoundsException.class, () -> scorer.extractAll(bytes, new int[]{-1, 2}, 1,
+                    ENCODING_UTF_8, 0, results));
+            assertThrows(IndexOutOfBoundsException.class, () -> scorer.extractAll(bytes, new int[]{0, 2}, 2,
+                    ENCODING_UTF_8, 0, results));
+            assertThrows(IllegalArgumentException.class, () -> scorer.extractAll(bytes, new int[]{0, 2}, -1,
+                    ENCODING_UTF_8, 0, results));
+            assertThrows(IllegalArgumentException.class, () -> scorer.extractTop(bytes, new int[]{0, 2}, 1, 0,
+                    ENCODING_UTF_8, 0, results));
+            // Offsets of a buffer are bounded by its limit
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            buffer.limit(3);
+            assertThrows(IndexOutOfBoundsException.class, () -> scorer.extractAll(buffer, new int[]{0, 4}, 1,
+                    ENCODING_UTF_8, 0, results));
+        }
+    }
+
+    private static void assertScores(List<byte[]> strings, int encoding, Charset charset, Random random) {
+        for (int flags : FLAGS) {
+            for (int ratioType : new int[]{TYPE_RATIO, TYPE_PARTIAL_RATIO, TYPE_WEIGHTED_RATIO, TYPE_QUICK_RATIO}) {
+                for (int i = 0; i < 50; ++i) {
+                    byte[] s1 = strings.get(random.nextInt(strings.size()));
+                    byte[] s2 = strings.get(random.nextInt(strings.size()));
+                    String string1 = new String(s1, charset);
+                    String string2 = new String(s2, charset);
+                    double expected = RapidFuzz.ratio(string1, string2, ratioType, 0, flags);
+                    String message = string1 + " / " + string2;
+                    // Surrounded by other bytes, so that the ranges matter
+                    byte[] padded1 = pad(s1, 3);
+                    byte[] padded2 = pad(s2, 1);
+                    assertEquals(message, expected, RapidFuzz.ratio(padded1, 3, s1.length, padded2, 1, s2.length,
+                            encoding, ratioType, 0, flags), DELTA);
+                    // A heap buffer whose array offset and position are not 0, and a direct buffer
+                    ByteBuffer heap = ByteBuffer.wrap(padded1, 1, padded1.length - 1).slice();
+                    heap.position(2).limit(2 + s1.length);
+                    ByteBuffer direct = ByteBuffer.allocateDirect(s2.length + 2);
+                    direct.position(2);
+                    direct.put(s2);
+                    direct.position(2);
+                    assertEquals(message, expected, RapidFuzz.ratio(heap, direct, encoding, ratioType, 0, flags),
+                            DELTA);
+                    assertEquals(2, heap.position());
+                    assertEquals(2, direct.position());
+                    try (RapidFuzzCached scorer = new RapidFuzzCached(string2, ratioType, flags)) {
+                        double cached = scorer.ratio(string1, 0);
+                        assertEquals(message, cached, scorer.ratio(padded1, 3, s1.length, encoding, 0), DELTA);
+                        assertEquals(message, cached, scorer.ratio(heap, encoding, 0), DELTA);
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] pad(byte[] bytes, int padding) {
+        byte[] padded = new byte[bytes.length + 2 * padding];
+        for (int i = 0; i < padded.length; ++i) {
+            padded[i] = (byte) 0xE2;
+        }
+        System.arraycopy(bytes, 0, padded, padding, bytes.length);
+        return padded;
+    }
+
+    private static void assertResults(ExtractResults expected, ExtractResults actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.getIndex(i), actual.getIndex(i));
+            assertEquals(expected.getScore(i), actual.getScore(i), DELTA);
+        }
+    }
+
+    private static String randomText(Random random) {
+        int start = random.nextInt(TEXT.length() - 1);
+        int end = Math.min(TEXT.length(), start + 1 + random.nextInt(16));
+        // Not splitting the surrogate pair
+        if (Character.isLowSurrogate(TEXT.charAt(start))) --start;
+        if (end < TEXT.length() && Character.isLowSurrogate(TEXT.charAt(end))) ++end;
+        return TEXT.substring(start, end);
+    }
+
+    private static byte[] randomBytes(Random random, int maxLength) {
+        byte[] bytes = new byte[random.nextInt(maxLength + 1)];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,121 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SET_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SORT_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class CdistTest {
+    private static final String[] WORDS = {"new", "york", "jets", "giants", "dallas", "cowboys", "atlanta", "falcons"};
+    private static final int[] SYMMETRIC_TYPES = {TYPE_RATIO, TYPE_TOKEN_SORT_RATIO, TYPE_TOKEN_SET_RATIO,
+            TYPE_QUICK_RATIO};
+
+    private static String[] randomStrings(int count, long seed) {
+        Random random = new Random(seed);
+        String[] strings = new String[count];
+        for (int i = 0; i < count; ++i) {
+            StringBuilder sb = new StringBuilder();
+            int words = 1 + random.nextInt(3);
+            for (int j = 0; j < words; ++j) {
+                if (j > 0) sb.append(' ');
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            strings[i] = sb.toString();
+        }
+        return strings;
+    }
+
+    @Test
+    public void matrixIsSymmetric() {
+        String[] strings = randomStrings(60, 1);
+        int n = strings.length;
+        for (int ratioType : SYMMETRIC_TYPES) {
+            float[] scores = RapidFuzzCached.cdist(strings, strings, ratioType, 0);
+            for (int i = 0; i < n; ++i) {
+                assertEquals(100, scores[i * n + i], 0);
+                for (int j = 0; j < i; ++j) {
+                    assertEquals(strings[i] + " / " + strings[j], scores[i * n + j], scores[j * n + i], 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matrixMatchesPairwiseScores() {
+        String[] queries = randomStrings(20, 2);
+        String[] choices = randomStrings(35, 3);
+        for (int ratioType : new int[]{TYPE_RATIO, TYPE_PARTIAL_RATIO, TYPE_TOKEN_SET_RATIO, TYPE_WEIGHTED_RATIO}) {
+            for (int flags : new int[]{0, FLAG_DEFAULT_PROCESS}) {
+                float[] scores = RapidFuzzCached.cdist(queries, choices, ratioType, 50, flags, 3);
+                for (int i = 0; i < queries.length; ++i) {
+                    for (int j = 0; j < choices.length; ++j) {
+                        double expected = RapidFuzz.ratio(queries[i], choices[j], ratioType, 50, flags);
+                        assertEquals((float) expected, scores[i * choices.length + j], 0);
+                    }
+                }
+                // The number of threads does not change the result
+                assertArrayEquals(scores, RapidFuzzCached.cdist(queries, choices, ratioType, 50, flags, 1), 0);
+                assertArrayEquals(scores, RapidFuzzCached.cdist(queries, choices, ratioType, 50, flags, 0), 0);
+            }
+        }
+    }
+
+    @Test
+    public void quantizedAndSparseMatchDense() {
+        String[] queries = randomStrings(25, 4);
+        String[] choices = randomStrings(40, 5);
+        float[] dense = RapidFuzzCached.cdist(queries, choices, TYPE_WEIGHTED_RATIO, 60);
+        byte[] quantized = RapidFuzzCached.cdistQuantized(queries, choices, TYPE_WEIGHTED_RATIO, 60);
+        assertEquals(dense.length, quantized.length);
+        int matches = 0;
+        for (int i = 0; i < dense.length; ++i) {
+            assertEquals(Math.round(dense[i]), quantized[i]);
+            if (dense[i] > 0) ++matches;
+        }
+        ScorePairs pairs = RapidFuzzCached.cdistSparse(queries, choices, TYPE_WEIGHTED_RATIO, 60);
+        assertEquals(matches, pairs.size());
+        int previous = -1;
+        for (int k = 0; k < pairs.size(); ++k) {
+            int position = pairs.getQueryIndex(k) * choices.length + pairs.getChoiceIndex(k);
+            // Sorted by query and then by choice
+            assertTrue(position > previous);
+            previous = position;
+            assertEquals(dense[position], pairs.getScore(k), 0);
+        }
+    }
+
+    @Test
+    public void nullStrings() {
+        String[] queries = {"jets", null};
+        String[] choices = {null, "jets"};
+        assertArrayEquals(new float[]{0, 100, 0, 0}, RapidFuzzCached.cdist(queries, choices, TYPE_RATIO, 0), 0);
+        ScorePairs pairs = RapidFuzzCached.cdistSparse(queries, choices, TYPE_RATIO, 0);
+        assertEquals(1, pairs.size());
+        assertEquals(0, pairs.getQueryIndex(0));
+        assertEquals(1, pairs.getChoiceIndex(0));
+    }
+
+    @Test
+    public void emptyAndInvalidArguments() {
+        assertEquals(0, RapidFuzzCached.cdist(new String[0], WORDS, TYPE_RATIO, 0).length);
+        assertEquals(0, RapidFuzzCached.cdistSparse(WORDS, new String[0], TYPE_RATIO, 0).size());
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzzCached.cdist(WORDS, WORDS, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzzCached.cdist(WORDS, WORDS, TYPE_RATIO, 0, 0,
+                -1));
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzzCached.cdist(new String[65536],
+                new String[65536], TYPE_RATIO, 0));
+    }
+}
@@ -0,0 +1,111 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.ExtractTest.assertResultsEqual;
+import static io.github.muntashirakon.rapidfuzz.ExtractTest.getIndices;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ChoiceIndexTest {
+    private static final String[] CHOICES = {"Atlanta Falcons", "New York Jets", "New York Giants", "Dallas Cowboys",
+            "", "New York Jets"};
+
+    @Test
+    public void addRemoveAndGet() {
+        try (ChoiceIndex index = new ChoiceIndex()) {
+            assertEquals(0, index.size());
+            assertEquals(0, index.add("apple"));
+            assertEquals(1, index.addAll(Arrays.asList("apply", "maple")));
+            assertEquals(3, index.size());
+            assertEquals("apply", index.get(1));
+            assertTrue(index.remove(1));
+            assertFalse(index.remove(1));
+            assertFalse(index.remove(42));
+            assertNull(index.get(1));
+            assertNull(index.get(-1));
+            assertEquals(2, index.size());
+            // IDs of removed choices are not reused
+            assertEquals(3, index.add("apply"));
+            assertEquals(Arrays.asList(3, 0), getIndices(index.extractTop("apply", TYPE_RATIO, 2, 0)));
+        }
+    }
+
+    @Test
+    public void extractMatchesRapidFuzzCached() {
+        for (int flags : new int[]{0, FLAG_DEFAULT_PROCESS}) {
+            try (ChoiceIndex index = new ChoiceIndex(Arrays.asList(CHOICES), flags)) {
+                for (String query : new String[]{"new york jets", "NEW YORK", "cowboys"}) {
+                    for (int ratioType = TYPE_RATIO; ratioType <= TYPE_QUICK_RATIO; ++ratioType) {
+                        assertResultsEqual(RapidFuzzCached.extractAll(query, CHOICES, ratioType, 0, flags),
+                                index.extractAll(query, ratioType, 0));
+                        assertResultsEqual(RapidFuzzCached.extract(query, CHOICES, ratioType, 3, 0, flags),
+                                index.extractTop(query, ratioType, 3, 0));
+                        Result<String> expected = RapidFuzzCached.extractOne(query, CHOICES, ratioType, 0, flags);
+                        Result<String> actual = index.extractOne(query, ratioType, 0);
+                        assertEquals(expected.getIndex(), actual.getIndex());
+                        assertEquals(expected.getObject(), actual.getObject());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void extractWithScorer() {
+        try (ChoiceIndex index = new ChoiceIndex(Arrays.asList(CHOICES), FLAG_DEFAULT_PROCESS);
+             RapidFuzzCached scorer = new RapidFuzzCached("new york", TYPE_RATIO, FLAG_DEFAULT_PROCESS)) {
+            ExtractResults results = new ExtractResults();
+            List<Result<String>> expected = index.extractAll("new york", TYPE_RATIO, 50);
+            assertEquals(expected.size(), index.extractAll(scorer, 50, results));
+            for (int i = 0; i < results.size(); ++i) {
+                assertEquals(expected.get(i).getIndex(), results.getIndex(i));
+                assertEquals(expected.get(i).getScore(), results.getScore(i), 0);
+            }
+            expected = index.extractTop("new york", TYPE_RATIO, 2, 0);
+            assertEquals(2, index.extractTop(scorer, 2, 0, results));
+            for (int i = 0; i < results.size(); ++i) {
+                assertEquals(expected.get(i).getIndex(), results.getIndex(i));
+            }
+            try (RapidFuzzCached unprocessed = new RapidFuzzCached("new york", TYPE_RATIO)) {
+                assertThrows(IllegalArgumentException.class, () -> index.extractAll(unprocessed, 0, results));
+            }
+            assertThrows(IllegalArgumentException.class, () -> index.extractTop(scorer, 0, 0, results));
+        }
+    }
+
+    @Test
+    public void emptyIndex() {
+        try (ChoiceIndex index = new ChoiceIndex()) {
+            assertEquals(0, index.extractAll("abc").size());
+            assertEquals(0, index.extractTop("abc", 3).size());
+            assertNull(index.extractOne("abc"));
+        }
+    }
+
+    @Test
+    public void nullChoicesAreRejected() {
+        try (ChoiceIndex index = new ChoiceIndex()) {
+            assertThrows(IllegalArgumentException.class, () -> index.add(null));
+            assertThrows(IllegalArgumentException.class, () -> index.addAll(Arrays.asList("a", null, "b")));
+            // None of the choices is added
+            assertEquals(0, index.size());
+            assertEquals(0, index.add("a"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ChoiceIndex(Collections.singletonList(null)));
+    }
+}
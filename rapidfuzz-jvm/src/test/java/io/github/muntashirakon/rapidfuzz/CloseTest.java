@@ -0,0 +1,116 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class CloseTest {
+    private static final List<String> CHOICES = Arrays.asList("apple", "apply", "maple");
+
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void rapidFuzzCached() {
+        RapidFuzzCached scorer = new RapidFuzzCached("apple", TYPE_RATIO);
+        assertEquals(100, scorer.ratio("apple"), 0);
+        scorer.close();
+        scorer.close();
+        assertThrows(IllegalStateException.class, () -> scorer.ratio("apple"));
+    }
+
+    @Test
+    public void stringMetricCached() {
+        StringMetricCached metric = new StringMetricCached("apple");
+        assertEquals(1, metric.distance("apply"));
+        metric.close();
+        metric.close();
+        assertThrows(IllegalStateException.class, () -> metric.distance("apply"));
+    }
+
+    @Test
+    public void fusedScorer() {
+        FusedScorer scorer = new FusedScorer("apple", new int[]{TYPE_RATIO});
+        assertEquals(100, scorer.ratio("apple")[0], 0);
+        scorer.close();
+        scorer.close();
+        assertThrows(IllegalStateException.class, () -> scorer.ratio("apple"));
+    }
+
+    @Test
+    public void choiceIndex() {
+        ChoiceIndex index = new ChoiceIndex(CHOICES);
+        assertEquals(0, index.extractOne("apple").getIndex());
+        index.close();
+        index.close();
+        assertThrows(IllegalStateException.class, () -> index.extractOne("apple"));
+        assertThrows(IllegalStateException.class, () -> index.add("pear"));
+    }
+
+    @Test
+    public void mappedChoiceIndex() throws Exception {
+        File file = mTemporaryFolder.newFile();
+        MappedChoiceIndex.write(file, CHOICES.iterator(), 0);
+        MappedChoiceIndex index = MappedChoiceIndex.open(file);
+        assertEquals(0, index.extractOne("apple").getIndex());
+        index.close();
+        index.close();
+        assertThrows(IllegalStateException.class, () -> index.extractOne("apple"));
+    }
+
+    @Test
+    public void nGramIndex() {
+        NGramIndex index = new NGramIndex(CHOICES);
+        assertEquals(0, index.extractOne("apple").getIndex());
+        index.close();
+        index.close();
+        assertThrows(IllegalStateException.class, () -> index.extractOne("apple"));
+    }
+
+    @Test
+    public void bkTree() {
+        BKTree tree = new BKTree(CHOICES);
+        assertEquals(2, tree.search("apple", 1).size());
+        tree.close();
+        tree.close();
+        assertThrows(IllegalStateException.class, () -> tree.search("apple", 1));
+    }
+
+    @Test
+    public void aliasIndex() {
+        AliasIndex<String> index = new AliasIndex<>(CHOICES, Collections::singletonList);
+        assertEquals("apple", index.extractOne("apple").getObject());
+        index.close();
+        index.close();
+        assertThrows(IllegalStateException.class, () -> index.extractOne("apple"));
+    }
+
+    @Test
+    public void scorerPool() {
+        ScorerPool pool = new ScorerPool(ScorerPool.DEFAULT_MAX_BYTES);
+        ScorerPool.Lease lease = pool.acquire("apple", TYPE_RATIO, 0);
+        pool.close();
+        // A leased scorer stays usable until its lease is closed
+        assertEquals(100, lease.getScorer().ratio("apple"), 0);
+        lease.close();
+        lease.close();
+        pool.close();
+        assertEquals(0, pool.size());
+        // Scorers acquired after close are not pooled
+        try (ScorerPool.Lease other = pool.acquire("apple", TYPE_RATIO, 0)) {
+            assertEquals(100, other.getScorer().ratio("apple"), 0);
+        }
+        assertEquals(0, pool.size());
+    }
+}
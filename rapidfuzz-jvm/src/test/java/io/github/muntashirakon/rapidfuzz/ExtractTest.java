@@ -0,0 +1,290 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ExtractTest {
+    private static final double DELTA = 1e-9;
+    private static final String[] CHOICES = {"Atlanta Falcons", "New York Jets", "New York Giants", "Dallas Cowboys",
+            "New York Jets", "Jets"};
+
+    private static final double[] CUTOFFS = {0, 50, 80, 100};
+
+    private static final ExecutorService sExecutor = Executors.newFixedThreadPool(3);
+
+    @AfterClass
+    public static void shutdown() {
+        sExecutor.shutdown();
+    }
+
+    @Test
+    public void extractAllReturnsMatchesInOrder() {
+        List<Result<String>> results = RapidFuzzCached.extractAll("new york jets", CHOICES, TYPE_RATIO, 50);
+        assertEquals(3, results.size());
+        int previous = -1;
+        for (Result<String> result : results) {
+            assertTrue(result.getIndex() > previous);
+            previous = result.getIndex();
+            assertEquals(CHOICES[result.getIndex()], result.getObject());
+            assertEquals(RapidFuzz.ratio("new york jets", result.getObject()), result.getScore(), DELTA);
+            assertTrue(result.getScore() >= 50);
+        }
+        assertEquals(Arrays.asList(1, 2, 4), getIndices(results));
+    }
+
+    @Test
+    public void extractAllScoresEveryChoice() {
+        List<Result<String>> results = RapidFuzzCached.extractAll("new york", Arrays.asList(CHOICES),
+                TYPE_WEIGHTED_RATIO, 0);
+        assertEquals(CHOICES.length, results.size());
+        for (int i = 0; i < CHOICES.length; ++i) {
+            assertEquals(RapidFuzz.weightedRatio("new york", CHOICES[i]), results.get(i).getScore(), DELTA);
+        }
+    }
+
+    @Test
+    public void extractSortsByScoreAndKeepsOrderOfTies() {
+        List<Result<String>> results = RapidFuzzCached.extract("New York Jets", CHOICES, TYPE_RATIO, 3);
+        assertEquals(Arrays.asList(1, 4, 2), getIndices(results));
+        assertEquals(100, results.get(0).getScore(), DELTA);
+        assertEquals(100, results.get(1).getScore(), DELTA);
+        // The limit is larger than the number of choices
+        assertEquals(CHOICES.length, RapidFuzzCached.extract("jets", CHOICES, TYPE_RATIO, 100).size());
+    }
+
+    @Test
+    public void extractMatchesSortedExtractAll() {
+        List<Result<String>> all = new ArrayList<>(RapidFuzzCached.extractAll("york", CHOICES, TYPE_PARTIAL_RATIO,
+                0));
+        // Stable sort by score in descending order
+        Collections.sort(all, Collections.reverseOrder());
+        for (int limit = 1; limit <= CHOICES.length; ++limit) {
+            List<Result<String>> top = RapidFuzzCached.extract("york", CHOICES, TYPE_PARTIAL_RATIO, limit);
+            assertEquals(limit, top.size());
+            for (int i = 0; i < limit; ++i) {
+                assertEquals(all.get(i).getScore(), top.get(i).getScore(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void extractOne() {
+        Result<String> result = RapidFuzzCached.extractOne("dallas", CHOICES, TYPE_PARTIAL_RATIO, 0);
+        assertEquals(3, result.getIndex());
+        assertEquals("Dallas Cowboys", result.getObject());
+        assertNull(RapidFuzzCached.extractOne("dallas", CHOICES, TYPE_RATIO, 99));
+        assertNull(RapidFuzzCached.extractOne("dallas", new String[0], TYPE_RATIO, 0));
+    }
+
+    @Test
+    public void extractWithGenerator() {
+        List<int[]> objects = Arrays.asList(new int[]{1, 2}, new int[]{3, 4}, new int[]{1, 2, 3});
+        RapidFuzzCached.ChoiceGenerator<int[]> generator = Arrays::toString;
+        Result<int[]> result = RapidFuzzCached.extractOne("[1, 2]", objects, generator, TYPE_RATIO, 0);
+        assertEquals(0, result.getIndex());
+        assertEquals(100, result.getScore(), DELTA);
+        assertEquals(2, RapidFuzzCached.extract("[1, 2]", objects, generator, TYPE_RATIO, 2).size());
+        assertEquals(3, RapidFuzzCached.extractAll("[1, 2]", objects, generator, TYPE_RATIO, 0).size());
+    }
+
+    @Test
+    public void nullChoicesAreSkipped() {
+        String[] choices = {null, "New York Jets", null};
+        List<Result<String>> results = RapidFuzzCached.extractAll("new york jets", choices, TYPE_RATIO, 0);
+        assertEquals(Collections.singletonList(1), getIndices(results));
+        assertEquals(1, RapidFuzzCached.extract("new york jets", choices, TYPE_RATIO, 3).size());
+        assertEquals(1, RapidFuzzCached.extractOne("new york jets", choices, TYPE_RATIO, 0).getIndex());
+    }
+
+    @Test
+    public void executorGivesSameResults() {
+        String[] choices = new String[1000];
+        for (int i = 0; i < choices.length; ++i) {
+            choices[i] = CHOICES[i % CHOICES.length] + " " + i;
+        }
+        assertResultsEqual(RapidFuzzCached.extractAll("new york 42", choices, TYPE_WEIGHTED_RATIO, 50),
+                RapidFuzzCached.extractAll("new york 42", choices, TYPE_WEIGHTED_RATIO, 50, sExecutor));
+        assertResultsEqual(RapidFuzzCached.extract("new york 42", choices, TYPE_WEIGHTED_RATIO, 10, 0),
+                RapidFuzzCached.extract("new york 42", choices, TYPE_WEIGHTED_RATIO, 10, 0, sExecutor));
+        Result<String> one = RapidFuzzCached.extractOne("new york 42", choices, TYPE_RATIO, 0);
+        Result<String> parallelOne = RapidFuzzCached.extractOne("new york 42", choices, TYPE_RATIO, 0, sExecutor);
+        assertEquals(one.getIndex(), parallelOne.getIndex());
+        assertEquals(one.getScore(), parallelOne.getScore(), DELTA);
+    }
+
+    @Test
+    public void staticPathsMatchScoringEachChoice() {
+        Random random = new Random(3);
+        String[] choices = randomChoices(random, 300);
+        List<String> list = Arrays.asList(choices);
+        List<Integer> objects = getPositions(choices.length);
+        RapidFuzzCached.ChoiceGenerator<Integer> generator = i -> choices[i];
+        for (int ratioType = TYPE_RATIO; ratioType <= TYPE_QUICK_RATIO; ++ratioType) {
+            String query = choices[random.nextInt(choices.length)];
+            if (query == null) query = "new york";
+            for (double cutoff : CUTOFFS) {
+                List<Result<Integer>> expected = scoreEachChoice(query, choices, ratioType, cutoff);
+                String message = "type " + ratioType + ", cutoff " + cutoff;
+                assertResultsEqual(message, expected, RapidFuzzCached.extractAll(query, choices, ratioType, cutoff));
+                assertResultsEqual(message, expected, RapidFuzzCached.extractAll(query, list, ratioType, cutoff));
+                assertResultsEqual(message, expected, RapidFuzzCached.extractAll(query, objects, generator, ratioType,
+                        cutoff));
+                // The last one of the best choices is selected
+                Result<Integer> best = null;
+                for (Result<Integer> result : expected) {
+                    if (best == null || result.getScore() >= best.getScore()) best = result;
+                }
+                assertResultEquals(message, best, RapidFuzzCached.extractOne(query, choices, ratioType, cutoff));
+                assertResultEquals(message, best, RapidFuzzCached.extractOne(query, list, ratioType, cutoff));
+                assertResultEquals(message, best, RapidFuzzCached.extractOne(query, objects, generator, ratioType,
+                        cutoff));
+            }
+        }
+    }
+
+    @Test
+    public void topMatchesOfEveryOverload() {
+        Random random = new Random(4);
+        String[] choices = randomChoices(random, 200);
+        List<String> list = Arrays.asList(choices);
+        List<Integer> objects = getPositions(choices.length);
+        RapidFuzzCached.ChoiceGenerator<Integer> generator = i -> choices[i];
+        int[] limits = {1, 2, 5, 20, choices.length, choices.length + 5};
+        for (int ratioType = TYPE_RATIO; ratioType <= TYPE_QUICK_RATIO; ++ratioType) {
+            String query = choices[random.nextInt(choices.length)];
+            if (query == null) query = "york jets";
+            for (double cutoff : CUTOFFS) {
+                // Stable sort by score in descending order, i.e. ties are ordered by position
+                List<Result<Integer>> sorted = new ArrayList<>(scoreEachChoice(query, choices, ratioType, cutoff));
+                Collections.sort(sorted, (r1, r2) -> Double.compare(r2.getScore(), r1.getScore()));
+                for (int limit : limits) {
+                    List<Result<Integer>> expected = sorted.subList(0, Math.min(limit, sorted.size()));
+                    String message = "type " + ratioType + ", cutoff " + cutoff + ", limit " + limit;
+                    assertResultsEqual(message, expected, RapidFuzzCached.extract(query, choices, ratioType, limit,
+                            cutoff));
+                    assertResultsEqual(message, expected, RapidFuzzCached.extract(query, list, ratioType, limit,
+                            cutoff));
+                    assertResultsEqual(message, expected, RapidFuzzCached.extract(query, objects, generator,
+                            ratioType, limit, cutoff));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void extractOneWithAliasesSelectsLastBestChoice() {
+        List<List<String>> objects = Arrays.asList(Arrays.asList("jets", "new york jets"),
+                Arrays.asList("giants", null), Arrays.asList("new york", "new york jets"),
+                Collections.singletonList("dallas"));
+        RapidFuzzCached.ChoicesGenerator<List<String>> generator = aliases -> aliases;
+        Result<List<String>> result = RapidFuzzCached.extractOne("new york jets", objects, generator, TYPE_RATIO, 0);
+        assertNotNull(result);
+        assertEquals(2, result.getIndex());
+        assertEquals(100, result.getScore(), DELTA);
+        result = RapidFuzzCached.extractOne("giants", objects, generator, TYPE_RATIO, 50);
+        assertNotNull(result);
+        assertEquals(1, result.getIndex());
+        assertNull(RapidFuzzCached.extractOne("xyz", objects, generator, TYPE_RATIO, 50));
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzzCached.extract("a", CHOICES, TYPE_RATIO, 0));
+        assertNull(RapidFuzzCached.extractAll("a", (String[]) null, TYPE_RATIO, 0));
+    }
+
+    /**
+     * Choices with many duplicates and thus ties, and a few null choices
+     */
+    static String[] randomChoices(Random random, int count) {
+        String[] words = {"new", "york", "jets", "giants", "ny", "dallas"};
+        String[] choices = new String[count];
+        for (int i = 0; i < count; ++i) {
+            if (random.nextInt(20) == 0) continue;
+            StringBuilder sb = new StringBuilder(words[random.nextInt(words.length)]);
+            for (int j = random.nextInt(3); j > 0; --j) {
+                sb.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            choices[i] = sb.toString();
+        }
+        return choices;
+    }
+
+    /**
+     * Score the choices one by one, skipping null choices
+     *
+     * @return The matches in the order of the choices, each with its position as the object
+     */
+    static List<Result<Integer>> scoreEachChoice(String query, String[] choices, int ratioType, double scoreCutoff) {
+        List<Result<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < choices.length; ++i) {
+            if (choices[i] == null) continue;
+            double score = RapidFuzz.ratio(query, choices[i], ratioType);
+            if (score >= scoreCutoff) {
+                results.add(new Result<>(i, score, i));
+            }
+        }
+        return results;
+    }
+
+    private static List<Integer> getPositions(int count) {
+        List<Integer> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            positions.add(i);
+        }
+        return positions;
+    }
+
+    static List<Integer> getIndices(List<? extends Result<?>> results) {
+        List<Integer> indices = new ArrayList<>(results.size());
+        for (Result<?> result : results) {
+            indices.add(result.getIndex());
+        }
+        return indices;
+    }
+
+    static void assertResultsEqual(List<? extends Result<?>> expected, List<? extends Result<?>> actual) {
+        assertResultsEqual(null, expected, actual);
+    }
+
+
+    static void assertResultsEqual(String message, List<? extends Result<?>> expected,
+                                   List<? extends Result<?>> actual) {
+        assertEquals(message, getIndices(expected), getIndices(actual));
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(message, expected.get(i).getScore(), actual.get(i).getScore(), DELTA);
+        }
+    }
+
+    static void assertResultEquals(String message, Result<?> expected, Result<?> actual) {
+        if (expected == null) {
+            assertNull(message, actual);
+            return;
+        }
+        assertNotNull(message, actual);
+        assertEquals(message, expected.getIndex(), actual.getIndex());
+        assertEquals(message, expected.getScore(), actual.getScore(), DELTA);
+    }
+}
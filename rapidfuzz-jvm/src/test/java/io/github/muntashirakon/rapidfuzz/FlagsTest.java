@@ -0,0 +1,115 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_FOLD_DIACRITICS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_LOWERCASE;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_STRIP_NON_ALPHANUMERIC;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_TRIM_WHITESPACE;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+
+public class FlagsTest {
+    private static final double DELTA = 1e-9;
+    private static final String ALPHABET = "aAbB1 \t-_.,!";
+
+    @Test
+    public void processingMatchesJava() {
+        Random random = new Random(11);
+        String[] choices = new String[50];
+        for (int i = 0; i < choices.length; ++i) {
+            choices[i] = randomString(random);
+        }
+        for (int flags = 0; flags <= FLAG_DEFAULT_PROCESS; flags += FLAG_LOWERCASE) {
+            String[] processed = new String[choices.length];
+            for (int i = 0; i < choices.length; ++i) {
+                processed[i] = process(choices[i], flags);
+            }
+            for (int q = 0; q < 10; ++q) {
+                String query = choices[q];
+                for (int ratioType = TYPE_RATIO; ratioType <= TYPE_QUICK_RATIO; ++ratioType) {
+                    List<Result<String>> results = RapidFuzzCached.extractAll(query, choices, ratioType, 0, flags);
+                    try (RapidFuzzCached scorer = new RapidFuzzCached(query, ratioType, flags)) {
+                        for (int i = 0; i < choices.length; ++i) {
+                            double expected = RapidFuzz.ratio(process(query, flags), processed[i], ratioType);
+                            String message = "flags " + flags + ", type " + ratioType + ": '" + query + "' / '"
+                                    + choices[i] + "'";
+                            assertEquals(message, expected, RapidFuzz.ratio(query, choices[i], ratioType, 0, flags),
+                                    DELTA);
+                            assertEquals(message, expected, scorer.ratio(choices[i]), DELTA);
+                            assertEquals(message, expected, results.get(i).getScore(), DELTA);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void defaultProcess() {
+        assertEquals(0, RapidFuzz.ratio("ABC", "abc"), DELTA);
+        assertEquals(100, RapidFuzz.ratio("  New-York!  ", "new york", TYPE_RATIO, 0, FLAG_DEFAULT_PROCESS), DELTA);
+        assertEquals(100, RapidFuzz.ratio("NEW YORK", "new york", TYPE_RATIO, 0, FLAG_LOWERCASE), DELTA);
+        // Whitespace inside the strings is kept
+        assertEquals(RapidFuzz.ratio("a  b", "a b"), RapidFuzz.ratio(" a  b ", "a b", TYPE_RATIO, 0,
+                FLAG_TRIM_WHITESPACE), DELTA);
+        // Characters outside the BMP are neither letters nor digits
+        assertEquals(100, RapidFuzz.ratio("a\ud83d\ude00", "a", TYPE_RATIO, 0, FLAG_DEFAULT_PROCESS), DELTA);
+        assertEquals(100, RapidFuzz.ratio("a\ud83d\ude00", "a", TYPE_RATIO, 0,
+                FLAG_DEFAULT_PROCESS | FLAG_CODE_POINTS), DELTA);
+    }
+
+    @Test
+    public void foldDiacritics() {
+        // Precomposed letters, combining marks, Greek and Cyrillic
+        String[][] pairs = {{"Cr\u00e8me Br\u00fbl\u00e9e", "Creme Brulee"}, {"Cafe\u0301", "Cafe"},
+                {"Se\u00f1or", "Senor"},
+                {"\u0395\u03bb\u03bb\u03ac\u03b4\u03b1", "\u0395\u03bb\u03bb\u03b1\u03b4\u03b1"},
+                {"\u0401\u0436", "\u0415\u0436"}};
+        for (String[] pair : pairs) {
+            assertEquals(pair[0], 100, RapidFuzz.ratio(pair[0], pair[1], TYPE_RATIO, 0, FLAG_FOLD_DIACRITICS),
+                    DELTA);
+            assertEquals(pair[0], 100, RapidFuzz.ratio(pair[0], pair[1], TYPE_RATIO, 0,
+                    FLAG_FOLD_DIACRITICS | FLAG_CODE_POINTS), DELTA);
+        }
+        assertEquals(100, RapidFuzz.ratio("\u00c9COLE", "ecole", TYPE_WEIGHTED_RATIO, 0,
+                FLAG_FOLD_DIACRITICS | FLAG_LOWERCASE), DELTA);
+        assertEquals(100, RapidFuzz.ratio("\u00c9cole", "ecole!", TYPE_RATIO, 0,
+                FLAG_FOLD_DIACRITICS | FLAG_DEFAULT_PROCESS), DELTA);
+    }
+
+    private static String randomString(Random random) {
+        char[] chars = new char[random.nextInt(10)];
+        for (int i = 0; i < chars.length; ++i) {
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+
+    // Same as the native processing for ASCII strings
+    static String process(String s, int flags) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); ++i) {
+            char ch = s.charAt(i);
+            boolean alphanumeric = Character.isLetterOrDigit(ch);
+            if (alphanumeric && (flags & FLAG_LOWERCASE) != 0) {
+                ch = Character.toLowerCase(ch);
+            } else if (!alphanumeric && (flags & FLAG_STRIP_NON_ALPHANUMERIC) != 0) {
+                ch = ' ';
+            }
+            sb.append(ch);
+        }
+        return (flags & FLAG_TRIM_WHITESPACE) != 0 ? sb.toString().trim() : sb.toString();
+    }
+}
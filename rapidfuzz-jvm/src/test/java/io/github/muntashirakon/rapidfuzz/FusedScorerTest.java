@@ -0,0 +1,144 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_TOKEN_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SET_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class FusedScorerTest {
+    private static final double DELTA = 1e-9;
+    private static final String[] WORDS = {"new", "york", "New", "YORK", "jets", "giants", "mets", "yankees", "the",
+            "m\u00fcnchen", "\ud83d\ude00", "a", "", "-"};
+    private static final int[] FLAGS = {0, FLAG_DEFAULT_PROCESS, FLAG_DEFAULT_PROCESS | FLAG_CODE_POINTS};
+    private static final double[] CUTOFFS = {0, 60, 90};
+
+    @Test
+    public void scoresMatchRapidFuzzCached() {
+        int[] ratioTypes = new int[TYPE_QUICK_RATIO - TYPE_RATIO + 1];
+        for (int i = 0; i < ratioTypes.length; ++i) {
+            ratioTypes[i] = TYPE_RATIO + i;
+        }
+        Random random = new Random(22);
+        for (int q = 0; q < 10; ++q) {
+            String query = randomSentence(random);
+            String[] choices = new String[50];
+            for (int i = 0; i < choices.length; ++i) {
+                choices[i] = i % 10 == 0 ? shuffle(random, query) : randomSentence(random);
+            }
+            for (int flags : FLAGS) {
+                assertScores(query, choices, ratioTypes, flags);
+            }
+        }
+    }
+
+    @Test
+    public void subsetsAndDuplicates() {
+        // Token set and partial token ratios share their token sets, so they must also be right without the others
+        int[][] ratioTypesList = {{TYPE_TOKEN_SET_RATIO}, {TYPE_PARTIAL_TOKEN_RATIO}, {TYPE_PARTIAL_TOKEN_RATIO,
+                TYPE_TOKEN_SET_RATIO}, {TYPE_WEIGHTED_RATIO, TYPE_RATIO, TYPE_WEIGHTED_RATIO},
+                {TYPE_PARTIAL_RATIO, TYPE_TOKEN_SET_RATIO, TYPE_PARTIAL_TOKEN_RATIO}};
+        Random random = new Random(22);
+        String query = "new york jets vs new york giants";
+        String[] choices = new String[30];
+        for (int i = 0; i < choices.length; ++i) {
+            choices[i] = i == 0 ? "giants jets york new" : randomSentence(random);
+        }
+        for (int[] ratioTypes : ratioTypesList) {
+            for (int flags : FLAGS) {
+                assertScores(query, choices, ratioTypes, flags);
+            }
+        }
+    }
+
+    @Test
+    public void nullChoices() {
+        int[] ratioTypes = {TYPE_RATIO, TYPE_TOKEN_SET_RATIO};
+        try (FusedScorer scorer = new FusedScorer("new york", ratioTypes)) {
+            double[] scores = scorer.ratio(new String[]{null, "new york", null}, 0);
+            assertArrayEquals(new double[]{0, 0, 100, 100, 0, 0}, scores, 0);
+            assertEquals(0, scorer.ratio(new String[0], 0).length);
+        }
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new FusedScorer("a", new int[0]));
+        assertThrows(IllegalArgumentException.class, () -> new FusedScorer("a", new int[]{TYPE_RATIO, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new FusedScorer("a", new int[]{TYPE_QUICK_RATIO + 1}));
+        int[] ratioTypes = {TYPE_RATIO, TYPE_PARTIAL_RATIO};
+        try (FusedScorer scorer = new FusedScorer("a", ratioTypes, FLAG_DEFAULT_PROCESS)) {
+            assertEquals(FLAG_DEFAULT_PROCESS, scorer.getFlags());
+            // The ratio types are copied in both directions
+            ratioTypes[0] = TYPE_QUICK_RATIO;
+            scorer.getRatioTypes()[1] = TYPE_QUICK_RATIO;
+            assertArrayEquals(new int[]{TYPE_RATIO, TYPE_PARTIAL_RATIO}, scorer.getRatioTypes());
+            assertThrows(IllegalArgumentException.class, () -> scorer.ratio("a", 0, new double[1]));
+        }
+    }
+
+    private static void assertScores(String query, String[] choices, int[] ratioTypes, int flags) {
+        RapidFuzzCached[] cached = new RapidFuzzCached[ratioTypes.length];
+        try (FusedScorer scorer = new FusedScorer(query, ratioTypes, flags)) {
+            for (int j = 0; j < ratioTypes.length; ++j) {
+                cached[j] = new RapidFuzzCached(query, ratioTypes[j], flags);
+            }
+            double[] scores = new double[ratioTypes.length + 1];
+            for (double cutoff : CUTOFFS) {
+                double[] batch = scorer.ratio(choices, cutoff);
+                assertEquals(choices.length * ratioTypes.length, batch.length);
+                for (int i = 0; i < choices.length; ++i) {
+                    double[] single = scorer.ratio(choices[i], cutoff);
+                    scorer.ratio(choices[i], cutoff, scores);
+                    for (int j = 0; j < ratioTypes.length; ++j) {
+                        double expected = cached[j].ratio(choices[i], cutoff);
+                        String message = "Type " + ratioTypes[j] + ", flags " + flags + ": " + query + " / "
+                                + choices[i];
+                        assertEquals(message, expected, RapidFuzz.ratio(query, choices[i], ratioTypes[j], cutoff,
+                                flags), DELTA);
+                        assertEquals(message, expected, single[j], DELTA);
+                        assertEquals(message, expected, scores[j], DELTA);
+                        assertEquals(message, expected, batch[i * ratioTypes.length + j], DELTA);
+                    }
+                }
+            }
+        } finally {
+            for (RapidFuzzCached scorer : cached) {
+                if (scorer != null) scorer.close();
+            }
+        }
+    }
+
+    private static String randomSentence(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int wordCount = random.nextInt(6);
+        for (int i = 0; i < wordCount; ++i) {
+            if (i > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String shuffle(Random random, String sentence) {
+        String[] words = sentence.split(" ");
+        for (int i = words.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            String word = words[i];
+            words[i] = words[j];
+            words[j] = word;
+        }
+        return String.join(" ", words);
+    }
+}
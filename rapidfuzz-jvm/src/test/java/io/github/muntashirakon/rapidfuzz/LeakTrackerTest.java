@@ -0,0 +1,113 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LeakTrackerTest {
+    @After
+    public void tearDown() {
+        LeakTracker.setEnabled(false);
+        LeakTracker.setListener(null);
+    }
+
+    @Test
+    public void liveObjectsAreCounted() {
+        int liveCount = LeakTracker.getLiveCount();
+        long liveBytes = LeakTracker.getLiveBytes();
+        RapidFuzzCached scorer = new RapidFuzzCached("query", TYPE_RATIO);
+        ChoiceIndex index = new ChoiceIndex(Arrays.asList("a", "b"));
+        assertEquals(liveCount + 2, LeakTracker.getLiveCount());
+        assertEquals(liveBytes + RapidFuzzCached.estimateNativeBytes("query"), LeakTracker.getLiveBytes());
+        scorer.close();
+        scorer.close();
+        index.close();
+        assertEquals(liveCount, LeakTracker.getLiveCount());
+        assertEquals(liveBytes, LeakTracker.getLiveBytes());
+    }
+
+    @Test
+    public void allocationSitesAreRecordedWhenEnabled() {
+        int sites = LeakTracker.getAllocationSites().size();
+        RapidFuzzCached untracked = new RapidFuzzCached("query", TYPE_RATIO);
+        assertEquals(sites, LeakTracker.getAllocationSites().size());
+        untracked.close();
+        LeakTracker.setEnabled(true);
+        RapidFuzzCached scorer = new RapidFuzzCached("query", TYPE_RATIO);
+        assertEquals(sites + 1, LeakTracker.getAllocationSites().size());
+        scorer.close();
+        assertEquals(sites, LeakTracker.getAllocationSites().size());
+    }
+
+    @Test
+    public void unclosedObjectsAreFreedAndReported() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Throwable> site = new AtomicReference<>();
+        LeakTracker.setListener((type, allocationSite) -> {
+            if ("StringMetricCached".equals(type) && allocationSite != null) {
+                site.set(allocationSite);
+                latch.countDown();
+            }
+        });
+        LeakTracker.setEnabled(true);
+        long leakCount = LeakTracker.getLeakCount();
+        leak();
+        for (int i = 0; i < 100 && !latch.await(100, TimeUnit.MILLISECONDS); ++i) {
+            System.gc();
+        }
+        assertNotNull("Leak not reported", site.get());
+        assertTrue(LeakTracker.getLeakCount() > leakCount);
+        boolean found = false;
+        for (StackTraceElement element : site.get().getStackTrace()) {
+            found |= "leak".equals(element.getMethodName());
+        }
+        assertTrue("Allocation site does not include the caller", found);
+    }
+
+    @Test
+    public void unclosedObjectsStayUsableWhileGarbageCollected() throws InterruptedException {
+        int liveCount = LeakTracker.getLiveCount();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread collector = new Thread(() -> {
+            while (!done.get()) {
+                System.gc();
+            }
+        });
+        collector.start();
+        try {
+            String[] choices = {"new york jets", "new york giants"};
+            for (int i = 0; i < 20000; ++i) {
+                // The scorers are unreachable as soon as their native methods are called
+                assertEquals(100, new RapidFuzzCached("new york jets", TYPE_RATIO).ratio(choices[0]), 0);
+                assertEquals(1, new RapidFuzzCached("new york jets", TYPE_RATIO).extractAll(choices, 100,
+                        new ExtractResults()));
+                assertEquals(0, new StringMetricCached("new york jets").distance(choices, 0)[0]);
+            }
+        } finally {
+            done.set(true);
+            collector.join();
+        }
+        // Every unclosed object is eventually freed
+        for (int i = 0; i < 100 && LeakTracker.getLiveCount() > liveCount; ++i) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertEquals(liveCount, LeakTracker.getLiveCount());
+    }
+
+    private static void leak() {
+        new StringMetricCached("leaked").distance("leaked");
+    }
+}
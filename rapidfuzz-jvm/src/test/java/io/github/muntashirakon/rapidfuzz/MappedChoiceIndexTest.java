@@ -0,0 +1,204 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.ExtractTest.assertResultsEqual;
+import static io.github.muntashirakon.rapidfuzz.ExtractTest.getIndices;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class MappedChoiceIndexTest {
+    private static final String[] CHOICES = {"Atlanta Falcons", "New York Jets", "", "New York Giants",
+            "\u09a2\u09be\u0995\u09be", "Caf\u00e9 \ud83d\ude00", "Dallas Cowboys", "New York Jets"};
+
+    // Offsets of the fields of the header
+    private static final int COUNT_OFFSET = 16;
+    private static final int ID_TABLE_OFFSET = 24;
+    private static final int FILE_SIZE_OFFSET = 48;
+
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+        for (int flags : new int[]{0, FLAG_CODE_POINTS, FLAG_DEFAULT_PROCESS, FLAG_DEFAULT_PROCESS | FLAG_CODE_POINTS}) {
+            try (MappedChoiceIndex index = MappedChoiceIndex.open(write(Arrays.asList(CHOICES), flags))) {
+                assertEquals(flags, index.getFlags());
+                assertEquals(CHOICES.length, index.size());
+                for (int id = 0; id < CHOICES.length; ++id) {
+                    assertEquals(CHOICES[id], index.get(id));
+                }
+                assertNull(index.get(-1));
+                assertNull(index.get(CHOICES.length));
+            }
+        }
+    }
+
+    @Test
+    public void extractMatchesRapidFuzzCached() throws IOException {
+        for (int flags : new int[]{0, FLAG_DEFAULT_PROCESS}) {
+            try (MappedChoiceIndex index = MappedChoiceIndex.open(write(Arrays.asList(CHOICES), flags))) {
+                for (String query : new String[]{"new york jets", "CAFE", "dallas"}) {
+                    for (int ratioType = RapidFuzz.TYPE_RATIO; ratioType <= RapidFuzz.TYPE_QUICK_RATIO; ++ratioType) {
+                        List<Result<String>> expected = RapidFuzzCached.extractAll(query, CHOICES, ratioType, 0,
+                                flags);
+                        assertResultsEqual(expected, index.extractAll(query, ratioType, 0));
+                        assertResultsEqual(RapidFuzzCached.extract(query, CHOICES, ratioType, 3, 0, flags),
+                                index.extractTop(query, ratioType, 3, 0));
+                    }
+                }
+                Result<String> result = index.extractOne("new york giants", TYPE_WEIGHTED_RATIO, 0);
+                assertEquals(3, result.getIndex());
+                assertEquals("New York Giants", result.getObject());
+            }
+        }
+    }
+
+    @Test
+    public void emptyIndex() throws IOException {
+        try (MappedChoiceIndex index = MappedChoiceIndex.open(write(Collections.<String>emptyList(), 0))) {
+            assertEquals(0, index.size());
+            assertEquals(0, index.extractAll("abc").size());
+            assertEquals(0, index.extractTop("abc", 3).size());
+            assertNull(index.extractOne("abc"));
+        }
+    }
+
+    @Test
+    public void nullChoice() {
+        assertThrows(IllegalArgumentException.class, () -> write(Arrays.asList("a", null), 0));
+    }
+
+    @Test
+    public void corruptedRecordsAreSkipped() throws IOException {
+        File file = write(Arrays.asList(CHOICES), 0);
+        long idTableOffset = readLong(file, ID_TABLE_OFFSET);
+        // Would overflow if added to the size of a record
+        writeLong(file, idTableOffset, 0xFFFFFFFFFFFFFFFCL);
+        // Points to the ID table itself
+        writeLong(file, idTableOffset + 8, idTableOffset);
+        // Points to the header
+        writeLong(file, idTableOffset + 3 * 8, 8);
+        // The length of the record of the last choice runs past the ID table
+        long lastRecord = readLong(file, idTableOffset + (CHOICES.length - 1) * 8);
+        writeInt(file, lastRecord, Integer.MAX_VALUE);
+        try (MappedChoiceIndex index = MappedChoiceIndex.open(file)) {
+            assertEquals(CHOICES.length, index.size());
+            for (int id : new int[]{0, 1, 3, CHOICES.length - 1}) {
+                assertNull(index.get(id));
+            }
+            assertEquals(CHOICES[2], index.get(2));
+            assertEquals(Arrays.asList(2, 4, 5, 6), getIndices(index.extractAll("new york jets", TYPE_RATIO, 0)));
+            assertEquals(Arrays.asList(6, 5), getIndices(index.extractTop("dallas cowboys", TYPE_RATIO, 2, 0)));
+            assertEquals(6, index.extractOne("Dallas Cowboys", TYPE_RATIO, 0).getIndex());
+        }
+    }
+
+    @Test
+    public void invalidFilesAreRejected() throws IOException {
+        File file = write(Arrays.asList(CHOICES), FLAG_DEFAULT_PROCESS);
+        byte[] contents = readAll(file);
+        // Not found
+        assertInvalid(new File(mTemporaryFolder.getRoot(), "missing"));
+        // Empty and shorter than the header
+        assertInvalid(withContents(new byte[0]));
+        assertInvalid(withContents(Arrays.copyOf(contents, MappedChoiceIndex.HEADER_SIZE - 1)));
+        // Magic
+        byte[] badMagic = contents.clone();
+        badMagic[0] = 'X';
+        assertInvalid(withContents(badMagic));
+        // Truncated, or the size in the header does not match
+        assertInvalid(withContents(Arrays.copyOf(contents, contents.length - 4)));
+        assertInvalid(withContents(Arrays.copyOf(contents, contents.length + 8)));
+        // Too many choices for the tables
+        File tooMany = withContents(contents);
+        writeInt(tooMany, COUNT_OFFSET, CHOICES.length + 1);
+        assertInvalid(tooMany);
+        File negativeCount = withContents(contents);
+        writeInt(negativeCount, COUNT_OFFSET, -1);
+        assertInvalid(negativeCount);
+        // The ID table leaves no room for the records
+        File noRecords = withContents(contents);
+        writeLong(noRecords, ID_TABLE_OFFSET, MappedChoiceIndex.HEADER_SIZE);
+        assertInvalid(noRecords);
+        File overlapsHeader = withContents(contents);
+        writeLong(overlapsHeader, ID_TABLE_OFFSET, 0);
+        assertInvalid(overlapsHeader);
+        // The ID table lies outside the file
+        File outside = withContents(contents);
+        writeLong(outside, ID_TABLE_OFFSET, 0xFFFFFFFFFFFFFFF8L);
+        assertInvalid(outside);
+        File wrongSize = withContents(contents);
+        writeLong(wrongSize, FILE_SIZE_OFFSET, contents.length + 8);
+        assertInvalid(wrongSize);
+    }
+
+    private File write(List<String> choices, int flags) throws IOException {
+        File file = mTemporaryFolder.newFile();
+        MappedChoiceIndex.write(file, choices.iterator(), flags);
+        return file;
+    }
+
+    private File withContents(byte[] contents) throws IOException {
+        File file = mTemporaryFolder.newFile();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(contents);
+        }
+        return file;
+    }
+
+    private static void assertInvalid(File file) {
+        assertThrows(IOException.class, () -> MappedChoiceIndex.open(file).close());
+    }
+
+    static byte[] readAll(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] contents = new byte[(int) raf.length()];
+            raf.readFully(contents);
+            return contents;
+        }
+    }
+
+    static long readLong(File file, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            channel.read(buffer, position);
+        }
+        return buffer.getLong(0);
+    }
+
+    static void writeLong(File file, long position, long value) throws IOException {
+        write(file, position, ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, value));
+    }
+
+    static void writeInt(File file, long position, int value) throws IOException {
+        write(file, position, ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, value));
+    }
+
+    private static void write(File file, long position, ByteBuffer buffer) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_TOKEN_SET_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SET_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SORT_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Scores of non-Latin strings in both UTF-16 code units and code points. The code point scores are those of Python
+ * rapidfuzz, which compares code points. The code unit scores are those of the same formulas applied to the UTF-16
+ * code units, and they differ only for strings outside the Basic Multilingual Plane.
+ */
+public class MultilingualTest {
+    private static final double DELTA = 1e-9;
+
+    // Bengali: "amar sonar bangla", "amar bangla sonar", "bangladesh", "bangla desh", "kolkata" in two spellings
+    private static final String AMAR = "\u0986\u09ae\u09be\u09b0";
+    private static final String SONAR = "\u09b8\u09cb\u09a8\u09be\u09b0";
+    private static final String BANGLA = "\u09ac\u09be\u0982\u09b2\u09be";
+    private static final String AMAR_SONAR_BANGLA = AMAR + " " + SONAR + " " + BANGLA;
+    private static final String AMAR_BANGLA_SONAR = AMAR + " " + BANGLA + " " + SONAR;
+    private static final String BANGLADESH = "\u09ac\u09be\u0982\u09b2\u09be\u09a6\u09c7\u09b6";
+    private static final String BANGLA_DESH = "\u09ac\u09be\u0982\u09b2\u09be \u09a6\u09c7\u09b6";
+    private static final String KOLKATA = "\u0995\u09b2\u0995\u09be\u09a4\u09be";
+    private static final String KOLKATA_2 = "\u0995\u09cb\u09b2\u0995\u09be\u09a4\u09be";
+    // Cyrillic: "Moskva", "moskva", "privet", "privet mir", "mir privet", "Sankt-Peterburg", "Sankt Peterburg gorod"
+    private static final String MOSKVA = "\u041c\u043e\u0441\u043a\u0432\u0430";
+    private static final String MOSKVA_LOWER = "\u043c\u043e\u0441\u043a\u0432\u0430";
+    private static final String PRIVET = "\u043f\u0440\u0438\u0432\u0435\u0442";
+    private static final String PRIVET_MIR = PRIVET + " \u043c\u0438\u0440";
+    private static final String MIR_PRIVET = "\u043c\u0438\u0440 " + PRIVET;
+    private static final String SANKT = "\u0421\u0430\u043d\u043a\u0442";
+    private static final String PETERBURG = "\u041f\u0435\u0442\u0435\u0440\u0431\u0443\u0440\u0433";
+    private static final String SANKT_PETERBURG = SANKT + "-" + PETERBURG;
+    private static final String SANKT_PETERBURG_GOROD = SANKT + " " + PETERBURG + " \u0433\u043e\u0440\u043e\u0434";
+    // CJK: Tokyo-to, Tokyo, Peking University in simplified and traditional characters, Yoshinoya with U+20BB7 (outside
+    // the BMP) and with U+5409, Yoshinoya gyudon
+    private static final String TOKYO_TO = "\u6771\u4eac\u90fd";
+    private static final String TOKYO = "\u6771\u4eac";
+    private static final String BEIDA = "\u5317\u4eac\u5927\u5b66";
+    private static final String BEIDA_TRADITIONAL = "\u5317\u4eac\u5927\u5b78";
+    private static final String YOSHINOYA = "\ud842\udfb7\u91ce\u5bb6";
+    private static final String YOSHINOYA_BMP = "\u5409\u91ce\u5bb6";
+    private static final String YOSHINOYA_GYUDON = YOSHINOYA + " \u725b\u4e3c";
+    private static final String GYUDON_YOSHINOYA = "\u725b\u4e3c " + YOSHINOYA;
+    // Emoji: grinning and beaming faces, thumbs up, pizza, burger and fries, ZWJ families, a heart in the BMP
+    private static final String GRINNING = "\ud83d\ude00";
+    private static final String BEAMING = "\ud83d\ude01";
+    private static final String THUMBS_UP = "\ud83d\udc4d";
+    private static final String PIZZA_BURGER_FRIES = "\ud83c\udf55\ud83c\udf54\ud83c\udf5f";
+    private static final String PIZZA_FRIES = "\ud83c\udf55\ud83c\udf5f";
+    private static final String FAMILY_GIRL = "\ud83d\udc68\u200d\ud83d\udc69\u200d\ud83d\udc67";
+    private static final String FAMILY_BOY = "\ud83d\udc68\u200d\ud83d\udc69\u200d\ud83d\udc66";
+    private static final String I_LOVE_NY = "I \u2764 NY";
+
+    // s1, s2, ratio type, score in code units, score in code points
+    private static final Object[][] CASES = {
+            {AMAR_SONAR_BANGLA, AMAR_BANGLA_SONAR, TYPE_RATIO, 62.5, 62.5},
+            {AMAR_SONAR_BANGLA, AMAR_BANGLA_SONAR, TYPE_TOKEN_SORT_RATIO, 100.0, 100.0},
+            {AMAR_SONAR_BANGLA, AMAR_BANGLA_SONAR, TYPE_TOKEN_SET_RATIO, 100.0, 100.0},
+            {AMAR_SONAR_BANGLA, AMAR_BANGLA_SONAR, TYPE_WEIGHTED_RATIO, 95.0, 95.0},
+            {BANGLA, AMAR_SONAR_BANGLA, TYPE_PARTIAL_RATIO, 100.0, 100.0},
+            {BANGLADESH, BANGLA_DESH, TYPE_RATIO, 94.11764705882354, 94.11764705882354},
+            {BANGLADESH, BANGLA_DESH, TYPE_TOKEN_SORT_RATIO, 58.8235294117647, 58.8235294117647},
+            {BANGLADESH, BANGLA_DESH, TYPE_QUICK_RATIO, 94.11764705882354, 94.11764705882354},
+            {KOLKATA, KOLKATA_2, TYPE_RATIO, 92.3076923076923, 92.3076923076923},
+            {KOLKATA, KOLKATA_2, TYPE_WEIGHTED_RATIO, 92.3076923076923, 92.3076923076923},
+            {MOSKVA, MOSKVA_LOWER, TYPE_RATIO, 83.33333333333333, 83.33333333333333},
+            {MOSKVA, MOSKVA_LOWER, TYPE_QUICK_RATIO, 83.33333333333333, 83.33333333333333},
+            {PRIVET_MIR, MIR_PRIVET, TYPE_RATIO, 60.0, 60.0},
+            {PRIVET_MIR, MIR_PRIVET, TYPE_TOKEN_SORT_RATIO, 100.0, 100.0},
+            {PRIVET_MIR, MIR_PRIVET, TYPE_WEIGHTED_RATIO, 95.0, 95.0},
+            {PRIVET, PRIVET_MIR, TYPE_PARTIAL_TOKEN_SET_RATIO, 100.0, 100.0},
+            {SANKT_PETERBURG, SANKT_PETERBURG_GOROD, TYPE_TOKEN_SET_RATIO, 50.0, 50.0},
+            {SANKT_PETERBURG, SANKT_PETERBURG_GOROD, TYPE_TOKEN_SORT_RATIO, 50.0, 50.0},
+            {TOKYO_TO, TOKYO, TYPE_RATIO, 80.0, 80.0},
+            {TOKYO_TO, TOKYO, TYPE_QUICK_RATIO, 80.0, 80.0},
+            {TOKYO, TOKYO_TO, TYPE_PARTIAL_RATIO, 100.0, 100.0},
+            {BEIDA, BEIDA_TRADITIONAL, TYPE_RATIO, 75.0, 75.0},
+            {BEIDA, BEIDA_TRADITIONAL, TYPE_WEIGHTED_RATIO, 75.0, 75.0},
+            {YOSHINOYA, YOSHINOYA_BMP, TYPE_RATIO, 57.142857142857146, 66.66666666666667},
+            {YOSHINOYA, YOSHINOYA_BMP, TYPE_QUICK_RATIO, 57.142857142857146, 66.66666666666667},
+            {YOSHINOYA, YOSHINOYA_BMP, TYPE_WEIGHTED_RATIO, 57.142857142857146, 66.66666666666667},
+            {YOSHINOYA_GYUDON, GYUDON_YOSHINOYA, TYPE_TOKEN_SORT_RATIO, 100.0, 100.0},
+            {YOSHINOYA_GYUDON, GYUDON_YOSHINOYA, TYPE_TOKEN_SET_RATIO, 100.0, 100.0},
+            {GRINNING + "a", BEAMING + "a", TYPE_RATIO, 66.66666666666667, 50.0},
+            {GRINNING + "a", BEAMING + "a", TYPE_QUICK_RATIO, 66.66666666666667, 50.0},
+            {GRINNING + "a", BEAMING + "a", TYPE_WEIGHTED_RATIO, 66.66666666666667, 50.0},
+            {GRINNING, "ab" + GRINNING + "cd", TYPE_PARTIAL_RATIO, 100.0, 100.0},
+            {THUMBS_UP + " good job", "good job " + THUMBS_UP, TYPE_RATIO, 72.72727272727273, 80.0},
+            {THUMBS_UP + " good job", "good job " + THUMBS_UP, TYPE_TOKEN_SORT_RATIO, 100.0, 100.0},
+            {THUMBS_UP + " good job", "good job " + THUMBS_UP, TYPE_WEIGHTED_RATIO, 95.0, 95.0},
+            {PIZZA_BURGER_FRIES, PIZZA_FRIES, TYPE_RATIO, 80.0, 80.0},
+            {PIZZA_BURGER_FRIES, PIZZA_FRIES, TYPE_QUICK_RATIO, 80.0, 80.0},
+            {FAMILY_GIRL, FAMILY_BOY, TYPE_RATIO, 87.5, 80.0},
+            {I_LOVE_NY, "I \u2764 New York", TYPE_TOKEN_SET_RATIO, 66.66666666666666, 66.66666666666666},
+            {I_LOVE_NY, "I \u2764 New York", TYPE_TOKEN_SORT_RATIO, 66.66666666666667, 66.66666666666667},
+    };
+
+    @Test
+    public void codeUnits() {
+        check(0, 3);
+    }
+
+    @Test
+    public void codePoints() {
+        check(FLAG_CODE_POINTS, 4);
+    }
+
+    private static void check(int flags, int column) {
+        for (Object[] c : CASES) {
+            String s1 = (String) c[0];
+            String s2 = (String) c[1];
+            int ratioType = (Integer) c[2];
+            double expected = (Double) c[column];
+            String message = "type " + ratioType + ": " + s1 + " / " + s2;
+            assertEquals(message, expected, RapidFuzz.ratio(s1, s2, ratioType, 0, flags), DELTA);
+            // The scores are symmetric, and the cached scorer gives the same scores
+            assertEquals(message, expected, RapidFuzz.ratio(s2, s1, ratioType, 0, flags), DELTA);
+            try (RapidFuzzCached scorer = new RapidFuzzCached(s1, ratioType, flags)) {
+                assertEquals(message, expected, scorer.ratio(s2), DELTA);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.ExtractTest.assertResultsEqual;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class NGramIndexTest {
+    private static final String ALPHABET = "abcdefghijklmnop";
+    private static final int LIMIT = 10;
+
+    @Test
+    public void properties() {
+        try (NGramIndex index = new NGramIndex(Arrays.asList("apple", "maple"), 2, FLAG_DEFAULT_PROCESS)) {
+            assertEquals(2, index.getN());
+            assertEquals(FLAG_DEFAULT_PROCESS, index.getFlags());
+            assertEquals(2, index.size());
+            assertEquals("maple", index.get(1));
+            assertNull(index.get(2));
+            assertNull(index.get(-1));
+            assertEquals(NGramIndex.DEFAULT_MAX_CANDIDATES, index.getMaxCandidates());
+            index.setMaxCandidates(1);
+            assertEquals(1, index.getMaxCandidates());
+            assertThrows(IllegalArgumentException.class, () -> index.setMaxCandidates(0));
+            assertThrows(IllegalArgumentException.class, () -> index.extractTop("apple", TYPE_RATIO, 0, 0));
+            // Only the candidate sharing the most n-grams is scored
+            assertEquals(Collections.singletonList(0), ExtractTest.getIndices(index.extractAll("APPLE", TYPE_RATIO,
+                    0)));
+        }
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new NGramIndex(Arrays.asList("apple", null)));
+        assertThrows(IllegalArgumentException.class, () -> new NGramIndex(Collections.singletonList("apple"), 0, 0));
+    }
+
+    @Test
+    public void emptyIndex() {
+        try (NGramIndex index = new NGramIndex(Collections.<String>emptyList())) {
+            assertEquals(0, index.size());
+            assertTrue(index.extractAll("apple").isEmpty());
+            assertTrue(index.extractTop("apple", 3).isEmpty());
+            assertNull(index.extractOne("apple"));
+        }
+    }
+
+    @Test
+    public void shortStringsAreFound() {
+        // Padding gives the strings shorter than n n-grams too
+        try (NGramIndex index = new NGramIndex(Arrays.asList("a", "ab", "xyz"))) {
+            Result<String> result = index.extractOne("ab", TYPE_RATIO, 0);
+            assertEquals(1, result.getIndex());
+            assertEquals(100, result.getScore(), 0);
+            assertEquals(0, index.extractOne("a", TYPE_RATIO, 0).getIndex());
+        }
+    }
+
+    @Test
+    public void allCandidatesMatchBruteForce() {
+        Random random = new Random(17);
+        String[] choices = randomChoices(random, 3000);
+        for (int flags : new int[]{0, FLAG_CODE_POINTS | FLAG_DEFAULT_PROCESS}) {
+            try (NGramIndex index = new NGramIndex(Arrays.asList(choices), NGramIndex.DEFAULT_N, flags)) {
+                // Every choice sharing an n-gram with the query is scored, and a good match always shares one
+                index.setMaxCandidates(choices.length);
+                for (int i = 0; i < 50; ++i) {
+                    String query = mutate(random, choices[random.nextInt(choices.length)]);
+                    for (int ratioType : new int[]{TYPE_RATIO, TYPE_WEIGHTED_RATIO}) {
+                        assertResultsEqual(RapidFuzzCached.extract(query, choices, ratioType, LIMIT, 70, flags),
+                                index.extractTop(query, ratioType, LIMIT, 70));
+                        assertResultsEqual(RapidFuzzCached.extractAll(query, choices, ratioType, 70, flags),
+                                index.extractAll(query, ratioType, 70));
+                        Result<String> expected = RapidFuzzCached.extractOne(query, choices, ratioType, 70, flags);
+                        Result<String> actual = index.extractOne(query, ratioType, 70);
+                        assertEquals(expected.getScore(), actual.getScore(), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void recallWithFewCandidates() {
+        Random random = new Random(17);
+        String[] choices = randomChoices(random, 10000);
+        try (NGramIndex index = new NGramIndex(Arrays.asList(choices))) {
+            index.setMaxCandidates(100);
+            int expected = 0;
+            int found = 0;
+            for (int i = 0; i < 100; ++i) {
+                String query = mutate(random, choices[random.nextInt(choices.length)]);
+                List<Result<String>> results = index.extractTop(query, TYPE_RATIO, LIMIT, 0);
+                Set<Integer> ids = new HashSet<>();
+                for (Result<String> result : results) {
+                    // The candidates are scored as usual
+                    assertEquals(RapidFuzz.ratio(query, result.getObject(), TYPE_RATIO), result.getScore(), 1e-9);
+                    ids.add(result.getIndex());
+                }
+                for (Result<String> result : RapidFuzzCached.extract(query, choices, TYPE_RATIO, LIMIT, 80, 0)) {
+                    ++expected;
+                    if (ids.contains(result.getIndex())) ++found;
+                }
+            }
+            assertTrue(expected > 0);
+            assertTrue("Recall " + found + "/" + expected, found >= expected * 0.9);
+        }
+    }
+
+    private static String[] randomChoices(Random random, int count) {
+        String[] choices = new String[count];
+        for (int i = 0; i < count; ++i) {
+            StringBuilder sb = new StringBuilder();
+            int length = 8 + random.nextInt(9);
+            for (int j = 0; j < length; ++j) {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            choices[i] = sb.toString();
+        }
+        return choices;
+    }
+
+    private static String mutate(Random random, String s) {
+        char[] chars = s.toCharArray();
+        chars[random.nextInt(chars.length)] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        return new String(chars);
+    }
+}
@@ -0,0 +1,31 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+public class NativeLoaderTest {
+    @Test
+    public void libraryIsBundledForTheHost() throws Exception {
+        String arch = System.getProperty("os.arch");
+        assumeTrue("Linux".equals(System.getProperty("os.name")) && ("amd64".equals(arch) || "aarch64".equals(arch)));
+        String resource = NativeLoader.getBundledLibrary();
+        assertEquals("/natives/linux-" + ("amd64".equals(arch) ? "x86_64" : arch) + "/librapidfuzz.so", resource);
+        try (InputStream is = NativeLoader.class.getResourceAsStream(resource)) {
+            assertNotNull(resource + " is not bundled", is);
+        }
+    }
+
+    @Test
+    public void loadingTwiceHasNoEffect() {
+        NativeLoader.loadLibrary();
+        NativeLoader.loadLibrary();
+        assertEquals(100, RapidFuzz.ratio("abc", "abc"), 0);
+    }
+}
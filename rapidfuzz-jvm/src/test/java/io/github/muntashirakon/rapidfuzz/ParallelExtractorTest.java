@@ -0,0 +1,112 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The chunks scored concurrently must be merged into exactly the sequential results, including the order of ties that
+ * span several chunks.
+ */
+public class ParallelExtractorTest {
+    private static final double DELTA = 1e-9;
+    // Enough choices for several chunks
+    private static final int CHOICE_COUNT = 5000;
+
+    private static final ExecutorService sExecutor = Executors.newFixedThreadPool(3);
+
+    @AfterClass
+    public static void shutdown() {
+        sExecutor.shutdown();
+    }
+
+    @Test
+    public void sameAsSequentialWithTiesAcrossChunks() {
+        String[] choices = ExtractTest.randomChoices(new Random(8), CHOICE_COUNT);
+        Executor direct = Runnable::run;
+        for (Executor executor : Arrays.asList(sExecutor, direct)) {
+            checkSameAsSequential("new york jets", choices, TYPE_RATIO, executor);
+            checkSameAsSequential("giants", choices, TYPE_WEIGHTED_RATIO, executor);
+        }
+    }
+
+    @Test
+    public void rejectedWorkersAreScoredByCallingThread() {
+        String[] choices = ExtractTest.randomChoices(new Random(9), CHOICE_COUNT);
+        AtomicInteger rejected = new AtomicInteger();
+        Executor executor = command -> {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException();
+        };
+        checkSameAsSequential("new york jets", choices, TYPE_RATIO, executor);
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            // Workers are only submitted if there is more than one processor
+            assertTrue(rejected.get() > 0);
+        }
+    }
+
+    private static void checkSameAsSequential(String query, String[] choices, int ratioType, Executor executor) {
+        List<Result<Integer>> expected = ExtractTest.scoreEachChoice(query, choices, ratioType, 50);
+        try (RapidFuzzCached scorer = new RapidFuzzCached(query, ratioType)) {
+            int[] indices = new int[choices.length];
+            double[] scores = new double[choices.length];
+            int count = ParallelExtractor.extractAll(scorer, choices, 50, indices, scores, executor);
+            assertEquals(expected.size(), count);
+            for (int i = 0; i < count; ++i) {
+                assertEquals(expected.get(i).getIndex(), indices[i]);
+                assertEquals(expected.get(i).getScore(), scores[i], DELTA);
+            }
+
+            // The last one of the best choices, as many choices have the best score
+            int bestIndex = -1;
+            double bestScore = 0;
+            int ties = 0;
+            for (Result<Integer> result : expected) {
+                if (bestIndex != -1 && result.getScore() < bestScore) continue;
+                ties = bestIndex != -1 && result.getScore() == bestScore ? ties + 1 : 1;
+                bestIndex = result.getIndex();
+                bestScore = result.getScore();
+            }
+            assertTrue(ties > 1);
+            double[] score = new double[1];
+            assertEquals(bestIndex, ParallelExtractor.extractOne(scorer, choices, 50, score, executor));
+            assertEquals(bestScore, score[0], DELTA);
+
+            // The first ones of the best choices, taken from several chunks
+            for (int limit : new int[]{1, 10, ties, ties + 10}) {
+                int[] sequentialIndices = new int[limit];
+                double[] sequentialScores = new double[limit];
+                int sequentialCount = scorer.extractTopIndices(choices, 0, choices.length, limit, 50,
+                        sequentialIndices, sequentialScores);
+                int[] parallelIndices = new int[limit];
+                double[] parallelScores = new double[limit];
+                assertEquals(sequentialCount, ParallelExtractor.extract(scorer, choices, limit, 50, parallelIndices,
+                        parallelScores, executor));
+                assertArrayEquals(sequentialIndices, parallelIndices);
+                assertArrayEquals(sequentialScores, parallelScores, DELTA);
+                for (int i = 1; i < sequentialCount; ++i) {
+                    assertTrue(sequentialScores[i] < sequentialScores[i - 1]
+                            || sequentialIndices[i] > sequentialIndices[i - 1]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The prefilter may only skip choices that cannot reach the score cutoff, so the results must be the same as those of
+ * scoring every choice.
+ */
+public class PrefilterTest {
+    private static final double DELTA = 1e-9;
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABC \u00e9\ud83d\ude00";
+    private static final int[] FLAGS = {0, FLAG_CODE_POINTS, FLAG_DEFAULT_PROCESS, FLAG_DEFAULT_PROCESS
+            | FLAG_CODE_POINTS};
+    private static final double[] CUTOFFS = {0, 30, 50, 70, 85, 95, 100};
+
+    @Rule
+    public final TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void resultsMatchUnfilteredScoring() throws IOException {
+        Random random = new Random(16);
+        String[] choices = new String[2000];
+        for (int i = 0; i < choices.length; ++i) {
+            choices[i] = randomString(random, 1 + random.nextInt(random.nextBoolean() ? 6 : 30));
+        }
+        String[] queries = {choices[0], choices[1], choices[2].toUpperCase(), randomString(random, 12),
+                randomString(random, 3)};
+        for (int flags : FLAGS) {
+            File file = mTemporaryFolder.newFile();
+            MappedChoiceIndex.write(file, Arrays.asList(choices).iterator(), flags);
+            try (ChoiceIndex index = new ChoiceIndex(Arrays.asList(choices), flags);
+                 MappedChoiceIndex mapped = MappedChoiceIndex.open(file)) {
+                for (String query : queries) {
+                    for (int ratioType : new int[]{TYPE_RATIO, TYPE_QUICK_RATIO}) {
+                        for (double cutoff : CUTOFFS) {
+                            List<Result<String>> expected = bruteForce(query, choices, ratioType, cutoff, flags);
+                            assertResults(expected, RapidFuzzCached.extractAll(query, choices, ratioType, cutoff,
+                                    flags));
+                            assertResults(expected, index.extractAll(query, ratioType, cutoff));
+                            assertResults(expected, mapped.extractAll(query, ratioType, cutoff));
+                            List<Result<String>> top = getTop(expected, 10);
+                            assertResults(top, RapidFuzzCached.extract(query, choices, ratioType, 10, cutoff,
+                                    flags));
+                            assertResults(top, index.extractTop(query, ratioType, 10, cutoff));
+                            assertResults(top, mapped.extractTop(query, ratioType, 10, cutoff));
+                            assertBest(top, RapidFuzzCached.extractOne(query, choices, ratioType, cutoff, flags));
+                            assertBest(top, index.extractOne(query, ratioType, cutoff));
+                            assertBest(top, mapped.extractOne(query, ratioType, cutoff));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void choicesArePruned() {
+        String[] choices = new String[1000];
+        for (int i = 0; i < choices.length; ++i) {
+            choices[i] = "xyz" + i;
+        }
+        choices[500] = "abcdefgh";
+        PrefilterStats.reset();
+        List<Result<String>> results = RapidFuzzCached.extractAll("abcdefgh", choices, TYPE_RATIO, 90, 0);
+        assertEquals(1, results.size());
+        assertEquals(500, results.get(0).getIndex());
+        assertTrue(PrefilterStats.getCandidateCount() >= choices.length);
+        // The other choices share no character with the query
+        assertTrue(PrefilterStats.getPrunedCount() >= choices.length - 1);
+        assertTrue(PrefilterStats.getPruneRate() > 0.9);
+        PrefilterStats.reset();
+        assertEquals(0, PrefilterStats.getCandidateCount());
+        assertEquals(0, PrefilterStats.getPrunedCount());
+    }
+
+    private static List<Result<String>> bruteForce(String query, String[] choices, int ratioType, double cutoff,
+                                                   int flags) {
+        List<Result<String>> results = new ArrayList<>();
+        for (int i = 0; i < choices.length; ++i) {
+            double score = RapidFuzz.ratio(query, choices[i], ratioType, 0, flags);
+            if (score >= cutoff) {
+                results.add(new Result<>(choices[i], score, i));
+            }
+        }
+        return results;
+    }
+
+    private static List<Result<String>> getTop(List<Result<String>> results, int limit) {
+        List<Result<String>> sorted = new ArrayList<>(results);
+        // Stable, so equal scores stay in the order of the indices
+        Collections.sort(sorted, new Comparator<Result<String>>() {
+            @Override
+            public int compare(Result<String> o1, Result<String> o2) {
+                return Double.compare(o2.getScore(), o1.getScore());
+            }
+        });
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    private static void assertResults(List<Result<String>> expected, List<Result<String>> actual) {
+        assertEquals(ExtractTest.getIndices(expected), ExtractTest.getIndices(actual));
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), DELTA);
+        }
+    }
+
+    private static void assertBest(List<Result<String>> top, Result<String> actual) {
+        if (top.isEmpty()) {
+            assertNull(actual);
+            return;
+        }
+        // Ties may be broken differently, but the best score is the same
+        assertNotNull(actual);
+        assertEquals(top.get(0).getScore(), actual.getScore(), DELTA);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; ++i) {
+            // Few distinct characters, so that some choices pass the cutoffs
+            int bound = random.nextInt(4) == 0 ? ALPHABET.length() - 2 : 6;
+            char ch = ALPHABET.charAt(random.nextInt(bound));
+            sb.append(ch);
+        }
+        return sb.toString();
+    }
+}
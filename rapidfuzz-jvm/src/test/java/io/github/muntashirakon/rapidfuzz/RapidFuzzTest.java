@@ -0,0 +1,93 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class RapidFuzzTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void scoresMatchRapidFuzz() {
+        // Examples from the documentation of RapidFuzz
+        assertEquals(96.55172413793103, ratio("this is a test", "this is a test!"), DELTA);
+        assertEquals(100, partialRatio("this is a test", "this is a test!"), DELTA);
+        assertEquals(84.21052631578947, tokenSortRatio("fuzzy was a bear", "fuzzy fuzzy was a bear"), DELTA);
+        assertEquals(100, tokenSortRatio("fuzzy wuzzy was a bear", "wuzzy fuzzy was a bear"), DELTA);
+        assertEquals(100, partialTokenSortRatio("fuzzy was a bear", "wuzzy fuzzy was a bear"), DELTA);
+        assertEquals(100, tokenSetRatio("fuzzy was a bear", "fuzzy fuzzy was a bear"), DELTA);
+        assertEquals(100, partialTokenSetRatio("fuzzy was a bear", "fuzzy fuzzy was a bear"), DELTA);
+        assertEquals(100, tokenRatio("fuzzy was a bear", "fuzzy fuzzy was a bear"), DELTA);
+        assertEquals(100, partialTokenRatio("fuzzy was a bear", "fuzzy fuzzy was a bear"), DELTA);
+        assertEquals(85.5, weightedRatio("this is a test", "this is a new test!!!"), DELTA);
+        assertEquals(96.55172413793103, quickRatio("this is a test", "this is a test!"), DELTA);
+    }
+
+    @Test
+    public void emptyStrings() {
+        assertEquals(100, ratio("", ""), DELTA);
+        assertEquals(0, ratio("abc", ""), DELTA);
+        assertEquals(0, quickRatio("", ""), DELTA);
+        assertEquals(0, weightedRatio("abc", ""), DELTA);
+        assertEquals(0, tokenSetRatio("", "abc"), DELTA);
+    }
+
+    @Test
+    public void scoreCutoff() {
+        assertEquals(0, ratio("this is a test", "this is a test!", 97.0), DELTA);
+        assertEquals(96.55172413793103, ratio("this is a test", "this is a test!", 96.5), DELTA);
+        assertEquals(0, ratio("abc", "xyz", 0.1), DELTA);
+        assertEquals(0, RapidFuzz.ratio("this is a test", "this is a test!", TYPE_QUICK_RATIO, 97.0), DELTA);
+    }
+
+    @Test
+    public void ratioTypeDispatchesToScorer() {
+        String s1 = "new york mets vs atlanta braves";
+        String s2 = "atlanta braves vs new york yankees";
+        assertEquals(ratio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_RATIO), DELTA);
+        assertEquals(partialRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_PARTIAL_RATIO), DELTA);
+        assertEquals(tokenSortRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_TOKEN_SORT_RATIO), DELTA);
+        assertEquals(partialTokenSortRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_PARTIAL_TOKEN_SORT_RATIO), DELTA);
+        assertEquals(tokenSetRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_TOKEN_SET_RATIO), DELTA);
+        assertEquals(partialTokenSetRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_PARTIAL_TOKEN_SET_RATIO), DELTA);
+        assertEquals(tokenRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_TOKEN_RATIO), DELTA);
+        assertEquals(partialTokenRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_PARTIAL_TOKEN_RATIO), DELTA);
+        assertEquals(weightedRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_WEIGHTED_RATIO), DELTA);
+        assertEquals(quickRatio(s1, s2), RapidFuzz.ratio(s1, s2, TYPE_QUICK_RATIO), DELTA);
+    }
+
+    @Test
+    public void cachedScorerMatchesStaticScorer() {
+        String query = "new york mets";
+        String[] choices = {"new york mets", "new YORK mets", "the wonderful new york mets", "yankees", "", "mets"};
+        for (int ratioType = TYPE_RATIO; ratioType <= TYPE_QUICK_RATIO; ++ratioType) {
+            try (RapidFuzzCached scorer = new RapidFuzzCached(query, ratioType)) {
+                for (String choice : choices) {
+                    assertEquals("Ratio type " + ratioType + ", choice " + choice,
+                            RapidFuzz.ratio(query, choice, ratioType), scorer.ratio(choice), DELTA);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void flags() {
+        assertEquals(100, RapidFuzz.ratio("  New-York!", "new york", TYPE_RATIO, 0, FLAG_DEFAULT_PROCESS), DELTA);
+        assertEquals(100, RapidFuzz.ratio("Caf\u00e9", "cafe", TYPE_RATIO, 0, FLAG_LOWERCASE | FLAG_FOLD_DIACRITICS),
+                DELTA);
+        try (RapidFuzzCached scorer = new RapidFuzzCached("  New-York!", TYPE_RATIO, FLAG_DEFAULT_PROCESS)) {
+            assertEquals(100, scorer.ratio("NEW YORK"), DELTA);
+        }
+    }
+
+    @Test
+    public void unknownRatioType() {
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzz.ratio("a", "b", 0));
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzz.ratio("a", "b", TYPE_QUICK_RATIO + 1));
+        assertThrows(IllegalArgumentException.class, () -> new RapidFuzzCached("a", 0));
+    }
+}
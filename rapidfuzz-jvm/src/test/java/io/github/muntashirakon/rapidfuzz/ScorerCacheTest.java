@@ -0,0 +1,170 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_CODE_POINTS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ScorerCacheTest {
+    private static final String[] CHOICES = {"new york jets", "New York Giants", "york", "", "jets new york",
+            "M\u00fcnchen \ud83d\ude00", "nyc"};
+    private static final int[] FLAGS = {0, FLAG_CODE_POINTS, FLAG_DEFAULT_PROCESS, FLAG_DEFAULT_PROCESS
+            | FLAG_CODE_POINTS};
+
+    @Before
+    public void setUp() {
+        ScorerCache.setEnabled(false);
+        ScorerCache.setCapacity(ScorerCache.DEFAULT_CAPACITY);
+        ScorerCache.reset();
+    }
+
+    @After
+    public void tearDown() {
+        setUp();
+    }
+
+    @Test
+    public void disabledCacheCountsNothing() {
+        assertFalse(ScorerCache.isEnabled());
+        assertEquals(ScorerCache.DEFAULT_CAPACITY, ScorerCache.getCapacity());
+        RapidFuzz.ratio("new york", "york", TYPE_RATIO, 0, 0);
+        RapidFuzz.ratio("new york", "york", TYPE_RATIO, 0, 0);
+        assertEquals(0, ScorerCache.getHitCount());
+        assertEquals(0, ScorerCache.getMissCount());
+        assertEquals(0, ScorerCache.getHitRate(), 0);
+    }
+
+    @Test
+    public void scoresAreUnchanged() {
+        Random random = new Random(23);
+        String[] queries = new String[6];
+        for (int i = 0; i < queries.length; ++i) {
+            queries[i] = CHOICES[random.nextInt(CHOICES.length)] + (i % 3 == 0 ? "s" : "");
+        }
+        double[] expected = new double[queries.length * CHOICES.length * FLAGS.length * TYPE_QUICK_RATIO];
+        scoreAll(queries, expected);
+        ScorerCache.setEnabled(true);
+        assertTrue(ScorerCache.isEnabled());
+        double[] actual = new double[expected.length];
+        // Twice, so that the second round is served from the cache
+        scoreAll(queries, actual);
+        assertArrayEquals(expected, actual, 1e-9);
+        scoreAll(queries, actual);
+        assertArrayEquals(expected, actual, 1e-9);
+        assertTrue(ScorerCache.getHitCount() > 0);
+        // The simple overloads without flags use the cache too
+        ScorerCache.reset();
+        assertEquals(RapidFuzz.ratio("new york", "york"), RapidFuzz.ratio("new york", "york"), 0);
+        assertEquals(1, ScorerCache.getMissCount());
+        assertEquals(1, ScorerCache.getHitCount());
+    }
+
+    @Test
+    public void hitsAndMisses() {
+        ScorerCache.setEnabled(true);
+        for (String choice : CHOICES) {
+            RapidFuzz.ratio("new york", choice, TYPE_RATIO, 0, 0);
+        }
+        assertEquals(1, ScorerCache.getMissCount());
+        assertEquals(CHOICES.length - 1, ScorerCache.getHitCount());
+        assertEquals((double) (CHOICES.length - 1) / CHOICES.length, ScorerCache.getHitRate(), 1e-9);
+        // Each ratio type and flags has its own scorer
+        RapidFuzz.ratio("new york", "york", TYPE_PARTIAL_RATIO, 0, 0);
+        RapidFuzz.ratio("new york", "york", TYPE_RATIO, 0, FLAG_DEFAULT_PROCESS);
+        assertEquals(3, ScorerCache.getMissCount());
+        RapidFuzz.ratio("new york", "york", TYPE_PARTIAL_RATIO, 0, 0);
+        RapidFuzz.ratio("new york", "york", TYPE_RATIO, 0, FLAG_DEFAULT_PROCESS);
+        assertEquals(3, ScorerCache.getMissCount());
+        assertEquals(CHOICES.length + 1, ScorerCache.getHitCount());
+        ScorerCache.reset();
+        assertEquals(0, ScorerCache.getHitCount());
+        assertEquals(0, ScorerCache.getMissCount());
+        assertEquals(0, ScorerCache.getHitRate(), 0);
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        ScorerCache.setEnabled(true);
+        ScorerCache.setCapacity(2);
+        assertEquals(2, ScorerCache.getCapacity());
+        assertMiss("a");
+        assertMiss("b");
+        assertHit("a");
+        // Evicts b, which is used less recently than a
+        assertMiss("c");
+        assertHit("a");
+        assertMiss("b");
+        // Evicts c
+        assertHit("a");
+        assertMiss("c");
+        assertThrows(IllegalArgumentException.class, () -> ScorerCache.setCapacity(0));
+        assertEquals(2, ScorerCache.getCapacity());
+    }
+
+    @Test
+    public void settingsDropScorers() {
+        ScorerCache.setEnabled(true);
+        assertMiss("a");
+        assertHit("a");
+        ScorerCache.setCapacity(3);
+        assertMiss("a");
+        ScorerCache.setEnabled(false);
+        RapidFuzz.ratio("a", "b", TYPE_RATIO, 0, 0);
+        ScorerCache.setEnabled(true);
+        assertMiss("a");
+    }
+
+    @Test
+    public void threadsHaveTheirOwnScorers() throws InterruptedException {
+        ScorerCache.setEnabled(true);
+        assertMiss("a");
+        Thread thread = new Thread(() -> {
+            RapidFuzz.ratio("a", "b", TYPE_RATIO, 0, 0);
+            RapidFuzz.ratio("a", "b", TYPE_RATIO, 0, 0);
+        });
+        thread.start();
+        thread.join();
+        assertEquals(2, ScorerCache.getMissCount());
+        assertEquals(1, ScorerCache.getHitCount());
+        assertHit("a");
+    }
+
+    private static void assertMiss(String s1) {
+        long misses = ScorerCache.getMissCount();
+        RapidFuzz.ratio(s1, "b", TYPE_RATIO, 0, 0);
+        assertEquals(misses + 1, ScorerCache.getMissCount());
+    }
+
+    private static void assertHit(String s1) {
+        long hits = ScorerCache.getHitCount();
+        RapidFuzz.ratio(s1, "b", TYPE_RATIO, 0, 0);
+        assertEquals(hits + 1, ScorerCache.getHitCount());
+    }
+
+    private static void scoreAll(String[] queries, double[] scores) {
+        int i = 0;
+        for (String query : queries) {
+            for (int flags : FLAGS) {
+                for (int ratioType = TYPE_RATIO; ratioType <= TYPE_QUICK_RATIO; ++ratioType) {
+                    for (String choice : CHOICES) {
+                        scores[i++] = RapidFuzz.ratio(query, choice, ratioType, 0, flags);
+                    }
+                }
+            }
+        }
+    }
+}
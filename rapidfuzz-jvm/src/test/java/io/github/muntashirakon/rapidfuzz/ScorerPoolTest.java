@@ -0,0 +1,154 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ScorerPoolTest {
+    // Queries of the same length take the same estimated memory
+    private static final long BYTES = RapidFuzzCached.estimateNativeBytes("aaa");
+
+    @Test
+    public void hitsAndMisses() {
+        try (ScorerPool pool = new ScorerPool(ScorerPool.DEFAULT_MAX_BYTES)) {
+            RapidFuzzCached scorer;
+            try (ScorerPool.Lease lease = pool.acquire("aaa", TYPE_RATIO, 0)) {
+                scorer = lease.getScorer();
+            }
+            try (ScorerPool.Lease lease = pool.acquire("aaa", TYPE_RATIO, 0)) {
+                assertSame(scorer, lease.getScorer());
+            }
+            // The ratio type and the flags are part of the key
+            try (ScorerPool.Lease lease = pool.acquire("aaa", TYPE_PARTIAL_RATIO, 0);
+                 ScorerPool.Lease other = pool.acquire("aaa", TYPE_RATIO, FLAG_DEFAULT_PROCESS)) {
+                assertNotSame(scorer, lease.getScorer());
+                assertNotSame(scorer, other.getScorer());
+                assertEquals(100, lease.getScorer().ratio("xaaax"), 0);
+                assertEquals(FLAG_DEFAULT_PROCESS, other.getScorer().getFlags());
+            }
+            assertEquals(1, pool.getHitCount());
+            assertEquals(3, pool.getMissCount());
+            assertEquals(3, pool.size());
+            assertEquals(3 * BYTES, pool.getBytes());
+            assertEquals(0, pool.getEvictionCount());
+        }
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        try (ScorerPool pool = new ScorerPool(2 * BYTES)) {
+            RapidFuzzCached a = use(pool, "aaa");
+            RapidFuzzCached b = use(pool, "bbb");
+            // a becomes the most recently used
+            assertSame(a, use(pool, "aaa"));
+            RapidFuzzCached c = use(pool, "ccc");
+            assertEquals(2, pool.size());
+            assertEquals(1, pool.getEvictionCount());
+            assertEquals(2 * BYTES, pool.getBytes());
+            // b was evicted and freed
+            assertThrows(IllegalStateException.class, () -> b.ratio("bbb"));
+            assertSame(a, use(pool, "aaa"));
+            assertSame(c, use(pool, "ccc"));
+            assertNotSame(b, use(pool, "bbb"));
+        }
+    }
+
+    @Test
+    public void leasedScorersAreNotEvicted() {
+        try (ScorerPool pool = new ScorerPool(0)) {
+            ScorerPool.Lease lease = pool.acquire("aaa", TYPE_RATIO, 0);
+            RapidFuzzCached scorer = lease.getScorer();
+            // Over budget, but still leased
+            assertEquals(1, pool.size());
+            try (ScorerPool.Lease other = pool.acquire("aaa", TYPE_RATIO, 0)) {
+                assertSame(scorer, other.getScorer());
+            }
+            assertEquals(100, scorer.ratio("aaa"), 0);
+            lease.close();
+            assertEquals(0, pool.size());
+            assertEquals(0, pool.getBytes());
+            assertThrows(IllegalStateException.class, () -> scorer.ratio("aaa"));
+        }
+    }
+
+    @Test
+    public void evictAllWaitsForLeases() {
+        try (ScorerPool pool = new ScorerPool(ScorerPool.DEFAULT_MAX_BYTES)) {
+            RapidFuzzCached released = use(pool, "aaa");
+            ScorerPool.Lease lease = pool.acquire("bbb", TYPE_RATIO, 0);
+            pool.evictAll();
+            assertEquals(0, pool.size());
+            assertThrows(IllegalStateException.class, () -> released.ratio("aaa"));
+            assertEquals(100, lease.getScorer().ratio("bbb"), 0);
+            lease.close();
+            assertThrows(IllegalStateException.class, () -> lease.getScorer().ratio("bbb"));
+            // The pool is still usable
+            assertEquals(100, use(pool, "aaa").ratio("aaa"), 0);
+            assertEquals(1, pool.size());
+        }
+    }
+
+    @Test
+    public void concurrentLeases() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (ScorerPool pool = new ScorerPool(4 * BYTES)) {
+            List<Future<Double>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; ++t) {
+                final int seed = t;
+                futures.add(executor.submit(new Callable<Double>() {
+                    @Override
+                    public Double call() {
+                        double sum = 0;
+                        for (int i = 0; i < 5000; ++i) {
+                            String query = String.valueOf((char) ('a' + (i * 7 + seed) % 8)) + "aa";
+                            try (ScorerPool.Lease lease = pool.acquire(query, TYPE_RATIO, 0)) {
+                                sum += lease.getScorer().ratio(query);
+                            }
+                        }
+                        return sum;
+                    }
+                }));
+            }
+            for (Future<Double> future : futures) {
+                assertEquals(5000 * 100, future.get(), 0);
+            }
+            assertEquals(8 * 5000, pool.getHitCount() + pool.getMissCount());
+            // Once every lease is closed, the pool is back within its budget
+            assertEquals(pool.size() * BYTES, pool.getBytes());
+            assertTrue(pool.getBytes() <= pool.getMaxBytes());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ScorerPool(-1));
+        try (ScorerPool pool = new ScorerPool(0)) {
+            assertThrows(IllegalArgumentException.class, () -> pool.acquire("a", 0, 0));
+            assertEquals(0, pool.size());
+        }
+    }
+
+    private static RapidFuzzCached use(ScorerPool pool, String query) {
+        try (ScorerPool.Lease lease = pool.acquire(query, TYPE_RATIO, 0)) {
+            return lease.getScorer();
+        }
+    }
+}
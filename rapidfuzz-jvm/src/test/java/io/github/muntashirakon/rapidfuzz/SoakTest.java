@@ -0,0 +1,78 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the JNI strings and arrays are released by scoring the same strings millions of times and comparing the
+ * resident set size before and after. None of the calls allocates on the Java heap, so the heap does not grow either.
+ */
+public class SoakTest {
+    private static final File STATUS = new File("/proc/self/status");
+    private static final int ROUNDS = 100_000;
+    // Leaking 12 bytes per call, less than any JNI string copy, exceeds this
+    private static final long MAX_GROWTH_KB = 16 * 1024;
+
+    private static final String[] CHOICES = {"Atlanta Falcons", "New York Jets", "New York Giants", "Dallas Cowboys",
+            "Caf\u00e9 \ud83d\ude00", "\u09a2\u09be\u0995\u09be"};
+
+    @Test
+    public void residentSetSizeStaysFlat() throws IOException {
+        assumeTrue(STATUS.canRead());
+        try (RapidFuzzCached scorer = new RapidFuzzCached("new york jets", TYPE_WEIGHTED_RATIO, FLAG_DEFAULT_PROCESS);
+             ChoiceIndex index = new ChoiceIndex(Arrays.asList(CHOICES), FLAG_DEFAULT_PROCESS)) {
+            ExtractResults results = new ExtractResults(CHOICES.length);
+            run(scorer, index, results, ROUNDS / 10);
+            long before = getResidentSetSizeKb();
+            long calls = run(scorer, index, results, ROUNDS);
+            long growth = getResidentSetSizeKb() - before;
+            assertTrue("RSS grew by " + growth + " kB after " + calls + " calls", growth < MAX_GROWTH_KB);
+        }
+    }
+
+    private static long run(RapidFuzzCached scorer, ChoiceIndex index, ExtractResults results, int rounds) {
+        long calls = 0;
+        double sum = 0;
+        for (int round = 0; round < rounds; ++round) {
+            String choice = CHOICES[round % CHOICES.length];
+            String other = CHOICES[(round + 1) % CHOICES.length];
+            for (int ratioType = TYPE_RATIO; ratioType <= TYPE_QUICK_RATIO; ++ratioType) {
+                sum += RapidFuzz.ratio(choice, other, ratioType, 0, round % 2 == 0 ? 0 : FLAG_DEFAULT_PROCESS);
+            }
+            sum += scorer.ratio(choice);
+            sum += scorer.extractAll(CHOICES, 0, results);
+            sum += scorer.extractTop(CHOICES, 2, 0, results);
+            sum += index.extractAll(scorer, 50, results);
+            calls += TYPE_QUICK_RATIO + 4;
+        }
+        // Keeps the calls from being optimized away
+        assertTrue(sum > 0);
+        return calls;
+    }
+
+    private static long getResidentSetSizeKb() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(STATUS))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                }
+            }
+        }
+        throw new IOException("VmRSS not found");
+    }
+}
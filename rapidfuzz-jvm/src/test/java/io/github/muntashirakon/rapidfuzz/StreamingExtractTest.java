@@ -0,0 +1,136 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.ExtractTest.assertResultsEqual;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.FLAG_DEFAULT_PROCESS;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SET_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingExtractTest {
+    private static final String[] WORDS = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"};
+    // Several batches and a partial one
+    private static final int COUNT = 2 * StreamingExtractor.BATCH_SIZE + 123;
+
+    private static String[] getChoices(long seed) {
+        Random random = new Random(seed);
+        String[] choices = new String[COUNT];
+        for (int i = 0; i < COUNT; ++i) {
+            choices[i] = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + random.nextInt(1000);
+        }
+        return choices;
+    }
+
+    @Test
+    public void extractAllMatchesArrays() {
+        String[] choices = getChoices(1);
+        for (int ratioType : new int[]{TYPE_RATIO, TYPE_TOKEN_SET_RATIO, TYPE_WEIGHTED_RATIO}) {
+            for (double cutoff : new double[]{0, 60}) {
+                List<Result<String>> expected = RapidFuzzCached.extractAll("Gamma Delta 42", choices, ratioType,
+                        cutoff, FLAG_DEFAULT_PROCESS);
+                List<Result<String>> actual = RapidFuzzCached.extractAll("Gamma Delta 42",
+                        Arrays.asList(choices).iterator(), ratioType, cutoff, FLAG_DEFAULT_PROCESS);
+                assertResultsEqual(expected, actual);
+                for (Result<String> result : actual) {
+                    assertSame(choices[result.getIndex()], result.getObject());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void extractMatchesArrays() {
+        String[] choices = getChoices(2);
+        for (int limit : new int[]{1, 5, StreamingExtractor.BATCH_SIZE + 1, COUNT + 1}) {
+            for (double cutoff : new double[]{0, 50}) {
+                assertResultsEqual(RapidFuzzCached.extract("eta theta 7", choices, TYPE_WEIGHTED_RATIO, limit,
+                        cutoff, 0), RapidFuzzCached.extract("eta theta 7", Arrays.asList(choices).iterator(),
+                        TYPE_WEIGHTED_RATIO, limit, cutoff, 0));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> RapidFuzzCached.extract("a",
+                Arrays.asList(choices).iterator(), TYPE_RATIO, 0, 0, 0));
+    }
+
+    @Test
+    public void extractOneMatchesArrays() {
+        String[] choices = getChoices(3);
+        // None of the choices is a perfect match, so that all of them are scored
+        Result<String> expected = RapidFuzzCached.extractOne("zeta alpha", choices, TYPE_RATIO, 0, 0);
+        Result<String> actual = RapidFuzzCached.extractOne("zeta alpha", Arrays.asList(choices).iterator(),
+                TYPE_RATIO, 0, 0);
+        assertTrue(expected.getScore() < 100);
+        assertEquals(expected.getIndex(), actual.getIndex());
+        assertEquals(expected.getScore(), actual.getScore(), 0);
+        assertNull(RapidFuzzCached.extractOne("zeta alpha", Arrays.asList(choices).iterator(), TYPE_RATIO, 99, 0));
+    }
+
+    @Test
+    public void extractOneStopsAtPerfectMatch() {
+        String[] choices = getChoices(4);
+        choices[10] = "perfect";
+        CountingIterator<String> it = new CountingIterator<>(Arrays.asList(choices).iterator());
+        Result<String> result = RapidFuzzCached.extractOne("perfect", it, TYPE_RATIO, 0, 0);
+        assertEquals(10, result.getIndex());
+        assertEquals(100, result.getScore(), 0);
+        // Only the first batch was consumed
+        assertEquals(StreamingExtractor.BATCH_SIZE, it.count);
+    }
+
+    @Test
+    public void generatorsAndNullChoices() {
+        List<int[]> objects = new ArrayList<>();
+        for (int i = 0; i < COUNT; ++i) {
+            objects.add(new int[]{i % 10, i % 7});
+        }
+        RapidFuzzCached.ChoiceGenerator<int[]> generator = Arrays::toString;
+        assertResultsEqual(RapidFuzzCached.extractAll("[3, 4]", objects, generator, TYPE_RATIO, 80),
+                RapidFuzzCached.extractAll("[3, 4]", objects.iterator(), generator, TYPE_RATIO, 80, 0));
+        assertResultsEqual(RapidFuzzCached.extract("[3, 4]", objects, generator, TYPE_RATIO, 20, 0),
+                RapidFuzzCached.extract("[3, 4]", objects.iterator(), generator, TYPE_RATIO, 20, 0, 0));
+        Result<int[]> result = RapidFuzzCached.extractOne("[3, 4]", objects.iterator(), generator, TYPE_RATIO, 0, 0);
+        assertEquals("[3, 4]", Arrays.toString(result.getObject()));
+        // Null strings are skipped
+        List<String> strings = Arrays.asList(null, "a", null, "b");
+        assertEquals(Arrays.asList(1, 3), ExtractTest.getIndices(RapidFuzzCached.extractAll("a",
+                strings.iterator(), TYPE_RATIO, 0, 0)));
+        assertNull(RapidFuzzCached.extractAll("a", (Iterator<String>) null, TYPE_RATIO, 0, 0));
+    }
+
+    private static final class CountingIterator<T> implements Iterator<T> {
+        private final Iterator<T> mIterator;
+        int count;
+
+        CountingIterator(Iterator<T> iterator) {
+            mIterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            ++count;
+            return mIterator.next();
+        }
+    }
+}
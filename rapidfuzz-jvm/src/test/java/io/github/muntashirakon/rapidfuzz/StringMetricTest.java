@@ -0,0 +1,147 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.github.muntashirakon.rapidfuzz.StringMetric.TYPE_HAMMING;
+import static io.github.muntashirakon.rapidfuzz.StringMetric.TYPE_LEVENSHTEIN;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class StringMetricTest {
+    private static final double DELTA = 1e-9;
+    private static final int[][] WEIGHTS = {{1, 1, 1}, {1, 1, 2}, {2, 3, 4}, {1, 1, 0}, {5, 1, 1}};
+
+    @Test
+    public void documentedDistances() {
+        assertEquals(2, StringMetric.levenshtein("lewenstein", "levenshtein"));
+        assertEquals(3, StringMetric.levenshtein("lewenstein", "levenshtein", 1, 1, 2, Integer.MAX_VALUE));
+        assertEquals(-1, StringMetric.levenshtein("lewenstein", "levenshtein", 1));
+        assertEquals(3, StringMetric.hamming("karolin", "kathrin"));
+        assertEquals(100, StringMetric.normalizedLevenshtein("", ""), DELTA);
+        assertEquals(100, StringMetric.normalizedHamming("", ""), DELTA);
+    }
+
+    @Test
+    public void matchesDynamicProgramming() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; ++i) {
+            String s1 = randomString(random);
+            String s2 = randomString(random);
+            for (int[] w : WEIGHTS) {
+                int expected = levenshtein(s1, s2, w[0], w[1], w[2]);
+                assertEquals(s1 + " / " + s2, expected, StringMetric.levenshtein(s1, s2, w[0], w[1], w[2],
+                        Integer.MAX_VALUE));
+                int max = random.nextInt(6);
+                assertEquals(expected <= max ? expected : -1, StringMetric.levenshtein(s1, s2, w[0], w[1], w[2],
+                        max));
+            }
+            int distance = levenshtein(s1, s2, 1, 1, 1);
+            int maxLength = Math.max(s1.length(), s2.length());
+            double expected = maxLength == 0 ? 100 : 100 - 100.0 * distance / maxLength;
+            assertEquals(expected, StringMetric.normalizedLevenshtein(s1, s2), DELTA);
+            assertEquals(expected >= 50 ? expected : 0, StringMetric.normalizedLevenshtein(s1, s2, 50), DELTA);
+            // Substitutions cost as much as a deletion and an insertion, i.e. the InDel distance
+            int indel = levenshtein(s1, s2, 1, 1, 2);
+            int totalLength = s1.length() + s2.length();
+            assertEquals(totalLength == 0 ? 100 : 100 - 100.0 * indel / totalLength,
+                    StringMetric.normalizedLevenshtein(s1, s2, 1, 1, 2, 0), DELTA);
+            String s3 = randomString(random, s1.length());
+            int hamming = 0;
+            for (int j = 0; j < s1.length(); ++j) {
+                if (s1.charAt(j) != s3.charAt(j)) ++hamming;
+            }
+            assertEquals(hamming, StringMetric.hamming(s1, s3));
+            assertEquals(hamming <= 2 ? hamming : -1, StringMetric.hamming(s1, s3, 2));
+            assertEquals(s1.isEmpty() ? 100 : 100 - 100.0 * hamming / s1.length(),
+                    StringMetric.normalizedHamming(s1, s3), DELTA);
+        }
+    }
+
+    @Test
+    public void cachedMatchesStatic() {
+        Random random = new Random(7);
+        String[] choices = new String[200];
+        for (int i = 0; i < choices.length; ++i) {
+            choices[i] = randomString(random);
+        }
+        String query = "abcab";
+        for (int[] w : WEIGHTS) {
+            try (StringMetricCached metric = new StringMetricCached(query, w[0], w[1], w[2])) {
+                int[] expected = new int[choices.length];
+                double[] normalized = new double[choices.length];
+                for (int i = 0; i < choices.length; ++i) {
+                    expected[i] = StringMetric.levenshtein(query, choices[i], w[0], w[1], w[2], 3);
+                    normalized[i] = StringMetric.normalizedLevenshtein(query, choices[i], w[0], w[1], w[2], 40);
+                    assertEquals(expected[i], metric.distance(choices[i], 3));
+                    assertEquals(normalized[i], metric.normalized(choices[i], 40), DELTA);
+                }
+                assertArrayEquals(expected, metric.distance(choices, 3));
+                assertArrayEquals(normalized, metric.normalized(choices, 40), DELTA);
+            }
+        }
+        try (StringMetricCached metric = new StringMetricCached(query, TYPE_HAMMING)) {
+            assertEquals(2, metric.distance("abccc"));
+            assertEquals(60, metric.normalized("abccc"), DELTA);
+            // Choices of other lengths and null choices are reported as no match in batch calls
+            assertArrayEquals(new int[]{2, -1, -1, -1}, metric.distance(new String[]{"abccc", "abc", null, "ccccc"},
+                    3));
+            assertArrayEquals(new double[]{60, 0, 0}, metric.normalized(new String[]{"abccc", "abcabc", null}, 0),
+                    DELTA);
+        }
+    }
+
+    @Test
+    public void invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> StringMetric.levenshtein("a", "b", -1, 1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> StringMetric.levenshtein("a", "b", -1));
+        assertThrows(IllegalArgumentException.class, () -> StringMetric.normalizedLevenshtein("a", "b", 1, 1, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> StringMetric.hamming("a", "ab"));
+        assertThrows(IllegalArgumentException.class, () -> StringMetric.hamming("a", "b", -1));
+        assertThrows(IllegalArgumentException.class, () -> StringMetric.normalizedHamming("a", "ab"));
+        assertThrows(IllegalArgumentException.class, () -> new StringMetricCached("a", 3));
+        assertThrows(IllegalArgumentException.class, () -> new StringMetricCached("a", 1, -1, 1));
+        try (StringMetricCached metric = new StringMetricCached("abc", TYPE_LEVENSHTEIN);
+             StringMetricCached hamming = new StringMetricCached("abc", TYPE_HAMMING)) {
+            assertThrows(IllegalArgumentException.class, () -> metric.distance("abc", -1));
+            assertThrows(IllegalArgumentException.class, () -> metric.distance(new String[]{"abc"}, -1));
+            assertThrows(IllegalArgumentException.class, () -> hamming.distance("ab"));
+            assertThrows(IllegalArgumentException.class, () -> hamming.normalized("ab"));
+        }
+    }
+
+    private static String randomString(Random random) {
+        return randomString(random, random.nextInt(9));
+    }
+
+    private static String randomString(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i) {
+            chars[i] = (char) ('a' + random.nextInt(3));
+        }
+        return new String(chars);
+    }
+
+    static int levenshtein(String s1, String s2, int insertCost, int deleteCost, int replaceCost) {
+        int[] previous = new int[s2.length() + 1];
+        int[] current = new int[s2.length() + 1];
+        for (int j = 0; j <= s2.length(); ++j) {
+            previous[j] = j * insertCost;
+        }
+        for (int i = 1; i <= s1.length(); ++i) {
+            current[0] = i * deleteCost;
+            for (int j = 1; j <= s2.length(); ++j) {
+                int replace = previous[j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : replaceCost);
+                current[j] = Math.min(replace, Math.min(previous[j] + deleteCost, current[j - 1] + insertCost));
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[s2.length()];
+    }
+}
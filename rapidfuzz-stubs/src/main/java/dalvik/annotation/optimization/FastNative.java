@@ -0,0 +1,18 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package dalvik.annotation.optimization;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the ART annotation of the same name, which is not part of the public SDK. ART recognizes it by its name on
+ * Android 8 and later and calls the annotated native method without switching the thread out of the runnable state,
+ * so that the method must return quickly and must not block. Older versions of Android and other JVMs ignore it.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface FastNative {
+}
@@ -0,0 +1,225 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_ALIGNMENT_HPP
+#define RAPIDFUZZ_ALIGNMENT_HPP
+
+#include <algorithm>
+#include <cmath>
+#include <cstdint>
+#include <string>
+#include <unordered_map>
+#include <vector>
+
+#include <jni.h>
+#include <rapidfuzz/fuzz.hpp>
+
+#include "jni_string.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
+
+// Alignments behind the scores of ratio and partial_ratio. Each aligned pair of ranges is appended as 4 ints: the start
+// and end of the range in s1 followed by those in s2. They are indices of UTF-16 code units of the strings as given,
+// i.e. before they are processed or converted to code points.
+
+// A string as it is scored, along with the range of the original string that each of its units comes from
+template<typename CharT>
+struct AlignedString {
+    std::basic_string<CharT> units;
+    // Pairs of begin and end indices in the original string
+    std::vector<uint32_t> sources;
+
+    rapidfuzz::basic_string_view<CharT> view() const {
+        return rapidfuzz::basic_string_view<CharT>(units.data(), units.size());
+    }
+
+    // Appends the range of the original string covered by the units [begin, end)
+    void append_range(size_t begin, size_t end, std::vector<jint> &out) const {
+        if (begin < end) {
+            out.push_back((jint) sources[2 * begin]);
+            out.push_back((jint) sources[2 * end - 1]);
+            return;
+        }
+        jint position;
+        if (begin < units.size()) {
+            position = (jint) sources[2 * begin];
+        } else {
+            position = units.empty() ? 0 : (jint) sources[2 * units.size() - 1];
+        }
+        out.push_back(position);
+        out.push_back(position);
+    }
+};
+
+// Processes a string as selected by flags while keeping track of where each unit comes from
+static inline void prepare_aligned(jstring_view input, jint flags, AlignedString<char16_t> &out) {
+    process_string(input, flags, out.units, &out.sources);
+}
+
+static inline void prepare_aligned(jstring_view input, jint flags, AlignedString<char32_t> &out) {
+    std::u16string processed;
+    std::vector<uint32_t> sources;
+    process_string(input, flags, processed, &sources);
+    to_code_points(jstring_view(processed.data(), processed.size()), out.units);
+    // A code point covers the ranges of all of its units
+    out.sources.clear();
+    out.sources.reserve(2 * out.units.size());
+    size_t unit = 0;
+    for (char32_t ch : out.units) {
+        size_t width = ch >= 0x10000 ? 2 : 1;
+        out.sources.push_back(sources[2 * unit]);
+        out.sources.push_back(sources[2 * (unit + width) - 1]);
+        unit += width;
+    }
+}
+
+// Appends the matching blocks of a longest common subsequence of s1 and s2, which is what ratio is computed from. Each
+// block is a run of units that are consecutive in both strings. The subsequence is found with the bit-parallel
+// algorithm of Hyyro, whose bit vector after each unit of s2 is kept to trace the subsequence back, so that memory is
+// proportional to the product of the lengths divided by 64.
+template<typename CharT>
+static void append_matching_blocks(const AlignedString<CharT> &s1, const AlignedString<CharT> &s2,
+                                   std::vector<jint> &out) {
+    size_t m = s1.units.size();
+    size_t n = s2.units.size();
+    if (m == 0 || n == 0) return;
+    size_t words = (m + 63) / 64;
+    // Bit i of the mask of a unit is set if s1[i] is that unit
+    std::unordered_map<CharT, size_t> mask_index;
+    std::vector<uint64_t> masks;
+    for (size_t i = 0; i < m; ++i) {
+        auto entry = mask_index.emplace(s1.units[i], masks.size());
+        if (entry.second) masks.resize(masks.size() + words, 0);
+        masks[entry.first->second + i / 64] |= (uint64_t) 1 << (i % 64);
+    }
+    // Bit i of row j is clear if the subsequence of s1[0, i + 1) and s2[0, j + 1) is longer than that of s1[0, i)
+    std::vector<uint64_t> rows(n * words);
+    std::vector<uint64_t> row(words, ~(uint64_t) 0);
+    for (size_t j = 0; j < n; ++j) {
+        auto entry = mask_index.find(s2.units[j]);
+        if (entry != mask_index.end()) {
+            const uint64_t *mask = &masks[entry->second];
+            uint64_t carry = 0;
+            for (size_t w = 0; w < words; ++w) {
+                uint64_t matches = row[w] & mask[w];
+                uint64_t sum = row[w] + carry;
+                carry = sum < carry;
+                sum += matches;
+                carry |= sum < matches;
+                row[w] = sum | (row[w] - matches);
+            }
+        }
+        std::copy(row.begin(), row.end(), rows.begin() + j * words);
+    }
+    auto is_set = [&](size_t j, size_t i) {
+        return (rows[j * words + i / 64] >> (i % 64)) & 1;
+    };
+    // Trace the subsequence back from the ends of both strings
+    std::vector<std::pair<size_t, size_t>> matches;
+    size_t i = m;
+    size_t j = n;
+    while (i > 0 && j > 0) {
+        if (is_set(j - 1, i - 1)) {
+            // s1[i - 1] is not part of the subsequence
+            --i;
+            continue;
+        }
+        --j;
+        // Unless s2[j] is not part of the subsequence either, it matches s1[i - 1]
+        if (j == 0 || is_set(j - 1, i - 1)) {
+            --i;
+            matches.emplace_back(i, j);
+        }
+    }
+    std::reverse(matches.begin(), matches.end());
+    for (size_t k = 0; k < matches.size();) {
+        size_t length = 1;
+        while (k + length < matches.size() && matches[k + length].first == matches[k].first + length
+               && matches[k + length].second == matches[k].second + length) {
+            ++length;
+        }
+        s1.append_range(matches[k].first, matches[k].first + length, out);
+        s2.append_range(matches[k].second, matches[k].second + length, out);
+        k += length;
+    }
+}
+
+// Appends the alignment of partial_ratio, i.e. the whole of the shorter string and the substring of the longer one
+// that has the best ratio with it. Besides the substrings with the length of the shorter string, partial_ratio may
+// compare those cut short by either end of the longer string, so all of them are tried in the order prefixes, full
+// substrings, suffixes. The first one with the score of partial_ratio is chosen, or else the one with the best ratio.
+template<typename CharT>
+static void append_partial_ratio_alignment(const AlignedString<CharT> &s1, const AlignedString<CharT> &s2,
+                                           std::vector<jint> &out) {
+    bool swapped = s1.units.size() > s2.units.size();
+    const AlignedString<CharT> &shorter = swapped ? s2 : s1;
+    const AlignedString<CharT> &longer = swapped ? s1 : s2;
+    size_t m = shorter.units.size();
+    size_t n = longer.units.size();
+    size_t best_start = 0;
+    size_t best_end = 0;
+    if (m > 0) {
+        rapidfuzz::basic_string_view<CharT> text = longer.view();
+        double target = rapidfuzz::fuzz::partial_ratio(shorter.view(), text);
+        rapidfuzz::fuzz::CachedRatio<std::basic_string<CharT>> scorer(shorter.units);
+        double best_score = -1;
+        bool found = false;
+        auto try_window = [&](size_t start, size_t end) {
+            if (found) return;
+            double score = scorer.ratio(text.substr(start, end - start));
+            found = std::fabs(score - target) < 1e-9;
+            if (found || score > best_score) {
+                best_score = score;
+                best_start = start;
+                best_end = end;
+            }
+        };
+        for (size_t end = 1; end < m; ++end) {
+            try_window(0, end);
+        }
+        for (size_t start = 0; start + m <= n; ++start) {
+            try_window(start, start + m);
+        }
+        for (size_t start = n - m + 1; start < n; ++start) {
+            try_window(start, n);
+        }
+    }
+    if (swapped) {
+        longer.append_range(best_start, best_end, out);
+        shorter.append_range(0, m, out);
+    } else {
+        shorter.append_range(0, m, out);
+        longer.append_range(best_start, best_end, out);
+    }
+}
+
+// Appends the alignment behind the score of a ratio type, which must be TYPE_RATIO, TYPE_PARTIAL_RATIO or
+// TYPE_QUICK_RATIO
+template<typename CharT>
+static void append_alignment(jint ratio_type, const AlignedString<CharT> &s1, const AlignedString<CharT> &s2,
+                             std::vector<jint> &out) {
+    if (ratio_type == io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_RATIO) {
+        append_partial_ratio_alignment(s1, s2, out);
+    } else {
+        append_matching_blocks(s1, s2, out);
+    }
+}
+
+// Appends the alignment of s1 and s2 processed and converted as selected by flags
+template<typename CharT>
+static void append_alignment(jint ratio_type, jstring_view s1, jstring_view s2, jint flags, std::vector<jint> &out) {
+    AlignedString<CharT> str1;
+    AlignedString<CharT> str2;
+    prepare_aligned(s1, flags, str1);
+    prepare_aligned(s2, flags, str2);
+    append_alignment(ratio_type, str1, str2, out);
+}
+
+static inline jintArray to_int_array(JNIEnv *env, const std::vector<jint> &values) {
+    jintArray array = env->NewIntArray((jsize) values.size());
+    if (array != NULL && !values.empty()) {
+        env->SetIntArrayRegion(array, 0, (jsize) values.size(), values.data());
+    }
+    return array;
+}
+
+#endif // RAPIDFUZZ_ALIGNMENT_HPP
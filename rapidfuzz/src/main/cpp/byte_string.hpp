@@ -0,0 +1,131 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_BYTE_STRING_HPP
+#define RAPIDFUZZ_BYTE_STRING_HPP
+
+#include <cstdint>
+#include <string>
+
+#include <jni.h>
+
+#include "jni_string.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
+
+// Strings given as encoded bytes in a byte[] or a direct ByteBuffer. They are decoded into UTF-16 code units in native
+// code, so that they are scored exactly like the equivalent Java strings without ever creating one.
+
+#define REPLACEMENT_CHARACTER 0xFFFD
+
+// Decodes UTF-8 into UTF-16 code units. Ill-formed sequences are replaced with U+FFFD the same way as the UTF-8 decoder
+// of Java does, i.e. each maximal subpart is replaced except that an encoded surrogate is replaced as a whole.
+static void decode_utf8(const uint8_t *bytes, size_t length, std::u16string &units) {
+    units.clear();
+    units.reserve(length);
+    size_t i = 0;
+    while (i < length) {
+        uint8_t lead = bytes[i++];
+        if (lead < 0x80) {
+            units.push_back((char16_t) lead);
+            continue;
+        }
+        size_t trail_count;
+        char32_t code_point;
+        // Range of the first trail byte, which rules out overlong forms and code points above U+10FFFF
+        uint8_t low = 0x80;
+        uint8_t high = 0xBF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            trail_count = 1;
+            code_point = lead & 0x1F;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            trail_count = 2;
+            code_point = lead & 0x0F;
+            if (lead == 0xE0) low = 0xA0;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            trail_count = 3;
+            code_point = lead & 0x07;
+            if (lead == 0xF0) low = 0x90;
+            if (lead == 0xF4) high = 0x8F;
+        } else {
+            units.push_back(REPLACEMENT_CHARACTER);
+            continue;
+        }
+        bool valid = true;
+        for (size_t j = 0; j < trail_count; ++j) {
+            if (i >= length || bytes[i] < low || bytes[i] > high) {
+                valid = false;
+                break;
+            }
+            code_point = (code_point << 6) | (bytes[i++] & 0x3F);
+            low = 0x80;
+            high = 0xBF;
+        }
+        if (valid && (code_point < 0xD800 || code_point > 0xDFFF)) {
+            append_code_point(units, code_point);
+        } else {
+            // Unless the sequence is a complete surrogate, the offending byte is decoded again as the start of the
+            // next sequence
+            units.push_back(REPLACEMENT_CHARACTER);
+        }
+    }
+}
+
+// Decodes bytes in the given encoding, one of the RapidFuzz#ENCODING_* constants, into UTF-16 code units
+static inline jstring_view decode_bytes(const uint8_t *bytes, size_t length, jint encoding, std::u16string &units) {
+    if (encoding == io_github_muntashirakon_rapidfuzz_RapidFuzz_ENCODING_LATIN_1) {
+        units.assign(bytes, bytes + length);
+    } else {
+        decode_utf8(bytes, length, units);
+    }
+    return jstring_view(units.data(), units.size());
+}
+
+// Buffer reused by the calling thread for decoded byte strings. It is separate from the buffers of jni_string.hpp and
+// processor.hpp, so that a decoded string can be passed to functions using those.
+static inline std::u16string &get_decoding_buffer() {
+    static thread_local std::u16string buffer;
+    return buffer;
+}
+
+// Direct access to the bytes of a byte[] or a direct ByteBuffer, released when it goes out of scope. A byte[] is
+// pinned, so no other JNI function may be called while it is alive.
+class CriticalBytes {
+public:
+    CriticalBytes(JNIEnv *env, jobject data, jboolean direct) : m_env(env), m_array(NULL) {
+        if (direct) {
+            m_bytes = (const uint8_t *) env->GetDirectBufferAddress(data);
+        } else {
+            m_array = (jbyteArray) data;
+            m_bytes = (const uint8_t *) env->GetPrimitiveArrayCritical(m_array, NULL);
+        }
+    }
+
+    ~CriticalBytes() {
+        if (m_array != NULL && m_bytes != NULL) {
+            m_env->ReleasePrimitiveArrayCritical(m_array, (void *) m_bytes, JNI_ABORT);
+        }
+    }
+
+    CriticalBytes(const CriticalBytes &) = delete;
+
+    CriticalBytes &operator=(const CriticalBytes &) = delete;
+
+    // NULL if the bytes could not be accessed, e.g. if the virtual machine does not support direct buffer access
+    const uint8_t *data() const {
+        return m_bytes;
+    }
+
+private:
+    JNIEnv *m_env;
+    jbyteArray m_array;
+    const uint8_t *m_bytes;
+};
+
+// Throws IllegalArgumentException for bytes that could not be accessed unless OutOfMemoryError is already pending. Must
+// only be called once no CriticalBytes is alive.
+static inline void throw_inaccessible_bytes(JNIEnv *env) {
+    if (env->ExceptionCheck()) return;
+    env->ThrowNew(env->FindClass("java/lang/IllegalArgumentException"), "Bytes are not accessible");
+}
+
+#endif // RAPIDFUZZ_BYTE_STRING_HPP
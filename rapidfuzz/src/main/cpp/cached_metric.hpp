@@ -0,0 +1,78 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_CACHED_METRIC_HPP
+#define RAPIDFUZZ_CACHED_METRIC_HPP
+
+#include <string>
+#include <utility>
+
+#include <jni.h>
+#include <rapidfuzz/string_metric.hpp>
+
+#include "jni_string.hpp"
+
+// Returned by rapidfuzz if a distance exceeds max
+#define DISTANCE_EXCEEDED ((size_t) -1)
+
+// Distances are returned to Java as int, where -1 means that the distance exceeds max
+static inline jint to_jdistance(size_t distance) {
+    return distance == DISTANCE_EXCEEDED ? -1 : (jint) distance;
+}
+
+// A string metric with a cached query. The native pointer of StringMetricCached points to one of these.
+class Metric {
+public:
+    virtual ~Metric() = default;
+
+    // Returns DISTANCE_EXCEEDED if the distance exceeds max or if the choice cannot be compared with the query
+    virtual size_t distance(jstring_view choice, size_t max) const = 0;
+
+    // Returns the normalized similarity between 0 and 100, or 0 if it is below score_cutoff or if the choice cannot be
+    // compared with the query
+    virtual double normalized(jstring_view choice, double score_cutoff) const = 0;
+};
+
+class CachedLevenshteinMetric : public Metric {
+public:
+    CachedLevenshteinMetric(std::u16string query, rapidfuzz::LevenshteinWeightTable weights)
+            : m_query(std::move(query)), m_distance(m_query, weights), m_normalized(m_query, weights) {
+    }
+
+    size_t distance(jstring_view choice, size_t max) const override {
+        return m_distance.distance(choice, max);
+    }
+
+    double normalized(jstring_view choice, double score_cutoff) const override {
+        return m_normalized.ratio(choice, score_cutoff);
+    }
+
+private:
+    const std::u16string m_query;
+    const rapidfuzz::string_metric::CachedLevenshtein<std::u16string> m_distance;
+    const rapidfuzz::string_metric::CachedNormalizedLevenshtein<std::u16string> m_normalized;
+};
+
+// The Hamming distance is only defined for strings of equal length
+class CachedHammingMetric : public Metric {
+public:
+    explicit CachedHammingMetric(std::u16string query)
+            : m_query(std::move(query)), m_distance(m_query), m_normalized(m_query) {
+    }
+
+    size_t distance(jstring_view choice, size_t max) const override {
+        if (choice.size() != m_query.size()) return DISTANCE_EXCEEDED;
+        return m_distance.distance(choice, max);
+    }
+
+    double normalized(jstring_view choice, double score_cutoff) const override {
+        if (choice.size() != m_query.size()) return 0;
+        return m_normalized.ratio(choice, score_cutoff);
+    }
+
+private:
+    const std::u16string m_query;
+    const rapidfuzz::string_metric::CachedHamming<std::u16string> m_distance;
+    const rapidfuzz::string_metric::CachedNormalizedHamming<std::u16string> m_normalized;
+};
+
+#endif // RAPIDFUZZ_CACHED_METRIC_HPP
@@ -0,0 +1,170 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_CACHED_SCORER_HPP
+#define RAPIDFUZZ_CACHED_SCORER_HPP
+
+#include <string>
+#include <utility>
+
+#include <jni.h>
+#include <rapidfuzz/fuzz.hpp>
+
+#include "jni_string.hpp"
+#include "prefilter.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
+
+#define RATIO_TYPE_COUNT (io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO \
+        - io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO + 1)
+
+// A scorer with a cached query. The native pointer of RapidFuzzCached points to one of these.
+class Scorer {
+public:
+    explicit Scorer(jint flags) : m_flags(flags) {
+    }
+
+    virtual ~Scorer() = default;
+
+    // Scores a choice given as UTF-16 code units after processing it as selected by the flags of this scorer
+    double ratio(jstring_view choice, double score_cutoff) const {
+        if (!needs_processing(m_flags)) {
+            return ratio_processed(choice, score_cutoff);
+        }
+        std::u16string &processed = get_processing_buffer();
+        process_string(choice, m_flags, processed);
+        return ratio_processed(jstring_view(processed.data(), processed.size()), score_cutoff);
+    }
+
+    // Same as ratio(), except that PRUNED_SCORE is returned without scoring the choice if the prefilter rejects it
+    double ratio_prefiltered(jstring_view choice, double score_cutoff) const {
+        if (!m_prefilter) return ratio(choice, score_cutoff);
+        jstring_view processed = choice;
+        if (needs_processing(m_flags)) {
+            std::u16string &buffer = get_processing_buffer();
+            process_string(choice, m_flags, buffer);
+            processed = jstring_view(buffer.data(), buffer.size());
+        }
+        if (!may_reach(get_signature(processed, uses_code_points()), score_cutoff)) return PRUNED_SCORE;
+        return ratio_processed(processed, score_cutoff);
+    }
+
+    // Scores a choice that is already processed using the same flags, e.g. a choice of a ChoiceIndex
+    virtual double ratio_processed(jstring_view choice, double score_cutoff) const = 0;
+
+    // Enables the prefilter for the signature of the processed query. Must only be called for the ratio types that
+    // support it before the scorer is shared.
+    void enable_prefilter(const Signature &query) {
+        m_prefilter = true;
+        m_query = query;
+    }
+
+    bool has_prefilter() const {
+        return m_prefilter;
+    }
+
+    // Returns false if a processed choice with the signature cannot reach the score cutoff
+    bool may_reach(const Signature &choice, double score_cutoff) const {
+        return !m_prefilter || can_reach(get_max_ratio(m_query, choice), score_cutoff);
+    }
+
+    // Returns false if no processed choice of the length can reach the score cutoff
+    bool may_reach(uint32_t choice_length, double score_cutoff) const {
+        return !m_prefilter || can_reach(get_max_ratio(m_query.length, choice_length), score_cutoff);
+    }
+
+    jint flags() const {
+        return m_flags;
+    }
+
+    bool uses_code_points() const {
+        return (m_flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) != 0;
+    }
+
+private:
+    const jint m_flags;
+    bool m_prefilter = false;
+    Signature m_query = {0, 0};
+};
+
+// Owns the query of a rapidfuzz cached scorer, which only keeps a view of it, and converts the choices to the same unit
+template<typename CharT, typename Cached>
+class CachedScorer : public Scorer {
+public:
+    CachedScorer(std::basic_string<CharT> query, jint flags)
+            : Scorer(flags), m_query(std::move(query)), m_scorer(m_query) {
+    }
+
+    double ratio_processed(jstring_view choice, double score_cutoff) const override {
+        return m_scorer.ratio(to_units<CharT>(choice), score_cutoff);
+    }
+
+private:
+    const std::basic_string<CharT> m_query;
+    const Cached m_scorer;
+};
+
+template<typename CharT>
+static Scorer *new_cached_scorer(jint ratio_type, std::basic_string<CharT> query, jint flags) {
+    using namespace rapidfuzz;
+    typedef std::basic_string<CharT> Sentence;
+    switch (ratio_type) {
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedPartialRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_SORT_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedTokenSortRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_SORT_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedPartialTokenSortRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_SET_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedTokenSetRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_SET_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedPartialTokenSetRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedTokenRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedPartialTokenRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_WEIGHTED_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedWRatio<Sentence>>(std::move(query), flags);
+        case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO:
+            return new CachedScorer<CharT, fuzz::CachedQRatio<Sentence>>(std::move(query), flags);
+        default:
+            return NULL;
+    }
+}
+
+// Creates a scorer for the query processed and converted to the unit as selected by flags, or returns NULL if the ratio
+// type is invalid. Does not call JNI, so that it can be used in any thread.
+static inline Scorer *new_cached_scorer(jint ratio_type, std::u16string query, jint flags) {
+    if (needs_processing(flags)) {
+        std::u16string processed;
+        process_string(jstring_view(query.data(), query.size()), flags, processed);
+        query.swap(processed);
+    }
+    bool code_points = (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) != 0;
+    Signature signature = get_signature(jstring_view(query.data(), query.size()), code_points);
+    Scorer *scorer;
+    if (code_points) {
+        std::u32string units;
+        to_code_points(jstring_view(query.data(), query.size()), units);
+        scorer = new_cached_scorer<char32_t>(ratio_type, std::move(units), flags);
+    } else {
+        scorer = new_cached_scorer<char16_t>(ratio_type, std::move(query), flags);
+    }
+    if (scorer != NULL && supports_prefilter(ratio_type)) {
+        scorer->enable_prefilter(signature);
+    }
+    return scorer;
+}
+
+// Creates a scorer for the query in the unit selected by flags, or throws IllegalArgumentException and returns NULL if
+// the ratio type is invalid
+static inline Scorer *new_cached_scorer(JNIEnv *env, jint ratio_type, jstring query, jint flags) {
+    Scorer *scorer = new_cached_scorer(ratio_type, get_u16string(env, query), flags);
+    if (scorer == NULL) {
+        env->ThrowNew(env->FindClass("java/lang/IllegalArgumentException"), "Unknown ratio type");
+    }
+    return scorer;
+}
+
+#endif // RAPIDFUZZ_CACHED_SCORER_HPP
@@ -0,0 +1,106 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_CDIST_HPP
+#define RAPIDFUZZ_CDIST_HPP
+
+#include <algorithm>
+#include <atomic>
+#include <memory>
+#include <string>
+#include <thread>
+#include <vector>
+
+#include <jni.h>
+
+#include "cached_scorer.hpp"
+#include "jni_string.hpp"
+#include "processor.hpp"
+
+// Pairwise scoring of queries and choices. The strings are copied out of the JVM before scoring, so that the worker
+// threads never call JNI.
+
+// Strings of a Java array processed as selected by flags and stored contiguously. Null strings are kept as null.
+class StringArray {
+public:
+    StringArray(JNIEnv *env, jobjectArray strings, jint flags) {
+        jsize count = env->GetArrayLength(strings);
+        m_offsets.reserve((size_t) count);
+        m_lengths.reserve((size_t) count);
+        for (jsize i = 0; i < count; ++i) {
+            jstring str = (jstring) env->GetObjectArrayElement(strings, i);
+            m_offsets.push_back(m_buffer.size());
+            if (str == NULL) {
+                m_lengths.push_back(-1);
+                continue;
+            }
+            jstring_view original = get_string_region(env, str, get_thread_buffer());
+            if (needs_processing(flags)) {
+                std::u16string &processed = get_processing_buffer();
+                process_string(original, flags, processed);
+                m_buffer.append(processed);
+                m_lengths.push_back((jint) processed.size());
+            } else {
+                m_buffer.append(original.data(), original.size());
+                m_lengths.push_back((jint) original.size());
+            }
+            env->DeleteLocalRef(str);
+        }
+    }
+
+    jsize size() const {
+        return (jsize) m_lengths.size();
+    }
+
+    bool is_null(jsize i) const {
+        return m_lengths[i] < 0;
+    }
+
+    jstring_view get(jsize i) const {
+        return jstring_view(m_buffer.data() + m_offsets[i], (size_t) m_lengths[i]);
+    }
+
+private:
+    std::u16string m_buffer;
+    std::vector<size_t> m_offsets;
+    std::vector<jint> m_lengths;
+};
+
+// Runs row(i) for every i in [0, rows) using the given number of threads including the calling thread
+template<typename Row>
+static void for_each_row(jsize rows, jint threads, Row row) {
+    std::atomic<jsize> next_row(0);
+    auto worker = [&]() {
+        jsize i;
+        while ((i = next_row++) < rows) {
+            row(i);
+        }
+    };
+    std::vector<std::thread> workers;
+    for (jint t = 1; t < std::min((jint) rows, threads); ++t) {
+        workers.emplace_back(worker);
+    }
+    worker();
+    for (std::thread &t : workers) {
+        t.join();
+    }
+}
+
+// Scores every choice against every query using one cached scorer per query. The queries must be unprocessed and the
+// choices must be processed using flags, so that each choice is processed only once. score(i, j, score) is called for
+// each pair of non-null strings from the thread that scores query i. The ratio type must be valid.
+template<typename Score>
+static void cdist(const StringArray &queries, const StringArray &choices, jint ratio_type, double score_cutoff,
+                  jint flags, jint threads, Score score) {
+    for_each_row(queries.size(), threads, [&](jsize i) {
+        if (queries.is_null(i)) return;
+        jstring_view query = queries.get(i);
+        std::unique_ptr<Scorer> scorer(new_cached_scorer(ratio_type, std::u16string(query.data(), query.size()),
+                                                         flags));
+        for (jsize j = 0; j < choices.size(); ++j) {
+            if (choices.is_null(j)) continue;
+            score(i, j, scorer->ratio_processed(choices.get(j), score_cutoff));
+        }
+    });
+}
+
+#endif // RAPIDFUZZ_CDIST_HPP
@@ -0,0 +1,100 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_CHOICE_CORPUS_HPP
+#define RAPIDFUZZ_CHOICE_CORPUS_HPP
+
+#include <string>
+#include <vector>
+
+#include <jni.h>
+
+#include "cached_scorer.hpp"
+#include "extract.hpp"
+#include "jni_string.hpp"
+#include "prefilter.hpp"
+#include "processor.hpp"
+
+// Native storage of the choices of ChoiceIndex, NGramIndex and BKTree
+
+#define REMOVED_CHOICE (-1)
+
+// UTF-16 code units of the choices stored back to back in a single buffer. IDs are indices of offsets and lengths. If
+// the corpus has processing flags, each choice is followed by its processed form, so that it is processed only once.
+struct ChoiceCorpus {
+    const jint flags;
+    std::vector<char16_t> buffer;
+    std::vector<size_t> offsets;
+    // Length of each choice, or REMOVED_CHOICE if the choice was removed
+    std::vector<jint> lengths;
+    // Length of each processed choice, empty if the corpus has no processing flags
+    std::vector<jint> processed_lengths;
+    // Signature of each processed choice for the prefilter
+    std::vector<Signature> signatures;
+    size_t removed_bytes = 0;
+    jint size = 0;
+
+    explicit ChoiceCorpus(jint flags) : flags(flags) {
+    }
+
+    bool contains(jint id) const {
+        return id >= 0 && id < (jint) lengths.size() && lengths[id] != REMOVED_CHOICE;
+    }
+
+    jstring_view get(jint id) const {
+        return jstring_view(buffer.data() + offsets[id], (size_t) lengths[id]);
+    }
+
+    jstring_view get_processed(jint id) const {
+        if (processed_lengths.empty()) return get(id);
+        return jstring_view(buffer.data() + offsets[id] + lengths[id], (size_t) processed_lengths[id]);
+    }
+
+    // Number of code units taken by a choice and its processed form
+    size_t get_entry_size(jint id) const {
+        return (size_t) lengths[id] + (processed_lengths.empty() ? 0 : (size_t) processed_lengths[id]);
+    }
+
+    // Reclaims the space of the removed choices once they make up more than half of the buffer
+    void compact_if_needed() {
+        if (removed_bytes * 2 <= buffer.size()) return;
+        std::vector<char16_t> compacted;
+        compacted.reserve(buffer.size() - removed_bytes);
+        for (jint id = 0; id < (jint) lengths.size(); ++id) {
+            if (lengths[id] == REMOVED_CHOICE) continue;
+            size_t offset = compacted.size();
+            compacted.insert(compacted.end(), buffer.begin() + offsets[id],
+                             buffer.begin() + offsets[id] + get_entry_size(id));
+            offsets[id] = offset;
+        }
+        buffer.swap(compacted);
+        removed_bytes = 0;
+    }
+};
+
+static jint add_choice(JNIEnv *env, ChoiceCorpus *corpus, jstring choice) {
+    size_t offset = corpus->buffer.size();
+    jstring_view original = get_string_region(env, choice, get_thread_buffer());
+    corpus->buffer.insert(corpus->buffer.end(), original.begin(), original.end());
+    bool code_points = (corpus->flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) != 0;
+    if (needs_processing(corpus->flags)) {
+        std::u16string &processed = get_processing_buffer();
+        process_string(original, corpus->flags, processed);
+        corpus->buffer.insert(corpus->buffer.end(), processed.begin(), processed.end());
+        corpus->processed_lengths.push_back((jint) processed.size());
+        corpus->signatures.push_back(get_signature(jstring_view(processed.data(), processed.size()), code_points));
+    } else {
+        corpus->signatures.push_back(get_signature(original, code_points));
+    }
+    corpus->offsets.push_back(offset);
+    corpus->lengths.push_back((jint) original.size());
+    ++corpus->size;
+    return (jint) corpus->lengths.size() - 1;
+}
+
+static inline double get_ratio(const ChoiceCorpus *corpus, const Scorer *scorer, jint id, double score_cutoff) {
+    if (corpus->lengths[id] == REMOVED_CHOICE) return SKIPPED_SCORE;
+    if (!scorer->may_reach(corpus->signatures[id], score_cutoff)) return PRUNED_SCORE;
+    return scorer->ratio_processed(corpus->get_processed(id), score_cutoff);
+}
+
+#endif // RAPIDFUZZ_CHOICE_CORPUS_HPP
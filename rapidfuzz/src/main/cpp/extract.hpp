@@ -0,0 +1,212 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_EXTRACT_HPP
+#define RAPIDFUZZ_EXTRACT_HPP
+
+#include <algorithm>
+#include <utility>
+#include <vector>
+
+#include <jni.h>
+
+#include "prefilter.hpp"
+
+// Extraction algorithms shared by the batch APIs. Choices are addressed by index and scored by a score_at(index,
+// score_cutoff) callback, which returns SKIPPED_SCORE for choices that must not be considered at all and PRUNED_SCORE
+// for choices rejected by the prefilter. The choices are either the indices in [from, to) or any range of indices in
+// ascending order, e.g. the candidates left after the prefilter rejected whole groups of choices.
+
+#define SKIPPED_SCORE (-1.0)
+
+struct ExtractResults {
+    std::vector<jint> indices;
+    std::vector<jdouble> scores;
+
+    // Copies the results to the Java arrays and returns the number of results
+    jint copy_to(JNIEnv *env, jintArray out_indices, jdoubleArray out_scores) const {
+        jsize count = (jsize) indices.size();
+        env->SetIntArrayRegion(out_indices, 0, count, indices.data());
+        env->SetDoubleArrayRegion(out_scores, 0, count, scores.data());
+        return (jint) count;
+    }
+};
+
+typedef std::pair<double, jint> ScoredIndex;
+
+// Indices in [from, to) as a range
+class IndexRange {
+public:
+    class iterator {
+    public:
+        explicit iterator(jint index) : m_index(index) {
+        }
+
+        jint operator*() const {
+            return m_index;
+        }
+
+        iterator &operator++() {
+            ++m_index;
+            return *this;
+        }
+
+        bool operator!=(const iterator &other) const {
+            return m_index != other.m_index;
+        }
+
+    private:
+        jint m_index;
+    };
+
+    IndexRange(jint from, jint to) : m_from(from), m_to(std::max(from, to)) {
+    }
+
+    iterator begin() const {
+        return iterator(m_from);
+    }
+
+    iterator end() const {
+        return iterator(m_to);
+    }
+
+    size_t size() const {
+        return (size_t) (m_to - m_from);
+    }
+
+private:
+    jint m_from;
+    jint m_to;
+};
+
+// Orders by score in descending order and then by index in ascending order, i.e. the better match comes first
+static inline bool is_better_match(const ScoredIndex &a, const ScoredIndex &b) {
+    return a.first > b.first || (a.first == b.first && a.second < b.second);
+}
+
+// Collects every choice with a score of at least score_cutoff in ascending order of index
+template<typename Indices, typename ScoreAt>
+static void extract_all(const Indices &indices, double score_cutoff, ScoreAt score_at, ExtractResults &results,
+                        PrefilterCounter &counter) {
+    int64_t candidates = 0;
+    int64_t pruned = 0;
+    for (jint i : indices) {
+        double score = score_at(i, score_cutoff);
+        if (score == SKIPPED_SCORE) continue;
+        ++candidates;
+        if (score == PRUNED_SCORE) {
+            ++pruned;
+            continue;
+        }
+        if (score < score_cutoff) continue;
+        results.indices.push_back(i);
+        results.scores.push_back(score);
+    }
+    counter.add(candidates, pruned);
+}
+
+template<typename ScoreAt>
+static void extract_all(jint from, jint to, double score_cutoff, ScoreAt score_at, ExtractResults &results) {
+    PrefilterCounter counter;
+    extract_all(IndexRange(from, to), score_cutoff, score_at, results, counter);
+}
+
+// Returns the index of the best choice, or -1 if no choice has a score of at least score_cutoff. The best score so far
+// is used as the score cutoff. If multiple choices have the best score, the last one is selected.
+template<typename Indices, typename ScoreAt>
+static jint extract_one(const Indices &indices, double score_cutoff, ScoreAt score_at, double *best_score,
+                        PrefilterCounter &counter) {
+    int64_t candidates = 0;
+    int64_t pruned = 0;
+    jint best_index = -1;
+    double best = score_cutoff;
+    for (jint i : indices) {
+        double score = score_at(i, best);
+        if (score == SKIPPED_SCORE) continue;
+        ++candidates;
+        if (score == PRUNED_SCORE) {
+            ++pruned;
+            continue;
+        }
+        if (score >= best) {
+            best = score;
+            best_index = i;
+        }
+    }
+    counter.add(candidates, pruned);
+    *best_score = best;
+    return best_index;
+}
+
+template<typename ScoreAt>
+static jint extract_one(jint from, jint to, double score_cutoff, ScoreAt score_at, double *best_score) {
+    PrefilterCounter counter;
+    return extract_one(IndexRange(from, to), score_cutoff, score_at, best_score, counter);
+}
+
+// Collects at most limit best choices using a bounded min-heap, sorted by is_better_match. Once the heap is full, its
+// minimum score is used as the score cutoff so that losing candidates exit early.
+template<typename Indices, typename ScoreAt>
+static void extract_top(const Indices &indices, jint limit, double score_cutoff, ScoreAt score_at,
+                        ExtractResults &results, PrefilterCounter &counter) {
+    int64_t candidates = 0;
+    int64_t pruned = 0;
+    // Heap ordered by is_better_match, so that the worst match of the heap is always at the front
+    std::vector<ScoredIndex> heap;
+    heap.reserve(std::min((size_t) std::max(0, limit), indices.size()));
+    double cutoff = score_cutoff;
+    for (jint i : indices) {
+        double score = score_at(i, cutoff);
+        if (score == SKIPPED_SCORE) continue;
+        ++candidates;
+        if (score == PRUNED_SCORE) {
+            ++pruned;
+            continue;
+        }
+        if (score < cutoff) continue;
+        if ((jint) heap.size() < limit) {
+            heap.emplace_back(score, i);
+            std::push_heap(heap.begin(), heap.end(), is_better_match);
+        } else if (score > heap.front().first) {
+            std::pop_heap(heap.begin(), heap.end(), is_better_match);
+            heap.back() = ScoredIndex(score, i);
+            std::push_heap(heap.begin(), heap.end(), is_better_match);
+        } else {
+            continue;
+        }
+        if ((jint) heap.size() == limit) {
+            // Only choices that can beat the worst match of a full heap are of interest now
+            cutoff = std::max(cutoff, heap.front().first);
+        }
+    }
+    counter.add(candidates, pruned);
+    std::sort_heap(heap.begin(), heap.end(), is_better_match);
+    results.indices.reserve(heap.size());
+    results.scores.reserve(heap.size());
+    for (const ScoredIndex &match : heap) {
+        results.scores.push_back(match.first);
+        results.indices.push_back(match.second);
+    }
+}
+
+template<typename ScoreAt>
+static void extract_top(jint from, jint to, jint limit, double score_cutoff, ScoreAt score_at,
+                        ExtractResults &results) {
+    PrefilterCounter counter;
+    extract_top(IndexRange(from, to), limit, score_cutoff, score_at, results, counter);
+}
+
+// Scores a choice made of a group of alternatives, e.g. the aliases of an object, as the best score of any of them.
+// Each alternative is scored with the score cutoff raised to the best score so far, and the remaining alternatives are
+// not scored once one of them is a perfect match. Returns 0 if no alternative reaches the score cutoff.
+template<typename ScoreAt>
+static double get_best_alternative(jint from, jint to, double score_cutoff, ScoreAt score_at) {
+    double best = 0;
+    for (jint j = from; j < to && best < 100; ++j) {
+        double score = score_at(j, std::max(score_cutoff, best));
+        // Skipped and pruned alternatives have negative scores
+        if (score > best) best = score;
+    }
+    return best;
+}
+
+#endif // RAPIDFUZZ_EXTRACT_HPP
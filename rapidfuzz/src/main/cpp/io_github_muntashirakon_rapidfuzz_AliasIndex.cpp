@@ -0,0 +1,109 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <vector>
+
+#include <jni.h>
+
+#include "cached_scorer.hpp"
+#include "choice_corpus.hpp"
+#include "extract.hpp"
+#include "jni_string.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_AliasIndex.h"
+
+// Aliases of all the objects in a single corpus, where the aliases of object i have the IDs in
+// [alias_starts[i], alias_starts[i + 1])
+struct AliasIndex {
+    ChoiceCorpus corpus;
+    std::vector<jint> alias_starts;
+
+    explicit AliasIndex(jint flags) : corpus(flags) {
+    }
+
+    jint size() const {
+        return (jint) alias_starts.size() - 1;
+    }
+};
+
+// Scores an object as the best score of its aliases
+static inline double get_object_ratio(const AliasIndex *index, const Scorer *scorer, jint id, double score_cutoff) {
+    return get_best_alternative(index->alias_starts[id], index->alias_starts[id + 1], score_cutoff,
+                                [&](jint alias_id, double cutoff) {
+        return get_ratio(&index->corpus, scorer, alias_id, cutoff);
+    });
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeNew
+  (JNIEnv *env, jclass clazz, jobjectArray aliases, jintArray offsets, jint count, jint flags) {
+    AliasIndex *index = new AliasIndex(flags);
+    ChoiceCorpus &corpus = index->corpus;
+    index->alias_starts.resize((size_t) count + 1);
+    env->GetIntArrayRegion(offsets, 0, count + 1, index->alias_starts.data());
+    jsize len = env->GetArrayLength(aliases);
+    corpus.offsets.reserve((size_t) len);
+    corpus.lengths.reserve((size_t) len);
+    corpus.signatures.reserve((size_t) len);
+    if (needs_processing(flags)) {
+        corpus.processed_lengths.reserve((size_t) len);
+    }
+    for (jsize i = 0; i < len; ++i) {
+        jstring alias = (jstring) env->GetObjectArrayElement(aliases, i);
+        add_choice(env, &corpus, alias);
+        env->DeleteLocalRef(alias);
+    }
+    return (jlong) index;
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeGetBytes
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    const AliasIndex *index = (const AliasIndex *) ptr;
+    const ChoiceCorpus &corpus = index->corpus;
+    size_t bytes = corpus.buffer.capacity() * sizeof(char16_t) + corpus.offsets.capacity() * sizeof(size_t)
+                   + (corpus.lengths.capacity() + corpus.processed_lengths.capacity()) * sizeof(jint)
+                   + corpus.signatures.capacity() * sizeof(Signature)
+                   + index->alias_starts.capacity() * sizeof(jint);
+    return (jlong) bytes;
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeExtractAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jdouble score_cutoff, jintArray ids,
+   jdoubleArray scores) {
+    const AliasIndex *index = (const AliasIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    ExtractResults results;
+    extract_all(0, index->size(), score_cutoff, [&](jint id, double cutoff) {
+        return get_object_ratio(index, scorer, id, cutoff);
+    }, results);
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeExtract
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jint limit, jdouble score_cutoff, jintArray ids,
+   jdoubleArray scores) {
+    const AliasIndex *index = (const AliasIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    ExtractResults results;
+    extract_top(0, index->size(), limit, score_cutoff, [&](jint id, double cutoff) {
+        return get_object_ratio(index, scorer, id, cutoff);
+    }, results);
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeExtractOne
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jdouble score_cutoff, jdoubleArray best_score) {
+    const AliasIndex *index = (const AliasIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    double best;
+    jint best_id = extract_one(0, index->size(), score_cutoff, [&](jint id, double cutoff) {
+        return get_object_ratio(index, scorer, id, cutoff);
+    }, &best);
+    if (best_id >= 0) {
+        env->SetDoubleArrayRegion(best_score, 0, 1, &best);
+    }
+    return best_id;
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeFree
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    delete (AliasIndex *) ptr;
+}
@@ -0,0 +1,61 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_AliasIndex */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_AliasIndex
+#define _Included_io_github_muntashirakon_rapidfuzz_AliasIndex
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_AliasIndex
+ * Method:    nativeNew
+ * Signature: ([Ljava/lang/String;[III)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeNew
+  (JNIEnv *, jclass, jobjectArray, jintArray, jint, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_AliasIndex
+ * Method:    nativeGetBytes
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeGetBytes
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_AliasIndex
+ * Method:    nativeExtractAll
+ * Signature: (JJD[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeExtractAll
+  (JNIEnv *, jobject, jlong, jlong, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_AliasIndex
+ * Method:    nativeExtract
+ * Signature: (JJID[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeExtract
+  (JNIEnv *, jobject, jlong, jlong, jint, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_AliasIndex
+ * Method:    nativeExtractOne
+ * Signature: (JJD[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeExtractOne
+  (JNIEnv *, jobject, jlong, jlong, jdouble, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_AliasIndex
+ * Method:    nativeFree
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_AliasIndex_nativeFree
+  (JNIEnv *, jclass, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
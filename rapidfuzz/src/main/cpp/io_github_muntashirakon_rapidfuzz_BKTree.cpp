@@ -0,0 +1,408 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <algorithm>
+#include <cerrno>
+#include <cstdint>
+#include <cstdio>
+#include <cstring>
+#include <new>
+#include <string>
+#include <utility>
+#include <vector>
+
+#include <sys/stat.h>
+
+#include <jni.h>
+#include <rapidfuzz/string_metric.hpp>
+
+#include "cached_metric.hpp"
+#include "choice_corpus.hpp"
+#include "jni_string.hpp"
+#include "prefilter.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_BKTree.h"
+
+using namespace rapidfuzz;
+
+// Layout of a file written by BKTree#save in the native byte order, which is little-endian on all the supported
+// platforms. It is only read back on the same platform.
+//
+// Header          See TreeHeader
+// Lengths         int32 length of each word
+// Processed       int32 length of each processed word, only if the flags include any processing flag
+// Child starts    uint32 position of the first child of each node in the children, followed by the number of children
+// Children        uint32 ID of each child, grouped by parent and sorted by distance
+// Distances       uint32 distance of each child to its parent
+// Buffer          UTF-16 code units of each word followed by those of the processed word, if any
+
+#define TREE_MAGIC "RFZBKTRE"
+#define TREE_VERSION 1
+
+struct TreeHeader {
+    char magic[8];
+    uint32_t version;
+    int32_t flags;
+    uint32_t count;
+    uint32_t reserved;
+    uint64_t buffer_length;
+};
+
+// A BK-tree of the Levenshtein distance with unit costs between the processed words. The words are the nodes of the
+// tree, identified by their IDs, and the root is the first word. The children of a node are grouped by their distance
+// to the node, so that the triangle inequality rules out every subtree whose distance to the node is more than k away
+// from the distance of the query to the node. Words with a distance of 0 to each other are children at distance 0.
+struct BKTree {
+    ChoiceCorpus corpus;
+    // Children of node i are children[child_starts[i]] to children[child_starts[i + 1] - 1]
+    std::vector<uint32_t> child_starts;
+    std::vector<uint32_t> children;
+    std::vector<uint32_t> distances;
+
+    explicit BKTree(jint flags) : corpus(flags) {
+    }
+
+    bool uses_code_points() const {
+        return (corpus.flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) != 0;
+    }
+
+    uint32_t count() const {
+        return (uint32_t) corpus.lengths.size();
+    }
+};
+
+// Distance between two processed words, of which the first one is already in the unit of the tree
+template<typename CharT>
+static size_t get_distance(const std::basic_string<CharT> &s1, jstring_view s2) {
+    return string_metric::levenshtein(s1, to_units<CharT>(s2));
+}
+
+// Inserts every word into the tree under construction, whose children are linked via their first child and next sibling
+template<typename CharT>
+static void build_tree(BKTree *tree) {
+    const ChoiceCorpus &corpus = tree->corpus;
+    uint32_t count = tree->count();
+    const uint32_t none = UINT32_MAX;
+    std::vector<uint32_t> first_child(count, none);
+    std::vector<uint32_t> next_sibling(count, none);
+    std::vector<uint32_t> parent_distances(count, 0);
+    std::basic_string<CharT> word;
+    for (uint32_t id = 1; id < count; ++id) {
+        auto units = to_units<CharT>(corpus.get_processed((jint) id));
+        word.assign(units.data(), units.size());
+        uint32_t node = 0;
+        while (true) {
+            uint32_t distance = (uint32_t) get_distance(word, corpus.get_processed((jint) node));
+            uint32_t child = first_child[node];
+            while (child != none && parent_distances[child] != distance) {
+                child = next_sibling[child];
+            }
+            if (child == none) {
+                parent_distances[id] = distance;
+                next_sibling[id] = first_child[node];
+                first_child[node] = id;
+                break;
+            }
+            node = child;
+        }
+    }
+    // Store the children contiguously, sorted by distance
+    tree->child_starts.assign(count + 1, 0);
+    tree->children.clear();
+    tree->children.reserve(count > 0 ? count - 1 : 0);
+    std::vector<uint32_t> node_children;
+    for (uint32_t node = 0; node < count; ++node) {
+        tree->child_starts[node] = (uint32_t) tree->children.size();
+        node_children.clear();
+        for (uint32_t child = first_child[node]; child != none; child = next_sibling[child]) {
+            node_children.push_back(child);
+        }
+        std::sort(node_children.begin(), node_children.end(), [&](uint32_t a, uint32_t b) {
+            return parent_distances[a] < parent_distances[b];
+        });
+        tree->children.insert(tree->children.end(), node_children.begin(), node_children.end());
+    }
+    tree->child_starts[count] = (uint32_t) tree->children.size();
+    tree->distances.resize(tree->children.size());
+    for (size_t i = 0; i < tree->children.size(); ++i) {
+        tree->distances[i] = parent_distances[tree->children[i]];
+    }
+}
+
+struct TreeMatch {
+    uint32_t id;
+    uint32_t distance;
+};
+
+// Finds every word within max_distance of the processed query, sorted by distance and then by ID
+template<typename CharT>
+static void search_tree(const BKTree *tree, jstring_view query, uint32_t max_distance, std::vector<TreeMatch> &matches,
+                        uint32_t *visited) {
+    matches.clear();
+    *visited = 0;
+    if (tree->count() == 0) return;
+    auto query_units = to_units<CharT>(query);
+    std::basic_string<CharT> units(query_units.data(), query_units.size());
+    const string_metric::CachedLevenshtein<std::basic_string<CharT>> metric(units);
+    std::vector<uint32_t> stack(1, 0);
+    while (!stack.empty()) {
+        uint32_t node = stack.back();
+        stack.pop_back();
+        ++*visited;
+        uint32_t begin = tree->child_starts[node];
+        uint32_t end = tree->child_starts[node + 1];
+        // Beyond this distance, the node is no match and none of its children can be within max_distance
+        size_t max = (size_t) max_distance + (begin < end ? tree->distances[end - 1] : 0);
+        size_t distance = metric.distance(to_units<CharT>(tree->corpus.get_processed((jint) node)), max);
+        if (distance == DISTANCE_EXCEEDED) continue;
+        if (distance <= max_distance) {
+            matches.push_back(TreeMatch{node, (uint32_t) distance});
+        }
+        uint32_t low = distance > max_distance ? (uint32_t) distance - max_distance : 0;
+        uint64_t high = (uint64_t) distance + max_distance;
+        auto first = std::lower_bound(tree->distances.begin() + begin, tree->distances.begin() + end, low);
+        for (auto it = first; it != tree->distances.begin() + end && *it <= high; ++it) {
+            stack.push_back(tree->children[it - tree->distances.begin()]);
+        }
+    }
+    std::sort(matches.begin(), matches.end(), [](const TreeMatch &a, const TreeMatch &b) {
+        return a.distance < b.distance || (a.distance == b.distance && a.id < b.id);
+    });
+}
+
+static void throw_io_exception(JNIEnv *env, const std::string &message) {
+    env->ThrowNew(env->FindClass("java/io/IOException"), message.c_str());
+}
+
+static std::string get_path(JNIEnv *env, jstring path) {
+    const char *chars = env->GetStringUTFChars(path, NULL);
+    if (chars == NULL) return std::string();
+    std::string file(chars);
+    env->ReleaseStringUTFChars(path, chars);
+    return file;
+}
+
+template<typename T>
+static bool write_vector(FILE *file, const std::vector<T> &vector) {
+    return vector.empty() || fwrite(vector.data(), sizeof(T), vector.size(), file) == vector.size();
+}
+
+// Reads a table of the given size unless the rest of the file is too short for it, so that a corrupted size cannot
+// cause a huge allocation. The remaining bytes are reduced by the size of the table.
+template<typename T>
+static bool read_vector(FILE *file, std::vector<T> &vector, uint64_t size, uint64_t *remaining) {
+    if (size > *remaining / sizeof(T)) return false;
+    *remaining -= size * sizeof(T);
+    vector.resize((size_t) size);
+    return size == 0 || fread(&vector[0], sizeof(T), (size_t) size, file) == size;
+}
+
+// Checks that the tables read from a file are consistent, so that a corrupted file cannot cause out-of-bounds reads
+static bool is_valid_tree(const BKTree *tree, uint64_t buffer_length) {
+    const ChoiceCorpus &corpus = tree->corpus;
+    uint32_t count = tree->count();
+    uint64_t units = 0;
+    for (uint32_t id = 0; id < count; ++id) {
+        if (corpus.lengths[id] < 0) return false;
+        units += (uint64_t) corpus.lengths[id];
+        if (!corpus.processed_lengths.empty()) {
+            if (corpus.processed_lengths[id] < 0) return false;
+            units += (uint64_t) corpus.processed_lengths[id];
+        }
+    }
+    if (units != buffer_length) return false;
+    if (tree->child_starts[0] != 0 || tree->child_starts[count] != tree->children.size()) return false;
+    for (uint32_t node = 0; node < count; ++node) {
+        if (tree->child_starts[node] > tree->child_starts[node + 1]) return false;
+        for (uint32_t i = tree->child_starts[node]; i < tree->child_starts[node + 1]; ++i) {
+            // Children always have greater IDs than their parents, which also rules out cycles
+            if (tree->children[i] <= node || tree->children[i] >= count) return false;
+            if (i > tree->child_starts[node] && tree->distances[i] < tree->distances[i - 1]) return false;
+        }
+    }
+    return true;
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeNew
+  (JNIEnv *env, jclass clazz, jobjectArray words, jint flags) {
+    BKTree *tree = new BKTree(flags);
+    ChoiceCorpus &corpus = tree->corpus;
+    jsize len = env->GetArrayLength(words);
+    corpus.offsets.reserve((size_t) len);
+    corpus.lengths.reserve((size_t) len);
+    corpus.signatures.reserve((size_t) len);
+    if (needs_processing(flags)) {
+        corpus.processed_lengths.reserve((size_t) len);
+    }
+    for (jsize i = 0; i < len; ++i) {
+        jstring word = (jstring) env->GetObjectArrayElement(words, i);
+        add_choice(env, &corpus, word);
+        env->DeleteLocalRef(word);
+    }
+    if (tree->uses_code_points()) {
+        build_tree<char32_t>(tree);
+    } else {
+        build_tree<char16_t>(tree);
+    }
+    return (jlong) tree;
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeLoad
+  (JNIEnv *env, jclass clazz, jstring path) {
+    std::string file_path = get_path(env, path);
+    if (env->ExceptionCheck()) return 0;
+    FILE *file = fopen(file_path.c_str(), "rbe");
+    if (file == NULL) {
+        throw_io_exception(env, file_path + ": " + strerror(errno));
+        return 0;
+    }
+    TreeHeader header;
+    BKTree *tree = NULL;
+    struct stat st;
+    if (fstat(fileno(file), &st) != 0) {
+        int saved_errno = errno;
+        fclose(file);
+        throw_io_exception(env, file_path + ": " + strerror(saved_errno));
+        return 0;
+    }
+    bool valid = (uint64_t) st.st_size >= sizeof(header)
+                 && fread(&header, sizeof(header), 1, file) == 1
+                 && memcmp(header.magic, TREE_MAGIC, sizeof(header.magic)) == 0
+                 && header.version == TREE_VERSION && header.count <= INT32_MAX;
+    if (valid) {
+        uint64_t remaining = (uint64_t) st.st_size - sizeof(header);
+        try {
+            tree = new BKTree(header.flags);
+            ChoiceCorpus &corpus = tree->corpus;
+            uint32_t count = header.count;
+            valid = read_vector(file, corpus.lengths, count, &remaining)
+                    && (!needs_processing(header.flags)
+                        || read_vector(file, corpus.processed_lengths, count, &remaining))
+                    && read_vector(file, tree->child_starts, (uint64_t) count + 1, &remaining)
+                    && tree->child_starts[count] <= count
+                    && read_vector(file, tree->children, tree->child_starts[count], &remaining)
+                    && read_vector(file, tree->distances, tree->child_starts[count], &remaining)
+                    && read_vector(file, corpus.buffer, header.buffer_length, &remaining)
+                    && remaining == 0
+                    && fgetc(file) == EOF
+                    && is_valid_tree(tree, header.buffer_length);
+            if (valid) {
+                bool code_points = tree->uses_code_points();
+                size_t offset = 0;
+                corpus.offsets.reserve(count);
+                corpus.signatures.reserve(count);
+                for (uint32_t id = 0; id < count; ++id) {
+                    corpus.offsets.push_back(offset);
+                    offset += corpus.get_entry_size((jint) id);
+                    corpus.signatures.push_back(get_signature(corpus.get_processed((jint) id), code_points));
+                }
+                corpus.size = (jint) count;
+            }
+        } catch (const std::bad_alloc &) {
+            // Sizes are bounded by the file size, but the file may still be too large for the available memory
+            valid = false;
+        }
+    }
+    fclose(file);
+    if (!valid) {
+        delete tree;
+        throw_io_exception(env, file_path + ": Not a valid BK-tree");
+        return 0;
+    }
+    return (jlong) tree;
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeSave
+  (JNIEnv *env, jobject thiz, jlong ptr, jstring path) {
+    const BKTree *tree = (const BKTree *) ptr;
+    const ChoiceCorpus &corpus = tree->corpus;
+    std::string file_path = get_path(env, path);
+    if (env->ExceptionCheck()) return;
+    FILE *file = fopen(file_path.c_str(), "wbe");
+    if (file == NULL) {
+        throw_io_exception(env, file_path + ": " + strerror(errno));
+        return;
+    }
+    TreeHeader header = {};
+    memcpy(header.magic, TREE_MAGIC, sizeof(header.magic));
+    header.version = TREE_VERSION;
+    header.flags = corpus.flags;
+    header.count = tree->count();
+    header.buffer_length = corpus.buffer.size();
+    bool written = fwrite(&header, sizeof(header), 1, file) == 1
+                   && write_vector(file, corpus.lengths)
+                   && write_vector(file, corpus.processed_lengths)
+                   && write_vector(file, tree->child_starts)
+                   && write_vector(file, tree->children)
+                   && write_vector(file, tree->distances)
+                   && write_vector(file, corpus.buffer);
+    int saved_errno = errno;
+    if (fclose(file) != 0 && written) {
+        written = false;
+        saved_errno = errno;
+    }
+    if (!written) {
+        throw_io_exception(env, file_path + ": " + strerror(saved_errno));
+    }
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeGetFlags
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    return ((const BKTree *) ptr)->corpus.flags;
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeSize
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    return (jint) ((const BKTree *) ptr)->count();
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeGetBytes
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    const BKTree *tree = (const BKTree *) ptr;
+    const ChoiceCorpus &corpus = tree->corpus;
+    size_t bytes = corpus.buffer.capacity() * sizeof(char16_t) + corpus.offsets.capacity() * sizeof(size_t)
+                   + (corpus.lengths.capacity() + corpus.processed_lengths.capacity()) * sizeof(jint)
+                   + corpus.signatures.capacity() * sizeof(Signature)
+                   + (tree->child_starts.capacity() + tree->children.capacity() + tree->distances.capacity())
+                     * sizeof(uint32_t);
+    return (jlong) bytes;
+}
+
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeGet
+  (JNIEnv *env, jobject thiz, jlong ptr, jint id) {
+    const ChoiceCorpus &corpus = ((const BKTree *) ptr)->corpus;
+    if (!corpus.contains(id)) return NULL;
+    jstring_view word = corpus.get(id);
+    return env->NewString((const jchar *) word.data(), (jsize) word.size());
+}
+
+JNIEXPORT jintArray JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeSearch
+  (JNIEnv *env, jobject thiz, jlong ptr, jstring query, jint max_distance, jintArray visited) {
+    const BKTree *tree = (const BKTree *) ptr;
+    std::u16string &processed = get_processing_buffer();
+    process_string(get_string_region(env, query, get_thread_buffer()), tree->corpus.flags, processed);
+    jstring_view processed_query(processed.data(), processed.size());
+    std::vector<TreeMatch> matches;
+    uint32_t visited_count;
+    if (tree->uses_code_points()) {
+        search_tree<char32_t>(tree, processed_query, (uint32_t) max_distance, matches, &visited_count);
+    } else {
+        search_tree<char16_t>(tree, processed_query, (uint32_t) max_distance, matches, &visited_count);
+    }
+    jint visited_value = (jint) visited_count;
+    env->SetIntArrayRegion(visited, 0, 1, &visited_value);
+    // The ID and the distance of each match, one after the other
+    std::vector<jint> pairs(matches.size() * 2);
+    for (size_t i = 0; i < matches.size(); ++i) {
+        pairs[2 * i] = (jint) matches[i].id;
+        pairs[2 * i + 1] = (jint) matches[i].distance;
+    }
+    jintArray result = env->NewIntArray((jsize) pairs.size());
+    if (result == NULL) return NULL;
+    env->SetIntArrayRegion(result, 0, (jsize) pairs.size(), pairs.data());
+    return result;
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeFree
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    delete (BKTree *) ptr;
+}
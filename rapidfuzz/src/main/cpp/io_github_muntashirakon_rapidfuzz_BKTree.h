@@ -0,0 +1,85 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_BKTree */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_BKTree
+#define _Included_io_github_muntashirakon_rapidfuzz_BKTree
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeNew
+ * Signature: ([Ljava/lang/String;I)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeNew
+  (JNIEnv *, jclass, jobjectArray, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeLoad
+ * Signature: (Ljava/lang/String;)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeLoad
+  (JNIEnv *, jclass, jstring);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeSave
+ * Signature: (JLjava/lang/String;)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeSave
+  (JNIEnv *, jobject, jlong, jstring);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeGetFlags
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeGetFlags
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeSize
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeSize
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeGetBytes
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeGetBytes
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeGet
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeGet
+  (JNIEnv *, jobject, jlong, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeSearch
+ * Signature: (JLjava/lang/String;I[I)[I
+ */
+JNIEXPORT jintArray JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeSearch
+  (JNIEnv *, jobject, jlong, jstring, jint, jintArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_BKTree
+ * Method:    nativeFree
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_BKTree_nativeFree
+  (JNIEnv *, jclass, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
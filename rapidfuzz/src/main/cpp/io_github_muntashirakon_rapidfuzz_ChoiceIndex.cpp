@@ -0,0 +1,110 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <jni.h>
+
+#include "cached_scorer.hpp"
+#include "choice_corpus.hpp"
+#include "extract.hpp"
+#include "io_github_muntashirakon_rapidfuzz_ChoiceIndex.h"
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeNew
+  (JNIEnv *env, jclass clazz, jint flags) {
+    return (jlong) new ChoiceCorpus(flags);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeAdd
+  (JNIEnv *env, jobject thiz, jlong ptr, jstring choice) {
+    return add_choice(env, (ChoiceCorpus *) ptr, choice);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeAddAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jobjectArray choices) {
+    ChoiceCorpus *corpus = (ChoiceCorpus *) ptr;
+    jint first_id = (jint) corpus->lengths.size();
+    jsize len = env->GetArrayLength(choices);
+    corpus->offsets.reserve(corpus->offsets.size() + len);
+    corpus->lengths.reserve(corpus->lengths.size() + len);
+    corpus->signatures.reserve(corpus->signatures.size() + len);
+    if (needs_processing(corpus->flags)) {
+        corpus->processed_lengths.reserve(corpus->processed_lengths.size() + len);
+    }
+    for (jsize i = 0; i < len; ++i) {
+        jstring choice = (jstring) env->GetObjectArrayElement(choices, i);
+        add_choice(env, corpus, choice);
+        env->DeleteLocalRef(choice);
+    }
+    return first_id;
+}
+
+JNIEXPORT jboolean JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeRemove
+  (JNIEnv *env, jobject thiz, jlong ptr, jint id) {
+    ChoiceCorpus *corpus = (ChoiceCorpus *) ptr;
+    if (!corpus->contains(id)) return JNI_FALSE;
+    corpus->removed_bytes += corpus->get_entry_size(id);
+    corpus->lengths[id] = REMOVED_CHOICE;
+    --corpus->size;
+    corpus->compact_if_needed();
+    return JNI_TRUE;
+}
+
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeGet
+  (JNIEnv *env, jobject thiz, jlong ptr, jint id) {
+    ChoiceCorpus *corpus = (ChoiceCorpus *) ptr;
+    if (!corpus->contains(id)) return NULL;
+    jstring_view choice = corpus->get(id);
+    return env->NewString((const jchar *) choice.data(), (jsize) choice.size());
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeSize
+  (JNIEnv *env, jobject thiz, jlong ptr) {
+    return ((ChoiceCorpus *) ptr)->size;
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeGetIdCount
+  (JNIEnv *env, jobject thiz, jlong ptr) {
+    return (jint) ((ChoiceCorpus *) ptr)->lengths.size();
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeExtractAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jdouble score_cutoff, jintArray ids,
+   jdoubleArray scores) {
+    const ChoiceCorpus *corpus = (const ChoiceCorpus *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    ExtractResults results;
+    extract_all(0, (jint) corpus->lengths.size(), score_cutoff, [&](jint id, double cutoff) {
+        return get_ratio(corpus, scorer, id, cutoff);
+    }, results);
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeExtract
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jint limit, jdouble score_cutoff,
+   jintArray ids, jdoubleArray scores) {
+    const ChoiceCorpus *corpus = (const ChoiceCorpus *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    ExtractResults results;
+    extract_top(0, (jint) corpus->lengths.size(), limit, score_cutoff, [&](jint id, double cutoff) {
+        return get_ratio(corpus, scorer, id, cutoff);
+    }, results);
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeExtractOne
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jdouble score_cutoff,
+   jdoubleArray best_score) {
+    const ChoiceCorpus *corpus = (const ChoiceCorpus *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    double best;
+    jint best_id = extract_one(0, (jint) corpus->lengths.size(), score_cutoff, [&](jint id, double cutoff) {
+        return get_ratio(corpus, scorer, id, cutoff);
+    }, &best);
+    if (best_id >= 0) {
+        env->SetDoubleArrayRegion(best_score, 0, 1, &best);
+    }
+    return best_id;
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeFree
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    delete (ChoiceCorpus *) ptr;
+}
@@ -0,0 +1,101 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_ChoiceIndex */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_ChoiceIndex
+#define _Included_io_github_muntashirakon_rapidfuzz_ChoiceIndex
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeNew
+ * Signature: (I)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeNew
+  (JNIEnv *, jclass, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeAdd
+ * Signature: (JLjava/lang/String;)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeAdd
+  (JNIEnv *, jobject, jlong, jstring);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeAddAll
+ * Signature: (J[Ljava/lang/String;)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeAddAll
+  (JNIEnv *, jobject, jlong, jobjectArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeRemove
+ * Signature: (JI)Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeRemove
+  (JNIEnv *, jobject, jlong, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeGet
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeGet
+  (JNIEnv *, jobject, jlong, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeSize
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeSize
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeGetIdCount
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeGetIdCount
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeExtractAll
+ * Signature: (JJD[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeExtractAll
+  (JNIEnv *, jobject, jlong, jlong, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeExtract
+ * Signature: (JJID[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeExtract
+  (JNIEnv *, jobject, jlong, jlong, jint, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeExtractOne
+ * Signature: (JJD[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeExtractOne
+  (JNIEnv *, jobject, jlong, jlong, jdouble, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ChoiceIndex
+ * Method:    nativeFree
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ChoiceIndex_nativeFree
+  (JNIEnv *, jclass, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -0,0 +1,417 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <algorithm>
+#include <cmath>
+#include <memory>
+#include <string>
+#include <utility>
+#include <vector>
+
+#include <jni.h>
+#include <rapidfuzz/fuzz.hpp>
+#include <rapidfuzz/string_metric.hpp>
+
+#include "jni_string.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_FusedScorer.h"
+#include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
+
+using namespace rapidfuzz;
+
+// Scores a query against each choice with several ratio types at once. The token based ratio types are computed from
+// the sorted words and the word sets of the query and the choice, which are derived once per choice and shared by all
+// of them, instead of being derived again by each rapidfuzz scorer. The ratio types that do not split words are scored
+// by the cached scorers of rapidfuzz. The scores are the same as those of RapidFuzzCached for each ratio type.
+
+template<typename CharT>
+using WordList = std::vector<basic_string_view<CharT>>;
+
+// Whitespace separating words, which is the same as for str.split() of Python and sorted_split() of rapidfuzz
+template<typename CharT>
+static inline bool is_word_separator(CharT ch) {
+    return (ch >= 0x001C && ch <= 0x001F) || (ch <= 0xFFFF && is_whitespace((char16_t) ch));
+}
+
+// Splits a string into its words sorted in ascending order
+template<typename CharT>
+static void split_sorted(basic_string_view<CharT> s, WordList<CharT> &words) {
+    words.clear();
+    size_t start = 0;
+    for (size_t i = 0; i <= s.size(); ++i) {
+        if (i == s.size() || is_word_separator(s[i])) {
+            if (i > start) words.emplace_back(s.data() + start, i - start);
+            start = i + 1;
+        }
+    }
+    std::sort(words.begin(), words.end());
+}
+
+template<typename CharT>
+static void join(const WordList<CharT> &words, std::basic_string<CharT> &joined) {
+    joined.clear();
+    for (size_t i = 0; i < words.size(); ++i) {
+        if (i > 0) joined.push_back(' ');
+        joined.append(words[i].data(), words[i].size());
+    }
+}
+
+// Removes the duplicates of sorted words
+template<typename CharT>
+static void dedupe(WordList<CharT> &words) {
+    words.erase(std::unique(words.begin(), words.end()), words.end());
+}
+
+// The words of two sorted word sets split into the common words and the words of only one of them, all sorted
+template<typename CharT>
+struct Decomposition {
+    size_t intersection_count;
+    // Length of the common words joined by spaces
+    size_t intersection_length;
+    WordList<CharT> difference_ab;
+    WordList<CharT> difference_ba;
+};
+
+template<typename CharT>
+static void decompose(const WordList<CharT> &a, const WordList<CharT> &b, Decomposition<CharT> &decomposition) {
+    decomposition.intersection_count = 0;
+    decomposition.intersection_length = 0;
+    decomposition.difference_ab.clear();
+    decomposition.difference_ba.clear();
+    size_t i = 0;
+    size_t j = 0;
+    while (i < a.size() || j < b.size()) {
+        if (j == b.size() || (i < a.size() && a[i] < b[j])) {
+            decomposition.difference_ab.push_back(a[i++]);
+        } else if (i == a.size() || b[j] < a[i]) {
+            decomposition.difference_ba.push_back(b[j++]);
+        } else {
+            if (decomposition.intersection_count++ > 0) ++decomposition.intersection_length;
+            decomposition.intersection_length += a[i].size();
+            ++i;
+            ++j;
+        }
+    }
+}
+
+// Normalizes an InDel distance the same way as the ratios of rapidfuzz, returning 0 below the score cutoff
+static inline double norm_distance(size_t distance, size_t length_sum, double score_cutoff) {
+    double score = length_sum > 0 ? 100.0 - 100.0 * (double) distance / (double) length_sum : 100.0;
+    return score >= score_cutoff ? score : 0;
+}
+
+class FusedScorer {
+public:
+    FusedScorer(std::vector<jint> ratio_types, jint flags) : m_ratio_types(std::move(ratio_types)), m_flags(flags) {
+    }
+
+    virtual ~FusedScorer() = default;
+
+    // Scores a choice given as UTF-16 code units with each ratio type after processing it as selected by the flags
+    void ratios(jstring_view choice, double score_cutoff, double *scores) const {
+        if (!needs_processing(m_flags)) {
+            ratios_processed(choice, score_cutoff, scores);
+            return;
+        }
+        std::u16string &processed = get_processing_buffer();
+        process_string(choice, m_flags, processed);
+        ratios_processed(jstring_view(processed.data(), processed.size()), score_cutoff, scores);
+    }
+
+    virtual void ratios_processed(jstring_view choice, double score_cutoff, double *scores) const = 0;
+
+    size_t size() const {
+        return m_ratio_types.size();
+    }
+
+protected:
+    const std::vector<jint> m_ratio_types;
+
+private:
+    const jint m_flags;
+};
+
+template<typename CharT>
+class CachedFusedScorer : public FusedScorer {
+    typedef std::basic_string<CharT> Sentence;
+    typedef basic_string_view<CharT> View;
+
+    // Words of a choice and the ratios derived from them, each computed once it is needed by any of the ratio types
+    struct Choice {
+        View units;
+        bool split = false;
+        bool decomposed = false;
+        double ratio = -1;
+        double sorted_ratio = -1;
+        double partial_sorted_ratio = -1;
+        double set_ratio = -1;
+        double partial_difference_ratio = -1;
+    };
+
+public:
+    CachedFusedScorer(Sentence query, std::vector<jint> ratio_types, jint flags)
+            : FusedScorer(std::move(ratio_types), flags), m_query(std::move(query)) {
+        split_sorted(View(m_query.data(), m_query.size()), m_words);
+        join(m_words, m_sorted);
+        m_word_set = m_words;
+        dedupe(m_word_set);
+        // The cached scorers keep views of the query and the sorted words, which stay in place from now on
+        for (jint ratio_type : m_ratio_types) {
+            switch (ratio_type) {
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO:
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO:
+                    if (!m_ratio) m_ratio.reset(new fuzz::CachedRatio<Sentence>(m_query));
+                    break;
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_RATIO:
+                    if (!m_partial_ratio) m_partial_ratio.reset(new fuzz::CachedPartialRatio<Sentence>(m_query));
+                    break;
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_WEIGHTED_RATIO:
+                    if (!m_weighted_ratio) m_weighted_ratio.reset(new fuzz::CachedWRatio<Sentence>(m_query));
+                    break;
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_SORT_RATIO:
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_RATIO:
+                    if (!m_sorted_ratio) m_sorted_ratio.reset(new fuzz::CachedRatio<Sentence>(m_sorted));
+                    break;
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_SORT_RATIO:
+                case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_RATIO:
+                    if (!m_partial_sorted_ratio) {
+                        m_partial_sorted_ratio.reset(new fuzz::CachedPartialRatio<Sentence>(m_sorted));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    void ratios_processed(jstring_view choice, double score_cutoff, double *scores) const override {
+        Choice c;
+        c.units = to_units<CharT>(choice);
+        for (size_t i = 0; i < m_ratio_types.size(); ++i) {
+            double score = ratio(c, m_ratio_types[i], score_cutoff);
+            scores[i] = score >= score_cutoff ? score : 0;
+        }
+    }
+
+private:
+    // Buffers of the calling thread for the words of the choice being scored
+    static WordList<CharT> &get_words() {
+        static thread_local WordList<CharT> words;
+        return words;
+    }
+
+    static Sentence &get_sorted() {
+        static thread_local Sentence sorted;
+        return sorted;
+    }
+
+    static WordList<CharT> &get_word_set() {
+        static thread_local WordList<CharT> word_set;
+        return word_set;
+    }
+
+    static Decomposition<CharT> &get_decomposition() {
+        static thread_local Decomposition<CharT> decomposition;
+        return decomposition;
+    }
+
+    static Sentence &get_difference_ab() {
+        static thread_local Sentence difference;
+        return difference;
+    }
+
+    static Sentence &get_difference_ba() {
+        static thread_local Sentence difference;
+        return difference;
+    }
+
+    static View view(const Sentence &s) {
+        return View(s.data(), s.size());
+    }
+
+    void split(Choice &c) const {
+        if (c.split) return;
+        split_sorted(c.units, get_words());
+        join(get_words(), get_sorted());
+        c.split = true;
+    }
+
+    void decompose_words(Choice &c) const {
+        if (c.decomposed) return;
+        split(c);
+        WordList<CharT> &word_set = get_word_set();
+        word_set.assign(get_words().begin(), get_words().end());
+        dedupe(word_set);
+        Decomposition<CharT> &decomposition = get_decomposition();
+        decompose(m_word_set, word_set, decomposition);
+        join(decomposition.difference_ab, get_difference_ab());
+        join(decomposition.difference_ba, get_difference_ba());
+        c.decomposed = true;
+    }
+
+    double get_ratio(Choice &c, double score_cutoff) const {
+        if (c.ratio < 0) c.ratio = m_ratio->ratio(c.units, score_cutoff);
+        return c.ratio;
+    }
+
+    double get_sorted_ratio(Choice &c, double score_cutoff) const {
+        if (c.sorted_ratio < 0) {
+            split(c);
+            c.sorted_ratio = m_sorted_ratio->ratio(view(get_sorted()), score_cutoff);
+        }
+        return c.sorted_ratio;
+    }
+
+    double get_partial_sorted_ratio(Choice &c, double score_cutoff) const {
+        if (c.partial_sorted_ratio < 0) {
+            split(c);
+            c.partial_sorted_ratio = m_partial_sorted_ratio->ratio(view(get_sorted()), score_cutoff);
+        }
+        return c.partial_sorted_ratio;
+    }
+
+    // Same as token_set_ratio() of rapidfuzz except that a missing word is not checked for, as in token_ratio()
+    double get_set_ratio(Choice &c, double score_cutoff) const {
+        if (c.set_ratio >= 0) return c.set_ratio;
+        decompose_words(c);
+        const Decomposition<CharT> &decomposition = get_decomposition();
+        size_t ab_length = get_difference_ab().size();
+        size_t ba_length = get_difference_ba().size();
+        size_t sect_length = decomposition.intersection_length;
+        if (decomposition.intersection_count > 0 && (ab_length == 0 || ba_length == 0)) {
+            // One of the word sets contains the other one
+            return c.set_ratio = 100;
+        }
+        // Lengths of the intersection followed by a space and the difference, if there is an intersection
+        size_t sect_ab_length = sect_length + (sect_length > 0) + ab_length;
+        size_t sect_ba_length = sect_length + (sect_length > 0) + ba_length;
+        size_t length_sum = sect_ab_length + sect_ba_length;
+        double score = 0;
+        // The common prefix of both strings does not add to their InDel distance
+        size_t max = (size_t) std::ceil((double) length_sum * (1.0 - std::min(score_cutoff, 100.0) / 100));
+        size_t distance = string_metric::levenshtein(view(get_difference_ab()), view(get_difference_ba()),
+                                                     LevenshteinWeightTable{1, 1, 2}, max);
+        if (distance <= max) {
+            score = norm_distance(distance, length_sum, score_cutoff);
+        }
+        if (sect_length > 0) {
+            // The intersection compared with itself followed by a space and either difference
+            score = std::max(score, norm_distance(1 + ab_length, sect_length + sect_ab_length, score_cutoff));
+            score = std::max(score, norm_distance(1 + ba_length, sect_length + sect_ba_length, score_cutoff));
+        }
+        return c.set_ratio = score;
+    }
+
+    double get_partial_difference_ratio(Choice &c, double score_cutoff) const {
+        if (c.partial_difference_ratio < 0) {
+            decompose_words(c);
+            c.partial_difference_ratio = fuzz::partial_ratio(view(get_difference_ab()), view(get_difference_ba()),
+                                                             score_cutoff);
+        }
+        return c.partial_difference_ratio;
+    }
+
+    bool has_no_words(Choice &c) const {
+        split(c);
+        return m_words.empty() || get_words().empty();
+    }
+
+    double ratio(Choice &c, jint ratio_type, double score_cutoff) const {
+        switch (ratio_type) {
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO:
+                return get_ratio(c, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO:
+                if (m_query.empty() || c.units.empty()) return 0;
+                return get_ratio(c, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_RATIO:
+                return m_partial_ratio->ratio(c.units, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_WEIGHTED_RATIO:
+                return m_weighted_ratio->ratio(c.units, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_SORT_RATIO:
+                return get_sorted_ratio(c, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_SORT_RATIO:
+                return get_partial_sorted_ratio(c, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_SET_RATIO:
+                if (has_no_words(c)) return 0;
+                return get_set_ratio(c, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_SET_RATIO:
+                if (has_no_words(c)) return 0;
+                decompose_words(c);
+                if (get_decomposition().intersection_count > 0) return 100;
+                return get_partial_difference_ratio(c, score_cutoff);
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_TOKEN_RATIO:
+                return std::max(get_sorted_ratio(c, score_cutoff), get_set_ratio(c, score_cutoff));
+            case io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_PARTIAL_TOKEN_RATIO: {
+                decompose_words(c);
+                const Decomposition<CharT> &decomposition = get_decomposition();
+                if (decomposition.intersection_count > 0) return 100;
+                double score = get_partial_sorted_ratio(c, score_cutoff);
+                // Without duplicate words, the differences are the same as the sorted words
+                if (m_words.size() == decomposition.difference_ab.size()
+                    && get_words().size() == decomposition.difference_ba.size()) {
+                    return score;
+                }
+                return std::max(score, get_partial_difference_ratio(c, score_cutoff));
+            }
+            default:
+                return 0;
+        }
+    }
+
+    const Sentence m_query;
+    WordList<CharT> m_words;
+    Sentence m_sorted;
+    WordList<CharT> m_word_set;
+    std::unique_ptr<fuzz::CachedRatio<Sentence>> m_ratio;
+    std::unique_ptr<fuzz::CachedPartialRatio<Sentence>> m_partial_ratio;
+    std::unique_ptr<fuzz::CachedWRatio<Sentence>> m_weighted_ratio;
+    std::unique_ptr<fuzz::CachedRatio<Sentence>> m_sorted_ratio;
+    std::unique_ptr<fuzz::CachedPartialRatio<Sentence>> m_partial_sorted_ratio;
+};
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeNew
+  (JNIEnv *env, jclass clazz, jstring query, jintArray ratio_types, jint flags) {
+    std::vector<jint> types((size_t) env->GetArrayLength(ratio_types));
+    env->GetIntArrayRegion(ratio_types, 0, (jsize) types.size(), types.data());
+    std::u16string q = get_u16string(env, query);
+    if (needs_processing(flags)) {
+        std::u16string processed;
+        process_string(jstring_view(q.data(), q.size()), flags, processed);
+        q.swap(processed);
+    }
+    if (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) {
+        std::u32string code_points;
+        to_code_points(jstring_view(q.data(), q.size()), code_points);
+        return (jlong) new CachedFusedScorer<char32_t>(std::move(code_points), std::move(types), flags);
+    }
+    return (jlong) new CachedFusedScorer<char16_t>(std::move(q), std::move(types), flags);
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeRatio
+  (JNIEnv *env, jobject thiz, jlong ptr, jstring choice, jdouble score_cutoff, jdoubleArray scores) {
+    const FusedScorer *scorer = (const FusedScorer *) ptr;
+    std::vector<double> results(scorer->size());
+    scorer->ratios(get_string_region(env, choice, get_thread_buffer()), score_cutoff, results.data());
+    env->SetDoubleArrayRegion(scores, 0, (jsize) results.size(), results.data());
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeRatioAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jobjectArray choices, jdouble score_cutoff, jdoubleArray scores) {
+    const FusedScorer *scorer = (const FusedScorer *) ptr;
+    jsize len = env->GetArrayLength(choices);
+    std::vector<double> results(scorer->size() * (size_t) len);
+    std::u16string buffer;
+    for (jsize i = 0; i < len; ++i) {
+        jstring choice = (jstring) env->GetObjectArrayElement(choices, i);
+        // Null choices keep scores of 0
+        if (choice == NULL) continue;
+        jstring_view c = get_string_region(env, choice, buffer);
+        env->DeleteLocalRef(choice);
+        scorer->ratios(c, score_cutoff, results.data() + scorer->size() * (size_t) i);
+    }
+    env->SetDoubleArrayRegion(scores, 0, (jsize) results.size(), results.data());
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeFree
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    delete (FusedScorer *) ptr;
+}
@@ -0,0 +1,45 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_FusedScorer */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_FusedScorer
+#define _Included_io_github_muntashirakon_rapidfuzz_FusedScorer
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_FusedScorer
+ * Method:    nativeNew
+ * Signature: (Ljava/lang/String;[II)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeNew
+  (JNIEnv *, jclass, jstring, jintArray, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_FusedScorer
+ * Method:    nativeRatio
+ * Signature: (JLjava/lang/String;D[D)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeRatio
+  (JNIEnv *, jobject, jlong, jstring, jdouble, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_FusedScorer
+ * Method:    nativeRatioAll
+ * Signature: (J[Ljava/lang/String;D[D)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeRatioAll
+  (JNIEnv *, jobject, jlong, jobjectArray, jdouble, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_FusedScorer
+ * Method:    nativeFree
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_FusedScorer_nativeFree
+  (JNIEnv *, jclass, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -0,0 +1,339 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <algorithm>
+#include <cerrno>
+#include <cstdint>
+#include <cstring>
+#include <string>
+#include <vector>
+
+#include <fcntl.h>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <unistd.h>
+
+#include <jni.h>
+
+#include "cached_scorer.hpp"
+#include "extract.hpp"
+#include "jni_string.hpp"
+#include "prefilter.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_MappedChoiceIndex.h"
+
+// Layout of an index file, written by MappedChoiceIndex#write in little-endian byte order. All the offsets are relative
+// to the beginning of the file.
+//
+// Header        See IndexHeader
+// Records       One per choice, 4-byte aligned: uint32 length, uint32 processed length, the UTF-16 code units of the
+//               choice followed by those of the processed choice. The processed choice is omitted if the flags do not
+//               include any processing flag.
+// ID table      uint64 offset of the record of each choice, 8-byte aligned
+// Signatures    See IndexSignature, one per choice
+// Length table  uint32 length and uint32 position of the first choice with that length in the sorted IDs, one for each
+//               distinct length of the signatures in ascending order
+// Sorted IDs    uint32 ID of each choice sorted by the length of its signature and then by ID
+
+#define INDEX_MAGIC "RFZINDEX"
+#define INDEX_VERSION 1
+
+struct IndexHeader {
+    char magic[8];
+    uint32_t version;
+    int32_t flags;
+    uint32_t count;
+    uint32_t bucket_count;
+    uint64_t id_table_offset;
+    uint64_t bucket_table_offset;
+    uint64_t sorted_ids_offset;
+    uint64_t file_size;
+    uint64_t signature_table_offset;
+};
+
+static_assert(sizeof(IndexHeader) == io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_HEADER_SIZE,
+              "Header size does not match MappedChoiceIndex");
+
+struct IndexRecord {
+    uint32_t length;
+    uint32_t processed_length;
+};
+
+// Signature of a processed choice for the prefilter. The length is in code points if the flags include
+// RapidFuzz#FLAG_CODE_POINTS, or else in UTF-16 code units.
+struct IndexSignature {
+    uint32_t length;
+    uint32_t reserved;
+    uint64_t bitmap;
+};
+
+struct IndexBucket {
+    uint32_t length;
+    uint32_t start;
+};
+
+// A read-only memory mapping of an index file. Pages are loaded by the kernel when they are first accessed.
+struct MappedIndex {
+    const uint8_t *base;
+    size_t size;
+    const IndexHeader *header;
+    const uint64_t *id_table;
+    const IndexSignature *signature_table;
+    const IndexBucket *bucket_table;
+    const uint32_t *sorted_ids;
+
+    // Checks that the record lies before the ID table, so that a corrupted file cannot cause reads outside the
+    // mapping. Records are only checked when they are accessed, so that opening an index does not read all of them.
+    // The offset is compared without adding to it so that it cannot overflow. is_valid_index() has checked that the
+    // ID table of a non-empty index leaves room for at least one record.
+    bool is_valid_record(jint id) const {
+        uint64_t offset = id_table[id];
+        if (offset % sizeof(uint32_t) != 0 || offset < sizeof(IndexHeader)
+            || offset > header->id_table_offset - sizeof(IndexRecord)) {
+            return false;
+        }
+        const IndexRecord *record = (const IndexRecord *) (base + offset);
+        uint64_t units = (uint64_t) record->length
+                         + (needs_processing(header->flags) ? (uint64_t) record->processed_length : 0);
+        return units * sizeof(char16_t) <= header->id_table_offset - offset - sizeof(IndexRecord);
+    }
+
+    const IndexRecord *get_record(jint id) const {
+        return (const IndexRecord *) (base + id_table[id]);
+    }
+
+    jstring_view get(jint id) const {
+        const IndexRecord *record = get_record(id);
+        return jstring_view((const char16_t *) (record + 1), record->length);
+    }
+
+    jstring_view get_processed(jint id) const {
+        const IndexRecord *record = get_record(id);
+        const char16_t *units = (const char16_t *) (record + 1);
+        if (!needs_processing(header->flags)) return jstring_view(units, record->length);
+        return jstring_view(units + record->length, record->processed_length);
+    }
+
+    Signature get_signature(jint id) const {
+        const IndexSignature &signature = signature_table[id];
+        return Signature{signature.length, signature.bitmap};
+    }
+
+    // Position of the first choice of the bucket in the sorted IDs, and that of the next bucket
+    uint32_t get_bucket_start(uint32_t bucket) const {
+        return bucket < header->bucket_count ? bucket_table[bucket].start : header->count;
+    }
+};
+
+static void throw_io_exception(JNIEnv *env, const std::string &message) {
+    env->ThrowNew(env->FindClass("java/io/IOException"), message.c_str());
+}
+
+// Checks that the header is valid, the tables lie within the file and the length table is sorted
+static bool is_valid_index(const MappedIndex *index) {
+    const IndexHeader *header = index->header;
+    if (memcmp(header->magic, INDEX_MAGIC, sizeof(header->magic)) != 0) return false;
+    if (header->version != INDEX_VERSION || header->file_size != index->size) return false;
+    if (header->id_table_offset % sizeof(uint64_t) != 0 || header->signature_table_offset % sizeof(uint64_t) != 0
+        || header->bucket_table_offset % sizeof(uint32_t) != 0 || header->sorted_ids_offset % sizeof(uint32_t) != 0
+        || header->count > INT32_MAX) {
+        return false;
+    }
+    // The records of a non-empty index lie between the header and the ID table
+    if (header->id_table_offset < sizeof(IndexHeader)
+        || (header->count > 0 && header->id_table_offset < sizeof(IndexHeader) + sizeof(IndexRecord))) {
+        return false;
+    }
+    bool valid = header->id_table_offset <= index->size
+                 && (index->size - header->id_table_offset) / sizeof(uint64_t) >= header->count
+                 && header->signature_table_offset <= index->size
+                 && (index->size - header->signature_table_offset) / sizeof(IndexSignature) >= header->count
+                 && header->bucket_table_offset <= index->size
+                 && (index->size - header->bucket_table_offset) / sizeof(IndexBucket) >= header->bucket_count
+                 && header->sorted_ids_offset <= index->size
+                 && (index->size - header->sorted_ids_offset) / sizeof(uint32_t) >= header->count;
+    if (!valid) return false;
+    const IndexBucket *buckets = (const IndexBucket *) (index->base + header->bucket_table_offset);
+    for (uint32_t i = 0; i < header->bucket_count; ++i) {
+        if (buckets[i].start > header->count) return false;
+        if (i > 0 && (buckets[i].length <= buckets[i - 1].length || buckets[i].start < buckets[i - 1].start)) {
+            return false;
+        }
+    }
+    return true;
+}
+
+// Corrupted records are skipped. The prefilter only reads the signature table, so that the records of the rejected
+// choices are not even loaded.
+static double get_ratio(const MappedIndex *index, const Scorer *scorer, jint id, double score_cutoff) {
+    if (!scorer->may_reach(index->get_signature(id), score_cutoff)) return PRUNED_SCORE;
+    if (!index->is_valid_record(id)) return SKIPPED_SCORE;
+    return scorer->ratio_processed(index->get_processed(id), score_cutoff);
+}
+
+// Runs the extraction on the IDs of the choices whose lengths may reach the score cutoff, found using the length table,
+// if the prefilter rules out at least half of the choices by length. Otherwise, all the choices are considered and the
+// prefilter is only applied to each choice. The length table is based on the initial score cutoff, so it also holds for
+// extractions that raise the score cutoff as they proceed.
+template<typename Extract>
+static void extract_candidates(const MappedIndex *index, const Scorer *scorer, double score_cutoff,
+                               PrefilterCounter &counter, Extract extract) {
+    uint32_t count = index->header->count;
+    if (scorer->has_prefilter() && score_cutoff > 0) {
+        uint32_t candidate_count = 0;
+        for (uint32_t i = 0; i < index->header->bucket_count; ++i) {
+            if (scorer->may_reach(index->bucket_table[i].length, score_cutoff)) {
+                candidate_count += index->get_bucket_start(i + 1) - index->get_bucket_start(i);
+            }
+        }
+        if (candidate_count <= count / 2) {
+            std::vector<jint> ids;
+            ids.reserve(candidate_count);
+            for (uint32_t i = 0; i < index->header->bucket_count; ++i) {
+                if (!scorer->may_reach(index->bucket_table[i].length, score_cutoff)) continue;
+                for (uint32_t j = index->get_bucket_start(i); j < index->get_bucket_start(i + 1); ++j) {
+                    // Corrupted IDs are skipped
+                    if (index->sorted_ids[j] < count) ids.push_back((jint) index->sorted_ids[j]);
+                }
+            }
+            std::sort(ids.begin(), ids.end());
+            counter.add(count - candidate_count, count - candidate_count);
+            extract(ids);
+            return;
+        }
+    }
+    extract(IndexRange(0, (jint) count));
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeOpen
+  (JNIEnv *env, jclass clazz, jstring path) {
+    std::string file;
+    {
+        const char *chars = env->GetStringUTFChars(path, NULL);
+        if (chars == NULL) return 0;
+        file = chars;
+        env->ReleaseStringUTFChars(path, chars);
+    }
+    int fd = open(file.c_str(), O_RDONLY | O_CLOEXEC);
+    if (fd < 0) {
+        throw_io_exception(env, file + ": " + strerror(errno));
+        return 0;
+    }
+    struct stat st;
+    if (fstat(fd, &st) != 0) {
+        throw_io_exception(env, file + ": " + strerror(errno));
+        close(fd);
+        return 0;
+    }
+    if ((uint64_t) st.st_size < sizeof(IndexHeader)) {
+        throw_io_exception(env, file + ": Not a valid index");
+        close(fd);
+        return 0;
+    }
+    void *base = mmap(NULL, (size_t) st.st_size, PROT_READ, MAP_SHARED, fd, 0);
+    // The mapping stays valid after the file is closed
+    close(fd);
+    if (base == MAP_FAILED) {
+        throw_io_exception(env, file + ": " + strerror(errno));
+        return 0;
+    }
+    MappedIndex *index = new MappedIndex();
+    index->base = (const uint8_t *) base;
+    index->size = (size_t) st.st_size;
+    index->header = (const IndexHeader *) base;
+    if (!is_valid_index(index)) {
+        munmap(base, index->size);
+        delete index;
+        throw_io_exception(env, file + ": Not a valid index");
+        return 0;
+    }
+    index->id_table = (const uint64_t *) (index->base + index->header->id_table_offset);
+    index->signature_table = (const IndexSignature *) (index->base + index->header->signature_table_offset);
+    index->bucket_table = (const IndexBucket *) (index->base + index->header->bucket_table_offset);
+    index->sorted_ids = (const uint32_t *) (index->base + index->header->sorted_ids_offset);
+    return (jlong) index;
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeGetFlags
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    return ((const MappedIndex *) ptr)->header->flags;
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeSize
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    return (jint) ((const MappedIndex *) ptr)->header->count;
+}
+
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeGet
+  (JNIEnv *env, jobject thiz, jlong ptr, jint id) {
+    const MappedIndex *index = (const MappedIndex *) ptr;
+    if (id < 0 || (uint32_t) id >= index->header->count || !index->is_valid_record(id)) return NULL;
+    jstring_view choice = index->get(id);
+    return env->NewString((const jchar *) choice.data(), (jsize) choice.size());
+}
+
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeProcess
+  (JNIEnv *env, jclass clazz, jstring str, jint flags, jlongArray signature) {
+    std::u16string &processed = get_processing_buffer();
+    process_string(get_string_region(env, str, get_thread_buffer()), flags, processed);
+    Signature s = get_signature(jstring_view(processed.data(), processed.size()),
+                                (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) != 0);
+    jlong values[] = {(jlong) s.length, (jlong) s.bitmap};
+    env->SetLongArrayRegion(signature, 0, 2, values);
+    return env->NewString((const jchar *) processed.data(), (jsize) processed.size());
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeExtractAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jdouble score_cutoff, jintArray ids,
+   jdoubleArray scores) {
+    const MappedIndex *index = (const MappedIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    ExtractResults results;
+    PrefilterCounter counter;
+    extract_candidates(index, scorer, score_cutoff, counter, [&](const auto &candidates) {
+        extract_all(candidates, score_cutoff, [&](jint id, double cutoff) {
+            return get_ratio(index, scorer, id, cutoff);
+        }, results, counter);
+    });
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeExtract
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jint limit, jdouble score_cutoff,
+   jintArray ids, jdoubleArray scores) {
+    const MappedIndex *index = (const MappedIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    ExtractResults results;
+    PrefilterCounter counter;
+    extract_candidates(index, scorer, score_cutoff, counter, [&](const auto &candidates) {
+        extract_top(candidates, limit, score_cutoff, [&](jint id, double cutoff) {
+            return get_ratio(index, scorer, id, cutoff);
+        }, results, counter);
+    });
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeExtractOne
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jdouble score_cutoff,
+   jdoubleArray best_score) {
+    const MappedIndex *index = (const MappedIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    double best;
+    jint best_id = -1;
+    PrefilterCounter counter;
+    extract_candidates(index, scorer, score_cutoff, counter, [&](const auto &candidates) {
+        best_id = extract_one(candidates, score_cutoff, [&](jint id, double cutoff) {
+            return get_ratio(index, scorer, id, cutoff);
+        }, &best, counter);
+    });
+    if (best_id >= 0) {
+        env->SetDoubleArrayRegion(best_score, 0, 1, &best);
+    }
+    return best_id;
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeClose
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    MappedIndex *index = (MappedIndex *) ptr;
+    munmap((void *) index->base, index->size);
+    delete index;
+}
@@ -0,0 +1,91 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_MappedChoiceIndex */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+#define _Included_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+#ifdef __cplusplus
+extern "C" {
+#endif
+#undef io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_HEADER_SIZE
+#define io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_HEADER_SIZE 64L
+#undef io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_VERSION
+#define io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_VERSION 1L
+#undef io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_BUFFER_SIZE
+#define io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_BUFFER_SIZE 65536L
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeOpen
+ * Signature: (Ljava/lang/String;)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeOpen
+  (JNIEnv *, jclass, jstring);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeGetFlags
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeGetFlags
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeSize
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeSize
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeGet
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeGet
+  (JNIEnv *, jobject, jlong, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeProcess
+ * Signature: (Ljava/lang/String;I[J)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeProcess
+  (JNIEnv *, jclass, jstring, jint, jlongArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeExtractAll
+ * Signature: (JJD[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeExtractAll
+  (JNIEnv *, jobject, jlong, jlong, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeExtract
+ * Signature: (JJID[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeExtract
+  (JNIEnv *, jobject, jlong, jlong, jint, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeExtractOne
+ * Signature: (JJD[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeExtractOne
+  (JNIEnv *, jobject, jlong, jlong, jdouble, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_MappedChoiceIndex
+ * Method:    nativeClose
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_MappedChoiceIndex_nativeClose
+  (JNIEnv *, jclass, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -0,0 +1,199 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <algorithm>
+#include <cstdint>
+#include <string>
+#include <unordered_map>
+#include <vector>
+
+#include <jni.h>
+
+#include "cached_scorer.hpp"
+#include "choice_corpus.hpp"
+#include "extract.hpp"
+#include "jni_string.hpp"
+#include "processor.hpp"
+#include "io_github_muntashirakon_rapidfuzz_NGramIndex.h"
+
+// Padding added to both ends of a string, so that strings shorter than n and the characters at the ends are covered by
+// n-grams too. It does not occur in ordinary text.
+#define NGRAM_PADDING 0
+
+// Choices along with an inverted index that maps each n-gram to the IDs of the choices containing it, in ascending
+// order. N-grams are made of the units selected by the flags of the corpus and identified by a 64-bit hash. A hash
+// collision only adds candidates, which are then rescored anyway.
+struct NGramIndex {
+    ChoiceCorpus corpus;
+    const jint n;
+    std::unordered_map<uint64_t, std::vector<jint>> postings;
+
+    NGramIndex(jint n, jint flags) : corpus(flags), n(n) {
+    }
+};
+
+// Collects the distinct n-grams of a processed string in ngrams
+static void get_ngrams(jstring_view processed, jint n, jint flags, std::vector<uint64_t> &ngrams) {
+    static thread_local std::u32string units;
+    units.assign((size_t) (n - 1), NGRAM_PADDING);
+    if (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) {
+        std::u32string code_points;
+        to_code_points(processed, code_points);
+        units.append(code_points);
+    } else {
+        units.append(processed.begin(), processed.end());
+    }
+    units.append((size_t) (n - 1), NGRAM_PADDING);
+    ngrams.clear();
+    for (size_t i = 0; i + n <= units.size(); ++i) {
+        // 64-bit FNV-1a over the units
+        uint64_t hash = 0xCBF29CE484222325ULL;
+        for (jint j = 0; j < n; ++j) {
+            hash = (hash ^ units[i + j]) * 0x100000001B3ULL;
+        }
+        ngrams.push_back(hash);
+    }
+    std::sort(ngrams.begin(), ngrams.end());
+    ngrams.erase(std::unique(ngrams.begin(), ngrams.end()), ngrams.end());
+}
+
+// Finds the IDs of at most max_candidates choices that share the most n-grams with the query, in ascending order.
+// Choices sharing no n-gram with the query are never candidates.
+static void get_candidates(const NGramIndex *index, jstring_view query, jint max_candidates,
+                           std::vector<jint> &candidates) {
+    // Number of n-grams shared by each choice, which is reset after use so that it is only allocated once per thread
+    static thread_local std::vector<uint32_t> shared_counts;
+    std::vector<uint64_t> ngrams;
+    std::u16string &processed = get_processing_buffer();
+    process_string(query, index->corpus.flags, processed);
+    get_ngrams(jstring_view(processed.data(), processed.size()), index->n, index->corpus.flags, ngrams);
+    if (shared_counts.size() < index->corpus.lengths.size()) {
+        shared_counts.resize(index->corpus.lengths.size());
+    }
+    candidates.clear();
+    for (uint64_t ngram : ngrams) {
+        auto it = index->postings.find(ngram);
+        if (it == index->postings.end()) continue;
+        for (jint id : it->second) {
+            if (shared_counts[id]++ == 0) candidates.push_back(id);
+        }
+    }
+    if ((jint) candidates.size() > max_candidates) {
+        // Keep the choices sharing the most n-grams, preferring lower IDs on ties for reproducible results
+        std::nth_element(candidates.begin(), candidates.begin() + max_candidates, candidates.end(),
+                         [&](jint a, jint b) {
+                             return shared_counts[a] > shared_counts[b]
+                                    || (shared_counts[a] == shared_counts[b] && a < b);
+                         });
+        for (size_t i = (size_t) max_candidates; i < candidates.size(); ++i) {
+            shared_counts[candidates[i]] = 0;
+        }
+        candidates.resize((size_t) max_candidates);
+    }
+    for (jint id : candidates) {
+        shared_counts[id] = 0;
+    }
+    std::sort(candidates.begin(), candidates.end());
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeNew
+  (JNIEnv *env, jclass clazz, jobjectArray choices, jint n, jint flags) {
+    NGramIndex *index = new NGramIndex(n, flags);
+    ChoiceCorpus &corpus = index->corpus;
+    jsize len = env->GetArrayLength(choices);
+    corpus.offsets.reserve((size_t) len);
+    corpus.lengths.reserve((size_t) len);
+    corpus.signatures.reserve((size_t) len);
+    if (needs_processing(flags)) {
+        corpus.processed_lengths.reserve((size_t) len);
+    }
+    std::vector<uint64_t> ngrams;
+    for (jsize i = 0; i < len; ++i) {
+        jstring choice = (jstring) env->GetObjectArrayElement(choices, i);
+        jint id = add_choice(env, &corpus, choice);
+        env->DeleteLocalRef(choice);
+        get_ngrams(corpus.get_processed(id), n, flags, ngrams);
+        // IDs are added in ascending order, so the posting lists stay sorted
+        for (uint64_t ngram : ngrams) {
+            index->postings[ngram].push_back(id);
+        }
+    }
+    for (auto &posting : index->postings) {
+        posting.second.shrink_to_fit();
+    }
+    return (jlong) index;
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeGetBytes
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    const NGramIndex *index = (const NGramIndex *) ptr;
+    const ChoiceCorpus &corpus = index->corpus;
+    size_t bytes = corpus.buffer.capacity() * sizeof(char16_t) + corpus.offsets.capacity() * sizeof(size_t)
+                   + (corpus.lengths.capacity() + corpus.processed_lengths.capacity()) * sizeof(jint)
+                   + corpus.signatures.capacity() * sizeof(Signature);
+    for (const auto &posting : index->postings) {
+        // Approximate overhead of a node of the hash map
+        bytes += sizeof(posting) + 2 * sizeof(void *) + posting.second.capacity() * sizeof(jint);
+    }
+    return (jlong) bytes;
+}
+
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeGet
+  (JNIEnv *env, jobject thiz, jlong ptr, jint id) {
+    const ChoiceCorpus &corpus = ((const NGramIndex *) ptr)->corpus;
+    if (!corpus.contains(id)) return NULL;
+    jstring_view choice = corpus.get(id);
+    return env->NewString((const jchar *) choice.data(), (jsize) choice.size());
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeExtractAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jstring query, jint max_candidates,
+   jdouble score_cutoff, jintArray ids, jdoubleArray scores) {
+    const NGramIndex *index = (const NGramIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    std::vector<jint> candidates;
+    get_candidates(index, get_string_region(env, query, get_thread_buffer()), max_candidates, candidates);
+    ExtractResults results;
+    PrefilterCounter counter;
+    extract_all(candidates, score_cutoff, [&](jint id, double cutoff) {
+        return get_ratio(&index->corpus, scorer, id, cutoff);
+    }, results, counter);
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeExtract
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jstring query, jint max_candidates, jint limit,
+   jdouble score_cutoff, jintArray ids, jdoubleArray scores) {
+    const NGramIndex *index = (const NGramIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    std::vector<jint> candidates;
+    get_candidates(index, get_string_region(env, query, get_thread_buffer()), max_candidates, candidates);
+    ExtractResults results;
+    PrefilterCounter counter;
+    extract_top(candidates, limit, score_cutoff, [&](jint id, double cutoff) {
+        return get_ratio(&index->corpus, scorer, id, cutoff);
+    }, results, counter);
+    return results.copy_to(env, ids, scores);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeExtractOne
+  (JNIEnv *env, jobject thiz, jlong ptr, jlong scorer_ptr, jstring query, jint max_candidates,
+   jdouble score_cutoff, jdoubleArray best_score) {
+    const NGramIndex *index = (const NGramIndex *) ptr;
+    const Scorer *scorer = (const Scorer *) scorer_ptr;
+    std::vector<jint> candidates;
+    get_candidates(index, get_string_region(env, query, get_thread_buffer()), max_candidates, candidates);
+    double best;
+    PrefilterCounter counter;
+    jint best_id = extract_one(candidates, score_cutoff, [&](jint id, double cutoff) {
+        return get_ratio(&index->corpus, scorer, id, cutoff);
+    }, &best, counter);
+    if (best_id >= 0) {
+        env->SetDoubleArrayRegion(best_score, 0, 1, &best);
+    }
+    return best_id;
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeFree
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    delete (NGramIndex *) ptr;
+}
@@ -0,0 +1,73 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_NGramIndex */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_NGramIndex
+#define _Included_io_github_muntashirakon_rapidfuzz_NGramIndex
+#ifdef __cplusplus
+extern "C" {
+#endif
+#undef io_github_muntashirakon_rapidfuzz_NGramIndex_DEFAULT_N
+#define io_github_muntashirakon_rapidfuzz_NGramIndex_DEFAULT_N 3L
+#undef io_github_muntashirakon_rapidfuzz_NGramIndex_DEFAULT_MAX_CANDIDATES
+#define io_github_muntashirakon_rapidfuzz_NGramIndex_DEFAULT_MAX_CANDIDATES 1000L
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_NGramIndex
+ * Method:    nativeNew
+ * Signature: ([Ljava/lang/String;II)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeNew
+  (JNIEnv *, jclass, jobjectArray, jint, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_NGramIndex
+ * Method:    nativeGetBytes
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeGetBytes
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_NGramIndex
+ * Method:    nativeGet
+ * Signature: (JI)Ljava/lang/String;
+ */
+JNIEXPORT jstring JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeGet
+  (JNIEnv *, jobject, jlong, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_NGramIndex
+ * Method:    nativeExtractAll
+ * Signature: (JJLjava/lang/String;ID[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeExtractAll
+  (JNIEnv *, jobject, jlong, jlong, jstring, jint, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_NGramIndex
+ * Method:    nativeExtract
+ * Signature: (JJLjava/lang/String;IID[I[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeExtract
+  (JNIEnv *, jobject, jlong, jlong, jstring, jint, jint, jdouble, jintArray, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_NGramIndex
+ * Method:    nativeExtractOne
+ * Signature: (JJLjava/lang/String;ID[D)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeExtractOne
+  (JNIEnv *, jobject, jlong, jlong, jstring, jint, jdouble, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_NGramIndex
+ * Method:    nativeFree
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_NGramIndex_nativeFree
+  (JNIEnv *, jclass, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
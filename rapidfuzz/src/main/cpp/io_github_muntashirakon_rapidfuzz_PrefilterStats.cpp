@@ -0,0 +1,22 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <jni.h>
+
+#include "prefilter.hpp"
+#include "io_github_muntashirakon_rapidfuzz_PrefilterStats.h"
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_PrefilterStats_nativeGetCandidateCount
+  (JNIEnv *env, jclass clazz) {
+    return (jlong) prefilter_candidates.load(std::memory_order_relaxed);
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_PrefilterStats_nativeGetPrunedCount
+  (JNIEnv *env, jclass clazz) {
+    return (jlong) prefilter_pruned.load(std::memory_order_relaxed);
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_PrefilterStats_nativeReset
+  (JNIEnv *env, jclass clazz) {
+    prefilter_candidates.store(0, std::memory_order_relaxed);
+    prefilter_pruned.store(0, std::memory_order_relaxed);
+}
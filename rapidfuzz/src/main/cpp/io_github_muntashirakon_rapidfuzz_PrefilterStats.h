@@ -0,0 +1,37 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_PrefilterStats */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_PrefilterStats
+#define _Included_io_github_muntashirakon_rapidfuzz_PrefilterStats
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_PrefilterStats
+ * Method:    nativeGetCandidateCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_PrefilterStats_nativeGetCandidateCount
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_PrefilterStats
+ * Method:    nativeGetPrunedCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_PrefilterStats_nativeGetPrunedCount
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_PrefilterStats
+ * Method:    nativeReset
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_PrefilterStats_nativeReset
+  (JNIEnv *, jclass);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -1,78 +1,152 @@
 // SPDX-License-Identifier: Apache-2.0
 
+#include <string>
+#include <vector>
+
 #include <jni.h>
 #include <rapidfuzz/fuzz.hpp>
 
+#include "alignment.hpp"
+#include "byte_string.hpp"
+#include "jni_natives.hpp"
+#include "jni_string.hpp"
+#include "processor.hpp"
+#include "scorer_cache.hpp"
 #include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
 
 using namespace rapidfuzz;
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::ratio(str1, str2, (double) score_cuttoff);
-}
+template<typename CharT>
+using RatioFunction = double (*)(basic_string_view<CharT> s1, basic_string_view<CharT> s2, double score_cutoff);
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::partial_ratio(str1, str2, (double) score_cuttoff);
+// Ratio functions indexed by the ratio type minus TYPE_RATIO, so that a single native method serves all ratio types
+// and dispatches to one of them with a table lookup
+template<typename CharT>
+static const RatioFunction<CharT> ratio_functions[RATIO_TYPE_COUNT] = {
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::partial_ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::token_sort_ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::partial_token_sort_ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::token_set_ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::partial_token_set_ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::token_ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::partial_token_ratio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::WRatio(s1, s2, cutoff); },
+        [](auto s1, auto s2, double cutoff) { return (double) fuzz::QRatio(s1, s2, cutoff); },
+};
+
+// Scores two strings with a valid ratio type
+template<typename CharT>
+static double score(jint ratio_type, basic_string_view<CharT> s1, basic_string_view<CharT> s2, double score_cutoff) {
+    jint index = ratio_type - io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO;
+    return ratio_functions<CharT>[index](s1, s2, score_cutoff);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeTokenSortRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::token_sort_ratio(str1, str2, (double) score_cuttoff);
+// s1 is copied into a buffer reused by the calling thread and s2 is accessed directly, so that only a single critical
+// region is held while scoring. The strings are scored by the scorer of the calling thread for s1 if the ScorerCache is
+// enabled, or else by the ratio function of the valid ratio type.
+static jdouble score(JNIEnv *env, jstring s1, jstring s2, jint ratio_type, jdouble score_cutoff) {
+    jstring_view str1 = get_string_region(env, s1, get_thread_buffer());
+    CriticalString str2(env, s2);
+    const Scorer *scorer = get_thread_scorer(ratio_type, str1, 0);
+    if (scorer != NULL) return (jdouble) scorer->ratio(str2.view(), score_cutoff);
+    return (jdouble) score(ratio_type, str1, str2.view(), score_cutoff);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialTokenSortRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::partial_token_sort_ratio(str1, str2, (double) score_cuttoff);
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeRatio
+  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jint ratio_type, jdouble score_cuttoff) {
+    return score(env, s1, s2, ratio_type, score_cuttoff);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeTokenSetRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::token_set_ratio(str1, str2, (double) score_cuttoff);
+static bool check_ratio_type(JNIEnv *env, jint ratio_type) {
+    if (ratio_type < io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO
+        || ratio_type > io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO) {
+        env->ThrowNew(env->FindClass("java/lang/IllegalArgumentException"), "Unknown ratio type");
+        return false;
+    }
+    return true;
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialTokenSetRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::partial_token_set_ratio(str1, str2, (double) score_cuttoff);
+// Scores two strings after processing them as selected by flags. s2 must not be the processing buffer of the calling
+// thread.
+static double score(jstring_view s1, jstring_view s2, jint ratio_type, double score_cutoff, jint flags) {
+    const Scorer *scorer = get_thread_scorer(ratio_type, s1, flags);
+    if (scorer != NULL) return scorer->ratio(s2, score_cutoff);
+    std::u16string str1;
+    process_string(s1, flags, str1);
+    // s2 is processed into a buffer reused by the calling thread
+    std::u16string &str2 = get_processing_buffer();
+    process_string(s2, flags, str2);
+    if (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) {
+        std::u32string code_points1;
+        to_code_points(jstring_view(str1.data(), str1.size()), code_points1);
+        // s2 is decoded into a buffer reused by the calling thread
+        basic_string_view<char32_t> code_points2 = to_units<char32_t>(jstring_view(str2.data(), str2.size()));
+        return score(ratio_type, basic_string_view<char32_t>(code_points1.data(), code_points1.size()),
+                     code_points2, score_cutoff);
+    }
+    return score(ratio_type, jstring_view(str1.data(), str1.size()), jstring_view(str2.data(), str2.size()),
+                 score_cutoff);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeTokenRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::token_ratio(str1, str2, (double) score_cuttoff);
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeScore
+  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jint ratio_type, jdouble score_cuttoff, jint flags) {
+    if (!check_ratio_type(env, ratio_type)) return 0;
+    if (!needs_processing(flags) && !(flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS)) {
+        return score(env, s1, s2, ratio_type, score_cuttoff);
+    }
+    std::u16string str1 = get_u16string(env, s1);
+    jstring_view str2 = get_string_region(env, s2, get_thread_buffer());
+    return score(jstring_view(str1.data(), str1.size()), str2, ratio_type, score_cuttoff, flags);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialTokenRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::partial_token_ratio(str1, str2, (double) score_cuttoff);
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeScoreBytes
+  (JNIEnv *env, jclass clazz, jobject s1, jboolean direct1, jint offset1, jint length1, jobject s2, jboolean direct2,
+   jint offset2, jint length2, jint encoding, jint ratio_type, jdouble score_cuttoff, jint flags) {
+    if (!check_ratio_type(env, ratio_type)) return 0;
+    std::u16string str1;
+    std::u16string &str2 = get_decoding_buffer();
+    bool accessible;
+    {
+        // Both strings are decoded before any JNI function may be called again
+        CriticalBytes bytes1(env, s1, direct1);
+        CriticalBytes bytes2(env, s2, direct2);
+        accessible = bytes1.data() != NULL && bytes2.data() != NULL;
+        if (accessible) {
+            decode_bytes(bytes1.data() + offset1, (size_t) length1, encoding, str1);
+            decode_bytes(bytes2.data() + offset2, (size_t) length2, encoding, str2);
+        }
+    }
+    if (!accessible) {
+        throw_inaccessible_bytes(env);
+        return 0;
+    }
+    return score(jstring_view(str1.data(), str1.size()), jstring_view(str2.data(), str2.size()), ratio_type,
+                 score_cuttoff, flags);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeWeightedRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::WRatio(str1, str2, (double) score_cuttoff);
+JNIEXPORT jintArray JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeGetAlignment
+  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jint ratio_type, jint flags) {
+    std::u16string str1 = get_u16string(env, s1);
+    jstring_view str2 = get_string_region(env, s2, get_thread_buffer());
+    std::vector<jint> alignment;
+    if (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) {
+        append_alignment<char32_t>(ratio_type, jstring_view(str1.data(), str1.size()), str2, flags, alignment);
+    } else {
+        append_alignment<char16_t>(ratio_type, jstring_view(str1.data(), str1.size()), str2, flags, alignment);
+    }
+    return to_int_array(env, alignment);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeQuickRatio
-  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cuttoff) {
-    const char* str1 = env->GetStringUTFChars(s1, NULL);
-    const char* str2 = env->GetStringUTFChars(s2, NULL);
-    return (double) fuzz::QRatio(str1, str2, (double) score_cuttoff);
+bool register_rapidfuzz_natives(JNIEnv *env) {
+    static const JNINativeMethod methods[] = {
+            NATIVE_METHOD("nativeRatio", "(Ljava/lang/String;Ljava/lang/String;ID)D",
+                          Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeRatio),
+            NATIVE_METHOD("nativeScore", "(Ljava/lang/String;Ljava/lang/String;IDI)D",
+                          Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeScore),
+            NATIVE_METHOD("nativeScoreBytes", "(Ljava/lang/Object;ZIILjava/lang/Object;ZIIIIDI)D",
+                          Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeScoreBytes),
+    };
+    return register_natives(env, "io/github/muntashirakon/rapidfuzz/RapidFuzz", methods,
+                            sizeof(methods) / sizeof(methods[0]));
 }
@@ -27,85 +27,55 @@ extern "C" {
 #define io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_WEIGHTED_RATIO 9L
 #undef io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO
 #define io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO 10L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS 1L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_LOWERCASE
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_LOWERCASE 2L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_STRIP_NON_ALPHANUMERIC
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_STRIP_NON_ALPHANUMERIC 4L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_TRIM_WHITESPACE
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_TRIM_WHITESPACE 8L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_FOLD_DIACRITICS
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_FOLD_DIACRITICS 16L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_DEFAULT_PROCESS
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_DEFAULT_PROCESS 14L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_ALIGNMENT_STRIDE
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_ALIGNMENT_STRIDE 4L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_ENCODING_UTF_8
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_ENCODING_UTF_8 1L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzz_ENCODING_LATIN_1
+#define io_github_muntashirakon_rapidfuzz_RapidFuzz_ENCODING_LATIN_1 2L
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
  * Method:    nativeRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
+ * Signature: (Ljava/lang/String;Ljava/lang/String;ID)D
  */
 JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
+  (JNIEnv *, jclass, jstring, jstring, jint, jdouble);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativePartialRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
+ * Method:    nativeGetAlignment
+ * Signature: (Ljava/lang/String;Ljava/lang/String;II)[I
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
+JNIEXPORT jintArray JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeGetAlignment
+  (JNIEnv *, jclass, jstring, jstring, jint, jint);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativeTokenSortRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
+ * Method:    nativeScore
+ * Signature: (Ljava/lang/String;Ljava/lang/String;IDI)D
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeTokenSortRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeScore
+  (JNIEnv *, jclass, jstring, jstring, jint, jdouble, jint);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativePartialTokenSortRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
+ * Method:    nativeScoreBytes
+ * Signature: (Ljava/lang/Object;ZIILjava/lang/Object;ZIIIIDI)D
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialTokenSortRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativeTokenSetRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeTokenSetRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativePartialTokenSetRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialTokenSetRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativeTokenRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeTokenRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativePartialTokenRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativePartialTokenRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativeWeightedRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeWeightedRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzz
- * Method:    nativeQuickRatio
- * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeQuickRatio
-  (JNIEnv *, jclass, jstring, jstring, jdouble);
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzz_nativeScoreBytes
+  (JNIEnv *, jclass, jobject, jboolean, jint, jint, jobject, jboolean, jint, jint, jint, jint, jdouble, jint);
 
 #ifdef __cplusplus
 }
@@ -1,210 +1,339 @@
 // SPDX-License-Identifier: Apache-2.0
 
-#include<string>
+#include <cmath>
+#include <cstdint>
+#include <string>
+#include <utility>
+#include <vector>
 
 #include <jni.h>
 #include <rapidfuzz/fuzz.hpp>
 
+#include "alignment.hpp"
+#include "byte_string.hpp"
+#include "cached_scorer.hpp"
+#include "cdist.hpp"
+#include "extract.hpp"
+#include "jni_natives.hpp"
+#include "jni_string.hpp"
 #include "io_github_muntashirakon_rapidfuzz_RapidFuzzCached.h"
 
 using namespace rapidfuzz;
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedRatio<std::string> *scorer = new fuzz::CachedRatio(std::string(q));
-    return (jlong) scorer;
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNew
+  (JNIEnv *env, jclass clazz, jstring query, jint ratio_type, jint flags) {
+    return (jlong) new_cached_scorer(env, ratio_type, query, flags);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedRatio<std::string> *scorer = (fuzz::CachedRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
-}
-
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedRatio<std::string> *scorer = (fuzz::CachedRatio<std::string> *) ptr;
-    delete scorer;
-}
-
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedPartialRatio<std::string> *scorer = new fuzz::CachedPartialRatio(std::string(q));
-    return (jlong) scorer;
-}
-
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedPartialRatio<std::string> *scorer = (fuzz::CachedPartialRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
-}
-
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedPartialRatio<std::string> *scorer = (fuzz::CachedPartialRatio<std::string> *) ptr;
-    delete scorer;
-}
-
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedTokenSortRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedTokenSortRatio<std::string> *scorer = new fuzz::CachedTokenSortRatio(std::string(q));
-    return (jlong) scorer;
-}
-
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetTokenSortRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedTokenSortRatio<std::string> *scorer = (fuzz::CachedTokenSortRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
-}
-
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedTokenSortRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedTokenSortRatio<std::string> *scorer = (fuzz::CachedTokenSortRatio<std::string> *) ptr;
-    delete scorer;
+// A single native method serves all the ratio types, the scorer dispatches to its ratio type via its virtual table
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeRatio
+  (JNIEnv *env, jobject thiz, jlong ptr, jstring choice, jdouble score_cutoff) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    CriticalString c(env, choice);
+    return scorer->ratio(c.view(), score_cutoff);
 }
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialTokenSortRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedPartialTokenSortRatio<std::string> *scorer = new fuzz::CachedPartialTokenSortRatio(std::string(q));
-    return (jlong) scorer;
-}
-
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialTokenSortRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedPartialTokenSortRatio<std::string> *scorer = (fuzz::CachedPartialTokenSortRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
-}
-
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialTokenSortRatio
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFree
   (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedPartialTokenSortRatio<std::string> *scorer = (fuzz::CachedPartialTokenSortRatio<std::string> *) ptr;
-    delete scorer;
+    delete (Scorer *) ptr;
 }
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedTokenSetRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedTokenSetRatio<std::string> *scorer = new fuzz::CachedTokenSetRatio(std::string(q));
-    return (jlong) scorer;
+// Scores choices[i] using a buffer that is reused for all the choices of a batch. Null choices are skipped, and choices
+// rejected by the prefilter are not scored.
+static double get_ratio(JNIEnv *env, const Scorer *scorer, jobjectArray choices, jsize i, double score_cutoff,
+                        std::u16string &buffer) {
+    jstring choice = (jstring) env->GetObjectArrayElement(choices, i);
+    if (choice == NULL) return SKIPPED_SCORE;
+    jstring_view c = get_string_region(env, choice, buffer);
+    env->DeleteLocalRef(choice);
+    return scorer->ratio_prefiltered(c, score_cutoff);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetTokenSetRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedTokenSetRatio<std::string> *scorer = (fuzz::CachedTokenSetRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jobjectArray choices, jint from, jint to, jdouble score_cutoff,
+   jintArray indices, jdoubleArray scores) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    ExtractResults results;
+    std::u16string buffer;
+    extract_all(from, to, score_cutoff, [&](jint i, double cutoff) {
+        return get_ratio(env, scorer, choices, i, cutoff, buffer);
+    }, results);
+    return results.copy_to(env, indices, scores);
 }
 
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedTokenSetRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedTokenSetRatio<std::string> *scorer = (fuzz::CachedTokenSetRatio<std::string> *) ptr;
-    delete scorer;
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractOne
+  (JNIEnv *env, jobject thiz, jlong ptr, jobjectArray choices, jint from, jint to, jdouble score_cutoff,
+   jdoubleArray best_score) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    double best;
+    std::u16string buffer;
+    jint best_index = extract_one(from, to, score_cutoff, [&](jint i, double cutoff) {
+        return get_ratio(env, scorer, choices, i, cutoff, buffer);
+    }, &best);
+    if (best_index >= 0) {
+        env->SetDoubleArrayRegion(best_score, 0, 1, &best);
+    }
+    return best_index;
 }
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialTokenSetRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedPartialTokenSetRatio<std::string> *scorer = new fuzz::CachedPartialTokenSetRatio(std::string(q));
-    return (jlong) scorer;
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtract
+  (JNIEnv *env, jobject thiz, jlong ptr, jobjectArray choices, jint from, jint to, jint limit,
+   jdouble score_cutoff, jintArray indices, jdoubleArray scores) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    ExtractResults results;
+    std::u16string buffer;
+    extract_top(from, to, limit, score_cutoff, [&](jint i, double cutoff) {
+        return get_ratio(env, scorer, choices, i, cutoff, buffer);
+    }, results);
+    return results.copy_to(env, indices, scores);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialTokenSetRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedPartialTokenSetRatio<std::string> *scorer = (fuzz::CachedPartialTokenSetRatio<std::string> *) ptr;
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetRatioBytes
+  (JNIEnv *env, jobject thiz, jlong ptr, jobject choice, jboolean direct, jint offset, jint length, jint encoding,
+   jdouble score_cutoff) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    jstring_view c;
+    bool accessible;
+    {
+        CriticalBytes bytes(env, choice, direct);
+        accessible = bytes.data() != NULL;
+        if (accessible) {
+            c = decode_bytes(bytes.data() + offset, (size_t) length, encoding, get_decoding_buffer());
+        }
+    }
+    if (!accessible) {
+        throw_inaccessible_bytes(env);
+        return 0;
+    }
     return scorer->ratio(c, score_cutoff);
 }
 
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialTokenSetRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedPartialTokenSetRatio<std::string> *scorer = (fuzz::CachedPartialTokenSetRatio<std::string> *) ptr;
-    delete scorer;
+// Offsets of the choices of a batch, where choice i spans [offsets[i], offsets[i + 1]) of the bytes or the aliases
+static std::vector<jint> get_offsets(JNIEnv *env, jintArray offsets, jint count) {
+    std::vector<jint> result((size_t) count + 1);
+    env->GetIntArrayRegion(offsets, 0, count + 1, result.data());
+    return result;
 }
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedTokenRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedTokenRatio<std::string> *scorer = new fuzz::CachedTokenRatio(std::string(q));
-    return (jlong) scorer;
+// Scores the choice i of a batch given as encoded bytes, which is decoded into a buffer reused by the calling thread.
+// Choices rejected by the prefilter are not scored.
+static double get_ratio(const Scorer *scorer, const uint8_t *bytes, const std::vector<jint> &offsets, jint encoding,
+                        jint i, double score_cutoff) {
+    jstring_view c = decode_bytes(bytes + offsets[i], (size_t) (offsets[i + 1] - offsets[i]), encoding,
+                                  get_decoding_buffer());
+    return scorer->ratio_prefiltered(c, score_cutoff);
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetTokenRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedTokenRatio<std::string> *scorer = (fuzz::CachedTokenRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractAllBytes
+  (JNIEnv *env, jobject thiz, jlong ptr, jobject choices, jboolean direct, jint base, jintArray offsets, jint count,
+   jint encoding, jdouble score_cutoff, jintArray indices, jdoubleArray scores) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    std::vector<jint> choice_offsets = get_offsets(env, offsets, count);
+    ExtractResults results;
+    bool accessible;
+    {
+        // The choices are scored without calling any JNI function, and the results are copied afterwards
+        CriticalBytes bytes(env, choices, direct);
+        accessible = bytes.data() != NULL;
+        if (accessible) {
+            const uint8_t *data = bytes.data() + base;
+            PrefilterCounter counter;
+            extract_all(IndexRange(0, count), score_cutoff, [&](jint i, double cutoff) {
+                return get_ratio(scorer, data, choice_offsets, encoding, i, cutoff);
+            }, results, counter);
+        }
+    }
+    if (!accessible) {
+        throw_inaccessible_bytes(env);
+        return 0;
+    }
+    return results.copy_to(env, indices, scores);
 }
 
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedTokenRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedTokenRatio<std::string> *scorer = (fuzz::CachedTokenRatio<std::string> *) ptr;
-    delete scorer;
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractBytes
+  (JNIEnv *env, jobject thiz, jlong ptr, jobject choices, jboolean direct, jint base, jintArray offsets, jint count,
+   jint limit, jint encoding, jdouble score_cutoff, jintArray indices, jdoubleArray scores) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    std::vector<jint> choice_offsets = get_offsets(env, offsets, count);
+    ExtractResults results;
+    bool accessible;
+    {
+        CriticalBytes bytes(env, choices, direct);
+        accessible = bytes.data() != NULL;
+        if (accessible) {
+            const uint8_t *data = bytes.data() + base;
+            PrefilterCounter counter;
+            extract_top(IndexRange(0, count), limit, score_cutoff, [&](jint i, double cutoff) {
+                return get_ratio(scorer, data, choice_offsets, encoding, i, cutoff);
+            }, results, counter);
+        }
+    }
+    if (!accessible) {
+        throw_inaccessible_bytes(env);
+        return 0;
+    }
+    return results.copy_to(env, indices, scores);
 }
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialTokenRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedPartialTokenRatio<std::string> *scorer = new fuzz::CachedPartialTokenRatio(std::string(q));
-    return (jlong) scorer;
+// Scores object i of a batch given as a flattened array of aliases as the best score of its aliases
+static double get_alias_ratio(JNIEnv *env, const Scorer *scorer, jobjectArray aliases,
+                              const std::vector<jint> &offsets, jint i, double score_cutoff, std::u16string &buffer) {
+    return get_best_alternative(offsets[i], offsets[i + 1], score_cutoff, [&](jint j, double cutoff) {
+        return get_ratio(env, scorer, aliases, j, cutoff, buffer);
+    });
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialTokenRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedPartialTokenRatio<std::string> *scorer = (fuzz::CachedPartialTokenRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractAllAliases
+  (JNIEnv *env, jclass clazz, jlong ptr, jobjectArray aliases, jintArray offsets, jint count, jdouble score_cutoff,
+   jintArray indices, jdoubleArray scores) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    std::vector<jint> alias_offsets = get_offsets(env, offsets, count);
+    ExtractResults results;
+    std::u16string buffer;
+    extract_all(0, count, score_cutoff, [&](jint i, double cutoff) {
+        return get_alias_ratio(env, scorer, aliases, alias_offsets, i, cutoff, buffer);
+    }, results);
+    return results.copy_to(env, indices, scores);
 }
 
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialTokenRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedPartialTokenRatio<std::string> *scorer = (fuzz::CachedPartialTokenRatio<std::string> *) ptr;
-    delete scorer;
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractOneAliases
+  (JNIEnv *env, jclass clazz, jlong ptr, jobjectArray aliases, jintArray offsets, jint count, jdouble score_cutoff,
+   jdoubleArray best_score) {
+    const Scorer *scorer = (const Scorer *) ptr;
+    std::vector<jint> alias_offsets = get_offsets(env, offsets, count);
+    double best;
+    std::u16string buffer;
+    jint best_index = extract_one(0, count, score_cutoff, [&](jint i, double cutoff) {
+        return get_alias_ratio(env, scorer, aliases, alias_offsets, i, cutoff, buffer);
+    }, &best);
+    if (best_index >= 0) {
+        env->SetDoubleArrayRegion(best_score, 0, 1, &best);
+    }
+    return best_index;
 }
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedWeightedRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedWRatio<std::string> *scorer = new fuzz::CachedWRatio(std::string(q));
-    return (jlong) scorer;
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeCdist
+  (JNIEnv *env, jclass clazz, jobjectArray queries, jobjectArray choices, jint ratio_type, jdouble score_cutoff,
+   jint flags, jint threads, jfloatArray scores) {
+    StringArray q(env, queries, 0);
+    StringArray c(env, choices, flags);
+    std::vector<jfloat> results((size_t) q.size() * c.size());
+    cdist(q, c, ratio_type, score_cutoff, flags, threads, [&](jsize i, jsize j, double score) {
+        results[(size_t) i * c.size() + j] = (jfloat) score;
+    });
+    env->SetFloatArrayRegion(scores, 0, (jsize) results.size(), results.data());
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetWeightedRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedWRatio<std::string> *scorer = (fuzz::CachedWRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeCdistQuantized
+  (JNIEnv *env, jclass clazz, jobjectArray queries, jobjectArray choices, jint ratio_type, jdouble score_cutoff,
+   jint flags, jint threads, jbyteArray scores) {
+    StringArray q(env, queries, 0);
+    StringArray c(env, choices, flags);
+    std::vector<jbyte> results((size_t) q.size() * c.size());
+    cdist(q, c, ratio_type, score_cutoff, flags, threads, [&](jsize i, jsize j, double score) {
+        results[(size_t) i * c.size() + j] = (jbyte) std::lround(score);
+    });
+    env->SetByteArrayRegion(scores, 0, (jsize) results.size(), results.data());
 }
 
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedWeightedRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedWRatio<std::string> *scorer = (fuzz::CachedWRatio<std::string> *) ptr;
-    delete scorer;
+JNIEXPORT jobject JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeCdistSparse
+  (JNIEnv *env, jclass clazz, jobjectArray queries, jobjectArray choices, jint ratio_type, jdouble score_cutoff,
+   jint flags, jint threads) {
+    StringArray q(env, queries, 0);
+    StringArray c(env, choices, flags);
+    // Each row is only accessed by the thread scoring it
+    std::vector<std::vector<std::pair<jint, jfloat>>> rows((size_t) q.size());
+    cdist(q, c, ratio_type, score_cutoff, flags, threads, [&](jsize i, jsize j, double score) {
+        if (score >= score_cutoff) {
+            rows[i].emplace_back(j, (jfloat) score);
+        }
+    });
+    size_t count = 0;
+    for (const auto &row : rows) {
+        count += row.size();
+    }
+    if (count > (size_t) INT32_MAX) {
+        env->ThrowNew(env->FindClass("java/lang/OutOfMemoryError"), "Too many pairs, increase the score cutoff");
+        return NULL;
+    }
+    std::vector<jint> query_indices;
+    std::vector<jint> choice_indices;
+    std::vector<jfloat> scores;
+    query_indices.reserve(count);
+    choice_indices.reserve(count);
+    scores.reserve(count);
+    for (jsize i = 0; i < q.size(); ++i) {
+        for (const auto &pair : rows[i]) {
+            query_indices.push_back(i);
+            choice_indices.push_back(pair.first);
+            scores.push_back(pair.second);
+        }
+        // Release the memory as soon as possible as the number of pairs can be large
+        std::vector<std::pair<jint, jfloat>>().swap(rows[i]);
+    }
+    jintArray out_query_indices = env->NewIntArray((jsize) count);
+    jintArray out_choice_indices = env->NewIntArray((jsize) count);
+    jfloatArray out_scores = env->NewFloatArray((jsize) count);
+    if (out_query_indices == NULL || out_choice_indices == NULL || out_scores == NULL) {
+        // OutOfMemoryError is pending
+        return NULL;
+    }
+    env->SetIntArrayRegion(out_query_indices, 0, (jsize) count, query_indices.data());
+    env->SetIntArrayRegion(out_choice_indices, 0, (jsize) count, choice_indices.data());
+    env->SetFloatArrayRegion(out_scores, 0, (jsize) count, scores.data());
+    jclass pairs_class = env->FindClass("io/github/muntashirakon/rapidfuzz/ScorePairs");
+    jmethodID constructor = env->GetMethodID(pairs_class, "<init>", "([I[I[F)V");
+    return env->NewObject(pairs_class, constructor, out_query_indices, out_choice_indices, out_scores);
 }
 
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedQuickRatio
-  (JNIEnv *env, jclass clazz, jstring query) {
-    const char* q = env->GetStringUTFChars(query, NULL);
-    fuzz::CachedQRatio<std::string> *scorer = new fuzz::CachedQRatio(std::string(q));
-    return (jlong) scorer;
+// Appends the alignments of the query with choices[indices[i]] and writes where each of them starts to offsets,
+// followed by the end of the last one. The query is processed only once. Null choices have empty alignments.
+template<typename CharT>
+static void append_alignments(JNIEnv *env, jint ratio_type, jstring query, jobjectArray choices, const jint *indices,
+                              jsize count, jint flags, std::vector<jint> &out, jint *offsets) {
+    AlignedString<CharT> q;
+    prepare_aligned(get_string_region(env, query, get_thread_buffer()), flags, q);
+    AlignedString<CharT> c;
+    for (jsize i = 0; i < count; ++i) {
+        offsets[i] = (jint) out.size();
+        jstring choice = (jstring) env->GetObjectArrayElement(choices, indices[i]);
+        // ArrayIndexOutOfBoundsException is pending if the index was not checked by the caller
+        if (env->ExceptionCheck()) return;
+        if (choice == NULL) continue;
+        prepare_aligned(get_string_region(env, choice, get_thread_buffer()), flags, c);
+        env->DeleteLocalRef(choice);
+        append_alignment(ratio_type, q, c, out);
+    }
+    offsets[count] = (jint) out.size();
 }
 
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetQuickRatio
-  (JNIEnv *env, jclass clazz, jlong ptr, jstring choice, jdouble score_cutoff) {
-    const char* c = env->GetStringUTFChars(choice, NULL);
-    fuzz::CachedQRatio<std::string> *scorer = (fuzz::CachedQRatio<std::string> *) ptr;
-    return scorer->ratio(c, score_cutoff);
+JNIEXPORT jintArray JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetAlignments
+  (JNIEnv *env, jclass clazz, jstring query, jobjectArray choices, jintArray indices, jint count, jint ratio_type,
+   jint flags, jintArray offsets) {
+    std::vector<jint> idx((size_t) count);
+    env->GetIntArrayRegion(indices, 0, count, idx.data());
+    std::vector<jint> starts((size_t) count + 1);
+    std::vector<jint> alignments;
+    if (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_CODE_POINTS) {
+        append_alignments<char32_t>(env, ratio_type, query, choices, idx.data(), count, flags, alignments,
+                                    starts.data());
+    } else {
+        append_alignments<char16_t>(env, ratio_type, query, choices, idx.data(), count, flags, alignments,
+                                    starts.data());
+    }
+    if (env->ExceptionCheck()) return NULL;
+    env->SetIntArrayRegion(offsets, 0, count + 1, starts.data());
+    return to_int_array(env, alignments);
 }
 
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedQuickRatio
-  (JNIEnv *env, jclass clazz, jlong ptr) {
-    fuzz::CachedQRatio<std::string> *scorer = (fuzz::CachedQRatio<std::string> *) ptr;
-    delete scorer;
+bool register_rapidfuzz_cached_natives(JNIEnv *env) {
+    static const JNINativeMethod methods[] = {
+            NATIVE_METHOD("nativeNew", "(Ljava/lang/String;II)J",
+                          Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNew),
+            NATIVE_METHOD("nativeRatio", "(JLjava/lang/String;D)D",
+                          Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeRatio),
+            NATIVE_METHOD("nativeFree", "(J)V", Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFree),
+    };
+    return register_natives(env, "io/github/muntashirakon/rapidfuzz/RapidFuzzCached", methods,
+                            sizeof(methods) / sizeof(methods[0]));
 }
@@ -7,245 +7,131 @@
 #ifdef __cplusplus
 extern "C" {
 #endif
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzzCached_SCORER_OVERHEAD_BYTES
+#define io_github_muntashirakon_rapidfuzz_RapidFuzzCached_SCORER_OVERHEAD_BYTES 256L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzzCached_BYTES_PER_CHAR
+#define io_github_muntashirakon_rapidfuzz_RapidFuzzCached_BYTES_PER_CHAR 16L
+#undef io_github_muntashirakon_rapidfuzz_RapidFuzzCached_BYTES_PER_BLOCK
+#define io_github_muntashirakon_rapidfuzz_RapidFuzzCached_BYTES_PER_BLOCK 2048L
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedRatio
- * Signature: (Ljava/lang/String;)J
+ * Method:    nativeNew
+ * Signature: (Ljava/lang/String;II)J
  */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedRatio
-  (JNIEnv *, jclass, jstring);
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNew
+  (JNIEnv *, jclass, jstring, jint, jint);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetRatio
+ * Method:    nativeRatio
  * Signature: (JLjava/lang/String;D)D
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeRatio
+  (JNIEnv *, jobject, jlong, jstring, jdouble);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedRatio
+ * Method:    nativeFree
  * Signature: (J)V
  */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedRatio
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFree
   (JNIEnv *, jclass, jlong);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedPartialRatio
- * Signature: (Ljava/lang/String;)J
+ * Method:    nativeGetAlignments
+ * Signature: (Ljava/lang/String;[Ljava/lang/String;[IIII[I)[I
  */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialRatio
-  (JNIEnv *, jclass, jstring);
+JNIEXPORT jintArray JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetAlignments
+  (JNIEnv *, jclass, jstring, jobjectArray, jintArray, jint, jint, jint, jintArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetPartialRatio
- * Signature: (JLjava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedPartialRatio
- * Signature: (J)V
- */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialRatio
-  (JNIEnv *, jclass, jlong);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedTokenSortRatio
- * Signature: (Ljava/lang/String;)J
- */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedTokenSortRatio
-  (JNIEnv *, jclass, jstring);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetTokenSortRatio
- * Signature: (JLjava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetTokenSortRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedTokenSortRatio
- * Signature: (J)V
- */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedTokenSortRatio
-  (JNIEnv *, jclass, jlong);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedPartialTokenSortRatio
- * Signature: (Ljava/lang/String;)J
+ * Method:    nativeExtractAll
+ * Signature: (J[Ljava/lang/String;IID[I[D)I
  */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialTokenSortRatio
-  (JNIEnv *, jclass, jstring);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractAll
+  (JNIEnv *, jobject, jlong, jobjectArray, jint, jint, jdouble, jintArray, jdoubleArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetPartialTokenSortRatio
- * Signature: (JLjava/lang/String;D)D
+ * Method:    nativeExtractOne
+ * Signature: (J[Ljava/lang/String;IID[D)I
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialTokenSortRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedPartialTokenSortRatio
- * Signature: (J)V
- */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialTokenSortRatio
-  (JNIEnv *, jclass, jlong);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractOne
+  (JNIEnv *, jobject, jlong, jobjectArray, jint, jint, jdouble, jdoubleArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedTokenSetRatio
- * Signature: (Ljava/lang/String;)J
+ * Method:    nativeExtract
+ * Signature: (J[Ljava/lang/String;IIID[I[D)I
  */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedTokenSetRatio
-  (JNIEnv *, jclass, jstring);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtract
+  (JNIEnv *, jobject, jlong, jobjectArray, jint, jint, jint, jdouble, jintArray, jdoubleArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetTokenSetRatio
- * Signature: (JLjava/lang/String;D)D
+ * Method:    nativeCdist
+ * Signature: ([Ljava/lang/String;[Ljava/lang/String;IDII[F)V
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetTokenSetRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeCdist
+  (JNIEnv *, jclass, jobjectArray, jobjectArray, jint, jdouble, jint, jint, jfloatArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedTokenSetRatio
- * Signature: (J)V
+ * Method:    nativeCdistQuantized
+ * Signature: ([Ljava/lang/String;[Ljava/lang/String;IDII[B)V
  */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedTokenSetRatio
-  (JNIEnv *, jclass, jlong);
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeCdistQuantized
+  (JNIEnv *, jclass, jobjectArray, jobjectArray, jint, jdouble, jint, jint, jbyteArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedPartialTokenSetRatio
- * Signature: (Ljava/lang/String;)J
+ * Method:    nativeCdistSparse
+ * Signature: ([Ljava/lang/String;[Ljava/lang/String;IDII)Lio/github/muntashirakon/rapidfuzz/ScorePairs;
  */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialTokenSetRatio
-  (JNIEnv *, jclass, jstring);
+JNIEXPORT jobject JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeCdistSparse
+  (JNIEnv *, jclass, jobjectArray, jobjectArray, jint, jdouble, jint, jint);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetPartialTokenSetRatio
- * Signature: (JLjava/lang/String;D)D
+ * Method:    nativeGetRatioBytes
+ * Signature: (JLjava/lang/Object;ZIIID)D
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialTokenSetRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetRatioBytes
+  (JNIEnv *, jobject, jlong, jobject, jboolean, jint, jint, jint, jdouble);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedPartialTokenSetRatio
- * Signature: (J)V
+ * Method:    nativeExtractAllBytes
+ * Signature: (JLjava/lang/Object;ZI[IIID[I[D)I
  */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialTokenSetRatio
-  (JNIEnv *, jclass, jlong);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractAllBytes
+  (JNIEnv *, jobject, jlong, jobject, jboolean, jint, jintArray, jint, jint, jdouble, jintArray, jdoubleArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedTokenRatio
- * Signature: (Ljava/lang/String;)J
+ * Method:    nativeExtractBytes
+ * Signature: (JLjava/lang/Object;ZI[IIIID[I[D)I
  */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedTokenRatio
-  (JNIEnv *, jclass, jstring);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractBytes
+  (JNIEnv *, jobject, jlong, jobject, jboolean, jint, jintArray, jint, jint, jint, jdouble, jintArray, jdoubleArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetTokenRatio
- * Signature: (JLjava/lang/String;D)D
+ * Method:    nativeExtractAllAliases
+ * Signature: (J[Ljava/lang/String;[IID[I[D)I
  */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetTokenRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractAllAliases
+  (JNIEnv *, jclass, jlong, jobjectArray, jintArray, jint, jdouble, jintArray, jdoubleArray);
 
 /*
  * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedTokenRatio
- * Signature: (J)V
+ * Method:    nativeExtractOneAliases
+ * Signature: (J[Ljava/lang/String;[IID[D)I
  */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedTokenRatio
-  (JNIEnv *, jclass, jlong);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedPartialTokenRatio
- * Signature: (Ljava/lang/String;)J
- */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedPartialTokenRatio
-  (JNIEnv *, jclass, jstring);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetPartialTokenRatio
- * Signature: (JLjava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetPartialTokenRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedPartialTokenRatio
- * Signature: (J)V
- */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedPartialTokenRatio
-  (JNIEnv *, jclass, jlong);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedWeightedRatio
- * Signature: (Ljava/lang/String;)J
- */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedWeightedRatio
-  (JNIEnv *, jclass, jstring);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetWeightedRatio
- * Signature: (JLjava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetWeightedRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedWeightedRatio
- * Signature: (J)V
- */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedWeightedRatio
-  (JNIEnv *, jclass, jlong);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeNewCachedQuickRatio
- * Signature: (Ljava/lang/String;)J
- */
-JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeNewCachedQuickRatio
-  (JNIEnv *, jclass, jstring);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeGetQuickRatio
- * Signature: (JLjava/lang/String;D)D
- */
-JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeGetQuickRatio
-  (JNIEnv *, jclass, jlong, jstring, jdouble);
-
-/*
- * Class:     io_github_muntashirakon_rapidfuzz_RapidFuzzCached
- * Method:    nativeFreeCachedQuickRatio
- * Signature: (J)V
- */
-JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeFreeCachedQuickRatio
-  (JNIEnv *, jclass, jlong);
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_RapidFuzzCached_nativeExtractOneAliases
+  (JNIEnv *, jclass, jlong, jobjectArray, jintArray, jint, jdouble, jdoubleArray);
 
 #ifdef __cplusplus
 }
@@ -0,0 +1,43 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <jni.h>
+
+#include "scorer_cache.hpp"
+#include "io_github_muntashirakon_rapidfuzz_ScorerCache.h"
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeSetEnabled
+  (JNIEnv *env, jclass clazz, jboolean enabled) {
+    scorer_cache_enabled.store(enabled != JNI_FALSE, std::memory_order_relaxed);
+}
+
+JNIEXPORT jboolean JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeIsEnabled
+  (JNIEnv *env, jclass clazz) {
+    return (jboolean) scorer_cache_enabled.load(std::memory_order_relaxed);
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeSetCapacity
+  (JNIEnv *env, jclass clazz, jint capacity) {
+    scorer_cache_capacity.store(capacity, std::memory_order_relaxed);
+    scorer_cache_generation.fetch_add(1, std::memory_order_relaxed);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeGetCapacity
+  (JNIEnv *env, jclass clazz) {
+    return scorer_cache_capacity.load(std::memory_order_relaxed);
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeGetHitCount
+  (JNIEnv *env, jclass clazz) {
+    return (jlong) scorer_cache_hits.load(std::memory_order_relaxed);
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeGetMissCount
+  (JNIEnv *env, jclass clazz) {
+    return (jlong) scorer_cache_misses.load(std::memory_order_relaxed);
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeReset
+  (JNIEnv *env, jclass clazz) {
+    scorer_cache_hits.store(0, std::memory_order_relaxed);
+    scorer_cache_misses.store(0, std::memory_order_relaxed);
+}
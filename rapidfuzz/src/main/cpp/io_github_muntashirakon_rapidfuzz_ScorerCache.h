@@ -0,0 +1,71 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_ScorerCache */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_ScorerCache
+#define _Included_io_github_muntashirakon_rapidfuzz_ScorerCache
+#ifdef __cplusplus
+extern "C" {
+#endif
+#undef io_github_muntashirakon_rapidfuzz_ScorerCache_DEFAULT_CAPACITY
+#define io_github_muntashirakon_rapidfuzz_ScorerCache_DEFAULT_CAPACITY 4L
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ScorerCache
+ * Method:    nativeSetEnabled
+ * Signature: (Z)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeSetEnabled
+  (JNIEnv *, jclass, jboolean);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ScorerCache
+ * Method:    nativeIsEnabled
+ * Signature: ()Z
+ */
+JNIEXPORT jboolean JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeIsEnabled
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ScorerCache
+ * Method:    nativeSetCapacity
+ * Signature: (I)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeSetCapacity
+  (JNIEnv *, jclass, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ScorerCache
+ * Method:    nativeGetCapacity
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeGetCapacity
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ScorerCache
+ * Method:    nativeGetHitCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeGetHitCount
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ScorerCache
+ * Method:    nativeGetMissCount
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeGetMissCount
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_ScorerCache
+ * Method:    nativeReset
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_ScorerCache_nativeReset
+  (JNIEnv *, jclass);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -0,0 +1,59 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <string>
+
+#include <jni.h>
+#include <rapidfuzz/string_metric.hpp>
+
+#include "cached_metric.hpp"
+#include "jni_string.hpp"
+#include "io_github_muntashirakon_rapidfuzz_StringMetric.h"
+
+using namespace rapidfuzz;
+
+// s1 is copied into a buffer reused by the calling thread and s2 is accessed directly, so that only a single critical
+// region is held while comparing
+template<typename Metric>
+static auto compare(JNIEnv *env, jstring s1, jstring s2, Metric metric) {
+    jstring_view str1 = get_string_region(env, s1, get_thread_buffer());
+    CriticalString str2(env, s2);
+    return metric(str1, str2.view());
+}
+
+static LevenshteinWeightTable get_weights(jint insert_cost, jint delete_cost, jint replace_cost) {
+    return {(std::size_t) insert_cost, (std::size_t) delete_cost, (std::size_t) replace_cost};
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeLevenshtein
+  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jint insert_cost, jint delete_cost, jint replace_cost,
+   jint max) {
+    return to_jdistance(compare(env, s1, s2, [&](jstring_view str1, jstring_view str2) {
+        return string_metric::levenshtein(str1, str2, get_weights(insert_cost, delete_cost, replace_cost),
+                                          (std::size_t) max);
+    }));
+}
+
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeNormalizedLevenshtein
+  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jint insert_cost, jint delete_cost, jint replace_cost,
+   jdouble score_cutoff) {
+    return compare(env, s1, s2, [&](jstring_view str1, jstring_view str2) {
+        return string_metric::normalized_levenshtein(str1, str2, get_weights(insert_cost, delete_cost, replace_cost),
+                                                     (double) score_cutoff);
+    });
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeHamming
+  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jint max) {
+    // Lengths are checked in Java
+    return to_jdistance(compare(env, s1, s2, [&](jstring_view str1, jstring_view str2) {
+        return string_metric::hamming(str1, str2, (std::size_t) max);
+    }));
+}
+
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeNormalizedHamming
+  (JNIEnv *env, jclass clazz, jstring s1, jstring s2, jdouble score_cutoff) {
+    // Lengths are checked in Java
+    return compare(env, s1, s2, [&](jstring_view str1, jstring_view str2) {
+        return string_metric::normalized_hamming(str1, str2, (double) score_cutoff);
+    });
+}
@@ -0,0 +1,49 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_StringMetric */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_StringMetric
+#define _Included_io_github_muntashirakon_rapidfuzz_StringMetric
+#ifdef __cplusplus
+extern "C" {
+#endif
+#undef io_github_muntashirakon_rapidfuzz_StringMetric_TYPE_LEVENSHTEIN
+#define io_github_muntashirakon_rapidfuzz_StringMetric_TYPE_LEVENSHTEIN 1L
+#undef io_github_muntashirakon_rapidfuzz_StringMetric_TYPE_HAMMING
+#define io_github_muntashirakon_rapidfuzz_StringMetric_TYPE_HAMMING 2L
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetric
+ * Method:    nativeLevenshtein
+ * Signature: (Ljava/lang/String;Ljava/lang/String;IIII)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeLevenshtein
+  (JNIEnv *, jclass, jstring, jstring, jint, jint, jint, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetric
+ * Method:    nativeNormalizedLevenshtein
+ * Signature: (Ljava/lang/String;Ljava/lang/String;IIID)D
+ */
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeNormalizedLevenshtein
+  (JNIEnv *, jclass, jstring, jstring, jint, jint, jint, jdouble);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetric
+ * Method:    nativeHamming
+ * Signature: (Ljava/lang/String;Ljava/lang/String;I)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeHamming
+  (JNIEnv *, jclass, jstring, jstring, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetric
+ * Method:    nativeNormalizedHamming
+ * Signature: (Ljava/lang/String;Ljava/lang/String;D)D
+ */
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetric_nativeNormalizedHamming
+  (JNIEnv *, jclass, jstring, jstring, jdouble);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -0,0 +1,84 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <string>
+#include <vector>
+
+#include <jni.h>
+#include <rapidfuzz/string_metric.hpp>
+
+#include "cached_metric.hpp"
+#include "jni_string.hpp"
+#include "io_github_muntashirakon_rapidfuzz_StringMetric.h"
+#include "io_github_muntashirakon_rapidfuzz_StringMetricCached.h"
+
+using namespace rapidfuzz;
+
+// Compares every choice with the query using a buffer that is reused for all the choices. Null choices get the value
+// of skipped.
+template<typename T, typename Compare>
+static std::vector<T> compare_all(JNIEnv *env, jobjectArray choices, T skipped, Compare compare) {
+    jsize count = env->GetArrayLength(choices);
+    std::vector<T> results((size_t) count);
+    std::u16string buffer;
+    for (jsize i = 0; i < count; ++i) {
+        jstring choice = (jstring) env->GetObjectArrayElement(choices, i);
+        if (choice == NULL) {
+            results[i] = skipped;
+            continue;
+        }
+        jstring_view c = get_string_region(env, choice, buffer);
+        env->DeleteLocalRef(choice);
+        results[i] = compare(c);
+    }
+    return results;
+}
+
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeNew
+  (JNIEnv *env, jclass clazz, jstring query, jint metric_type, jint insert_cost, jint delete_cost,
+   jint replace_cost) {
+    // The metric type is checked in Java
+    std::u16string q = get_u16string(env, query);
+    if (metric_type == io_github_muntashirakon_rapidfuzz_StringMetric_TYPE_HAMMING) {
+        return (jlong) new CachedHammingMetric(std::move(q));
+    }
+    LevenshteinWeightTable weights = {(std::size_t) insert_cost, (std::size_t) delete_cost,
+                                      (std::size_t) replace_cost};
+    return (jlong) new CachedLevenshteinMetric(std::move(q), weights);
+}
+
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeDistance
+  (JNIEnv *env, jobject thiz, jlong ptr, jstring choice, jint max) {
+    const Metric *metric = (const Metric *) ptr;
+    CriticalString c(env, choice);
+    return to_jdistance(metric->distance(c.view(), (std::size_t) max));
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeDistances
+  (JNIEnv *env, jobject thiz, jlong ptr, jobjectArray choices, jint max, jintArray distances) {
+    const Metric *metric = (const Metric *) ptr;
+    std::vector<jint> results = compare_all(env, choices, (jint) -1, [&](jstring_view choice) {
+        return to_jdistance(metric->distance(choice, (std::size_t) max));
+    });
+    env->SetIntArrayRegion(distances, 0, (jsize) results.size(), results.data());
+}
+
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeNormalized
+  (JNIEnv *env, jobject thiz, jlong ptr, jstring choice, jdouble score_cutoff) {
+    const Metric *metric = (const Metric *) ptr;
+    CriticalString c(env, choice);
+    return metric->normalized(c.view(), score_cutoff);
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeNormalizedAll
+  (JNIEnv *env, jobject thiz, jlong ptr, jobjectArray choices, jdouble score_cutoff, jdoubleArray scores) {
+    const Metric *metric = (const Metric *) ptr;
+    std::vector<jdouble> results = compare_all(env, choices, (jdouble) 0, [&](jstring_view choice) {
+        return (jdouble) metric->normalized(choice, score_cutoff);
+    });
+    env->SetDoubleArrayRegion(scores, 0, (jsize) results.size(), results.data());
+}
+
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeFree
+  (JNIEnv *env, jclass clazz, jlong ptr) {
+    delete (Metric *) ptr;
+}
@@ -0,0 +1,61 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class io_github_muntashirakon_rapidfuzz_StringMetricCached */
+
+#ifndef _Included_io_github_muntashirakon_rapidfuzz_StringMetricCached
+#define _Included_io_github_muntashirakon_rapidfuzz_StringMetricCached
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetricCached
+ * Method:    nativeNew
+ * Signature: (Ljava/lang/String;IIII)J
+ */
+JNIEXPORT jlong JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeNew
+  (JNIEnv *, jclass, jstring, jint, jint, jint, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetricCached
+ * Method:    nativeDistance
+ * Signature: (JLjava/lang/String;I)I
+ */
+JNIEXPORT jint JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeDistance
+  (JNIEnv *, jobject, jlong, jstring, jint);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetricCached
+ * Method:    nativeDistances
+ * Signature: (J[Ljava/lang/String;I[I)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeDistances
+  (JNIEnv *, jobject, jlong, jobjectArray, jint, jintArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetricCached
+ * Method:    nativeNormalized
+ * Signature: (JLjava/lang/String;D)D
+ */
+JNIEXPORT jdouble JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeNormalized
+  (JNIEnv *, jobject, jlong, jstring, jdouble);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetricCached
+ * Method:    nativeNormalizedAll
+ * Signature: (J[Ljava/lang/String;D[D)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeNormalizedAll
+  (JNIEnv *, jobject, jlong, jobjectArray, jdouble, jdoubleArray);
+
+/*
+ * Class:     io_github_muntashirakon_rapidfuzz_StringMetricCached
+ * Method:    nativeFree
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_io_github_muntashirakon_rapidfuzz_StringMetricCached_nativeFree
+  (JNIEnv *, jclass, jlong);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
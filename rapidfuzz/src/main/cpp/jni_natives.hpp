@@ -0,0 +1,27 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_JNI_NATIVES_HPP
+#define RAPIDFUZZ_JNI_NATIVES_HPP
+
+#include <jni.h>
+
+// The native methods called once per score are registered by JNI_OnLoad, so that they are bound as soon as the library
+// is loaded instead of being looked up by name on their first call. The others are still looked up by name.
+
+// JNINativeMethod has non-const members in the headers of some JDKs
+#define NATIVE_METHOD(name, signature, function) {(char *) (name), (char *) (signature), (void *) (function)}
+
+// Defined next to the native methods they register. Return false if an exception is pending.
+bool register_rapidfuzz_natives(JNIEnv *env);
+
+bool register_rapidfuzz_cached_natives(JNIEnv *env);
+
+static inline bool register_natives(JNIEnv *env, const char *class_name, const JNINativeMethod *methods, jint count) {
+    jclass clazz = env->FindClass(class_name);
+    if (clazz == NULL) return false;
+    bool registered = env->RegisterNatives(clazz, methods, count) == JNI_OK;
+    env->DeleteLocalRef(clazz);
+    return registered;
+}
+
+#endif // RAPIDFUZZ_JNI_NATIVES_HPP
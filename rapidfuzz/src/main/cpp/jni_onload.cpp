@@ -0,0 +1,16 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#include <jni.h>
+
+#include "jni_natives.hpp"
+
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM *vm, void *reserved) {
+    JNIEnv *env;
+    if (vm->GetEnv((void **) &env, JNI_VERSION_1_6) != JNI_OK) {
+        return JNI_ERR;
+    }
+    if (!register_rapidfuzz_natives(env) || !register_rapidfuzz_cached_natives(env)) {
+        return JNI_ERR;
+    }
+    return JNI_VERSION_1_6;
+}
@@ -0,0 +1,99 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_JNI_STRING_HPP
+#define RAPIDFUZZ_JNI_STRING_HPP
+
+#include <string>
+
+#include <jni.h>
+#include <rapidfuzz/fuzz.hpp>
+
+// Java strings are scored as UTF-16 code units. jchar and char16_t are both 16-bit unsigned types.
+typedef rapidfuzz::basic_string_view<char16_t> jstring_view;
+
+// Copies the UTF-16 code units of a Java string into the given buffer, which can be reused between calls
+static inline jstring_view get_string_region(JNIEnv *env, jstring str, std::u16string &buffer) {
+    jsize length = env->GetStringLength(str);
+    buffer.resize((size_t) length);
+    env->GetStringRegion(str, 0, length, (jchar *) &buffer[0]);
+    return jstring_view(buffer.data(), buffer.size());
+}
+
+// Buffer reused by the calling thread for short-lived copies of strings
+static inline std::u16string &get_thread_buffer() {
+    static thread_local std::u16string buffer;
+    return buffer;
+}
+
+static inline std::u16string get_u16string(JNIEnv *env, jstring str) {
+    std::u16string buffer;
+    get_string_region(env, str, buffer);
+    return buffer;
+}
+
+// Decodes UTF-16 code units into code points. Unpaired surrogates are kept as they are.
+static inline void to_code_points(jstring_view units, std::u32string &code_points) {
+    code_points.clear();
+    code_points.reserve(units.size());
+    for (size_t i = 0; i < units.size(); ++i) {
+        char32_t unit = units[i];
+        if (unit >= 0xD800 && unit <= 0xDBFF && i + 1 < units.size()
+            && units[i + 1] >= 0xDC00 && units[i + 1] <= 0xDFFF) {
+            code_points.push_back(0x10000 + ((unit - 0xD800) << 10) + (units[i + 1] - 0xDC00));
+            ++i;
+        } else {
+            code_points.push_back(unit);
+        }
+    }
+}
+
+// Converts UTF-16 code units to a sequence of CharT, which is either char16_t (no-op) or char32_t (code points). The
+// returned view of code points is only valid until the next conversion in the calling thread.
+template<typename CharT>
+static inline rapidfuzz::basic_string_view<CharT> to_units(jstring_view units);
+
+template<>
+inline jstring_view to_units<char16_t>(jstring_view units) {
+    return units;
+}
+
+template<>
+inline rapidfuzz::basic_string_view<char32_t> to_units<char32_t>(jstring_view units) {
+    static thread_local std::u32string code_points;
+    to_code_points(units, code_points);
+    return rapidfuzz::basic_string_view<char32_t>(code_points.data(), code_points.size());
+}
+
+// Direct access to the UTF-16 code units of a Java string, released when it goes out of scope. No other JNI function
+// may be called while it is alive.
+class CriticalString {
+public:
+    CriticalString(JNIEnv *env, jstring str)
+            : m_env(env), m_str(str), m_length(env->GetStringLength(str)),
+              m_chars(env->GetStringCritical(str, NULL)) {
+    }
+
+    ~CriticalString() {
+        if (m_chars != NULL) {
+            m_env->ReleaseStringCritical(m_str, m_chars);
+        }
+    }
+
+    CriticalString(const CriticalString &) = delete;
+
+    CriticalString &operator=(const CriticalString &) = delete;
+
+    // Empty if the string could not be accessed, in which case an OutOfMemoryError is pending
+    jstring_view view() const {
+        if (m_chars == NULL) return jstring_view();
+        return jstring_view((const char16_t *) m_chars, (size_t) m_length);
+    }
+
+private:
+    JNIEnv *m_env;
+    jstring m_str;
+    jsize m_length;
+    const jchar *m_chars;
+};
+
+#endif // RAPIDFUZZ_JNI_STRING_HPP
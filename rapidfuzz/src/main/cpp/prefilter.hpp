@@ -0,0 +1,107 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_PREFILTER_HPP
+#define RAPIDFUZZ_PREFILTER_HPP
+
+#include <algorithm>
+#include <atomic>
+#include <cstdint>
+
+#include <jni.h>
+
+#include "jni_string.hpp"
+#include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
+
+// Rejection of choices that cannot reach the score cutoff without scoring them. It only applies to the ratio types based
+// on the normalized InDel distance, i.e. fuzz::ratio and fuzz::QRatio, whose score is 200 * LCS / (len1 + len2). The
+// length of the longest common subsequence (LCS) is bounded by the lengths of the strings and by the characters that
+// only one of them contains.
+
+// Returned by a score_at callback instead of a score for a choice rejected by the prefilter
+#define PRUNED_SCORE (-2.0)
+
+// Bounds are only compared with the score cutoff after allowing for rounding errors of the actual score
+#define PREFILTER_EPSILON 1e-6
+
+// Length of a processed string in the unit of the scorer, and a bitmap of the characters it contains where each
+// character sets the bit of its value modulo 64
+struct Signature {
+    uint32_t length;
+    uint64_t bitmap;
+};
+
+static inline bool supports_prefilter(jint ratio_type) {
+    return ratio_type == io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO
+           || ratio_type == io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_QUICK_RATIO;
+}
+
+// Computes the signature of a processed string, in code points if code_points is set or else in UTF-16 code units
+static inline Signature get_signature(jstring_view units, bool code_points) {
+    Signature signature = {0, 0};
+    for (size_t i = 0; i < units.size(); ++i) {
+        char32_t ch = units[i];
+        if (code_points && ch >= 0xD800 && ch <= 0xDBFF && i + 1 < units.size()
+            && units[i + 1] >= 0xDC00 && units[i + 1] <= 0xDFFF) {
+            ch = 0x10000 + ((ch - 0xD800) << 10) + (units[i + 1] - 0xDC00);
+            ++i;
+        }
+        signature.bitmap |= (uint64_t) 1 << (ch & 63);
+        ++signature.length;
+    }
+    return signature;
+}
+
+// Upper bound of the score of two strings with the given lengths
+static inline double get_max_ratio(uint32_t length1, uint32_t length2) {
+    uint64_t length_sum = (uint64_t) length1 + length2;
+    if (length_sum == 0) return 100;
+    return 200.0 * std::min(length1, length2) / (double) length_sum;
+}
+
+// Upper bound of the score of two strings. Each bit set in only one of the bitmaps stands for at least one character of
+// that string that is not part of any common subsequence.
+static inline double get_max_ratio(const Signature &s1, const Signature &s2) {
+    uint64_t length_sum = (uint64_t) s1.length + s2.length;
+    if (length_sum == 0) return 100;
+    uint32_t only1 = (uint32_t) __builtin_popcountll(s1.bitmap & ~s2.bitmap);
+    uint32_t only2 = (uint32_t) __builtin_popcountll(s2.bitmap & ~s1.bitmap);
+    uint32_t max_lcs = std::min(s1.length - only1, s2.length - only2);
+    return 200.0 * max_lcs / (double) length_sum;
+}
+
+static inline bool can_reach(double max_ratio, double score_cutoff) {
+    return max_ratio + PREFILTER_EPSILON >= score_cutoff;
+}
+
+// Process-wide number of choices considered by the extraction algorithms and the number of them rejected by the
+// prefilter, read by PrefilterStats
+inline std::atomic<int64_t> prefilter_candidates(0);
+inline std::atomic<int64_t> prefilter_pruned(0);
+
+// Counts the choices of a single extraction and adds them to the process-wide counters when it goes out of scope, so
+// that concurrent extractions do not contend for the counters on every choice
+class PrefilterCounter {
+public:
+    PrefilterCounter() = default;
+
+    PrefilterCounter(const PrefilterCounter &) = delete;
+
+    PrefilterCounter &operator=(const PrefilterCounter &) = delete;
+
+    ~PrefilterCounter() {
+        if (m_candidates == 0) return;
+        prefilter_candidates.fetch_add(m_candidates, std::memory_order_relaxed);
+        prefilter_pruned.fetch_add(m_pruned, std::memory_order_relaxed);
+    }
+
+    void add(int64_t candidates, int64_t pruned) {
+        m_candidates += candidates;
+        m_pruned += pruned;
+    }
+
+private:
+    int64_t m_candidates = 0;
+    int64_t m_pruned = 0;
+};
+
+#endif // RAPIDFUZZ_PREFILTER_HPP
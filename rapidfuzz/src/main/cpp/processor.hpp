@@ -0,0 +1,122 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_PROCESSOR_HPP
+#define RAPIDFUZZ_PROCESSOR_HPP
+
+#include <cstdint>
+#include <string>
+#include <vector>
+
+#include <jni.h>
+#include <rapidfuzz/utils.hpp>
+
+#include "diacritics.hpp"
+#include "jni_string.hpp"
+#include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
+
+// Preprocessing of strings selected by the RapidFuzz#FLAG_* constants. Strings are processed before they are converted
+// to code points, so processed strings are still UTF-16 code units.
+
+#define PROCESSING_FLAGS (io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_LOWERCASE \
+        | io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_STRIP_NON_ALPHANUMERIC \
+        | io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_TRIM_WHITESPACE \
+        | io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_FOLD_DIACRITICS)
+
+static inline bool needs_processing(jint flags) {
+    return (flags & PROCESSING_FLAGS) != 0;
+}
+
+// Buffer reused by the calling thread for processed strings. It is separate from get_thread_buffer(), which usually
+// holds the string being processed.
+static inline std::u16string &get_processing_buffer() {
+    static thread_local std::u16string buffer;
+    return buffer;
+}
+
+static inline bool is_whitespace(char16_t ch) {
+    return (ch >= 0x0009 && ch <= 0x000D) || ch == 0x0020 || ch == 0x0085 || ch == 0x00A0 || ch == 0x1680
+           || (ch >= 0x2000 && ch <= 0x200A) || ch == 0x2028 || ch == 0x2029 || ch == 0x202F || ch == 0x205F
+           || ch == 0x3000;
+}
+
+static inline void append_code_point(std::u16string &output, char32_t ch) {
+    if (ch < 0x10000) {
+        output.push_back((char16_t) ch);
+    } else {
+        output.push_back((char16_t) (0xD800 + ((ch - 0x10000) >> 10)));
+        output.push_back((char16_t) (0xDC00 + ((ch - 0x10000) & 0x3FF)));
+    }
+}
+
+// Writes the input processed as selected by flags to output. The input is copied as is if no processing flag is set.
+// Lowercasing and the detection of alphanumeric characters follow utils::default_process of rapidfuzz.
+// If sources is not NULL, it receives the range of the input that each unit of the output comes from as a pair of begin
+// and end indices. The range of a character is extended over the combining marks dropped after it.
+static void process_string(jstring_view input, jint flags, std::u16string &output,
+                           std::vector<uint32_t> *sources = NULL) {
+    output.clear();
+    if (sources != NULL) sources->clear();
+    if (!needs_processing(flags)) {
+        output.append(input.data(), input.size());
+        if (sources != NULL) {
+            for (size_t i = 0; i < input.size(); ++i) {
+                sources->push_back((uint32_t) i);
+                sources->push_back((uint32_t) i + 1);
+            }
+        }
+        return;
+    }
+    output.reserve(input.size());
+    bool fold = (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_FOLD_DIACRITICS) != 0;
+    bool lowercase = (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_LOWERCASE) != 0;
+    bool strip = (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_STRIP_NON_ALPHANUMERIC) != 0;
+    for (size_t i = 0; i < input.size(); ++i) {
+        size_t begin = i;
+        char32_t ch = input[i];
+        if (ch >= 0xD800 && ch <= 0xDBFF && i + 1 < input.size() && input[i + 1] >= 0xDC00 && input[i + 1] <= 0xDFFF) {
+            ch = 0x10000 + ((ch - 0xD800) << 10) + (input[i + 1] - 0xDC00);
+            ++i;
+        }
+        if (fold) {
+            if (is_combining_mark(ch)) {
+                if (sources != NULL && !sources->empty()) sources->back() = (uint32_t) i + 1;
+                continue;
+            }
+            ch = fold_diacritic(ch);
+        }
+        if (lowercase || strip) {
+            // default_process maps a single character to nothing unless it is alphanumeric
+            char32_t processed = ch;
+            bool alphanumeric = rapidfuzz::utils::default_process(&processed, 1) != 0;
+            if (alphanumeric && lowercase) {
+                ch = processed;
+            } else if (!alphanumeric && strip) {
+                ch = ' ';
+            }
+        }
+        size_t length = output.size();
+        append_code_point(output, ch);
+        if (sources != NULL) {
+            // Each unit comes from the unit at the same position unless the number of units changed
+            bool same_length = output.size() - length == i + 1 - begin;
+            for (size_t j = 0; length + j < output.size(); ++j) {
+                sources->push_back((uint32_t) (same_length ? begin + j : begin));
+                sources->push_back((uint32_t) (same_length ? begin + j + 1 : i + 1));
+            }
+        }
+    }
+    if (flags & io_github_muntashirakon_rapidfuzz_RapidFuzz_FLAG_TRIM_WHITESPACE) {
+        size_t end = output.size();
+        while (end > 0 && is_whitespace(output[end - 1])) --end;
+        size_t begin = 0;
+        while (begin < end && is_whitespace(output[begin])) ++begin;
+        output.erase(end);
+        output.erase(0, begin);
+        if (sources != NULL) {
+            sources->erase(sources->begin() + 2 * end, sources->end());
+            sources->erase(sources->begin(), sources->begin() + 2 * begin);
+        }
+    }
+}
+
+#endif // RAPIDFUZZ_PROCESSOR_HPP
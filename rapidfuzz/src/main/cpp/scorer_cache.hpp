@@ -0,0 +1,100 @@
+// SPDX-License-Identifier: Apache-2.0
+
+#ifndef RAPIDFUZZ_SCORER_CACHE_HPP
+#define RAPIDFUZZ_SCORER_CACHE_HPP
+
+#include <algorithm>
+#include <atomic>
+#include <cstdint>
+#include <memory>
+#include <string>
+#include <vector>
+
+#include <jni.h>
+
+#include "cached_scorer.hpp"
+#include "jni_string.hpp"
+#include "io_github_muntashirakon_rapidfuzz_RapidFuzz.h"
+#include "io_github_muntashirakon_rapidfuzz_ScorerCache.h"
+
+// Opt-in cache of cached scorers for the static methods of RapidFuzz, so that calls that repeat the same s1 reuse the
+// scorer built for it instead of scoring from scratch. Each thread keeps its own scorers, so that looking them up needs
+// no lock. The settings and the statistics are process-wide and accessed by ScorerCache.
+
+inline std::atomic<bool> scorer_cache_enabled(false);
+inline std::atomic<jint> scorer_cache_capacity(io_github_muntashirakon_rapidfuzz_ScorerCache_DEFAULT_CAPACITY);
+// Incremented whenever the settings change, so that each thread drops its scorers on its next lookup
+inline std::atomic<uint32_t> scorer_cache_generation(0);
+inline std::atomic<int64_t> scorer_cache_hits(0);
+inline std::atomic<int64_t> scorer_cache_misses(0);
+
+// Scorers of the calling thread for the most recently used queries of each ratio type
+class ThreadScorerCache {
+public:
+    // Returns the scorer for the query and the flags, which is created if it is not cached, or NULL if the ratio type
+    // is invalid. The scorer is valid until the next lookup in the calling thread.
+    const Scorer *get(jint ratio_type, jstring_view query, jint flags) {
+        uint32_t generation = scorer_cache_generation.load(std::memory_order_relaxed);
+        if (generation != m_generation) {
+            clear();
+            m_generation = generation;
+        }
+        std::vector<Entry> &entries = m_entries[ratio_type - io_github_muntashirakon_rapidfuzz_RapidFuzz_TYPE_RATIO];
+        for (size_t i = 0; i < entries.size(); ++i) {
+            const Entry &entry = entries[i];
+            if (entry.flags == flags && entry.query.size() == query.size()
+                && std::equal(query.begin(), query.end(), entry.query.begin())) {
+                // Entries are kept in the order of use, so the least recently used one is the last
+                std::rotate(entries.begin(), entries.begin() + i, entries.begin() + i + 1);
+                scorer_cache_hits.fetch_add(1, std::memory_order_relaxed);
+                return entries.front().scorer.get();
+            }
+        }
+        scorer_cache_misses.fetch_add(1, std::memory_order_relaxed);
+        std::u16string key(query.data(), query.size());
+        Scorer *scorer = new_cached_scorer(ratio_type, key, flags);
+        if (scorer == NULL) return NULL;
+        size_t capacity = (size_t) scorer_cache_capacity.load(std::memory_order_relaxed);
+        while (!entries.empty() && entries.size() >= capacity) {
+            entries.pop_back();
+        }
+        entries.insert(entries.begin(), Entry{flags, std::move(key), std::unique_ptr<Scorer>(scorer)});
+        return scorer;
+    }
+
+    bool empty() const {
+        for (const std::vector<Entry> &entries : m_entries) {
+            if (!entries.empty()) return false;
+        }
+        return true;
+    }
+
+    void clear() {
+        for (std::vector<Entry> &entries : m_entries) {
+            entries.clear();
+        }
+    }
+
+private:
+    struct Entry {
+        jint flags;
+        std::u16string query;
+        std::unique_ptr<Scorer> scorer;
+    };
+
+    std::vector<Entry> m_entries[RATIO_TYPE_COUNT];
+    uint32_t m_generation = 0;
+};
+
+// Returns the scorer of the calling thread for s1 if the cache is enabled, or else NULL, in which case the strings are
+// to be scored without a cached scorer. The scorers of the calling thread are freed once the cache is disabled.
+static inline const Scorer *get_thread_scorer(jint ratio_type, jstring_view s1, jint flags) {
+    static thread_local ThreadScorerCache cache;
+    if (!scorer_cache_enabled.load(std::memory_order_relaxed)) {
+        if (!cache.empty()) cache.clear();
+        return NULL;
+    }
+    return cache.get(ratio_type, s1, flags);
+}
+
+#endif // RAPIDFUZZ_SCORER_CACHE_HPP
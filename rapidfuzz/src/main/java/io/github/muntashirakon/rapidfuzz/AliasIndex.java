@@ -0,0 +1,189 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.ChoicesGenerator;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+
+/**
+ * An immutable corpus of objects with multiple aliases each, e.g. entities with alternative names, whose aliases are
+ * flattened into native memory once. Unlike the {@link ChoicesGenerator} overloads of
+ * {@link RapidFuzzCached#extractAll(String, Collection, ChoicesGenerator, int, double)}, which call the generator for
+ * every object on every query, repeated queries against the same objects only pass the query through JNI.
+ * <p>
+ * The score of an object is the best score of its aliases. The aliases of an object are scored with the score cutoff
+ * raised to the best score of the object so far, and the remaining aliases are skipped once one of them is a perfect
+ * match. An object without aliases has a score of 0.
+ * <p>
+ * IDs are the positions of the objects in the collection the index is created with, and they are returned via
+ * {@link Result#getIndex()}. Queries may be run concurrently.
+ *
+ * @param <T> The type of the objects
+ */
+public class AliasIndex<T> implements Closeable {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    private final List<T> mObjects;
+    private final int mAliasCount;
+    private final int mFlags;
+    private final NativeHandle mHandle;
+
+    public AliasIndex(Collection<T> objects, ChoicesGenerator<T> generator) {
+        this(objects, generator, 0);
+    }
+
+    /**
+     * Create an index of the aliases of the objects.
+     *
+     * @param objects   Objects to be indexed
+     * @param generator Generates the aliases of each object. It is only called while the index is created.
+     * @param flags     A combination of the {@code RapidFuzz#FLAG_*} constants used for both the aliases and the
+     *                  queries, or 0 to compare the strings as they are.
+     * @throws IllegalArgumentException If any of the aliases is {@code null}.
+     */
+    public AliasIndex(Collection<T> objects, ChoicesGenerator<T> generator, int flags) {
+        mObjects = Collections.unmodifiableList(new ArrayList<>(objects));
+        int[] offsets = new int[mObjects.size() + 1];
+        String[] aliases = RapidFuzzCached.getAliasStrings(mObjects, generator, offsets);
+        int id = 0;
+        for (int i = 0; i < aliases.length; ++i) {
+            while (offsets[id + 1] <= i) ++id;
+            if (aliases[i] == null) throw new IllegalArgumentException("An alias of object " + id + " is null");
+        }
+        mAliasCount = aliases.length;
+        mFlags = flags;
+        long ptr = nativeNew(aliases, offsets, mObjects.size(), flags);
+        mHandle = new NativeHandle(this, ptr, nativeGetBytes(ptr), AliasIndex::nativeFree);
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    /**
+     * Get the object with the given ID.
+     *
+     * @throws IndexOutOfBoundsException If there is no such object.
+     */
+    public T get(int id) {
+        return mObjects.get(id);
+    }
+
+    /**
+     * Get the number of objects in the index.
+     */
+    public int size() {
+        return mObjects.size();
+    }
+
+    /**
+     * Get the number of aliases of all the objects.
+     */
+    public int getAliasCount() {
+        return mAliasCount;
+    }
+
+    public List<Result<T>> extractAll(String query) {
+        return extractAll(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    /**
+     * Find the objects with a score of at least {@code scoreCutoff}.
+     *
+     * @return Results in the order of IDs
+     */
+    public List<Result<T>> extractAll(String query, int ratioType, double scoreCutoff) {
+        if (mObjects.isEmpty()) return Collections.emptyList();
+        int[] ids = new int[mObjects.size()];
+        double[] scores = new double[mObjects.size()];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtractAll(mHandle.getPtr(), lease.getScorer().getNativePtr(), scoreCutoff, ids, scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    public List<Result<T>> extractTop(String query, int limit) {
+        return extractTop(query, TYPE_WEIGHTED_RATIO, limit, 0.0);
+    }
+
+    /**
+     * Find the best matching objects.
+     *
+     * @return At most {@code limit} results sorted by score in descending order. Objects with equal scores are sorted
+     * by their IDs.
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     */
+    public List<Result<T>> extractTop(String query, int ratioType, int limit, double scoreCutoff) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        int capacity = Math.min(limit, mObjects.size());
+        if (capacity == 0) return Collections.emptyList();
+        int[] ids = new int[capacity];
+        double[] scores = new double[capacity];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtract(mHandle.getPtr(), lease.getScorer().getNativePtr(), limit, scoreCutoff, ids,
+                    scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    public Result<T> extractOne(String query) {
+        return extractOne(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    /**
+     * Find the best matching object. If multiple objects have the best score, the last one is selected.
+     */
+    public Result<T> extractOne(String query, int ratioType, double scoreCutoff) {
+        if (mObjects.isEmpty()) return null;
+        double[] bestScore = new double[1];
+        int bestId;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            bestId = nativeExtractOne(mHandle.getPtr(), lease.getScorer().getNativePtr(), scoreCutoff, bestScore);
+        }
+        if (bestId < 0) return null;
+        return new Result<>(mObjects.get(bestId), bestScore[0], bestId);
+    }
+
+    /**
+     * Free the native index. Closing the index more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
+
+    private List<Result<T>> getResults(int[] ids, double[] scores, int count) {
+        List<Result<T>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            results.add(new Result<>(mObjects.get(ids[i]), scores[i], ids[i]));
+        }
+        return results;
+    }
+
+    private static native long nativeNew(String[] aliases, int[] offsets, int count, int flags);
+
+    private static native long nativeGetBytes(long ptr);
+
+    private native int nativeExtractAll(long ptr, long scorerPtr, double scoreCutoff, int[] ids,
+                                        double[] scores);
+
+    private native int nativeExtract(long ptr, long scorerPtr, int limit, double scoreCutoff, int[] ids,
+                                     double[] scores);
+
+    private native int nativeExtractOne(long ptr, long scorerPtr, double scoreCutoff, double[] bestScore);
+
+    private static native void nativeFree(long ptr);
+}
@@ -0,0 +1,201 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An immutable BK-tree of words in native memory, which finds all the words within a given Levenshtein distance of a
+ * query without comparing the query with every word.
+ * <p>
+ * The distance is the Levenshtein distance with unit costs, i.e. {@link StringMetric#levenshtein(String, String)},
+ * between the words and the query processed as specified by the flags. As it satisfies the triangle inequality, every
+ * subtree whose words are too far from a visited word is skipped, and the distance to each visited word is only
+ * computed up to the bound needed to decide on its subtrees. Small distances therefore visit a small fraction of the
+ * words, while large distances visit most of them.
+ * <p>
+ * IDs are the positions of the words in the collection the tree is created with. A tree can be saved to a file and
+ * loaded later without building it again. Searches may be run concurrently.
+ */
+public class BKTree implements Closeable {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    /**
+     * A word found by {@link #search(String, int)}.
+     */
+    public static class Match {
+        private final String mWord;
+        private final int mDistance;
+        private final int mId;
+
+        Match(String word, int distance, int id) {
+            mWord = word;
+            mDistance = distance;
+            mId = id;
+        }
+
+        public String getWord() {
+            return mWord;
+        }
+
+        public int getDistance() {
+            return mDistance;
+        }
+
+        public int getId() {
+            return mId;
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" +
+                    "word='" + mWord + '\'' +
+                    ", distance=" + mDistance +
+                    ", id=" + mId +
+                    '}';
+        }
+    }
+
+    private final int mFlags;
+    private final int mSize;
+    private final NativeHandle mHandle;
+    private final AtomicLong mSearchCount = new AtomicLong();
+    private final AtomicLong mVisitedCount = new AtomicLong();
+
+    public BKTree(Collection<String> words) {
+        this(words, 0);
+    }
+
+    /**
+     * Create a tree of the words. Building the tree takes {@code O(n log n)} distance computations for {@code n} words
+     * in the typical case.
+     *
+     * @param words Words to be indexed
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants used for both the words and the queries, or
+     *              0 to compare the strings as they are. Distances are counted in code points if the flags include
+     *              {@link RapidFuzz#FLAG_CODE_POINTS}, or else in UTF-16 code units.
+     * @throws IllegalArgumentException If any of the words is {@code null}.
+     */
+    public BKTree(Collection<String> words, int flags) {
+        String[] strings = words.toArray(new String[0]);
+        for (int i = 0; i < strings.length; ++i) {
+            if (strings[i] == null) throw new IllegalArgumentException("Word " + i + " is null");
+        }
+        mFlags = flags;
+        mSize = strings.length;
+        long ptr = nativeNew(strings, flags);
+        mHandle = new NativeHandle(this, ptr, nativeGetBytes(ptr), BKTree::nativeFree);
+    }
+
+    private BKTree(long ptr) {
+        mFlags = nativeGetFlags(ptr);
+        mSize = nativeSize(ptr);
+        mHandle = new NativeHandle(this, ptr, nativeGetBytes(ptr), BKTree::nativeFree);
+    }
+
+    /**
+     * Load a tree saved by {@link #save(File)}. The file must have been saved on a platform with the same byte order.
+     *
+     * @throws IOException If the file could not be read or is not a valid tree.
+     */
+    public static BKTree load(File file) throws IOException {
+        return new BKTree(nativeLoad(file.getPath()));
+    }
+
+    /**
+     * Save the tree to the file, replacing the file if it exists.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    public void save(File file) throws IOException {
+        nativeSave(mHandle.getPtr(), file.getPath());
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    /**
+     * Get the word with the given ID, or {@code null} if there is no such word.
+     */
+    public String get(int id) {
+        return nativeGet(mHandle.getPtr(), id);
+    }
+
+    /**
+     * Get the number of words in the tree.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Find the words within {@code maxDistance} of the query.
+     *
+     * @return Matches sorted by distance in ascending order. Words with equal distances are sorted by their IDs.
+     * @throws IllegalArgumentException If the query is {@code null} or {@code maxDistance} is negative.
+     */
+    public List<Match> search(String query, int maxDistance) {
+        if (query == null) throw new IllegalArgumentException("Query is null");
+        if (maxDistance < 0) throw new IllegalArgumentException("Invalid maxDistance " + maxDistance);
+        int[] visited = new int[1];
+        int[] pairs = nativeSearch(mHandle.getPtr(), query, maxDistance, visited);
+        mSearchCount.incrementAndGet();
+        mVisitedCount.addAndGet(visited[0]);
+        List<Match> matches = new ArrayList<>(pairs.length / 2);
+        for (int i = 0; i < pairs.length; i += 2) {
+            matches.add(new Match(get(pairs[i]), pairs[i + 1], pairs[i]));
+        }
+        return matches;
+    }
+
+    /**
+     * Get the number of searches run on the tree.
+     */
+    public long getSearchCount() {
+        return mSearchCount.get();
+    }
+
+    /**
+     * Get the total number of words visited by the searches run on the tree. Divided by {@link #getSearchCount()} and
+     * {@link #size()}, this is the average fraction of the tree visited by a search.
+     */
+    public long getVisitedCount() {
+        return mVisitedCount.get();
+    }
+
+    /**
+     * Free the native tree. Closing the tree more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
+
+    private static native long nativeNew(String[] words, int flags);
+
+    private static native long nativeLoad(String path) throws IOException;
+
+    private native void nativeSave(long ptr, String path) throws IOException;
+
+    private static native int nativeGetFlags(long ptr);
+
+    private static native int nativeSize(long ptr);
+
+    private static native long nativeGetBytes(long ptr);
+
+    private native String nativeGet(long ptr, int id);
+
+    private native int[] nativeSearch(long ptr, String query, int maxDistance, int[] visited);
+
+    private static native void nativeFree(long ptr);
+}
@@ -0,0 +1,273 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+
+/**
+ * A corpus of choices that resides in native memory. The choices are copied into a contiguous native buffer once, so
+ * that repeated queries against the same choices do not have to pass them through JNI again.
+ * <p>
+ * Each choice is identified by an ID that is assigned when the choice is added. IDs are never reused, not even after
+ * the choice is removed, and they are returned via {@link Result#getIndex()}.
+ * <p>
+ * If the index is created with processing flags, the choices are processed once when they are added and the queries
+ * are processed using the same flags.
+ * <p>
+ * Queries may be run concurrently, but modifications must not run concurrently with any other method.
+ */
+public class ChoiceIndex implements Closeable {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    private final int mFlags;
+    private final NativeHandle mHandle;
+
+    public ChoiceIndex() {
+        this(0);
+    }
+
+    /**
+     * Create an empty index.
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants used for both the choices and the queries,
+     *              or 0 to compare the strings as they are.
+     */
+    public ChoiceIndex(int flags) {
+        mFlags = flags;
+        // The size of the corpus changes over time, so its memory is not tracked
+        mHandle = new NativeHandle(this, nativeNew(flags), 0, ChoiceIndex::nativeFree);
+    }
+
+    public ChoiceIndex(Collection<String> choices) {
+        this(choices, 0);
+    }
+
+    /**
+     * Create an index of the choices.
+     *
+     * @throws IllegalArgumentException If any of the choices is {@code null}.
+     */
+    public ChoiceIndex(Collection<String> choices, int flags) {
+        this(flags);
+        try {
+            addAll(choices);
+        } catch (IllegalArgumentException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Add a choice to the index.
+     *
+     * @return ID of the choice
+     * @throws IllegalArgumentException If the choice is {@code null}.
+     */
+    public int add(String choice) {
+        if (choice == null) throw new IllegalArgumentException("Choice is null");
+        return nativeAdd(mHandle.getPtr(), choice);
+    }
+
+    /**
+     * Add the choices to the index. The choices are assigned consecutive IDs in the order of iteration.
+     *
+     * @return ID of the first choice
+     * @throws IllegalArgumentException If any of the choices is {@code null}, in which case none of them is added.
+     */
+    public int addAll(Collection<String> choices) {
+        String[] strings = choices.toArray(new String[0]);
+        for (int i = 0; i < strings.length; ++i) {
+            if (strings[i] == null) throw new IllegalArgumentException("Choice " + i + " is null");
+        }
+        return nativeAddAll(mHandle.getPtr(), strings);
+    }
+
+    /**
+     * Remove the choice with the given ID from the index.
+     *
+     * @return {@code true} if the choice was removed, {@code false} if there is no such choice.
+     */
+    public boolean remove(int id) {
+        return nativeRemove(mHandle.getPtr(), id);
+    }
+
+    /**
+     * Get the choice with the given ID as it was added, or {@code null} if there is no such choice.
+     */
+    public String get(int id) {
+        return nativeGet(mHandle.getPtr(), id);
+    }
+
+    /**
+     * Get the number of choices in the index.
+     */
+    public int size() {
+        return nativeSize(mHandle.getPtr());
+    }
+
+    public List<Result<String>> extractAll(String query) {
+        return extractAll(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    public List<Result<String>> extractAll(String query, int ratioType, double scoreCutoff) {
+        int capacity = nativeGetIdCount(mHandle.getPtr());
+        if (capacity == 0) return Collections.emptyList();
+        int[] ids = new int[capacity];
+        double[] scores = new double[capacity];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtractAll(mHandle.getPtr(), lease.getScorer().getNativePtr(), scoreCutoff, ids, scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    public List<Result<String>> extractTop(String query, int limit) {
+        return extractTop(query, TYPE_WEIGHTED_RATIO, limit, 0.0);
+    }
+
+    /**
+     * Find the best matching choices in the index.
+     *
+     * @param query       The query string
+     * @param ratioType   Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param limit       Maximum number of results to return
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @return At most {@code limit} results sorted by score in descending order. Choices with equal scores are sorted by
+     * their IDs.
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     * @see RapidFuzzCached#extract(String, String[], int, int, double)
+     */
+    public List<Result<String>> extractTop(String query, int ratioType, int limit, double scoreCutoff) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        int capacity = Math.min(limit, nativeGetIdCount(mHandle.getPtr()));
+        if (capacity == 0) return Collections.emptyList();
+        int[] ids = new int[capacity];
+        double[] scores = new double[capacity];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtract(mHandle.getPtr(), lease.getScorer().getNativePtr(), limit, scoreCutoff, ids,
+                    scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    /**
+     * Find the choices with a score of at least {@code scoreCutoff} using the given scorer without creating a
+     * {@link Result} for each of them. Together with a scorer and a holder that are reused for each query, nothing is
+     * allocated on the Java heap once the holder is large enough for the index.
+     *
+     * @param scorer      A scorer for the query, which must have been created with the flags of the index
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param results     Receives the IDs of the matching choices in ascending order and their scores, replacing its
+     *                    previous matches.
+     * @return The number of matching choices
+     * @throws IllegalArgumentException If the flags of the scorer differ from those of the index.
+     */
+    public int extractAll(RapidFuzzCached scorer, double scoreCutoff, ExtractResults results) {
+        checkFlags(scorer);
+        results.reset(nativeGetIdCount(mHandle.getPtr()));
+        int count = nativeExtractAll(mHandle.getPtr(), scorer.getNativePtr(), scoreCutoff, results.getIndices(),
+                results.getScores());
+        NativeHandle.keepAlive(scorer);
+        results.setSize(count);
+        return count;
+    }
+
+    /**
+     * Find the best matching choices using the given scorer without creating a {@link Result} for each of them.
+     *
+     * @param scorer      A scorer for the query, which must have been created with the flags of the index
+     * @param limit       Maximum number of matches
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param results     Receives at most {@code limit} matches sorted by score in descending order and by ID in
+     *                    ascending order, replacing its previous matches.
+     * @return The number of matching choices
+     * @throws IllegalArgumentException If {@code limit} is less than 1 or if the flags of the scorer differ from those
+     *                                  of the index.
+     * @see #extractAll(RapidFuzzCached, double, ExtractResults)
+     */
+    public int extractTop(RapidFuzzCached scorer, int limit, double scoreCutoff, ExtractResults results) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        checkFlags(scorer);
+        results.reset(Math.min(limit, nativeGetIdCount(mHandle.getPtr())));
+        int count = nativeExtract(mHandle.getPtr(), scorer.getNativePtr(), limit, scoreCutoff, results.getIndices(),
+                results.getScores());
+        NativeHandle.keepAlive(scorer);
+        results.setSize(count);
+        return count;
+    }
+
+    public Result<String> extractOne(String query) {
+        return extractOne(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    public Result<String> extractOne(String query, int ratioType, double scoreCutoff) {
+        double[] bestScore = new double[1];
+        int bestId;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            bestId = nativeExtractOne(mHandle.getPtr(), lease.getScorer().getNativePtr(), scoreCutoff, bestScore);
+        }
+        if (bestId < 0) return null;
+        return new Result<>(get(bestId), bestScore[0], bestId);
+    }
+
+    /**
+     * Free the native corpus. Closing the index more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
+
+    private void checkFlags(RapidFuzzCached scorer) {
+        if (scorer.getFlags() != mFlags) {
+            throw new IllegalArgumentException("Scorer flags " + scorer.getFlags() + " differ from index flags "
+                    + mFlags);
+        }
+    }
+
+    private List<Result<String>> getResults(int[] ids, double[] scores, int count) {
+        List<Result<String>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            results.add(new Result<>(get(ids[i]), scores[i], ids[i]));
+        }
+        return results;
+    }
+
+    private static native long nativeNew(int flags);
+
+    private native int nativeAdd(long ptr, String choice);
+
+    private native int nativeAddAll(long ptr, String[] choices);
+
+    private native boolean nativeRemove(long ptr, int id);
+
+    private native String nativeGet(long ptr, int id);
+
+    private native int nativeSize(long ptr);
+
+    private native int nativeGetIdCount(long ptr);
+
+    private native int nativeExtractAll(long ptr, long scorerPtr, double scoreCutoff, int[] ids,
+                                        double[] scores);
+
+    private native int nativeExtract(long ptr, long scorerPtr, int limit, double scoreCutoff,
+                                     int[] ids, double[] scores);
+
+    private native int nativeExtractOne(long ptr, long scorerPtr, double scoreCutoff,
+                                        double[] bestScore);
+
+    private static native void nativeFree(long ptr);
+}
@@ -0,0 +1,153 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+/**
+ * A reusable holder of the indices and scores of the matches found by the {@code extract*} methods that take one,
+ * e.g. {@link RapidFuzzCached#extractAll(String[], double, ExtractResults)}. The matches are stored in primitive arrays
+ * instead of a {@link RapidFuzzCached.Result} for each of them, and the arrays only grow when more matches are found
+ * than ever before. A holder that is reused for every query therefore allocates nothing once it is large enough.
+ * <p>
+ * Each extraction replaces the previous matches. A holder must not be used by multiple threads at the same time.
+ */
+public final class ExtractResults {
+    private int[] mIndices;
+    private double[] mScores;
+    private int mSize;
+
+    public ExtractResults() {
+        this(0);
+    }
+
+    /**
+     * Create an empty holder.
+     *
+     * @param capacity Number of matches the holder can take without growing
+     * @throws IllegalArgumentException If {@code capacity} is negative.
+     */
+    public ExtractResults(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Invalid capacity " + capacity);
+        mIndices = new int[capacity];
+        mScores = new double[capacity];
+    }
+
+    /**
+     * Get the number of matches.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Get the number of matches the holder can take without growing.
+     */
+    public int capacity() {
+        return mIndices.length;
+    }
+
+    /**
+     * Get the position or the ID of the choice of the match at the given position.
+     *
+     * @throws IndexOutOfBoundsException If {@code i} is not less than {@link #size()}.
+     */
+    public int getIndex(int i) {
+        checkPosition(i);
+        return mIndices[i];
+    }
+
+    /**
+     * Get the score of the match at the given position.
+     *
+     * @throws IndexOutOfBoundsException If {@code i} is not less than {@link #size()}.
+     */
+    public double getScore(int i) {
+        checkPosition(i);
+        return mScores[i];
+    }
+
+    /**
+     * Get the array holding the indices of the matches, which is only valid up to {@link #size()}. The array is
+     * replaced when the holder grows, so it must not be kept across extractions.
+     */
+    public int[] getIndices() {
+        return mIndices;
+    }
+
+    /**
+     * Get the array holding the scores of the matches, which is only valid up to {@link #size()}. The array is
+     * replaced when the holder grows, so it must not be kept across extractions.
+     */
+    public double[] getScores() {
+        return mScores;
+    }
+
+    /**
+     * Remove all the matches while keeping the capacity.
+     */
+    public void clear() {
+        mSize = 0;
+    }
+
+    /**
+     * Sort the matches by score in descending order. Matches with equal scores are sorted by their indices. The sort is
+     * done in place without allocating.
+     */
+    public void sortByScore() {
+        // Heapsort, where the root of the heap is the worst match, which is then moved to the end
+        for (int i = mSize / 2 - 1; i >= 0; --i) {
+            siftDown(i, mSize);
+        }
+        for (int end = mSize - 1; end > 0; --end) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    /**
+     * Make room for {@code capacity} matches, discarding the current ones.
+     */
+    void reset(int capacity) {
+        mSize = 0;
+        if (capacity > mIndices.length) {
+            // Grow geometrically so that slowly increasing result counts do not reallocate every time
+            int newCapacity = Math.max(capacity, (int) Math.min(Integer.MAX_VALUE - 8, mIndices.length * 3L / 2));
+            mIndices = new int[newCapacity];
+            mScores = new double[newCapacity];
+        }
+    }
+
+    void setSize(int size) {
+        mSize = size;
+    }
+
+    private void checkPosition(int i) {
+        if (i < 0 || i >= mSize) throw new IndexOutOfBoundsException("Position " + i + ", size " + mSize);
+    }
+
+    // Whether the match at i comes after the match at j, i.e. it has a lower score or an equal score and a higher index
+    private boolean isAfter(int i, int j) {
+        if (mScores[i] != mScores[j]) return mScores[i] < mScores[j];
+        return mIndices[i] > mIndices[j];
+    }
+
+    // Restores the heap below root, so that no match comes after its parent
+    private void siftDown(int root, int end) {
+        while (true) {
+            int child = 2 * root + 1;
+            if (child >= end) return;
+            if (child + 1 < end && isAfter(child + 1, child)) ++child;
+            if (!isAfter(child, root)) return;
+            swap(root, child);
+            root = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int index = mIndices[i];
+        mIndices[i] = mIndices[j];
+        mIndices[j] = index;
+        double score = mScores[i];
+        mScores[i] = mScores[j];
+        mScores[j] = score;
+    }
+}
@@ -0,0 +1,130 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.Closeable;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
+
+/**
+ * A cached scorer that scores each choice with several ratio types at once, e.g. to compute the features of a ranker.
+ * The scores are the same as those of a {@link RapidFuzzCached} for each of the ratio types, but each choice is copied,
+ * processed and split into words only once. The sorted words and the common and distinct words of the query and the
+ * choice are shared by all the token based ratio types, and {@link RapidFuzz#TYPE_TOKEN_RATIO} and
+ * {@link RapidFuzz#TYPE_PARTIAL_TOKEN_RATIO} reuse the scores of the corresponding sort and set ratios.
+ * <p>
+ * The native scorer is immutable once created, so the {@code #ratio} methods may be called concurrently from multiple
+ * threads. However, the scorer must not be closed while any of them is running.
+ */
+public class FusedScorer implements Closeable {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    private final int[] mRatioTypes;
+    private final int mFlags;
+    private final NativeHandle mHandle;
+
+    public FusedScorer(String query, int[] ratioTypes) {
+        this(query, ratioTypes, 0);
+    }
+
+    /**
+     * Create a cached scorer for the query.
+     *
+     * @param query      The query string
+     * @param ratioTypes Ratio types, each one of the {@code RapidFuzz#TYPE_*} constants. The scores of each choice are
+     *                   returned in the same order.
+     * @param flags      A combination of the {@code RapidFuzz#FLAG_*} constants, or 0 to compare the strings as they
+     *                   are. Choices are processed and scored using the same flags.
+     * @throws IllegalArgumentException If there are no ratio types or any of them is unknown.
+     */
+    public FusedScorer(String query, int[] ratioTypes, int flags) {
+        if (ratioTypes.length == 0) throw new IllegalArgumentException("No ratio types");
+        for (int ratioType : ratioTypes) {
+            if (ratioType < TYPE_RATIO || ratioType > TYPE_QUICK_RATIO) {
+                throw new IllegalArgumentException("Unknown ratio type " + ratioType);
+            }
+        }
+        mRatioTypes = ratioTypes.clone();
+        mFlags = flags;
+        // Each ratio type may keep its own copy of the query
+        mHandle = new NativeHandle(this, nativeNew(query, mRatioTypes, flags),
+                RapidFuzzCached.estimateNativeBytes(query) * mRatioTypes.length, FusedScorer::nativeFree);
+    }
+
+    /**
+     * Get the ratio types in the order of the scores.
+     */
+    public int[] getRatioTypes() {
+        return mRatioTypes.clone();
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    public double[] ratio(String choice) {
+        return ratio(choice, 0);
+    }
+
+    /**
+     * Score the choice with each ratio type.
+     *
+     * @param scoreCutoff A score threshold between 0% and 100%. Lower scores are returned as 0.
+     * @return The score of each ratio type in the order of {@link #getRatioTypes()}
+     */
+    public double[] ratio(String choice, double scoreCutoff) {
+        double[] scores = new double[mRatioTypes.length];
+        ratio(choice, scoreCutoff, scores);
+        return scores;
+    }
+
+    /**
+     * Same as {@link #ratio(String, double)} except that the scores are written to the given array, so that nothing is
+     * allocated on the Java heap.
+     *
+     * @param scores Receives the score of each ratio type in the order of {@link #getRatioTypes()}
+     * @throws IllegalArgumentException If {@code scores} cannot hold a score for each ratio type.
+     */
+    public void ratio(String choice, double scoreCutoff, double[] scores) {
+        if (scores.length < mRatioTypes.length) {
+            throw new IllegalArgumentException("Scores must hold " + mRatioTypes.length + " items");
+        }
+        nativeRatio(mHandle.getPtr(), choice, scoreCutoff, scores);
+    }
+
+    /**
+     * Score each choice with each ratio type in a single native call.
+     *
+     * @param choices     Choices to score against the query. {@code null} choices have scores of 0.
+     * @param scoreCutoff A score threshold between 0% and 100%. Lower scores are returned as 0.
+     * @return The scores in row-major order, i.e. the score of choice {@code i} with ratio type {@code j} of
+     * {@link #getRatioTypes()} is at {@code i * getRatioTypes().length + j}.
+     */
+    public double[] ratio(String[] choices, double scoreCutoff) {
+        double[] scores = new double[choices.length * mRatioTypes.length];
+        if (choices.length > 0) {
+            nativeRatioAll(mHandle.getPtr(), choices, scoreCutoff, scores);
+        }
+        return scores;
+    }
+
+    /**
+     * Free the native scorer. Closing a scorer more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
+
+    private static native long nativeNew(String query, int[] ratioTypes, int flags);
+
+    private native void nativeRatio(long ptr, String choice, double scoreCutoff, double[] scores);
+
+    private native void nativeRatioAll(long ptr, String[] choices, double scoreCutoff, double[] scores);
+
+    private static native void nativeFree(long ptr);
+}
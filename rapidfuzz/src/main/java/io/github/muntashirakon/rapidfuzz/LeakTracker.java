@@ -0,0 +1,109 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the native objects owned by {@link RapidFuzzCached}, {@link FusedScorer}, {@link StringMetricCached},
+ * {@link ChoiceIndex}, {@link MappedChoiceIndex}, {@link NGramIndex}, {@link BKTree} and {@link AliasIndex}.
+ * <p>
+ * The number of live native objects and their estimated memory are always counted. A native object whose owner becomes
+ * unreachable without being closed is freed in the background and reported as a leak. Recording where each native
+ * object was allocated is expensive, so it has to be enabled via {@link #setEnabled(boolean)}, e.g. for soak tests.
+ */
+public final class LeakTracker {
+    /**
+     * Receives the leaks reported by the tracker. It is called from a background thread.
+     */
+    public interface Listener {
+        /**
+         * Called after a native object was freed because its owner was not closed.
+         *
+         * @param type           Simple class name of the owner
+         * @param allocationSite Stack trace of the allocation, or {@code null} if the tracker was not enabled at the
+         *                       time of the allocation.
+         */
+        void onLeak(String type, Throwable allocationSite);
+    }
+
+    private static final AtomicInteger sLiveCount = new AtomicInteger();
+    private static final AtomicLong sLiveBytes = new AtomicLong();
+    private static final AtomicLong sLeakCount = new AtomicLong();
+    private static volatile boolean sEnabled;
+    private static volatile Listener sListener;
+
+    private LeakTracker() {
+    }
+
+    /**
+     * Enable or disable recording the allocation sites. Only the native objects allocated while it is enabled have
+     * their allocation sites recorded.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Set a listener to be notified of leaks, or {@code null} to remove it.
+     */
+    public static void setListener(Listener listener) {
+        sListener = listener;
+    }
+
+    /**
+     * Get the number of native objects that are not freed yet.
+     */
+    public static int getLiveCount() {
+        return sLiveCount.get();
+    }
+
+    /**
+     * Get the estimated native memory taken by the native objects that are not freed yet.
+     */
+    public static long getLiveBytes() {
+        return sLiveBytes.get();
+    }
+
+    /**
+     * Get the number of native objects that were freed because their owners were not closed.
+     */
+    public static long getLeakCount() {
+        return sLeakCount.get();
+    }
+
+    /**
+     * Get the allocation sites of the native objects that are not freed yet. Only the native objects allocated while
+     * the tracker was enabled are included.
+     */
+    public static List<Throwable> getAllocationSites() {
+        return NativeHandle.getAllocationSites();
+    }
+
+    static void onAllocate(long bytes) {
+        sLiveCount.incrementAndGet();
+        sLiveBytes.addAndGet(bytes);
+    }
+
+    static void onFree(long bytes) {
+        sLiveCount.decrementAndGet();
+        sLiveBytes.addAndGet(-bytes);
+    }
+
+    static void onLeak(String type, Throwable allocationSite) {
+        sLeakCount.incrementAndGet();
+        Listener listener = sListener;
+        if (listener == null) return;
+        try {
+            listener.onLeak(type, allocationSite);
+        } catch (RuntimeException ignore) {
+            // A faulty listener must not stop the cleaner thread
+        }
+    }
+}
@@ -0,0 +1,379 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+
+/**
+ * A read-only corpus of choices stored in a file that is memory-mapped in native code. Unlike {@link ChoiceIndex}, the
+ * choices are neither held on the Java heap nor copied into native memory, so the corpus may be larger than the
+ * available memory. Opening an index only maps the file, and its pages are loaded on demand while they are scored.
+ * <p>
+ * An index is written once using {@link #write(File, Iterator, int)}. The choices are preprocessed as specified by the
+ * flags when the index is written, and the queries are processed using the same flags. The choices are also grouped by
+ * the length of their processed form, which lets {@link RapidFuzz#TYPE_RATIO} and {@link RapidFuzz#TYPE_QUICK_RATIO}
+ * queries with a high score cutoff skip the choices that are too short or too long without loading them. IDs are the
+ * positions of the choices in the order they were written.
+ * <p>
+ * Queries may be run concurrently, but the index must not be closed while any of them is running.
+ */
+public class MappedChoiceIndex implements Closeable {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    static final int HEADER_SIZE = 64;
+
+    private static final byte[] MAGIC = {'R', 'F', 'Z', 'I', 'N', 'D', 'E', 'X'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Write an index of the choices to the file, replacing the file if it exists. Only the lengths of the choices are
+     * kept in memory while writing.
+     *
+     * @param file    The index file
+     * @param choices Choices to be indexed
+     * @param flags   A combination of the {@code RapidFuzz#FLAG_*} constants used for both the choices and the queries,
+     *                or 0 to compare the strings as they are.
+     * @throws IllegalArgumentException If any of the choices is {@code null} or if there are too many choices.
+     * @throws IOException              If the file could not be written.
+     */
+    public static void write(File file, Iterator<String> choices, int flags) throws IOException {
+        boolean processed = (flags & ~RapidFuzz.FLAG_CODE_POINTS) != 0;
+        File tmpFile = new File(file.getPath() + ".tmp");
+        int count = 0;
+        // Number of choices for each processed length
+        int[] lengthCounts = new int[16];
+        long[] signature = new long[2];
+        long recordsEnd;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            LittleEndianWriter out = new LittleEndianWriter(channel, HEADER_SIZE);
+            // The offsets and the signatures are written to a temporary file in the order of IDs
+            try (DataOutputStream tmp = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile),
+                    BUFFER_SIZE))) {
+                while (choices.hasNext()) {
+                    String choice = choices.next();
+                    if (choice == null) throw new IllegalArgumentException("Choice " + count + " is null");
+                    if (count == Integer.MAX_VALUE) throw new IllegalArgumentException("Too many choices");
+                    String processedChoice = nativeProcess(choice, flags, signature);
+                    int length = (int) signature[0];
+                    tmp.writeLong(out.position());
+                    tmp.writeInt(length);
+                    tmp.writeLong(signature[1]);
+                    out.putInt(choice.length());
+                    out.putInt(processedChoice.length());
+                    out.putChars(choice);
+                    if (processed) {
+                        out.putChars(processedChoice);
+                    }
+                    out.align(4);
+                    if (length >= lengthCounts.length) {
+                        lengthCounts = Arrays.copyOf(lengthCounts, Math.max(length + 1, lengthCounts.length * 2));
+                    }
+                    ++lengthCounts[length];
+                    ++count;
+                }
+            }
+            out.align(8);
+            recordsEnd = out.position();
+            // ID table
+            try (DataInputStream tmp = new DataInputStream(new BufferedInputStream(new FileInputStream(tmpFile),
+                    BUFFER_SIZE))) {
+                for (int id = 0; id < count; ++id) {
+                    out.putLong(tmp.readLong());
+                    tmp.readInt();
+                    tmp.readLong();
+                }
+            }
+            // Signature table
+            long signatureTableOffset = out.position();
+            try (DataInputStream tmp = new DataInputStream(new BufferedInputStream(new FileInputStream(tmpFile),
+                    BUFFER_SIZE))) {
+                for (int id = 0; id < count; ++id) {
+                    tmp.readLong();
+                    out.putInt(tmp.readInt());
+                    out.putInt(0);
+                    out.putLong(tmp.readLong());
+                }
+            }
+            // Length table, which also turns the counts into the position of each length in the sorted IDs
+            long bucketTableOffset = out.position();
+            int bucketCount = 0;
+            int position = 0;
+            for (int length = 0; length < lengthCounts.length; ++length) {
+                if (lengthCounts[length] == 0) continue;
+                out.putInt(length);
+                out.putInt(position);
+                int lengthCount = lengthCounts[length];
+                lengthCounts[length] = position;
+                position += lengthCount;
+                ++bucketCount;
+            }
+            long sortedIdsOffset = out.position();
+            out.flush();
+            // Sorted IDs are placed in the position of their lengths, which requires random writes
+            if (count > 0) {
+                MappedByteBuffer sortedIds = channel.map(FileChannel.MapMode.READ_WRITE, sortedIdsOffset,
+                        (long) count * 4);
+                sortedIds.order(ByteOrder.LITTLE_ENDIAN);
+                try (DataInputStream tmp = new DataInputStream(new BufferedInputStream(
+                        new FileInputStream(tmpFile), BUFFER_SIZE))) {
+                    for (int id = 0; id < count; ++id) {
+                        tmp.readLong();
+                        int length = tmp.readInt();
+                        tmp.readLong();
+                        sortedIds.putInt(lengthCounts[length]++ * 4, id);
+                    }
+                }
+                sortedIds.force();
+            }
+            long fileSize = sortedIdsOffset + (long) count * 4;
+            // Header
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(flags)
+                    .putInt(count)
+                    .putInt(bucketCount)
+                    .putLong(recordsEnd)
+                    .putLong(bucketTableOffset)
+                    .putLong(sortedIdsOffset)
+                    .putLong(fileSize)
+                    .putLong(signatureTableOffset);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * Open an index written by {@link #write(File, Iterator, int)}.
+     *
+     * @throws IOException If the file could not be mapped or it is not a valid index.
+     */
+    public static MappedChoiceIndex open(File file) throws IOException {
+        return new MappedChoiceIndex(nativeOpen(file.getPath()));
+    }
+
+    private final NativeHandle mHandle;
+    private final int mFlags;
+    private final int mSize;
+
+    private MappedChoiceIndex(long ptr) {
+        mHandle = new NativeHandle(this, ptr, 0, MappedChoiceIndex::nativeClose);
+        mFlags = nativeGetFlags(ptr);
+        mSize = nativeSize(ptr);
+    }
+
+    /**
+     * Get the flags the index was written with.
+     */
+    public int getFlags() {
+        return mFlags;
+    }
+
+    /**
+     * Get the choice with the given ID as it was written, or {@code null} if there is no such choice.
+     */
+    public String get(int id) {
+        return nativeGet(mHandle.getPtr(), id);
+    }
+
+    /**
+     * Get the number of choices in the index.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public List<Result<String>> extractAll(String query) {
+        return extractAll(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    /**
+     * Find all the choices with a score of at least {@code scoreCutoff}. The results are held in memory, so the score
+     * cutoff should be high enough for a large index.
+     *
+     * @return Results in the order of IDs
+     */
+    public List<Result<String>> extractAll(String query, int ratioType, double scoreCutoff) {
+        if (mSize == 0) return Collections.emptyList();
+        int[] ids = new int[mSize];
+        double[] scores = new double[mSize];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtractAll(mHandle.getPtr(), lease.getScorer().getNativePtr(), scoreCutoff, ids, scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    public List<Result<String>> extractTop(String query, int limit) {
+        return extractTop(query, TYPE_WEIGHTED_RATIO, limit, 0.0);
+    }
+
+    /**
+     * Find the best matching choices in the index.
+     *
+     * @return At most {@code limit} results sorted by score in descending order. Choices with equal scores are sorted by
+     * their IDs.
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     * @see ChoiceIndex#extractTop(String, int, int, double)
+     */
+    public List<Result<String>> extractTop(String query, int ratioType, int limit, double scoreCutoff) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        int capacity = Math.min(limit, mSize);
+        if (capacity == 0) return Collections.emptyList();
+        int[] ids = new int[capacity];
+        double[] scores = new double[capacity];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtract(mHandle.getPtr(), lease.getScorer().getNativePtr(), limit, scoreCutoff, ids,
+                    scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    public Result<String> extractOne(String query) {
+        return extractOne(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    public Result<String> extractOne(String query, int ratioType, double scoreCutoff) {
+        double[] bestScore = new double[1];
+        int bestId;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            bestId = nativeExtractOne(mHandle.getPtr(), lease.getScorer().getNativePtr(), scoreCutoff, bestScore);
+        }
+        if (bestId < 0) return null;
+        return new Result<>(get(bestId), bestScore[0], bestId);
+    }
+
+    /**
+     * Unmap the index. Closing the index more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
+
+    private List<Result<String>> getResults(int[] ids, double[] scores, int count) {
+        List<Result<String>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            results.add(new Result<>(get(ids[i]), scores[i], ids[i]));
+        }
+        return results;
+    }
+
+    /**
+     * Writes little-endian values to a file channel through a buffer.
+     */
+    private static final class LittleEndianWriter {
+        private final FileChannel mChannel;
+        private final ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long mPosition;
+
+        LittleEndianWriter(FileChannel channel, long position) {
+            mChannel = channel;
+            mPosition = position;
+        }
+
+        long position() {
+            return mPosition + mBuffer.position();
+        }
+
+        void putInt(int value) throws IOException {
+            ensureRemaining(4);
+            mBuffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensureRemaining(8);
+            mBuffer.putLong(value);
+        }
+
+        void putChars(String s) throws IOException {
+            for (int i = 0; i < s.length(); ++i) {
+                ensureRemaining(2);
+                mBuffer.putChar(s.charAt(i));
+            }
+        }
+
+        /**
+         * Pad with zeros until the position is a multiple of the alignment.
+         */
+        void align(int alignment) throws IOException {
+            while (position() % alignment != 0) {
+                ensureRemaining(1);
+                mBuffer.put((byte) 0);
+            }
+        }
+
+        void flush() throws IOException {
+            mBuffer.flip();
+            while (mBuffer.hasRemaining()) {
+                mPosition += mChannel.write(mBuffer, mPosition);
+            }
+            mBuffer.clear();
+        }
+
+        private void ensureRemaining(int size) throws IOException {
+            if (mBuffer.remaining() < size) {
+                flush();
+            }
+        }
+    }
+
+    private static native long nativeOpen(String path) throws IOException;
+
+    private static native int nativeGetFlags(long ptr);
+
+    private static native int nativeSize(long ptr);
+
+    private native String nativeGet(long ptr, int id);
+
+    /**
+     * Process the string as specified by the flags.
+     *
+     * @param signature Receives the length and the character bitmap of the processed string used by the prefilter
+     */
+    private static native String nativeProcess(String str, int flags, long[] signature);
+
+    private native int nativeExtractAll(long ptr, long scorerPtr, double scoreCutoff, int[] ids,
+                                        double[] scores);
+
+    private native int nativeExtract(long ptr, long scorerPtr, int limit, double scoreCutoff,
+                                     int[] ids, double[] scores);
+
+    private native int nativeExtractOne(long ptr, long scorerPtr, double scoreCutoff,
+                                        double[] bestScore);
+
+    private static native void nativeClose(long ptr);
+}
@@ -0,0 +1,210 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
+
+/**
+ * An immutable corpus of choices in native memory along with an inverted index of their character n-grams, which
+ * finds matches without scoring every choice.
+ * <p>
+ * Each query first retrieves the choices sharing the most n-grams with it, at most
+ * {@link #getMaxCandidates() maxCandidates} of them, and only these candidates are scored. Choices sharing no n-gram
+ * with the query are never found, and a good match may be missed if more than {@code maxCandidates} choices share more
+ * n-grams with the query. A higher {@code maxCandidates} therefore trades speed for recall. The search is approximate
+ * in any case, so use {@link ChoiceIndex} if every match must be found.
+ * <p>
+ * The n-grams are taken from the choices and the queries processed as specified by the flags, and each end of a string
+ * is padded so that strings shorter than {@code n} have n-grams too. IDs are the positions of the choices in the
+ * collection the index is created with, and they are returned via {@link Result#getIndex()}.
+ * <p>
+ * Queries may be run concurrently.
+ */
+public class NGramIndex implements Closeable {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    /**
+     * Trigrams, which are selective enough for most text.
+     */
+    public static final int DEFAULT_N = 3;
+
+    public static final int DEFAULT_MAX_CANDIDATES = 1000;
+
+    private final int mN;
+    private final int mFlags;
+    private final int mSize;
+    private final NativeHandle mHandle;
+    private volatile int mMaxCandidates = DEFAULT_MAX_CANDIDATES;
+
+    public NGramIndex(Collection<String> choices) {
+        this(choices, DEFAULT_N, 0);
+    }
+
+    /**
+     * Create an index of the choices.
+     *
+     * @param choices Choices to be indexed
+     * @param n       Number of characters in each n-gram. Shorter n-grams find more candidates.
+     * @param flags   A combination of the {@code RapidFuzz#FLAG_*} constants used for both the choices and the queries,
+     *                or 0 to compare the strings as they are. N-grams are made of code points if the flags include
+     *                {@link RapidFuzz#FLAG_CODE_POINTS}, or else of UTF-16 code units.
+     * @throws IllegalArgumentException If {@code n} is less than 1 or any of the choices is {@code null}.
+     */
+    public NGramIndex(Collection<String> choices, int n, int flags) {
+        if (n < 1) throw new IllegalArgumentException("Invalid n " + n);
+        String[] strings = choices.toArray(new String[0]);
+        for (int i = 0; i < strings.length; ++i) {
+            if (strings[i] == null) throw new IllegalArgumentException("Choice " + i + " is null");
+        }
+        mN = n;
+        mFlags = flags;
+        mSize = strings.length;
+        long ptr = nativeNew(strings, n, flags);
+        mHandle = new NativeHandle(this, ptr, nativeGetBytes(ptr), NGramIndex::nativeFree);
+    }
+
+    public int getN() {
+        return mN;
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    /**
+     * Set the maximum number of choices scored by each query.
+     *
+     * @throws IllegalArgumentException If {@code maxCandidates} is less than 1.
+     */
+    public void setMaxCandidates(int maxCandidates) {
+        if (maxCandidates < 1) throw new IllegalArgumentException("Invalid maxCandidates " + maxCandidates);
+        mMaxCandidates = maxCandidates;
+    }
+
+    public int getMaxCandidates() {
+        return mMaxCandidates;
+    }
+
+    /**
+     * Get the choice with the given ID, or {@code null} if there is no such choice.
+     */
+    public String get(int id) {
+        return nativeGet(mHandle.getPtr(), id);
+    }
+
+    /**
+     * Get the number of choices in the index.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public List<Result<String>> extractAll(String query) {
+        return extractAll(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    /**
+     * Find the candidates with a score of at least {@code scoreCutoff}.
+     *
+     * @return Results in the order of IDs
+     */
+    public List<Result<String>> extractAll(String query, int ratioType, double scoreCutoff) {
+        int maxCandidates = mMaxCandidates;
+        int capacity = Math.min(maxCandidates, mSize);
+        if (capacity == 0) return Collections.emptyList();
+        int[] ids = new int[capacity];
+        double[] scores = new double[capacity];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtractAll(mHandle.getPtr(), lease.getScorer().getNativePtr(), query, maxCandidates,
+                    scoreCutoff, ids, scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    public List<Result<String>> extractTop(String query, int limit) {
+        return extractTop(query, TYPE_WEIGHTED_RATIO, limit, 0.0);
+    }
+
+    /**
+     * Find the best matching candidates.
+     *
+     * @return At most {@code limit} results sorted by score in descending order. Choices with equal scores are sorted by
+     * their IDs.
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     * @see ChoiceIndex#extractTop(String, int, int, double)
+     */
+    public List<Result<String>> extractTop(String query, int ratioType, int limit, double scoreCutoff) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        int maxCandidates = mMaxCandidates;
+        int capacity = Math.min(Math.min(limit, maxCandidates), mSize);
+        if (capacity == 0) return Collections.emptyList();
+        int[] ids = new int[capacity];
+        double[] scores = new double[capacity];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            count = nativeExtract(mHandle.getPtr(), lease.getScorer().getNativePtr(), query, maxCandidates, limit,
+                    scoreCutoff, ids, scores);
+        }
+        return getResults(ids, scores, count);
+    }
+
+    public Result<String> extractOne(String query) {
+        return extractOne(query, TYPE_WEIGHTED_RATIO, 0.0);
+    }
+
+    public Result<String> extractOne(String query, int ratioType, double scoreCutoff) {
+        double[] bestScore = new double[1];
+        int bestId;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, mFlags)) {
+            bestId = nativeExtractOne(mHandle.getPtr(), lease.getScorer().getNativePtr(), query, mMaxCandidates,
+                    scoreCutoff, bestScore);
+        }
+        if (bestId < 0) return null;
+        return new Result<>(get(bestId), bestScore[0], bestId);
+    }
+
+    /**
+     * Free the native index. Closing the index more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
+
+    private List<Result<String>> getResults(int[] ids, double[] scores, int count) {
+        List<Result<String>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            results.add(new Result<>(get(ids[i]), scores[i], ids[i]));
+        }
+        return results;
+    }
+
+    private static native long nativeNew(String[] choices, int n, int flags);
+
+    private static native long nativeGetBytes(long ptr);
+
+    private native String nativeGet(long ptr, int id);
+
+    private native int nativeExtractAll(long ptr, long scorerPtr, String query, int maxCandidates,
+                                        double scoreCutoff, int[] ids, double[] scores);
+
+    private native int nativeExtract(long ptr, long scorerPtr, String query, int maxCandidates, int limit,
+                                     double scoreCutoff, int[] ids, double[] scores);
+
+    private native int nativeExtractOne(long ptr, long scorerPtr, String query, int maxCandidates,
+                                        double scoreCutoff, double[] bestScore);
+
+    private static native void nativeFree(long ptr);
+}
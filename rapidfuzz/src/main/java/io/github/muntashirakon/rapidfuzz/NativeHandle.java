@@ -0,0 +1,142 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Owns a pointer to a native object on behalf of a Java object. The native object is freed when the handle is closed
+ * or, as a fallback, by a daemon thread once the owner becomes unreachable without having been closed.
+ * <p>
+ * The deallocator must not refer to the owner, or else the owner never becomes unreachable.
+ * <p>
+ * Once {@link #getPtr()} returns, nothing but its use afterwards keeps the owner reachable, and the native object must
+ * not be freed while a native method still uses it. Native methods that take the pointer of their owner are therefore
+ * instance methods of the owner: the JNI reference to the receiver keeps the owner reachable until they return. Native
+ * methods that take the pointer of another object must be followed by {@link #keepAlive(Object)} on it.
+ */
+final class NativeHandle extends PhantomReference<Object> {
+    interface Deallocator {
+        void free(long ptr);
+    }
+
+    // Stays null, only read by keepAlive()
+    private static volatile Object sReachabilitySink;
+
+    private static final ReferenceQueue<Object> sQueue = new ReferenceQueue<>();
+    // Keeps the handles reachable until they are closed, as a phantom reference is not enqueued otherwise
+    private static final Set<NativeHandle> sHandles = new HashSet<>();
+
+    static {
+        Thread cleaner = new Thread(() -> {
+            while (true) {
+                try {
+                    NativeHandle handle = (NativeHandle) sQueue.remove();
+                    if (handle.free()) {
+                        LeakTracker.onLeak(handle.mType, handle.mAllocationSite);
+                    }
+                } catch (InterruptedException ignore) {
+                }
+            }
+        }, "RapidFuzz-Cleaner");
+        cleaner.setDaemon(true);
+        cleaner.start();
+    }
+
+    /**
+     * Get the allocation sites of the handles that are not closed yet. Sites are only recorded while the
+     * {@link LeakTracker} is enabled.
+     */
+    static List<Throwable> getAllocationSites() {
+        List<Throwable> sites = new ArrayList<>();
+        synchronized (sHandles) {
+            for (NativeHandle handle : sHandles) {
+                if (handle.mAllocationSite != null) {
+                    sites.add(handle.mAllocationSite);
+                }
+            }
+        }
+        return sites;
+    }
+
+    /**
+     * Keep an object reachable until this method is called, like {@code Reference.reachabilityFence()}, which only
+     * exists since Java 9 and Android 9.
+     */
+    static void keepAlive(Object ref) {
+        // Neither the volatile read nor the comparison, which needs ref, can be optimized away
+        if (sReachabilitySink == ref) {
+            sReachabilitySink = null;
+        }
+    }
+
+    private final Deallocator mDeallocator;
+    private final String mType;
+    private final long mBytes;
+    private final Throwable mAllocationSite;
+    private volatile long mPtr;
+
+    /**
+     * @param owner       The object that owns the native object
+     * @param ptr         Pointer to the native object
+     * @param bytes       Estimated native memory taken by the native object
+     * @param deallocator Frees the native object
+     */
+    NativeHandle(Object owner, long ptr, long bytes, Deallocator deallocator) {
+        super(owner, sQueue);
+        mDeallocator = deallocator;
+        mType = owner.getClass().getSimpleName();
+        mBytes = bytes;
+        mAllocationSite = LeakTracker.isEnabled() ? new Throwable(mType + " allocated here") : null;
+        mPtr = ptr;
+        synchronized (sHandles) {
+            sHandles.add(this);
+        }
+        LeakTracker.onAllocate(bytes);
+    }
+
+    /**
+     * Get the pointer to the native object.
+     *
+     * @throws IllegalStateException If the handle is closed.
+     */
+    long getPtr() {
+        long ptr = mPtr;
+        if (ptr == 0) throw new IllegalStateException(mType + " is already closed");
+        return ptr;
+    }
+
+    /**
+     * Free the native object. Closing a handle more than once has no effect.
+     */
+    void close() {
+        free();
+        // The handle is no longer needed, so do not let the cleaner see it
+        clear();
+    }
+
+    /**
+     * Free the native object unless it is already freed.
+     *
+     * @return {@code true} if the native object was freed by this call.
+     */
+    private boolean free() {
+        long ptr;
+        synchronized (this) {
+            ptr = mPtr;
+            if (ptr == 0) return false;
+            mPtr = 0;
+        }
+        synchronized (sHandles) {
+            sHandles.remove(this);
+        }
+        mDeallocator.free(ptr);
+        LeakTracker.onFree(mBytes);
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Loads the native library. On Android, as well as when it is found in {@code java.library.path}, the library is
+ * loaded from the system. Otherwise, the library bundled in the jar of the desktop JVM build is extracted to a
+ * temporary file and loaded from there.
+ */
+final class NativeLoader {
+    private static final String LIBRARY_NAME = "rapidfuzz";
+
+    private static boolean sLoaded;
+
+    private NativeLoader() {
+    }
+
+    static synchronized void loadLibrary() {
+        if (sLoaded) return;
+        try {
+            System.loadLibrary(LIBRARY_NAME);
+        } catch (UnsatisfiedLinkError e) {
+            String resource = getBundledLibrary();
+            InputStream is = resource != null ? NativeLoader.class.getResourceAsStream(resource) : null;
+            if (is == null) {
+                throw e;
+            }
+            try {
+                System.load(extract(is).getAbsolutePath());
+            } catch (IOException ex) {
+                UnsatisfiedLinkError error = new UnsatisfiedLinkError("Could not extract " + resource);
+                error.initCause(ex);
+                throw error;
+            }
+        }
+        sLoaded = true;
+    }
+
+    /**
+     * Get the path of the library bundled for the current platform, or {@code null} if the platform is not supported.
+     */
+    static String getBundledLibrary() {
+        if (!"Linux".equals(System.getProperty("os.name"))) return null;
+        String arch = System.getProperty("os.arch", "");
+        switch (arch) {
+            case "amd64":
+            case "x86_64":
+                arch = "x86_64";
+                break;
+            case "aarch64":
+            case "arm64":
+                arch = "aarch64";
+                break;
+            default:
+                return null;
+        }
+        return "/natives/linux-" + arch + "/" + System.mapLibraryName(LIBRARY_NAME);
+    }
+
+    private static File extract(InputStream is) throws IOException {
+        File file = File.createTempFile("lib" + LIBRARY_NAME, ".so");
+        file.deleteOnExit();
+        try (InputStream in = is; OutputStream out = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,230 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits the choices of the {@code RapidFuzzCached#extract*} methods into chunks and scores them concurrently using a
+ * single {@link RapidFuzzCached} instance shared by all the workers.
+ * <p>
+ * The calling thread always takes part in scoring and only waits for the chunks that are already being scored by other
+ * workers. Chunks are merged in their original order, so that the results are identical to the sequential results.
+ */
+final class ParallelExtractor {
+    /**
+     * Minimum number of choices scored by a single worker.
+     */
+    private static final int MIN_CHUNK_SIZE = 256;
+    /**
+     * Number of chunks created per available processor in order to balance the load between workers.
+     */
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    private static ExecutorService sDefaultExecutor;
+
+    /**
+     * Get a shared executor with one daemon thread per available processor.
+     */
+    static synchronized Executor getDefaultExecutor() {
+        if (sDefaultExecutor == null) {
+            sDefaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                    new ThreadFactory() {
+                        private final AtomicInteger mCount = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "RapidFuzz-" + mCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return sDefaultExecutor;
+    }
+
+    private interface ChunkScorer {
+        void score(int chunk, int from, int to);
+    }
+
+    private ParallelExtractor() {
+    }
+
+    /**
+     * Same as {@link RapidFuzzCached#extractAllIndices(String[], int, int, double, int[], double[])} for all the choices
+     * except that the choices are scored concurrently using the given executor.
+     *
+     * @param executor Executor to run the workers. If {@code null}, all the choices are scored in the calling thread.
+     */
+    static int extractAll(RapidFuzzCached extractor, String[] choices, double scoreCutoff, int[] indices,
+                          double[] scores, Executor executor) {
+        int chunkCount = getChunkCount(choices.length, executor);
+        if (chunkCount == 1) {
+            return extractor.extractAllIndices(choices, 0, choices.length, scoreCutoff, indices, scores);
+        }
+        int[][] chunkIndices = new int[chunkCount][];
+        double[][] chunkScores = new double[chunkCount][];
+        int[] chunkMatches = new int[chunkCount];
+        run(executor, choices.length, chunkCount, (chunk, from, to) -> {
+            chunkIndices[chunk] = new int[to - from];
+            chunkScores[chunk] = new double[to - from];
+            chunkMatches[chunk] = extractor.extractAllIndices(choices, from, to, scoreCutoff, chunkIndices[chunk],
+                    chunkScores[chunk]);
+        });
+        int count = 0;
+        for (int chunk = 0; chunk < chunkCount; ++chunk) {
+            System.arraycopy(chunkIndices[chunk], 0, indices, count, chunkMatches[chunk]);
+            System.arraycopy(chunkScores[chunk], 0, scores, count, chunkMatches[chunk]);
+            count += chunkMatches[chunk];
+        }
+        return count;
+    }
+
+    /**
+     * Same as {@link RapidFuzzCached#extractTopIndices(String[], int, int, int, double, int[], double[])} for all the
+     * choices except that the choices are scored concurrently using the given executor.
+     *
+     * @param executor Executor to run the workers. If {@code null}, all the choices are scored in the calling thread.
+     */
+    static int extract(RapidFuzzCached extractor, String[] choices, int limit, double scoreCutoff, int[] indices,
+                       double[] scores, Executor executor) {
+        int chunkCount = getChunkCount(choices.length, executor);
+        if (chunkCount == 1) {
+            return extractor.extractTopIndices(choices, 0, choices.length, limit, scoreCutoff, indices, scores);
+        }
+        int[][] chunkIndices = new int[chunkCount][];
+        double[][] chunkScores = new double[chunkCount][];
+        int[] chunkMatches = new int[chunkCount];
+        run(executor, choices.length, chunkCount, (chunk, from, to) -> {
+            int capacity = Math.min(limit, to - from);
+            chunkIndices[chunk] = new int[capacity];
+            chunkScores[chunk] = new double[capacity];
+            chunkMatches[chunk] = extractor.extractTopIndices(choices, from, to, limit, scoreCutoff,
+                    chunkIndices[chunk], chunkScores[chunk]);
+        });
+        // Each chunk is already sorted, merge them by repeatedly taking the best head
+        int[] heads = new int[chunkCount];
+        int count = 0;
+        while (count < limit) {
+            int bestChunk = -1;
+            for (int chunk = 0; chunk < chunkCount; ++chunk) {
+                if (heads[chunk] == chunkMatches[chunk]) continue;
+                if (bestChunk == -1 || chunkScores[chunk][heads[chunk]] > chunkScores[bestChunk][heads[bestChunk]]) {
+                    // Chunks are ordered by index, so the earlier chunk wins for equal scores
+                    bestChunk = chunk;
+                }
+            }
+            if (bestChunk == -1) break;
+            indices[count] = chunkIndices[bestChunk][heads[bestChunk]];
+            scores[count] = chunkScores[bestChunk][heads[bestChunk]];
+            ++heads[bestChunk];
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Same as {@link RapidFuzzCached#extractOneIndex(String[], int, int, double, double[])} for all the choices except
+     * that the choices are scored concurrently using the given executor.
+     *
+     * @param executor Executor to run the workers. If {@code null}, all the choices are scored in the calling thread.
+     */
+    static int extractOne(RapidFuzzCached extractor, String[] choices, double scoreCutoff, double[] bestScore,
+                          Executor executor) {
+        int chunkCount = getChunkCount(choices.length, executor);
+        if (chunkCount == 1) {
+            return extractor.extractOneIndex(choices, 0, choices.length, scoreCutoff, bestScore);
+        }
+        int[] chunkBestIndices = new int[chunkCount];
+        double[] chunkBestScores = new double[chunkCount];
+        run(executor, choices.length, chunkCount, (chunk, from, to) -> {
+            double[] score = new double[1];
+            chunkBestIndices[chunk] = extractor.extractOneIndex(choices, from, to, scoreCutoff, score);
+            chunkBestScores[chunk] = score[0];
+        });
+        // The last one of the best choices is selected in order to match the sequential implementation
+        int bestIndex = -1;
+        for (int chunk = 0; chunk < chunkCount; ++chunk) {
+            if (chunkBestIndices[chunk] < 0) continue;
+            if (bestIndex == -1 || chunkBestScores[chunk] >= bestScore[0]) {
+                bestIndex = chunkBestIndices[chunk];
+                bestScore[0] = chunkBestScores[chunk];
+            }
+        }
+        return bestIndex;
+    }
+
+    private static int getChunkCount(int size, Executor executor) {
+        if (executor == null) return 1;
+        int maxChunks = Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR;
+        return Math.max(1, Math.min(maxChunks, size / MIN_CHUNK_SIZE));
+    }
+
+    /**
+     * Score all the chunks and return once every chunk is scored. Workers that start after all the chunks are taken
+     * return immediately without touching the scorer, so that it can be closed right after this method returns.
+     */
+    private static void run(Executor executor, int size, int chunkCount, ChunkScorer scorer) {
+        AtomicInteger nextChunk = new AtomicInteger();
+        Throwable[] failure = new Throwable[1];
+        int[] finishedChunks = new int[1];
+        Runnable worker = () -> {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                Throwable th = null;
+                try {
+                    // Spread the remainder over the first chunks
+                    int from = (int) ((long) size * chunk / chunkCount);
+                    int to = (int) ((long) size * (chunk + 1) / chunkCount);
+                    scorer.score(chunk, from, to);
+                } catch (Throwable t) {
+                    th = t;
+                }
+                synchronized (finishedChunks) {
+                    if (th != null && failure[0] == null) {
+                        failure[0] = th;
+                    }
+                    if (++finishedChunks[0] == chunkCount) {
+                        finishedChunks.notifyAll();
+                    }
+                }
+            }
+        };
+        int workers = Math.min(chunkCount, Runtime.getRuntime().availableProcessors()) - 1;
+        for (int i = 0; i < workers; ++i) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                // The calling thread scores the remaining chunks
+                break;
+            }
+        }
+        worker.run();
+        boolean interrupted = false;
+        synchronized (finishedChunks) {
+            while (finishedChunks[0] < chunkCount) {
+                try {
+                    finishedChunks.wait();
+                } catch (InterruptedException e) {
+                    // The scorer must outlive the workers, so keep waiting
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Throwable th = failure[0];
+        if (th instanceof RuntimeException) {
+            throw (RuntimeException) th;
+        }
+        if (th instanceof Error) {
+            throw (Error) th;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+/**
+ * Process-wide statistics of the prefilter that rejects choices without scoring them.
+ * <p>
+ * Before a choice is scored by {@link RapidFuzz#TYPE_RATIO} or {@link RapidFuzz#TYPE_QUICK_RATIO}, the upper bound of
+ * its score is derived from its length and the characters it contains. A choice whose upper bound is below the score
+ * cutoff cannot match and is therefore not scored. This applies to the {@code extract*} methods of
+ * {@link RapidFuzzCached}, {@link ChoiceIndex}, {@link MappedChoiceIndex} and {@link NGramIndex}. The higher the
+ * score cutoff, the more choices are rejected, and the {@code extractTop} and {@code extractOne} methods raise the
+ * score cutoff as they find better matches.
+ */
+public final class PrefilterStats {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    private PrefilterStats() {
+    }
+
+    /**
+     * Get the number of choices considered by the {@code extract*} methods, excluding {@code null} and removed choices.
+     */
+    public static long getCandidateCount() {
+        return nativeGetCandidateCount();
+    }
+
+    /**
+     * Get the number of choices rejected by the prefilter.
+     */
+    public static long getPrunedCount() {
+        return nativeGetPrunedCount();
+    }
+
+    /**
+     * Get the fraction of the choices rejected by the prefilter, or 0 if no choice was considered yet.
+     */
+    public static double getPruneRate() {
+        long candidates = nativeGetCandidateCount();
+        if (candidates == 0) return 0;
+        return (double) nativeGetPrunedCount() / candidates;
+    }
+
+    /**
+     * Reset the statistics to zero. Extractions running concurrently may still be counted afterwards.
+     */
+    public static void reset() {
+        nativeReset();
+    }
+
+    private static native long nativeGetCandidateCount();
+
+    private static native long nativeGetPrunedCount();
+
+    private static native void nativeReset();
+}
@@ -2,10 +2,35 @@
 
 package io.github.muntashirakon.rapidfuzz;
 
+import dalvik.annotation.optimization.FastNative;
+
+import java.nio.ByteBuffer;
+
 /**
  * Collection of string matching algorithms from FuzzyWuzzy. It is possible to access the algorithms individually or
  * by generic names using the {@code RapidFuzz#TYPE_*} constants with {@link #ratio(String, String, int, double)}
  * or {@link #ratio(String, String, int)}.
+ * <p>
+ * Strings are compared as sequences of UTF-16 code units unless {@link #FLAG_CODE_POINTS} is specified. The other
+ * {@code RapidFuzz#FLAG_*} constants preprocess the strings in native code before they are compared, which makes
+ * calling {@link String#toLowerCase()} or similar on every choice unnecessary.
+ * <p>
+ * Strings may also be given as encoded bytes in a {@code byte[]} or a {@link ByteBuffer} along with one of the
+ * {@code RapidFuzz#ENCODING_*} constants. They are read in place and decoded in native code, so that no
+ * {@link String} is created for them, and they are scored exactly like the decoded strings.
+ * <p>
+ * The alignment behind a score, e.g. to highlight the matching parts of a choice, is returned by
+ * {@link #getMatchingBlocks(String, String, int)} for {@link #ratio(String, String, double)} and by
+ * {@link #getPartialRatioAlignment(String, String, int)} for {@link #partialRatio(String, String, double)}. An
+ * alignment is a packed {@code int[]} of {@link #ALIGNMENT_STRIDE} ints for each pair of aligned ranges: the start and
+ * end of the range in {@code s1} followed by those in {@code s2}. Ends are exclusive, and all of them are indices of
+ * the strings as given, even if they are processed or compared as code points. A range covers the characters that its
+ * processed characters come from, as well as the combining marks dropped after them by
+ * {@link #FLAG_FOLD_DIACRITICS}.
+ * <p>
+ * Each call scores the strings from scratch. Code that calls these methods repeatedly with the same {@code s1} can
+ * enable the {@link ScorerCache} to reuse a cached scorer for {@code s1} without being rewritten for
+ * {@link RapidFuzzCached}.
  */
 public class RapidFuzz {
     public static final int TYPE_RATIO = 1;
@@ -19,8 +44,50 @@ public class RapidFuzz {
     public static final int TYPE_WEIGHTED_RATIO = 9;
     public static final int TYPE_QUICK_RATIO = 10;
 
+    /**
+     * Compare Unicode code points instead of UTF-16 code units, so that a character outside the Basic Multilingual
+     * Plane, such as an emoji, counts as a single character rather than as a surrogate pair.
+     */
+    public static final int FLAG_CODE_POINTS = 1;
+    /**
+     * Convert letters to lowercase.
+     */
+    public static final int FLAG_LOWERCASE = 2;
+    /**
+     * Replace every character that is neither a letter nor a digit with a space.
+     */
+    public static final int FLAG_STRIP_NON_ALPHANUMERIC = 4;
+    /**
+     * Remove whitespaces from both ends of the strings.
+     */
+    public static final int FLAG_TRIM_WHITESPACE = 8;
+    /**
+     * Replace Latin, Greek and Cyrillic letters with diacritics with their base letters, e.g. &eacute; with
+     * {@code e}, and drop combining marks. Folding is done before any other processing.
+     */
+    public static final int FLAG_FOLD_DIACRITICS = 16;
+    /**
+     * Same as {@code utils.default_process} of RapidFuzz, i.e. {@link #FLAG_LOWERCASE},
+     * {@link #FLAG_STRIP_NON_ALPHANUMERIC} and {@link #FLAG_TRIM_WHITESPACE}.
+     */
+    public static final int FLAG_DEFAULT_PROCESS = FLAG_LOWERCASE | FLAG_STRIP_NON_ALPHANUMERIC | FLAG_TRIM_WHITESPACE;
+
+    /**
+     * Number of ints of each pair of aligned ranges in an alignment.
+     */
+    public static final int ALIGNMENT_STRIDE = 4;
+
+    /**
+     * UTF-8, where ill-formed sequences are replaced with U+FFFD like {@link String#String(byte[], String)} does.
+     */
+    public static final int ENCODING_UTF_8 = 1;
+    /**
+     * ISO-8859-1, where each byte is a character.
+     */
+    public static final int ENCODING_LATIN_1 = 2;
+
     static {
-        System.loadLibrary("rapidfuzz");
+        NativeLoader.loadLibrary();
     }
 
     private RapidFuzz() {
@@ -52,7 +119,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double ratio(String s1, String s2, double scoreCutoff) {
-        return nativeRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_RATIO, scoreCutoff);
     }
 
     /**
@@ -81,7 +148,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double partialRatio(String s1, String s2, double scoreCutoff) {
-        return nativePartialRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_PARTIAL_RATIO, scoreCutoff);
     }
 
     /**
@@ -110,7 +177,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double tokenSortRatio(String s1, String s2, double scoreCutoff) {
-        return nativeTokenSortRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_TOKEN_SORT_RATIO, scoreCutoff);
     }
 
     /**
@@ -134,7 +201,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double partialTokenSortRatio(String s1, String s2, double scoreCutoff) {
-        return nativePartialTokenSortRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_PARTIAL_TOKEN_SORT_RATIO, scoreCutoff);
     }
 
     /**
@@ -166,7 +233,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double tokenSetRatio(String s1, String s2, double scoreCutoff) {
-        return nativeTokenSetRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_TOKEN_SET_RATIO, scoreCutoff);
     }
 
     /**
@@ -191,7 +258,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double partialTokenSetRatio(String s1, String s2, double scoreCutoff) {
-        return nativePartialTokenSetRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_PARTIAL_TOKEN_SET_RATIO, scoreCutoff);
     }
 
     /**
@@ -216,7 +283,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double tokenRatio(String s1, String s2, double scoreCutoff) {
-        return nativeTokenRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_TOKEN_RATIO, scoreCutoff);
     }
 
     /**
@@ -241,7 +308,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double partialTokenRatio(String s1, String s2, double scoreCutoff) {
-        return nativePartialTokenRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_PARTIAL_TOKEN_RATIO, scoreCutoff);
     }
 
     /**
@@ -265,7 +332,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double weightedRatio(String s1, String s2, double scoreCutoff) {
-        return nativeWeightedRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_WEIGHTED_RATIO, scoreCutoff);
     }
 
     /**
@@ -289,7 +356,7 @@ public class RapidFuzz {
      * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
      */
     public static double quickRatio(String s1, String s2, double scoreCutoff) {
-        return nativeQuickRatio(s1, s2, scoreCutoff);
+        return nativeRatio(s1, s2, TYPE_QUICK_RATIO, scoreCutoff);
     }
 
     /**
@@ -316,50 +383,176 @@ public class RapidFuzz {
      * @throws IllegalArgumentException If the ratio type is invalid.
      */
     public static double ratio(String s1, String s2, int ratioType, double scoreCutoff) {
-        switch (ratioType) {
-            case TYPE_RATIO:
-                return ratio(s1, s2, scoreCutoff);
-            case TYPE_PARTIAL_RATIO:
-                return partialRatio(s1, s2, scoreCutoff);
-            case TYPE_TOKEN_SORT_RATIO:
-                return tokenSortRatio(s1, s2, scoreCutoff);
-            case TYPE_PARTIAL_TOKEN_SORT_RATIO:
-                return partialTokenSortRatio(s1, s2, scoreCutoff);
-            case TYPE_TOKEN_SET_RATIO:
-                return tokenSetRatio(s1, s2, scoreCutoff);
-            case TYPE_PARTIAL_TOKEN_SET_RATIO:
-                return partialTokenSetRatio(s1, s2, scoreCutoff);
-            case TYPE_TOKEN_RATIO:
-                return tokenRatio(s1, s2, scoreCutoff);
-            case TYPE_PARTIAL_TOKEN_RATIO:
-                return partialTokenRatio(s1, s2, scoreCutoff);
-            case TYPE_WEIGHTED_RATIO:
-                return weightedRatio(s1, s2, scoreCutoff);
-            case TYPE_QUICK_RATIO:
-                return quickRatio(s1, s2, scoreCutoff);
-            default:
-                throw new IllegalArgumentException("Unknown ratio type " + ratioType);
+        return nativeRatio(s1, s2, checkRatioType(ratioType), scoreCutoff);
+    }
+
+    /**
+     * Same as {@link #ratio(String, String, int, double)} except that the strings are compared as specified by the
+     * flags.
+     *
+     * @param s1          String to compare with s2
+     * @param s2          String to compare with s1
+     * @param ratioType   Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @param flags       A combination of the {@code RapidFuzz#FLAG_*} constants, or 0 to compare the strings as they
+     *                    are.
+     * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
+     * @throws IllegalArgumentException If the ratio type is invalid.
+     */
+    public static double ratio(String s1, String s2, int ratioType, double scoreCutoff, int flags) {
+        if (flags == 0) {
+            return ratio(s1, s2, ratioType, scoreCutoff);
         }
+        return nativeScore(s1, s2, ratioType, scoreCutoff, flags);
     }
 
-    // Native calls
-    private static native double nativeRatio(String s1, String s2, double scoreCutoff);
+    /**
+     * Same as {@link #ratio(String, String, int, double, int)} except that the strings are given as encoded bytes.
+     *
+     * @param s1          Bytes of the string to compare with s2
+     * @param offset1     Index of the first byte of s1
+     * @param length1     Number of bytes of s1
+     * @param s2          Bytes of the string to compare with s1
+     * @param offset2     Index of the first byte of s2
+     * @param length2     Number of bytes of s2
+     * @param encoding    Encoding of both strings. One of the {@code RapidFuzz#ENCODING_*} constants.
+     * @param ratioType   Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @param flags       A combination of the {@code RapidFuzz#FLAG_*} constants, or 0 to compare the strings as they
+     *                    are.
+     * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
+     * @throws IllegalArgumentException  If the ratio type or the encoding is invalid.
+     * @throws IndexOutOfBoundsException If a range is out of the bounds of its array.
+     */
+    public static double ratio(byte[] s1, int offset1, int length1, byte[] s2, int offset2, int length2, int encoding,
+                               int ratioType, double scoreCutoff, int flags) {
+        checkRange(s1.length, offset1, length1);
+        checkRange(s2.length, offset2, length2);
+        return nativeScoreBytes(s1, false, offset1, length1, s2, false, offset2, length2, checkEncoding(encoding),
+                ratioType, scoreCutoff, flags);
+    }
 
-    private static native double nativePartialRatio(String s1, String s2, double scoreCutoff);
+    /**
+     * Same as {@link #ratio(String, String, int, double, int)} except that the strings are given as encoded bytes.
+     * Direct buffers are read via their native address, e.g. those of a memory-mapped file.
+     *
+     * @param s1          Bytes of the string to compare with s2 from its position to its limit. The position is not
+     *                    changed.
+     * @param s2          Bytes of the string to compare with s1 from its position to its limit. The position is not
+     *                    changed.
+     * @param encoding    Encoding of both strings. One of the {@code RapidFuzz#ENCODING_*} constants.
+     * @param ratioType   Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @param flags       A combination of the {@code RapidFuzz#FLAG_*} constants, or 0 to compare the strings as they
+     *                    are.
+     * @return The ratio between s1 and s2 or 0 when ratio < score_cutoff.
+     * @throws IllegalArgumentException If the ratio type or the encoding is invalid, or if a buffer is neither direct
+     *                                  nor backed by an accessible array.
+     */
+    public static double ratio(ByteBuffer s1, ByteBuffer s2, int encoding, int ratioType, double scoreCutoff,
+                               int flags) {
+        return nativeScoreBytes(getBytes(s1), s1.isDirect(), getBaseOffset(s1) + s1.position(), s1.remaining(),
+                getBytes(s2), s2.isDirect(), getBaseOffset(s2) + s2.position(), s2.remaining(),
+                checkEncoding(encoding), ratioType, scoreCutoff, flags);
+    }
 
-    private static native double nativeTokenSortRatio(String s1, String s2, double scoreCutoff);
+    public static int[] getMatchingBlocks(String s1, String s2) {
+        return getMatchingBlocks(s1, s2, 0);
+    }
 
-    private static native double nativePartialTokenSortRatio(String s1, String s2, double scoreCutoff);
+    /**
+     * Get the alignment behind {@link #ratio(String, String, double)}, whose score is computed from the length of a
+     * longest common subsequence of the strings. Each of its blocks is a run of the subsequence that is consecutive in
+     * both strings.
+     *
+     * <pre>
+     * // blocks are {0, 5, 0, 5, 5, 8, 6, 9}, i.e. "this " and "tes"
+     * int[] blocks = RapidFuzz.getMatchingBlocks("this test", "this  tes");
+     * </pre>
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants, or 0 to compare the strings as they are.
+     * @return The matching blocks in ascending order, {@link #ALIGNMENT_STRIDE} ints each. The ranges of a block in s1
+     * and s2 may differ in length if the strings are processed.
+     */
+    public static int[] getMatchingBlocks(String s1, String s2, int flags) {
+        return nativeGetAlignment(s1, s2, TYPE_RATIO, flags);
+    }
 
-    private static native double nativeTokenSetRatio(String s1, String s2, double scoreCutoff);
+    public static int[] getPartialRatioAlignment(String s1, String s2) {
+        return getPartialRatioAlignment(s1, s2, 0);
+    }
 
-    private static native double nativePartialTokenSetRatio(String s1, String s2, double scoreCutoff);
+    /**
+     * Get the alignment behind {@link #partialRatio(String, String, double)}, i.e. the shorter string as a whole and
+     * the substring of the longer string with the best ratio with it. The substring is as long as the shorter string
+     * unless it is cut short by either end of the longer string. If several substrings have the best ratio, the first
+     * one is returned.
+     *
+     * <pre>
+     * // alignment is {0, 4, 5, 9}, i.e. "test" in s2
+     * int[] alignment = RapidFuzz.getPartialRatioAlignment("test", "this test!");
+     * </pre>
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants, or 0 to compare the strings as they are.
+     * @return The ranges of the aligned substrings in s1 and s2, {@link #ALIGNMENT_STRIDE} ints
+     */
+    public static int[] getPartialRatioAlignment(String s1, String s2, int flags) {
+        return nativeGetAlignment(s1, s2, TYPE_PARTIAL_RATIO, flags);
+    }
+
+    static int checkRatioType(int ratioType) {
+        if (ratioType < TYPE_RATIO || ratioType > TYPE_QUICK_RATIO) {
+            throw new IllegalArgumentException("Unknown ratio type " + ratioType);
+        }
+        return ratioType;
+    }
+
+    static int checkEncoding(int encoding) {
+        if (encoding != ENCODING_UTF_8 && encoding != ENCODING_LATIN_1) {
+            throw new IllegalArgumentException("Unknown encoding " + encoding);
+        }
+        return encoding;
+    }
+
+    static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+                    + ") out of bounds for length " + arrayLength);
+        }
+    }
 
-    private static native double nativeTokenRatio(String s1, String s2, double scoreCutoff);
+    /**
+     * Get the object holding the bytes of the buffer that is passed to native code, i.e. the buffer itself if it is
+     * direct or else its backing array.
+     *
+     * @throws IllegalArgumentException If the buffer is neither direct nor backed by an accessible array.
+     */
+    static Object getBytes(ByteBuffer buffer) {
+        if (buffer.isDirect()) return buffer;
+        if (!buffer.hasArray()) throw new IllegalArgumentException("Buffer is neither direct nor backed by an array");
+        return buffer.array();
+    }
+
+    /**
+     * Get the index in the object returned by {@link #getBytes(ByteBuffer)} of the byte at index 0 of the buffer.
+     */
+    static int getBaseOffset(ByteBuffer buffer) {
+        return buffer.isDirect() ? 0 : buffer.arrayOffset();
+    }
+
+    // Native calls
+    // Scores the strings as they are via the ratio function of the valid ratio type
+    @FastNative
+    private static native double nativeRatio(String s1, String s2, int ratioType, double scoreCutoff);
 
-    private static native double nativePartialTokenRatio(String s1, String s2, double scoreCutoff);
+    private static native int[] nativeGetAlignment(String s1, String s2, int ratioType, int flags);
 
-    private static native double nativeWeightedRatio(String s1, String s2, double scoreCutoff);
+    private static native double nativeScore(String s1, String s2, int ratioType, double scoreCutoff, int flags);
 
-    private static native double nativeQuickRatio(String s1, String s2, double scoreCutoff);
+    private static native double nativeScoreBytes(Object s1, boolean direct1, int offset1, int length1, Object s2,
+                                                  boolean direct2, int offset2, int length2, int encoding,
+                                                  int ratioType, double scoreCutoff, int flags);
 }
@@ -2,21 +2,21 @@
 
 package io.github.muntashirakon.rapidfuzz;
 
+import dalvik.annotation.optimization.FastNative;
+
 import java.io.Closeable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_RATIO;
-import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_TOKEN_RATIO;
-import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_TOKEN_SET_RATIO;
-import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_PARTIAL_TOKEN_SORT_RATIO;
 import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_QUICK_RATIO;
 import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_RATIO;
-import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_RATIO;
-import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SET_RATIO;
-import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_TOKEN_SORT_RATIO;
 import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
 
 /**
@@ -24,8 +24,12 @@ import static io.github.muntashirakon.rapidfuzz.RapidFuzz.TYPE_WEIGHTED_RATIO;
  * string, cached implementation is much faster.
  * <p>
  * In addition, a number of utility methods are provided for faster matching given a collection of string or objects.
+ * The {@code #extract*} methods that take an {@link Executor} score the choices concurrently. The {@code #cdist*} methods
+ * score every choice against every query using native threads. The {@code #extract*} methods lease their cached scorers
+ * from {@link ScorerPool#getDefault()}, so that repeated queries do not build the same scorer again.
  * <p>
- * This class is not thread-safe!
+ * The native cached scorers are immutable once created, so the {@code #ratio} methods of a single instance may be
+ * called concurrently from multiple threads. However, the instance must not be closed while any of them is running.
  */
 public class RapidFuzzCached implements Closeable {
     /**
@@ -66,10 +70,12 @@ public class RapidFuzzCached implements Closeable {
     public static class Result<T> implements Comparable<Result<T>> {
         private final T mObject;
         private final double mScore;
+        private final int mIndex;
 
-        private Result(T object, double score) {
+        Result(T object, double score, int index) {
             this.mObject = object;
             this.mScore = score;
+            this.mIndex = index;
         }
 
         /**
@@ -86,6 +92,14 @@ public class RapidFuzzCached implements Closeable {
             return mScore;
         }
 
+        /**
+         * Get the position of the choice in the collection it was selected from, or its ID if it was selected from a
+         * {@link ChoiceIndex}.
+         */
+        public int getIndex() {
+            return mIndex;
+        }
+
         /**
          * Get the object converted to string, or the string itself if the object is a string.
          */
@@ -110,7 +124,7 @@ public class RapidFuzzCached implements Closeable {
     }
 
     static {
-        System.loadLibrary("rapidfuzz");
+        NativeLoader.loadLibrary();
     }
 
     public static List<Result<String>> extractAll(String query, Collection<String> choices) {
@@ -127,17 +141,91 @@ public class RapidFuzzCached implements Closeable {
 
     public static List<Result<String>> extractAll(String query, Collection<String> choices, int ratioType, double scoreCutoff) {
         if (choices == null) return null;
-        if (choices.size() == 0) return Collections.emptyList();
-        List<Result<String>> results = new ArrayList<>();
-        try (RapidFuzzCached extractor = new RapidFuzzCached(query, ratioType)) {
-            for (String choice : choices) {
-                double score = extractor.ratio(choice);
-                if (score >= scoreCutoff) {
-                    results.add(new Result<>(choice, score));
-                }
-            }
-        }
-        return results;
+        return extractAll(query, choices.toArray(new String[0]), ratioType, scoreCutoff);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, Collection, int, double)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extractAll(String query, Collection<String> choices, int ratioType, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        return extractAll(query, choices.toArray(new String[0]), ratioType, scoreCutoff, executor);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, Collection, int, double)} except that the query and the choices are processed
+     * as specified by the flags.
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants.
+     */
+    public static List<Result<String>> extractAll(String query, Collection<String> choices, int ratioType, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        return extractAll(query, choices.toArray(new String[0]), ratioType, scoreCutoff, flags);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, Collection, int, double, int)} except that the choices are scored
+     * concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extractAll(String query, Collection<String> choices, int ratioType, double scoreCutoff, int flags, Executor executor) {
+        if (choices == null) return null;
+        return extractAll(query, choices.toArray(new String[0]), ratioType, scoreCutoff, flags, executor);
+    }
+
+    public static List<Result<String>> extractAll(String query, String[] choices) {
+        return extractAll(query, choices, 0.0);
+    }
+
+    public static List<Result<String>> extractAll(String query, String[] choices, int ratioType) {
+        return extractAll(query, choices, ratioType, 0.0);
+    }
+
+    public static List<Result<String>> extractAll(String query, String[] choices, double scoreCutoff) {
+        return extractAll(query, choices, TYPE_WEIGHTED_RATIO, scoreCutoff);
+    }
+
+    public static List<Result<String>> extractAll(String query, String[] choices, int ratioType, double scoreCutoff) {
+        if (choices == null) return null;
+        return extractAll(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, 0, null);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, String[], int, double)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extractAll(String query, String[] choices, int ratioType, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        return extractAll(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, 0, getExecutor(executor));
+    }
+
+    /**
+     * Same as {@link #extractAll(String, String[], int, double)} except that the query and the choices are processed
+     * as specified by the flags. The choices are processed in native code, so no new strings are created for them.
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants.
+     */
+    public static List<Result<String>> extractAll(String query, String[] choices, int ratioType, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        return extractAll(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, flags, null);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, String[], int, double, int)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extractAll(String query, String[] choices, int ratioType, double scoreCutoff, int flags, Executor executor) {
+        if (choices == null) return null;
+        return extractAll(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, flags, getExecutor(executor));
     }
 
     public static <T> List<Result<T>> extractAll(String query, Collection<T> choices, ChoiceGenerator<T> generator) {
@@ -154,17 +242,22 @@ public class RapidFuzzCached implements Closeable {
 
     public static <T> List<Result<T>> extractAll(String query, Collection<T> choices, ChoiceGenerator<T> generator, int ratioType, double scoreCutoff) {
         if (choices == null) return null;
-        if (choices.size() == 0) return Collections.emptyList();
-        List<Result<T>> results = new ArrayList<>();
-        try (RapidFuzzCached extractor = new RapidFuzzCached(query, ratioType)) {
-            for (T choice : choices) {
-                double score = extractor.ratio(generator.getChoice(choice));
-                if (score >= scoreCutoff) {
-                    results.add(new Result<>(choice, score));
-                }
-            }
-        }
-        return results;
+        List<T> objects = new ArrayList<>(choices);
+        return extractAll(query, getChoiceStrings(objects, generator), objects, ratioType, scoreCutoff, 0, null);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, Collection, ChoiceGenerator, int, double)} except that the choices are scored
+     * concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static <T> List<Result<T>> extractAll(String query, Collection<T> choices, ChoiceGenerator<T> generator, int ratioType, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        List<T> objects = new ArrayList<>(choices);
+        return extractAll(query, getChoiceStrings(objects, generator), objects, ratioType, scoreCutoff, 0,
+                getExecutor(executor));
     }
 
     public static <T> List<Result<T>> extractAll(String query, Collection<T> choices, ChoicesGenerator<T> generator) {
@@ -179,26 +272,169 @@ public class RapidFuzzCached implements Closeable {
         return extractAll(query, choices, generator, TYPE_WEIGHTED_RATIO, scoreCutoff);
     }
 
+    /**
+     * Find the choices whose best scoring alias has a score of at least {@code scoreCutoff}. The aliases of all the
+     * choices are scored in a single native call, where the aliases of each choice are scored with the score cutoff
+     * raised to the best score of the choice so far, and the remaining aliases are skipped once one of them is a
+     * perfect match. Use {@link AliasIndex} to query the same choices repeatedly.
+     */
     public static <T> List<Result<T>> extractAll(String query, Collection<T> choices, ChoicesGenerator<T> generator, int ratioType, double scoreCutoff) {
         if (choices == null) return null;
         if (choices.size() == 0) return Collections.emptyList();
-        List<Result<T>> results = new ArrayList<>();
-        try (RapidFuzzCached extractor = new RapidFuzzCached(query, ratioType)) {
-            for (T choice : choices) {
-                List<String> strings = generator.getChoices(choice);
-                double maxScore = 0;
-                for (String s : strings) {
-                    double score = extractor.ratio(s);
-                    if (score >= maxScore) maxScore = score;
-                }
-                if (maxScore >= scoreCutoff) {
-                    results.add(new Result<>(choice, maxScore));
-                }
-            }
+        List<T> objects = new ArrayList<>(choices);
+        int[] offsets = new int[objects.size() + 1];
+        String[] aliases = getAliasStrings(objects, generator, offsets);
+        int[] indices = new int[objects.size()];
+        double[] scores = new double[objects.size()];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, 0)) {
+            count = nativeExtractAllAliases(lease.getScorer().getNativePtr(), aliases, offsets, objects.size(),
+                    scoreCutoff, indices, scores);
+        }
+        List<Result<T>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            results.add(new Result<>(objects.get(indices[i]), scores[i], indices[i]));
         }
         return results;
     }
 
+    public static List<Result<String>> extract(String query, Collection<String> choices, int limit) {
+        return extract(query, choices, TYPE_WEIGHTED_RATIO, limit);
+    }
+
+    public static List<Result<String>> extract(String query, Collection<String> choices, int ratioType, int limit) {
+        return extract(query, choices, ratioType, limit, 0.0);
+    }
+
+    public static List<Result<String>> extract(String query, Collection<String> choices, int ratioType, int limit, double scoreCutoff) {
+        if (choices == null) return null;
+        return extract(query, choices.toArray(new String[0]), ratioType, limit, scoreCutoff);
+    }
+
+    /**
+     * Same as {@link #extract(String, Collection, int, int, double)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extract(String query, Collection<String> choices, int ratioType, int limit, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        return extract(query, choices.toArray(new String[0]), ratioType, limit, scoreCutoff, executor);
+    }
+
+    /**
+     * Same as {@link #extract(String, Collection, int, int, double)} except that the query and the choices are
+     * processed as specified by the flags.
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants.
+     */
+    public static List<Result<String>> extract(String query, Collection<String> choices, int ratioType, int limit, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        return extract(query, choices.toArray(new String[0]), ratioType, limit, scoreCutoff, flags);
+    }
+
+    /**
+     * Same as {@link #extract(String, Collection, int, int, double, int)} except that the choices are scored
+     * concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extract(String query, Collection<String> choices, int ratioType, int limit, double scoreCutoff, int flags, Executor executor) {
+        if (choices == null) return null;
+        return extract(query, choices.toArray(new String[0]), ratioType, limit, scoreCutoff, flags, executor);
+    }
+
+    public static List<Result<String>> extract(String query, String[] choices, int limit) {
+        return extract(query, choices, TYPE_WEIGHTED_RATIO, limit);
+    }
+
+    public static List<Result<String>> extract(String query, String[] choices, int ratioType, int limit) {
+        return extract(query, choices, ratioType, limit, 0.0);
+    }
+
+    /**
+     * Find the best matching choices. Once {@code limit} matches are found, the lowest score among them is used as the
+     * score cutoff for the remaining choices so that losing candidates are rejected early by the native scorer.
+     *
+     * @param query       The query string
+     * @param choices     Choices to score against the query
+     * @param ratioType   Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param limit       Maximum number of results to return
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @return At most {@code limit} results sorted by score in descending order. Choices with equal scores retain their
+     * original order.
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     */
+    public static List<Result<String>> extract(String query, String[] choices, int ratioType, int limit, double scoreCutoff) {
+        if (choices == null) return null;
+        return extract(query, choices, Arrays.asList(choices), ratioType, limit, scoreCutoff, 0, null);
+    }
+
+    /**
+     * Same as {@link #extract(String, String[], int, int, double)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extract(String query, String[] choices, int ratioType, int limit, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        return extract(query, choices, Arrays.asList(choices), ratioType, limit, scoreCutoff, 0, getExecutor(executor));
+    }
+
+    /**
+     * Same as {@link #extract(String, String[], int, int, double)} except that the query and the choices are processed
+     * as specified by the flags. The choices are processed in native code, so no new strings are created for them.
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants.
+     */
+    public static List<Result<String>> extract(String query, String[] choices, int ratioType, int limit, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        return extract(query, choices, Arrays.asList(choices), ratioType, limit, scoreCutoff, flags, null);
+    }
+
+    /**
+     * Same as {@link #extract(String, String[], int, int, double, int)} except that the choices are scored
+     * concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static List<Result<String>> extract(String query, String[] choices, int ratioType, int limit, double scoreCutoff, int flags, Executor executor) {
+        if (choices == null) return null;
+        return extract(query, choices, Arrays.asList(choices), ratioType, limit, scoreCutoff, flags,
+                getExecutor(executor));
+    }
+
+    public static <T> List<Result<T>> extract(String query, Collection<T> choices, ChoiceGenerator<T> generator, int limit) {
+        return extract(query, choices, generator, TYPE_WEIGHTED_RATIO, limit);
+    }
+
+    public static <T> List<Result<T>> extract(String query, Collection<T> choices, ChoiceGenerator<T> generator, int ratioType, int limit) {
+        return extract(query, choices, generator, ratioType, limit, 0.0);
+    }
+
+    public static <T> List<Result<T>> extract(String query, Collection<T> choices, ChoiceGenerator<T> generator, int ratioType, int limit, double scoreCutoff) {
+        if (choices == null) return null;
+        List<T> objects = new ArrayList<>(choices);
+        return extract(query, getChoiceStrings(objects, generator), objects, ratioType, limit, scoreCutoff, 0, null);
+    }
+
+    /**
+     * Same as {@link #extract(String, Collection, ChoiceGenerator, int, int, double)} except that the choices are
+     * scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static <T> List<Result<T>> extract(String query, Collection<T> choices, ChoiceGenerator<T> generator, int ratioType, int limit, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        List<T> objects = new ArrayList<>(choices);
+        return extract(query, getChoiceStrings(objects, generator), objects, ratioType, limit, scoreCutoff, 0,
+                getExecutor(executor));
+    }
+
     public static Result<String> extractOne(String query, Collection<String> choices) {
         return extractOne(query, choices, 0.0);
     }
@@ -212,20 +448,92 @@ public class RapidFuzzCached implements Closeable {
     }
 
     public static Result<String> extractOne(String query, Collection<String> choices, int ratioType, double scoreCutoff) {
-        if (choices == null || choices.size() == 0) return null;
-        double bestScore = scoreCutoff;
-        String bestChoice = null;
-        try (RapidFuzzCached extractor = new RapidFuzzCached(query, ratioType)) {
-            for (String choice : choices) {
-                double score = extractor.ratio(choice);
-                if (score >= bestScore) {
-                    bestScore = score;
-                    bestChoice = choice;
-                }
-            }
-        }
-        if (bestChoice == null) return null;
-        return new Result<>(bestChoice, bestScore);
+        if (choices == null) return null;
+        return extractOne(query, choices.toArray(new String[0]), ratioType, scoreCutoff);
+    }
+
+    /**
+     * Same as {@link #extractOne(String, Collection, int, double)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static Result<String> extractOne(String query, Collection<String> choices, int ratioType, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        return extractOne(query, choices.toArray(new String[0]), ratioType, scoreCutoff, executor);
+    }
+
+    /**
+     * Same as {@link #extractOne(String, Collection, int, double)} except that the query and the choices are processed
+     * as specified by the flags.
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants.
+     */
+    public static Result<String> extractOne(String query, Collection<String> choices, int ratioType, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        return extractOne(query, choices.toArray(new String[0]), ratioType, scoreCutoff, flags);
+    }
+
+    /**
+     * Same as {@link #extractOne(String, Collection, int, double, int)} except that the choices are scored
+     * concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static Result<String> extractOne(String query, Collection<String> choices, int ratioType, double scoreCutoff, int flags, Executor executor) {
+        if (choices == null) return null;
+        return extractOne(query, choices.toArray(new String[0]), ratioType, scoreCutoff, flags, executor);
+    }
+
+    public static Result<String> extractOne(String query, String[] choices) {
+        return extractOne(query, choices, 0.0);
+    }
+
+    public static Result<String> extractOne(String query, String[] choices, int ratioType) {
+        return extractOne(query, choices, ratioType, 0.0);
+    }
+
+    public static Result<String> extractOne(String query, String[] choices, double scoreCutoff) {
+        return extractOne(query, choices, TYPE_WEIGHTED_RATIO, scoreCutoff);
+    }
+
+    public static Result<String> extractOne(String query, String[] choices, int ratioType, double scoreCutoff) {
+        if (choices == null) return null;
+        return extractOne(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, 0, null);
+    }
+
+    /**
+     * Same as {@link #extractOne(String, String[], int, double)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static Result<String> extractOne(String query, String[] choices, int ratioType, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        return extractOne(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, 0, getExecutor(executor));
+    }
+
+    /**
+     * Same as {@link #extractOne(String, String[], int, double)} except that the query and the choices are processed
+     * as specified by the flags. The choices are processed in native code, so no new strings are created for them.
+     *
+     * @param flags A combination of the {@code RapidFuzz#FLAG_*} constants.
+     */
+    public static Result<String> extractOne(String query, String[] choices, int ratioType, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        return extractOne(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, flags, null);
+    }
+
+    /**
+     * Same as {@link #extractOne(String, String[], int, double, int)} except that the choices are scored concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static Result<String> extractOne(String query, String[] choices, int ratioType, double scoreCutoff, int flags, Executor executor) {
+        if (choices == null) return null;
+        return extractOne(query, choices, Arrays.asList(choices), ratioType, scoreCutoff, flags, getExecutor(executor));
     }
 
     public static <T> Result<T> extractOne(String query, Collection<T> choices, ChoiceGenerator<T> generator) {
@@ -241,20 +549,23 @@ public class RapidFuzzCached implements Closeable {
     }
 
     public static <T> Result<T> extractOne(String query, Collection<T> choices, ChoiceGenerator<T> generator, int ratioType, double scoreCutoff) {
-        if (choices == null || choices.size() == 0) return null;
-        double bestScore = scoreCutoff;
-        T bestChoice = null;
-        try (RapidFuzzCached extractor = new RapidFuzzCached(query, ratioType)) {
-            for (T choice : choices) {
-                double score = extractor.ratio(generator.getChoice(choice));
-                if (score >= bestScore) {
-                    bestScore = score;
-                    bestChoice = choice;
-                }
-            }
-        }
-        if (bestChoice == null) return null;
-        return new Result<>(bestChoice, bestScore);
+        if (choices == null) return null;
+        List<T> objects = new ArrayList<>(choices);
+        return extractOne(query, getChoiceStrings(objects, generator), objects, ratioType, scoreCutoff, 0, null);
+    }
+
+    /**
+     * Same as {@link #extractOne(String, Collection, ChoiceGenerator, int, double)} except that the choices are scored
+     * concurrently.
+     *
+     * @param executor Executor to score the choices with, or {@code null} to use a shared executor with one thread per
+     *                 available processor. The calling thread takes part in scoring as well.
+     */
+    public static <T> Result<T> extractOne(String query, Collection<T> choices, ChoiceGenerator<T> generator, int ratioType, double scoreCutoff, Executor executor) {
+        if (choices == null) return null;
+        List<T> objects = new ArrayList<>(choices);
+        return extractOne(query, getChoiceStrings(objects, generator), objects, ratioType, scoreCutoff, 0,
+                getExecutor(executor));
     }
 
     public static <T> Result<T> extractOne(String query, Collection<T> choices, ChoicesGenerator<T> generator) {
@@ -269,40 +580,308 @@ public class RapidFuzzCached implements Closeable {
         return extractOne(query, choices, generator, TYPE_WEIGHTED_RATIO, scoreCutoff);
     }
 
+    /**
+     * Find the choice with the best scoring alias. The aliases of all the choices are scored in a single native call,
+     * where the best score so far is used as the score cutoff, and the remaining aliases of a choice are skipped once
+     * one of them is a perfect match.
+     */
     public static <T> Result<T> extractOne(String query, Collection<T> choices, ChoicesGenerator<T> generator, int ratioType, double scoreCutoff) {
         if (choices == null || choices.size() == 0) return null;
-        double bestScore = scoreCutoff;
-        T bestChoice = null;
-        try (RapidFuzzCached extractor = new RapidFuzzCached(query, ratioType)) {
-            for (T choice : choices) {
-                List<String> strings = generator.getChoices(choice);
-                double maxScore = 0;
-                for (String s : strings) {
-                    double score = extractor.ratio(s);
-                    if (score >= maxScore) maxScore = score;
-                }
-                if (maxScore >= bestScore) {
-                    bestScore = maxScore;
-                    bestChoice = choice;
-                }
+        List<T> objects = new ArrayList<>(choices);
+        int[] offsets = new int[objects.size() + 1];
+        String[] aliases = getAliasStrings(objects, generator, offsets);
+        double[] bestScore = new double[1];
+        int bestIndex;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, 0)) {
+            bestIndex = nativeExtractOneAliases(lease.getScorer().getNativePtr(), aliases, offsets, objects.size(),
+                    scoreCutoff, bestScore);
+        }
+        if (bestIndex < 0) return null;
+        return new Result<>(objects.get(bestIndex), bestScore[0], bestIndex);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, String[], int, double, int)} except that the choices are pulled from an
+     * iterator and scored in batches, so that they never have to be held in memory all at once. A {@code Stream} or a
+     * database cursor can be passed via an iterator.
+     */
+    public static List<Result<String>> extractAll(String query, Iterator<String> choices, int ratioType, double scoreCutoff, int flags) {
+        return extractAll(query, choices, null, ratioType, scoreCutoff, flags);
+    }
+
+    /**
+     * Same as {@link #extractAll(String, Iterator, int, double, int)} except that the choice strings are generated from
+     * the objects of the iterator.
+     */
+    public static <T> List<Result<T>> extractAll(String query, Iterator<T> choices, ChoiceGenerator<T> generator, int ratioType, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, flags)) {
+            return StreamingExtractor.extractAll(lease.getScorer(), choices, generator, scoreCutoff);
+        }
+    }
+
+    /**
+     * Same as {@link #extract(String, String[], int, int, double, int)} except that the choices are pulled from an
+     * iterator and scored in batches. Only the best {@code limit} matches and the current batch are held in memory.
+     *
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     */
+    public static List<Result<String>> extract(String query, Iterator<String> choices, int ratioType, int limit, double scoreCutoff, int flags) {
+        return extract(query, choices, null, ratioType, limit, scoreCutoff, flags);
+    }
+
+    /**
+     * Same as {@link #extract(String, Iterator, int, int, double, int)} except that the choice strings are generated
+     * from the objects of the iterator.
+     *
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     */
+    public static <T> List<Result<T>> extract(String query, Iterator<T> choices, ChoiceGenerator<T> generator, int ratioType, int limit, double scoreCutoff, int flags) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        if (choices == null) return null;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, flags)) {
+            return StreamingExtractor.extract(lease.getScorer(), choices, generator, limit, scoreCutoff);
+        }
+    }
+
+    /**
+     * Same as {@link #extractOne(String, String[], int, double, int)} except that the choices are pulled from an
+     * iterator and scored in batches. The iterator is not consumed any further once a batch has a choice with a score
+     * of 100, in which case later choices with a score of 100 are not considered.
+     */
+    public static Result<String> extractOne(String query, Iterator<String> choices, int ratioType, double scoreCutoff, int flags) {
+        return extractOne(query, choices, null, ratioType, scoreCutoff, flags);
+    }
+
+    /**
+     * Same as {@link #extractOne(String, Iterator, int, double, int)} except that the choice strings are generated from
+     * the objects of the iterator.
+     */
+    public static <T> Result<T> extractOne(String query, Iterator<T> choices, ChoiceGenerator<T> generator, int ratioType, double scoreCutoff, int flags) {
+        if (choices == null) return null;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, flags)) {
+            return StreamingExtractor.extractOne(lease.getScorer(), choices, generator, scoreCutoff);
+        }
+    }
+
+    public static float[] cdist(String[] queries, String[] choices, int ratioType, double scoreCutoff) {
+        return cdist(queries, choices, ratioType, scoreCutoff, 0, 0);
+    }
+
+    /**
+     * Score every choice against every query. The queries are distributed among native threads, each of which scores
+     * a query against all the choices using a cached scorer.
+     * <p>
+     * The matrix is also held in native memory while it is being computed. For a large number of strings, consider
+     * {@link #cdistSparse(String[], String[], int, double, int, int)} or {@link #cdistQuantized(String[], String[], int,
+     * double, int, int)}.
+     *
+     * @param queries     The query strings
+     * @param choices     Choices to score against the queries
+     * @param ratioType   Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param scoreCutoff A score threshold between 0% and 100%. Lower scores are set to 0.
+     * @param flags       A combination of the {@code RapidFuzz#FLAG_*} constants.
+     * @param threads     Number of threads including the calling thread, or 0 to use one per available processor.
+     * @return The scores in row-major order, i.e. the score of {@code queries[i]} and {@code choices[j]} is at
+     * {@code i * choices.length + j}. Pairs where either string is {@code null} are scored 0.
+     * @throws IllegalArgumentException If the ratio type or the number of threads is invalid, or if the matrix does not
+     *                                  fit in an array.
+     */
+    public static float[] cdist(String[] queries, String[] choices, int ratioType, double scoreCutoff, int flags,
+                                int threads) {
+        float[] scores = new float[getMatrixSize(queries, choices)];
+        nativeCdist(queries, choices, checkRatioType(ratioType), scoreCutoff, flags, getThreadCount(threads), scores);
+        return scores;
+    }
+
+    public static byte[] cdistQuantized(String[] queries, String[] choices, int ratioType, double scoreCutoff) {
+        return cdistQuantized(queries, choices, ratioType, scoreCutoff, 0, 0);
+    }
+
+    /**
+     * Same as {@link #cdist(String[], String[], int, double, int, int)} except that the scores are rounded to the
+     * nearest integer between 0 and 100, which takes a quarter of the memory.
+     */
+    public static byte[] cdistQuantized(String[] queries, String[] choices, int ratioType, double scoreCutoff,
+                                        int flags, int threads) {
+        byte[] scores = new byte[getMatrixSize(queries, choices)];
+        nativeCdistQuantized(queries, choices, checkRatioType(ratioType), scoreCutoff, flags, getThreadCount(threads),
+                scores);
+        return scores;
+    }
+
+    public static ScorePairs cdistSparse(String[] queries, String[] choices, int ratioType, double scoreCutoff) {
+        return cdistSparse(queries, choices, ratioType, scoreCutoff, 0, 0);
+    }
+
+    /**
+     * Same as {@link #cdist(String[], String[], int, double, int, int)} except that only the pairs with a score of at
+     * least {@code scoreCutoff} are returned, so that the memory usage is proportional to the number of matches.
+     * Pairs where either string is {@code null} are skipped.
+     */
+    public static ScorePairs cdistSparse(String[] queries, String[] choices, int ratioType, double scoreCutoff,
+                                         int flags, int threads) {
+        return nativeCdistSparse(queries, choices, checkRatioType(ratioType), scoreCutoff, flags,
+                getThreadCount(threads));
+    }
+
+    private static <T> List<Result<T>> extractAll(String query, String[] strings, List<T> objects, int ratioType,
+                                                  double scoreCutoff, int flags, Executor executor) {
+        if (strings.length == 0) return Collections.emptyList();
+        int[] indices = new int[strings.length];
+        double[] scores = new double[strings.length];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, flags)) {
+            RapidFuzzCached extractor = lease.getScorer();
+            count = ParallelExtractor.extractAll(extractor, strings, scoreCutoff, indices, scores, executor);
+        }
+        List<Result<T>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            results.add(new Result<>(objects.get(indices[i]), scores[i], indices[i]));
+        }
+        return results;
+    }
+
+    private static <T> List<Result<T>> extract(String query, String[] strings, List<T> objects, int ratioType,
+                                               int limit, double scoreCutoff, int flags, Executor executor) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        if (strings.length == 0) return Collections.emptyList();
+        int capacity = Math.min(limit, strings.length);
+        int[] indices = new int[capacity];
+        double[] scores = new double[capacity];
+        int count;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, flags)) {
+            RapidFuzzCached extractor = lease.getScorer();
+            count = ParallelExtractor.extract(extractor, strings, limit, scoreCutoff, indices, scores, executor);
+        }
+        List<Result<T>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            results.add(new Result<>(objects.get(indices[i]), scores[i], indices[i]));
+        }
+        return results;
+    }
+
+    private static <T> Result<T> extractOne(String query, String[] strings, List<T> objects, int ratioType,
+                                            double scoreCutoff, int flags, Executor executor) {
+        if (strings.length == 0) return null;
+        double[] bestScore = new double[1];
+        int bestIndex;
+        try (ScorerPool.Lease lease = ScorerPool.getDefault().acquire(query, ratioType, flags)) {
+            RapidFuzzCached extractor = lease.getScorer();
+            bestIndex = ParallelExtractor.extractOne(extractor, strings, scoreCutoff, bestScore, executor);
+        }
+        if (bestIndex < 0) return null;
+        return new Result<>(objects.get(bestIndex), bestScore[0], bestIndex);
+    }
+
+    private static Executor getExecutor(Executor executor) {
+        return executor != null ? executor : ParallelExtractor.getDefaultExecutor();
+    }
+
+    private static int checkRatioType(int ratioType) {
+        if (ratioType < TYPE_RATIO || ratioType > TYPE_QUICK_RATIO) {
+            throw new IllegalArgumentException("Unknown ratio type " + ratioType);
+        }
+        return ratioType;
+    }
+
+    private static void checkOffsets(int[] offsets, int count, int limit) {
+        if (count < 0) throw new IllegalArgumentException("Invalid count " + count);
+        if (offsets.length <= count) {
+            throw new IndexOutOfBoundsException(count + 1 + " offsets required, got " + offsets.length);
+        }
+        if (offsets[0] < 0) throw new IndexOutOfBoundsException("Offset " + offsets[0] + " out of bounds");
+        for (int i = 0; i < count; ++i) {
+            if (offsets[i + 1] < offsets[i]) {
+                throw new IllegalArgumentException("Offset " + offsets[i + 1] + " at " + (i + 1) + " is less than "
+                        + offsets[i]);
             }
         }
-        if (bestChoice == null) return null;
-        return new Result<>(bestChoice, bestScore);
+        if (offsets[count] > limit) {
+            throw new IndexOutOfBoundsException("Offset " + offsets[count] + " out of bounds for length " + limit);
+        }
     }
 
+    private static int getMatrixSize(String[] queries, String[] choices) {
+        long size = (long) queries.length * choices.length;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Matrix of " + queries.length + " x " + choices.length
+                    + " is too large");
+        }
+        return (int) size;
+    }
+
+    private static int getThreadCount(int threads) {
+        if (threads < 0) throw new IllegalArgumentException("Invalid thread count " + threads);
+        return threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    private static <T> String[] getChoiceStrings(List<T> objects, ChoiceGenerator<T> generator) {
+        String[] strings = new String[objects.size()];
+        for (int i = 0; i < strings.length; ++i) {
+            strings[i] = generator.getChoice(objects.get(i));
+        }
+        return strings;
+    }
+
+    /**
+     * Flatten the aliases of the objects into a single array.
+     *
+     * @param offsets Receives the offset of the aliases of each object in the array, followed by the number of aliases.
+     *                Must be able to hold {@code objects.size() + 1} items.
+     */
+    static <T> String[] getAliasStrings(List<T> objects, ChoicesGenerator<T> generator, int[] offsets) {
+        List<String> aliases = new ArrayList<>();
+        for (int i = 0; i < objects.size(); ++i) {
+            offsets[i] = aliases.size();
+            aliases.addAll(generator.getChoices(objects.get(i)));
+        }
+        offsets[objects.size()] = aliases.size();
+        return aliases.toArray(new String[0]);
+    }
+
+    /**
+     * Estimated native memory taken by a scorer regardless of its query.
+     */
+    private static final int SCORER_OVERHEAD_BYTES = 256;
+    /**
+     * Estimated native memory taken by each character of a query, i.e. the query itself, its processed form and the
+     * copies made by the token based ratios.
+     */
+    private static final int BYTES_PER_CHAR = 16;
+    /**
+     * Estimated native memory taken by the bit-parallel pattern of each block of 64 characters of a query.
+     */
+    private static final int BYTES_PER_BLOCK = 2048;
+
     private final String mQuery;
     private final int mRatioType;
-    private final long mPtr;
+    private final int mFlags;
+    private final NativeHandle mHandle;
 
     public RapidFuzzCached(String query) {
         this(query, TYPE_WEIGHTED_RATIO);
     }
 
     public RapidFuzzCached(String query, int ratioType) {
+        this(query, ratioType, 0);
+    }
+
+    /**
+     * Create a cached scorer for the query.
+     *
+     * @param query     The query string
+     * @param ratioType Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param flags     A combination of the {@code RapidFuzz#FLAG_*} constants, or 0 to compare the strings as they
+     *                  are. Choices are processed and scored using the same flags.
+     * @throws IllegalArgumentException If the ratio type is unknown.
+     */
+    public RapidFuzzCached(String query, int ratioType, int flags) {
         this.mQuery = query;
-        this.mRatioType = ratioType;
-        this.mPtr = initRatio();
+        this.mRatioType = checkRatioType(ratioType);
+        this.mFlags = flags;
+        this.mHandle = new NativeHandle(this, nativeNew(query, ratioType, flags), estimateNativeBytes(query),
+                RapidFuzzCached::nativeFree);
     }
 
     public double ratio(String choice) {
@@ -310,158 +889,340 @@ public class RapidFuzzCached implements Closeable {
     }
 
     public double ratio(String choice, double scoreCutoff) {
-        switch (mRatioType) {
-            case TYPE_RATIO:
-                return nativeGetRatio(mPtr, choice, scoreCutoff);
-            case TYPE_PARTIAL_RATIO:
-                return nativeGetPartialRatio(mPtr, choice, scoreCutoff);
-            case TYPE_TOKEN_SORT_RATIO:
-                return nativeGetTokenSortRatio(mPtr, choice, scoreCutoff);
-            case TYPE_PARTIAL_TOKEN_SORT_RATIO:
-                return nativeGetPartialTokenSortRatio(mPtr, choice, scoreCutoff);
-            case TYPE_TOKEN_SET_RATIO:
-                return nativeGetTokenSetRatio(mPtr, choice, scoreCutoff);
-            case TYPE_PARTIAL_TOKEN_SET_RATIO:
-                return nativeGetPartialTokenSetRatio(mPtr, choice, scoreCutoff);
-            case TYPE_TOKEN_RATIO:
-                return nativeGetTokenRatio(mPtr, choice, scoreCutoff);
-            case TYPE_PARTIAL_TOKEN_RATIO:
-                return nativeGetPartialTokenRatio(mPtr, choice, scoreCutoff);
-            case TYPE_WEIGHTED_RATIO:
-                return nativeGetWeightedRatio(mPtr, choice, scoreCutoff);
-            case TYPE_QUICK_RATIO:
-                return nativeGetQuickRatio(mPtr, choice, scoreCutoff);
-            default:
-                throw new UnsupportedOperationException("Unknown ratio type " + mRatioType);
-        }
+        return nativeRatio(mHandle.getPtr(), choice, scoreCutoff);
     }
 
-    @Override
-    public void close() {
-        freeRatio();
-    }
-
-    private long initRatio() {
-        switch (mRatioType) {
-            case TYPE_RATIO:
-                return nativeNewCachedRatio(mQuery);
-            case TYPE_PARTIAL_RATIO:
-                return nativeNewCachedPartialRatio(mQuery);
-            case TYPE_TOKEN_SORT_RATIO:
-                return nativeNewCachedTokenSortRatio(mQuery);
-            case TYPE_PARTIAL_TOKEN_SORT_RATIO:
-                return nativeNewCachedPartialTokenSortRatio(mQuery);
-            case TYPE_TOKEN_SET_RATIO:
-                return nativeNewCachedTokenSetRatio(mQuery);
-            case TYPE_PARTIAL_TOKEN_SET_RATIO:
-                return nativeNewCachedPartialTokenSetRatio(mQuery);
-            case TYPE_TOKEN_RATIO:
-                return nativeNewCachedTokenRatio(mQuery);
-            case TYPE_PARTIAL_TOKEN_RATIO:
-                return nativeNewCachedPartialTokenRatio(mQuery);
-            case TYPE_WEIGHTED_RATIO:
-                return nativeNewCachedWeightedRatio(mQuery);
-            case TYPE_QUICK_RATIO:
-                return nativeNewCachedQuickRatio(mQuery);
-            default:
-                throw new UnsupportedOperationException("Unknown ratio type " + mRatioType);
-        }
+    /**
+     * Get the alignment of the query and the choice behind {@link #ratio(String)}, which is packed as described in
+     * {@link RapidFuzz}. It is the same as {@link RapidFuzz#getMatchingBlocks(String, String, int)} for
+     * {@link RapidFuzz#TYPE_RATIO} and {@link RapidFuzz#TYPE_QUICK_RATIO}, and the same as
+     * {@link RapidFuzz#getPartialRatioAlignment(String, String, int)} for {@link RapidFuzz#TYPE_PARTIAL_RATIO}.
+     *
+     * @throws UnsupportedOperationException If the ratio type is none of them.
+     */
+    public int[] getAlignment(String choice) {
+        int[] offsets = new int[2];
+        return getAlignments(new String[]{choice}, new int[]{0}, 1, offsets);
     }
 
-    private void freeRatio() {
-        switch (mRatioType) {
-            case TYPE_RATIO:
-                nativeFreeCachedRatio(mPtr);
-                break;
-            case TYPE_PARTIAL_RATIO:
-                nativeFreeCachedPartialRatio(mPtr);
-                break;
-            case TYPE_TOKEN_SORT_RATIO:
-                nativeFreeCachedTokenSortRatio(mPtr);
-                break;
-            case TYPE_PARTIAL_TOKEN_SORT_RATIO:
-                nativeFreeCachedPartialTokenSortRatio(mPtr);
-                break;
-            case TYPE_TOKEN_SET_RATIO:
-                nativeFreeCachedTokenSetRatio(mPtr);
-                break;
-            case TYPE_PARTIAL_TOKEN_SET_RATIO:
-                nativeFreeCachedPartialTokenSetRatio(mPtr);
-                break;
-            case TYPE_TOKEN_RATIO:
-                nativeFreeCachedTokenRatio(mPtr);
-                break;
-            case TYPE_PARTIAL_TOKEN_RATIO:
-                nativeFreeCachedPartialTokenRatio(mPtr);
-                break;
-            case TYPE_WEIGHTED_RATIO:
-                nativeFreeCachedWeightedRatio(mPtr);
-                break;
-            case TYPE_QUICK_RATIO:
-                nativeFreeCachedQuickRatio(mPtr);
-                break;
-            default:
-                throw new UnsupportedOperationException("Unknown ratio type " + mRatioType);
-        }
+    /**
+     * Get the alignments of the query and the matches of an extract call in a single native call, e.g. to highlight
+     * the visible results, where the query is processed only once.
+     *
+     * @param choices Choices passed to the extract call
+     * @param results Matches returned by the extract call
+     * @param offsets Receives the start of the alignment of each match in the returned array, followed by the length
+     *                of the array, i.e. the alignment of match {@code i} is in {@code [offsets[i], offsets[i + 1])}.
+     *                Null choices have empty alignments.
+     * @return The alignments of the matches in the order of {@code results}, each like {@link #getAlignment(String)}
+     * @throws UnsupportedOperationException If the ratio type has no alignment.
+     * @throws IllegalArgumentException      If {@code offsets} cannot hold {@code results.size() + 1} items.
+     * @throws IndexOutOfBoundsException     If a match is out of the bounds of {@code choices}.
+     */
+    public int[] getAlignments(String[] choices, ExtractResults results, int[] offsets) {
+        return getAlignments(choices, results.getIndices(), results.size(), offsets);
     }
 
-    private static native long nativeNewCachedRatio(String query);
+    /**
+     * Find the choices with a score of at least {@code scoreCutoff} in the calling thread without creating a
+     * {@link Result} for each of them. Together with a scorer and a holder that are reused for each query, nothing is
+     * allocated on the Java heap once the holder is large enough for the choices.
+     *
+     * @param choices     Choices to score against the query.
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param results     Receives the positions of the matching choices in ascending order and their scores,
+     *                    replacing its previous matches.
+     * @return The number of matching choices
+     */
+    public int extractAll(String[] choices, double scoreCutoff, ExtractResults results) {
+        results.reset(choices.length);
+        int count = choices.length == 0 ? 0 : extractAllIndices(choices, 0, choices.length, scoreCutoff,
+                results.getIndices(), results.getScores());
+        results.setSize(count);
+        return count;
+    }
 
-    private static native double nativeGetRatio(long ptr, String choice, double scoreCutoff);
+    /**
+     * Find the best matching choices in the calling thread without creating a {@link Result} for each of them.
+     *
+     * @param choices     Choices to score against the query.
+     * @param limit       Maximum number of matches
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param results     Receives at most {@code limit} matches sorted by score in descending order and by position in
+     *                    ascending order, replacing its previous matches.
+     * @return The number of matching choices
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     * @see #extractAll(String[], double, ExtractResults)
+     */
+    public int extractTop(String[] choices, int limit, double scoreCutoff, ExtractResults results) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        results.reset(Math.min(limit, choices.length));
+        int count = choices.length == 0 ? 0 : extractTopIndices(choices, 0, choices.length, limit, scoreCutoff,
+                results.getIndices(), results.getScores());
+        results.setSize(count);
+        return count;
+    }
 
-    private static native void nativeFreeCachedRatio(long ptr);
+    /**
+     * Score a choice given as encoded bytes, which is decoded in native code without creating a {@link String}.
+     *
+     * @param choice      Bytes of the choice
+     * @param offset      Index of the first byte of the choice
+     * @param length      Number of bytes of the choice
+     * @param encoding    One of the {@code RapidFuzz#ENCODING_*} constants
+     * @param scoreCutoff A score threshold between 0% and 100%.
+     * @throws IllegalArgumentException  If the encoding is invalid.
+     * @throws IndexOutOfBoundsException If the range is out of the bounds of the array.
+     */
+    public double ratio(byte[] choice, int offset, int length, int encoding, double scoreCutoff) {
+        RapidFuzz.checkRange(choice.length, offset, length);
+        return nativeGetRatioBytes(mHandle.getPtr(), choice, false, offset, length, RapidFuzz.checkEncoding(encoding),
+                scoreCutoff);
+    }
 
-    private static native long nativeNewCachedPartialRatio(String query);
+    /**
+     * Score a choice given as encoded bytes from the position to the limit of the buffer, which is decoded in native
+     * code without creating a {@link String}. The position of the buffer is not changed.
+     *
+     * @throws IllegalArgumentException If the encoding is invalid or if the buffer is neither direct nor backed by an
+     *                                  accessible array.
+     * @see #ratio(byte[], int, int, int, double)
+     */
+    public double ratio(ByteBuffer choice, int encoding, double scoreCutoff) {
+        return nativeGetRatioBytes(mHandle.getPtr(), RapidFuzz.getBytes(choice), choice.isDirect(),
+                RapidFuzz.getBaseOffset(choice) + choice.position(), choice.remaining(),
+                RapidFuzz.checkEncoding(encoding), scoreCutoff);
+    }
 
-    private static native double nativeGetPartialRatio(long ptr, String choice, double scoreCutoff);
+    /**
+     * Find the choices with a score of at least {@code scoreCutoff} among choices given as encoded bytes, e.g. the
+     * lines of a log read into a single array. Each choice is decoded in native code while the array is pinned, and no
+     * {@link String} is created.
+     *
+     * @param choices     Bytes of all the choices
+     * @param offsets     Offsets of the choices in {@code choices}, where choice {@code i} spans from
+     *                    {@code offsets[i]} inclusive to {@code offsets[i + 1]} exclusive. Must hold {@code count + 1}
+     *                    non-decreasing offsets.
+     * @param count       Number of choices
+     * @param encoding    One of the {@code RapidFuzz#ENCODING_*} constants
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param results     Receives the numbers of the matching choices in ascending order and their scores, replacing
+     *                    its previous matches.
+     * @return The number of matching choices
+     * @throws IllegalArgumentException  If the encoding is invalid or if the offsets are decreasing.
+     * @throws IndexOutOfBoundsException If an offset is out of the bounds of the array.
+     * @see #extractAll(String[], double, ExtractResults)
+     */
+    public int extractAll(byte[] choices, int[] offsets, int count, int encoding, double scoreCutoff,
+                          ExtractResults results) {
+        checkOffsets(offsets, count, choices.length);
+        results.reset(count);
+        int matchCount = nativeExtractAllBytes(mHandle.getPtr(), choices, false, 0, offsets, count,
+                RapidFuzz.checkEncoding(encoding), scoreCutoff, results.getIndices(), results.getScores());
+        results.setSize(matchCount);
+        return matchCount;
+    }
 
-    private static native void nativeFreeCachedPartialRatio(long ptr);
+    /**
+     * Same as {@link #extractAll(byte[], int[], int, int, double, ExtractResults)} except that the choices are given as
+     * a buffer. Offsets are absolute indices of the buffer, and they must not exceed its limit. Direct buffers are read
+     * via their native address, e.g. those of a memory-mapped file.
+     *
+     * @throws IllegalArgumentException If the buffer is neither direct nor backed by an accessible array.
+     */
+    public int extractAll(ByteBuffer choices, int[] offsets, int count, int encoding, double scoreCutoff,
+                          ExtractResults results) {
+        checkOffsets(offsets, count, choices.limit());
+        results.reset(count);
+        int matchCount = nativeExtractAllBytes(mHandle.getPtr(), RapidFuzz.getBytes(choices), choices.isDirect(),
+                RapidFuzz.getBaseOffset(choices), offsets, count, RapidFuzz.checkEncoding(encoding), scoreCutoff,
+                results.getIndices(), results.getScores());
+        results.setSize(matchCount);
+        return matchCount;
+    }
 
-    private static native long nativeNewCachedTokenSortRatio(String query);
+    /**
+     * Find the best matching choices among choices given as encoded bytes.
+     *
+     * @param limit   Maximum number of matches
+     * @param results Receives at most {@code limit} matches sorted by score in descending order and by number in
+     *                ascending order, replacing its previous matches.
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     * @see #extractAll(byte[], int[], int, int, double, ExtractResults)
+     */
+    public int extractTop(byte[] choices, int[] offsets, int count, int limit, int encoding, double scoreCutoff,
+                          ExtractResults results) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        checkOffsets(offsets, count, choices.length);
+        results.reset(Math.min(limit, count));
+        int matchCount = nativeExtractBytes(mHandle.getPtr(), choices, false, 0, offsets, count, limit,
+                RapidFuzz.checkEncoding(encoding), scoreCutoff, results.getIndices(), results.getScores());
+        results.setSize(matchCount);
+        return matchCount;
+    }
 
-    private static native double nativeGetTokenSortRatio(long ptr, String choice, double scoreCutoff);
+    /**
+     * Find the best matching choices among choices given as a buffer of encoded bytes.
+     *
+     * @throws IllegalArgumentException If {@code limit} is less than 1.
+     * @see #extractTop(byte[], int[], int, int, int, double, ExtractResults)
+     * @see #extractAll(ByteBuffer, int[], int, int, double, ExtractResults)
+     */
+    public int extractTop(ByteBuffer choices, int[] offsets, int count, int limit, int encoding, double scoreCutoff,
+                          ExtractResults results) {
+        if (limit < 1) throw new IllegalArgumentException("Invalid limit " + limit);
+        checkOffsets(offsets, count, choices.limit());
+        results.reset(Math.min(limit, count));
+        int matchCount = nativeExtractBytes(mHandle.getPtr(), RapidFuzz.getBytes(choices), choices.isDirect(),
+                RapidFuzz.getBaseOffset(choices), offsets, count, limit, RapidFuzz.checkEncoding(encoding),
+                scoreCutoff, results.getIndices(), results.getScores());
+        results.setSize(matchCount);
+        return matchCount;
+    }
 
-    private static native void nativeFreeCachedTokenSortRatio(long ptr);
+    int getFlags() {
+        return mFlags;
+    }
 
-    private static native long nativeNewCachedPartialTokenSortRatio(String query);
+    /**
+     * Score all the choices in a single native call.
+     *
+     * @param choices     Choices to score against the query.
+     * @param from        Index of the first choice to score, inclusive.
+     * @param to          Index of the last choice to score, exclusive.
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param indices     Receives the indices of the matching choices in ascending order. Must be able to hold
+     *                    {@code to - from} items.
+     * @param scores      Receives the scores of the matching choices. Must be able to hold {@code to - from} items.
+     * @return The number of matching choices written to {@code indices} and {@code scores}.
+     */
+    int extractAllIndices(String[] choices, int from, int to, double scoreCutoff, int[] indices, double[] scores) {
+        return nativeExtractAll(mHandle.getPtr(), choices, from, to, scoreCutoff, indices, scores);
+    }
+
+    /**
+     * Find the best matching choice in a single native call. If multiple choices have the best score, the last one is
+     * selected.
+     *
+     * @param choices     Choices to score against the query.
+     * @param from        Index of the first choice to score, inclusive.
+     * @param to          Index of the last choice to score, exclusive.
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param bestScore   Receives the score of the best matching choice at index 0.
+     * @return Index of the best matching choice or -1 if no choice has a score of at least {@code scoreCutoff}.
+     */
+    int extractOneIndex(String[] choices, int from, int to, double scoreCutoff, double[] bestScore) {
+        return nativeExtractOne(mHandle.getPtr(), choices, from, to, scoreCutoff, bestScore);
+    }
 
-    private static native double nativeGetPartialTokenSortRatio(long ptr, String choice, double scoreCutoff);
+    /**
+     * Find the best matching choices in a single native call using a bounded min-heap. Once the heap is full, its
+     * minimum score is used as the score cutoff for the remaining choices.
+     *
+     * @param choices     Choices to score against the query.
+     * @param from        Index of the first choice to score, inclusive.
+     * @param to          Index of the last choice to score, exclusive.
+     * @param limit       Maximum number of matches. Must be positive.
+     * @param scoreCutoff A score threshold between 0% and 100%. Choices with a lower score are skipped.
+     * @param indices     Receives the indices of the matching choices. Must be able to hold
+     *                    {@code min(limit, to - from)} items.
+     * @param scores      Receives the scores of the matching choices. Must be able to hold
+     *                    {@code min(limit, to - from)} items.
+     * @return The number of matching choices written to {@code indices} and {@code scores}, sorted by score in
+     * descending order and by index in ascending order.
+     */
+    int extractTopIndices(String[] choices, int from, int to, int limit, double scoreCutoff, int[] indices,
+                          double[] scores) {
+        return nativeExtract(mHandle.getPtr(), choices, from, to, limit, scoreCutoff, indices, scores);
+    }
 
-    private static native void nativeFreeCachedPartialTokenSortRatio(long ptr);
+    /**
+     * @throws IllegalStateException If the scorer is closed.
+     */
+    long getNativePtr() {
+        return mHandle.getPtr();
+    }
 
-    private static native long nativeNewCachedTokenSetRatio(String query);
+    /**
+     * Free the native scorer. Closing a scorer more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}. If a scorer is not closed, its native scorer is freed some time after the scorer
+     * becomes unreachable and a leak is reported to the {@link LeakTracker}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
 
-    private static native double nativeGetTokenSetRatio(long ptr, String choice, double scoreCutoff);
+    private int[] getAlignments(String[] choices, int[] indices, int count, int[] offsets) {
+        if (mRatioType != TYPE_RATIO && mRatioType != TYPE_PARTIAL_RATIO && mRatioType != TYPE_QUICK_RATIO) {
+            throw new UnsupportedOperationException("No alignment for ratio type " + mRatioType);
+        }
+        if (offsets.length < count + 1) {
+            throw new IllegalArgumentException("Offsets must hold " + (count + 1) + " items");
+        }
+        for (int i = 0; i < count; ++i) {
+            if (indices[i] < 0 || indices[i] >= choices.length) {
+                throw new IndexOutOfBoundsException("Index " + indices[i] + " out of bounds for length "
+                        + choices.length);
+            }
+        }
+        // The alignments refer to the query as given, of which the native scorer keeps no copy. Like the other methods,
+        // this fails once the scorer is closed.
+        mHandle.getPtr();
+        return nativeGetAlignments(mQuery, choices, indices, count, mRatioType, mFlags, offsets);
+    }
 
-    private static native void nativeFreeCachedTokenSetRatio(long ptr);
+    /**
+     * Estimate the native memory taken by a scorer for the query.
+     */
+    static long estimateNativeBytes(String query) {
+        int length = query.length();
+        return SCORER_OVERHEAD_BYTES + (long) length * BYTES_PER_CHAR + (long) (length / 64 + 1) * BYTES_PER_BLOCK;
+    }
 
-    private static native long nativeNewCachedPartialTokenSetRatio(String query);
+    // The native scorer dispatches to its ratio type by itself, so that a single native method serves all of them
+    private static native long nativeNew(String query, int ratioType, int flags);
 
-    private static native double nativeGetPartialTokenSetRatio(long ptr, String choice, double scoreCutoff);
+    @FastNative
+    private native double nativeRatio(long ptr, String choice, double scoreCutoff);
 
-    private static native void nativeFreeCachedPartialTokenSetRatio(long ptr);
+    private static native void nativeFree(long ptr);
 
-    private static native long nativeNewCachedTokenRatio(String query);
+    private static native int[] nativeGetAlignments(String query, String[] choices, int[] indices, int count,
+                                                    int ratioType, int flags, int[] offsets);
 
-    private static native double nativeGetTokenRatio(long ptr, String choice, double scoreCutoff);
+    private native int nativeExtractAll(long ptr, String[] choices, int from, int to,
+                                        double scoreCutoff, int[] indices, double[] scores);
 
-    private static native void nativeFreeCachedTokenRatio(long ptr);
+    private native int nativeExtractOne(long ptr, String[] choices, int from, int to,
+                                        double scoreCutoff, double[] bestScore);
 
-    private static native long nativeNewCachedPartialTokenRatio(String query);
+    private native int nativeExtract(long ptr, String[] choices, int from, int to, int limit,
+                                     double scoreCutoff, int[] indices, double[] scores);
 
-    private static native double nativeGetPartialTokenRatio(long ptr, String choice, double scoreCutoff);
+    private static native void nativeCdist(String[] queries, String[] choices, int ratioType, double scoreCutoff,
+                                           int flags, int threads, float[] scores);
 
-    private static native void nativeFreeCachedPartialTokenRatio(long ptr);
+    private static native void nativeCdistQuantized(String[] queries, String[] choices, int ratioType,
+                                                    double scoreCutoff, int flags, int threads, byte[] scores);
 
-    private static native long nativeNewCachedWeightedRatio(String query);
+    private static native ScorePairs nativeCdistSparse(String[] queries, String[] choices, int ratioType,
+                                                       double scoreCutoff, int flags, int threads);
 
-    private static native double nativeGetWeightedRatio(long ptr, String choice, double scoreCutoff);
+    private native double nativeGetRatioBytes(long ptr, Object choice, boolean direct, int offset, int length,
+                                              int encoding, double scoreCutoff);
 
-    private static native void nativeFreeCachedWeightedRatio(long ptr);
+    private native int nativeExtractAllBytes(long ptr, Object choices, boolean direct, int base, int[] offsets,
+                                             int count, int encoding, double scoreCutoff, int[] indices,
+                                             double[] scores);
 
-    private static native long nativeNewCachedQuickRatio(String query);
+    private native int nativeExtractBytes(long ptr, Object choices, boolean direct, int base, int[] offsets,
+                                          int count, int limit, int encoding, double scoreCutoff,
+                                          int[] indices, double[] scores);
 
-    private static native double nativeGetQuickRatio(long ptr, String choice, double scoreCutoff);
+    private static native int nativeExtractAllAliases(long ptr, String[] aliases, int[] offsets, int count,
+                                                      double scoreCutoff, int[] indices, double[] scores);
 
-    private static native void nativeFreeCachedQuickRatio(long ptr);
+    private static native int nativeExtractOneAliases(long ptr, String[] aliases, int[] offsets, int count,
+                                                      double scoreCutoff, double[] bestScore);
 }
@@ -0,0 +1,48 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+/**
+ * Pairs of queries and choices with their scores as returned by
+ * {@link RapidFuzzCached#cdistSparse(String[], String[], int, double)}. The pairs are sorted by the index of the query
+ * and then by the index of the choice.
+ */
+public class ScorePairs {
+    private final int[] mQueryIndices;
+    private final int[] mChoiceIndices;
+    private final float[] mScores;
+
+    ScorePairs(int[] queryIndices, int[] choiceIndices, float[] scores) {
+        mQueryIndices = queryIndices;
+        mChoiceIndices = choiceIndices;
+        mScores = scores;
+    }
+
+    /**
+     * Get the number of pairs.
+     */
+    public int size() {
+        return mScores.length;
+    }
+
+    /**
+     * Get the index of the query of the pair at the given position.
+     */
+    public int getQueryIndex(int i) {
+        return mQueryIndices[i];
+    }
+
+    /**
+     * Get the index of the choice of the pair at the given position.
+     */
+    public int getChoiceIndex(int i) {
+        return mChoiceIndices[i];
+    }
+
+    /**
+     * Get the score of the pair at the given position.
+     */
+    public float getScore(int i) {
+        return mScores[i];
+    }
+}
@@ -0,0 +1,102 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+/**
+ * Opt-in cache of native cached scorers for the static methods of {@link RapidFuzz} that take two strings, e.g.
+ * {@link RapidFuzz#ratio(String, String, int, double, int)}.
+ * <p>
+ * Without the cache, each call scores {@code s1} and {@code s2} from scratch, even if {@code s1} is the same as in the
+ * previous call. Once the cache is enabled, each thread remembers the scorers for the {@code s1} of its most recently
+ * used {@link #getCapacity()} queries of each ratio type and flags, and the calls that repeat one of them score
+ * {@code s2} with its cached scorer just like {@link RapidFuzzCached} does. Scores are the same either way. Creating a
+ * scorer costs more than a single call without the cache, so the cache only pays off when {@link #getHitRate()} is
+ * high, e.g. when existing code loops over the choices with a fixed {@code s1}.
+ * <p>
+ * Unlike {@link ScorerPool}, the cache is transparent to callers and needs no lock, but its scorers cannot be shared
+ * between threads. The scorers of a thread are freed when the thread exits, and when it calls one of the methods after
+ * the cache is disabled or its capacity is changed.
+ */
+public final class ScorerCache {
+    /**
+     * The default number of queries cached by each thread for each ratio type.
+     */
+    public static final int DEFAULT_CAPACITY = 4;
+
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    private ScorerCache() {
+    }
+
+    /**
+     * Enable or disable the cache for all threads. The cache is disabled by default.
+     */
+    public static void setEnabled(boolean enabled) {
+        nativeSetEnabled(enabled);
+    }
+
+    public static boolean isEnabled() {
+        return nativeIsEnabled();
+    }
+
+    /**
+     * Set the number of queries cached by each thread for each ratio type. The scorers cached so far are dropped.
+     *
+     * @throws IllegalArgumentException If {@code capacity} is less than 1.
+     */
+    public static void setCapacity(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Invalid capacity " + capacity);
+        nativeSetCapacity(capacity);
+    }
+
+    public static int getCapacity() {
+        return nativeGetCapacity();
+    }
+
+    /**
+     * Get the number of calls that reused a cached scorer.
+     */
+    public static long getHitCount() {
+        return nativeGetHitCount();
+    }
+
+    /**
+     * Get the number of calls that created a scorer while the cache was enabled.
+     */
+    public static long getMissCount() {
+        return nativeGetMissCount();
+    }
+
+    /**
+     * Get the fraction of the calls that reused a cached scorer, or 0 if no call was made with the cache enabled yet.
+     */
+    public static double getHitRate() {
+        long hits = nativeGetHitCount();
+        long calls = hits + nativeGetMissCount();
+        if (calls == 0) return 0;
+        return (double) hits / calls;
+    }
+
+    /**
+     * Reset the statistics to zero. Calls running concurrently may still be counted afterwards.
+     */
+    public static void reset() {
+        nativeReset();
+    }
+
+    private static native void nativeSetEnabled(boolean enabled);
+
+    private static native boolean nativeIsEnabled();
+
+    private static native void nativeSetCapacity(int capacity);
+
+    private static native int nativeGetCapacity();
+
+    private static native long nativeGetHitCount();
+
+    private static native long nativeGetMissCount();
+
+    private static native void nativeReset();
+}
@@ -0,0 +1,267 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * A pool of {@link RapidFuzzCached} scorers keyed by query, ratio type and flags. Creating a cached scorer allocates
+ * native memory and preprocesses the query, so repeated queries, e.g. while the user is typing, can reuse the scorers
+ * that are already built instead.
+ * <p>
+ * Scorers are leased via {@link #acquire(String, int, int)} and returned by closing the {@link Lease}. A scorer may be
+ * leased by multiple threads at the same time, since the {@code #ratio} methods of a single instance can be called
+ * concurrently. Scorers that are not leased are evicted in least recently used order once their estimated native memory
+ * exceeds the budget of the pool. Leased scorers are never freed until all of their leases are closed.
+ * <p>
+ * All the methods are thread-safe.
+ */
+public class ScorerPool implements Closeable {
+    /**
+     * Native memory budget of the pool returned by {@link #getDefault()}.
+     */
+    public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private static ScorerPool sDefault;
+
+    /**
+     * Get a pool shared by the {@code RapidFuzzCached#extract*} and {@code ChoiceIndex#extract*} methods with a budget
+     * of {@link #DEFAULT_MAX_BYTES}.
+     */
+    public static synchronized ScorerPool getDefault() {
+        if (sDefault == null) {
+            sDefault = new ScorerPool(DEFAULT_MAX_BYTES);
+        }
+        return sDefault;
+    }
+
+    /**
+     * A leased scorer. It must be closed once the scorer is no longer used, but the scorer itself must not be closed.
+     */
+    public static final class Lease implements Closeable {
+        private final ScorerPool mPool;
+        private final Entry mEntry;
+        private boolean mClosed;
+
+        private Lease(ScorerPool pool, Entry entry) {
+            mPool = pool;
+            mEntry = entry;
+        }
+
+        public RapidFuzzCached getScorer() {
+            return mEntry.scorer;
+        }
+
+        /**
+         * Return the scorer to the pool. Closing a lease more than once has no effect.
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (mClosed) return;
+                mClosed = true;
+            }
+            mPool.release(mEntry);
+        }
+    }
+
+    private static final class Key {
+        final String query;
+        final int ratioType;
+        final int flags;
+
+        Key(String query, int ratioType, int flags) {
+            this.query = query;
+            this.ratioType = ratioType;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return ratioType == key.ratioType && flags == key.flags && query.equals(key.query);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = query.hashCode();
+            result = 31 * result + ratioType;
+            result = 31 * result + flags;
+            return result;
+        }
+    }
+
+    private static final class Entry {
+        final RapidFuzzCached scorer;
+        final long bytes;
+        int leases;
+        // Whether the entry is no longer in the pool, in which case it is freed once the last lease is closed
+        boolean removed;
+
+        Entry(RapidFuzzCached scorer, long bytes) {
+            this.scorer = scorer;
+            this.bytes = bytes;
+        }
+    }
+
+    // Ordered by access, so that the least recently used entry comes first
+    private final LinkedHashMap<Key, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long mMaxBytes;
+    private long mBytes;
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+    private boolean mClosed;
+
+    /**
+     * Create a pool.
+     *
+     * @param maxBytes Estimated native memory that the scorers which are not leased may take.
+     * @throws IllegalArgumentException If {@code maxBytes} is negative.
+     */
+    public ScorerPool(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("Invalid budget " + maxBytes);
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Lease a scorer for the query, creating it if it is not in the pool.
+     *
+     * @param query     The query string
+     * @param ratioType Ratio type. One of the {@code RapidFuzz#TYPE_*} constants.
+     * @param flags     A combination of the {@code RapidFuzz#FLAG_*} constants.
+     * @throws IllegalArgumentException If the ratio type is invalid.
+     */
+    public Lease acquire(String query, int ratioType, int flags) {
+        Key key = new Key(query, ratioType, flags);
+        synchronized (this) {
+            Entry entry = mEntries.get(key);
+            if (entry != null) {
+                ++mHitCount;
+                ++entry.leases;
+                return new Lease(this, entry);
+            }
+            ++mMissCount;
+        }
+        // The scorer is created without holding the lock, so that other queries are not blocked meanwhile
+        Entry entry = new Entry(new RapidFuzzCached(query, ratioType, flags), RapidFuzzCached.estimateNativeBytes(query));
+        entry.leases = 1;
+        RapidFuzzCached duplicate = null;
+        synchronized (this) {
+            Entry existing = mClosed ? null : mEntries.get(key);
+            if (existing != null) {
+                // Another thread created the same scorer in the meantime
+                ++existing.leases;
+                duplicate = entry.scorer;
+                entry = existing;
+            } else if (mClosed) {
+                entry.removed = true;
+            } else {
+                mEntries.put(key, entry);
+                mBytes += entry.bytes;
+                trimToSize();
+            }
+        }
+        if (duplicate != null) {
+            duplicate.close();
+        }
+        return new Lease(this, entry);
+    }
+
+    /**
+     * Get the number of times a scorer was found in the pool.
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Get the number of times a scorer had to be created.
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Get the number of scorers removed from the pool to stay within the budget.
+     */
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Get the number of scorers in the pool, including the leased ones.
+     */
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * Get the estimated native memory taken by the scorers in the pool, including the leased ones.
+     */
+    public synchronized long getBytes() {
+        return mBytes;
+    }
+
+    public long getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * Free all the scorers that are not leased. Leased scorers are freed once their leases are closed.
+     */
+    public void evictAll() {
+        synchronized (this) {
+            for (Entry entry : mEntries.values()) {
+                entry.removed = true;
+                if (entry.leases == 0) {
+                    entry.scorer.close();
+                }
+            }
+            mEntries.clear();
+            mBytes = 0;
+        }
+    }
+
+    /**
+     * Free all the scorers as in {@link #evictAll()}. Scorers leased afterwards are not pooled.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            mClosed = true;
+        }
+        evictAll();
+    }
+
+    private void release(Entry entry) {
+        synchronized (this) {
+            if (--entry.leases > 0) return;
+            if (!entry.removed) {
+                trimToSize();
+                return;
+            }
+        }
+        entry.scorer.close();
+    }
+
+    /**
+     * Evict the least recently used scorers that are not leased until the pool is within its budget.
+     */
+    private void trimToSize() {
+        Iterator<Entry> it = mEntries.values().iterator();
+        while (mBytes > mMaxBytes && it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.leases > 0) continue;
+            it.remove();
+            entry.removed = true;
+            entry.scorer.close();
+            mBytes -= entry.bytes;
+            ++mEvictionCount;
+        }
+    }
+}
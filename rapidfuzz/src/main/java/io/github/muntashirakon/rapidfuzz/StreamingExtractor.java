@@ -0,0 +1,148 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.ChoiceGenerator;
+import io.github.muntashirakon.rapidfuzz.RapidFuzzCached.Result;
+
+/**
+ * Scores the choices of an {@link Iterator} in fixed-size batches using a single {@link RapidFuzzCached} instance, so
+ * that only the current batch and the results are held in memory regardless of the number of choices.
+ * <p>
+ * Choices are only pulled from the iterator when the previous batch is scored, and the iterator is not consumed any
+ * further once the result is known.
+ */
+final class StreamingExtractor {
+    /**
+     * Number of choices scored in a single native call.
+     */
+    static final int BATCH_SIZE = 1024;
+
+    private static final double PERFECT_SCORE = 100;
+
+    /**
+     * Choices of the current batch along with their objects and the index of the first one among all the choices.
+     */
+    private static final class Batch<T> {
+        final String[] strings = new String[BATCH_SIZE];
+        final List<T> objects = new ArrayList<>(BATCH_SIZE);
+        int start;
+        int size;
+
+        /**
+         * Replace the batch with the next choices of the iterator.
+         *
+         * @return {@code false} if the iterator has no more choices.
+         */
+        boolean fill(Iterator<T> choices, ChoiceGenerator<T> generator) {
+            start += size;
+            objects.clear();
+            size = 0;
+            while (size < BATCH_SIZE && choices.hasNext()) {
+                T choice = choices.next();
+                objects.add(choice);
+                strings[size++] = getString(choice, generator);
+            }
+            // Do not keep the previous choices reachable
+            for (int i = size; i < BATCH_SIZE && strings[i] != null; ++i) {
+                strings[i] = null;
+            }
+            return size > 0;
+        }
+    }
+
+    private StreamingExtractor() {
+    }
+
+    /**
+     * Same as {@link RapidFuzzCached#extractAllIndices(String[], int, int, double, int[], double[])} for all the
+     * choices of the iterator.
+     *
+     * @param generator Generates the choice strings, or {@code null} if the choices are strings.
+     */
+    static <T> List<Result<T>> extractAll(RapidFuzzCached extractor, Iterator<T> choices, ChoiceGenerator<T> generator,
+                                          double scoreCutoff) {
+        List<Result<T>> results = new ArrayList<>();
+        Batch<T> batch = new Batch<>();
+        int[] indices = new int[BATCH_SIZE];
+        double[] scores = new double[BATCH_SIZE];
+        while (batch.fill(choices, generator)) {
+            int count = extractor.extractAllIndices(batch.strings, 0, batch.size, scoreCutoff, indices, scores);
+            for (int i = 0; i < count; ++i) {
+                results.add(new Result<>(batch.objects.get(indices[i]), scores[i], batch.start + indices[i]));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Same as {@link RapidFuzzCached#extractTopIndices(String[], int, int, int, double, int[], double[])} for all the
+     * choices of the iterator. The best matches found so far are merged with the best matches of each batch, and the
+     * worst of them is used as the score cutoff of the next batch once {@code limit} matches are found.
+     *
+     * @param generator Generates the choice strings, or {@code null} if the choices are strings.
+     */
+    static <T> List<Result<T>> extract(RapidFuzzCached extractor, Iterator<T> choices, ChoiceGenerator<T> generator,
+                                       int limit, double scoreCutoff) {
+        List<Result<T>> top = Collections.emptyList();
+        Batch<T> batch = new Batch<>();
+        int capacity = Math.min(limit, BATCH_SIZE);
+        int[] indices = new int[capacity];
+        double[] scores = new double[capacity];
+        while (batch.fill(choices, generator)) {
+            double cutoff = scoreCutoff;
+            if (top.size() == limit) {
+                cutoff = Math.max(cutoff, top.get(limit - 1).getScore());
+            }
+            int count = extractor.extractTopIndices(batch.strings, 0, batch.size, limit, cutoff, indices, scores);
+            if (count == 0) continue;
+            // Both are sorted by score in descending order and then by index in ascending order, and the choices of
+            // the batch come after the previous ones, so the previous ones win for equal scores
+            List<Result<T>> merged = new ArrayList<>(Math.min(limit, top.size() + count));
+            int i = 0;
+            int j = 0;
+            while (merged.size() < limit && (i < top.size() || j < count)) {
+                if (j == count || (i < top.size() && top.get(i).getScore() >= scores[j])) {
+                    merged.add(top.get(i++));
+                } else {
+                    merged.add(new Result<>(batch.objects.get(indices[j]), scores[j], batch.start + indices[j]));
+                    ++j;
+                }
+            }
+            top = merged;
+        }
+        return top;
+    }
+
+    /**
+     * Same as {@link RapidFuzzCached#extractOneIndex(String[], int, int, double, double[])} for all the choices of the
+     * iterator, except that no more choices are scored after the batch in which a choice with a perfect score is found.
+     *
+     * @param generator Generates the choice strings, or {@code null} if the choices are strings.
+     */
+    static <T> Result<T> extractOne(RapidFuzzCached extractor, Iterator<T> choices, ChoiceGenerator<T> generator,
+                                    double scoreCutoff) {
+        Result<T> best = null;
+        Batch<T> batch = new Batch<>();
+        double[] score = new double[1];
+        while (batch.fill(choices, generator)) {
+            double cutoff = best != null ? best.getScore() : scoreCutoff;
+            int index = extractor.extractOneIndex(batch.strings, 0, batch.size, cutoff, score);
+            if (index >= 0) {
+                best = new Result<>(batch.objects.get(index), score[0], batch.start + index);
+                if (score[0] >= PERFECT_SCORE) break;
+            }
+        }
+        return best;
+    }
+
+    private static <T> String getString(T choice, ChoiceGenerator<T> generator) {
+        if (generator == null) return (String) choice;
+        return generator.getChoice(choice);
+    }
+}
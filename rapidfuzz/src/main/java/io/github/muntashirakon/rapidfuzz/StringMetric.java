@@ -0,0 +1,173 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+/**
+ * Collection of string metrics. Unlike the ratios in {@link RapidFuzz}, the distances can be bounded by a maximum,
+ * which allows the computation to terminate early for dissimilar strings. This makes them cheaper than the ratios for
+ * use cases such as typo correction.
+ * <p>
+ * The normalized variants return a similarity between 0 and 100 where 100 means that the strings are equal.
+ *
+ * @see StringMetricCached
+ */
+public class StringMetric {
+    public static final int TYPE_LEVENSHTEIN = 1;
+    public static final int TYPE_HAMMING = 2;
+
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    private StringMetric() {
+    }
+
+    /**
+     * Same as {@link #levenshtein(String, String, int, int, int, int)} except that all the operations cost 1 and the
+     * distance is unbounded.
+     */
+    public static int levenshtein(String s1, String s2) {
+        return levenshtein(s1, s2, 1, 1, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #levenshtein(String, String, int, int, int, int)} except that all the operations cost 1.
+     */
+    public static int levenshtein(String s1, String s2, int max) {
+        return levenshtein(s1, s2, 1, 1, 1, max);
+    }
+
+    /**
+     * Calculates the minimum cost of the insertions, deletions and substitutions required to transform s1 into s2.
+     *
+     * <pre>
+     * // distance is 2
+     * int distance = StringMetric.levenshtein("lewenstein", "levenshtein", 1, 1, 1, Integer.MAX_VALUE);
+     * // distance is 3, as a substitution costs the same as a deletion and an insertion
+     * int distance = StringMetric.levenshtein("lewenstein", "levenshtein", 1, 1, 2, Integer.MAX_VALUE);
+     * </pre>
+     *
+     * @param s1          String to compare with s2
+     * @param s2          String to compare with s1
+     * @param insertCost  Cost of inserting a character
+     * @param deleteCost  Cost of deleting a character
+     * @param replaceCost Cost of substituting a character
+     * @param max         Maximum distance of interest
+     * @return The distance between s1 and s2 or -1 when distance > max.
+     * @throws IllegalArgumentException If any of the costs or max is negative.
+     */
+    public static int levenshtein(String s1, String s2, int insertCost, int deleteCost, int replaceCost, int max) {
+        checkWeights(insertCost, deleteCost, replaceCost);
+        checkMax(max);
+        return nativeLevenshtein(s1, s2, insertCost, deleteCost, replaceCost, max);
+    }
+
+    /**
+     * Same as {@link #normalizedLevenshtein(String, String, int, int, int, double)} except that all the operations
+     * cost 1 and the score threshold is set to 0.0.
+     */
+    public static double normalizedLevenshtein(String s1, String s2) {
+        return normalizedLevenshtein(s1, s2, 1, 1, 1, 0.0);
+    }
+
+    /**
+     * Same as {@link #normalizedLevenshtein(String, String, int, int, int, double)} except that all the operations
+     * cost 1.
+     */
+    public static double normalizedLevenshtein(String s1, String s2, double scoreCutoff) {
+        return normalizedLevenshtein(s1, s2, 1, 1, 1, scoreCutoff);
+    }
+
+    /**
+     * Calculates the {@link #levenshtein(String, String, int, int, int, int)} distance normalized by the maximum
+     * possible distance between strings of the same lengths.
+     *
+     * @param s1          String to compare with s2
+     * @param s2          String to compare with s1
+     * @param insertCost  Cost of inserting a character
+     * @param deleteCost  Cost of deleting a character
+     * @param replaceCost Cost of substituting a character
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @return The similarity between s1 and s2 or 0 when similarity < score_cutoff.
+     * @throws IllegalArgumentException If any of the costs is negative.
+     */
+    public static double normalizedLevenshtein(String s1, String s2, int insertCost, int deleteCost, int replaceCost,
+                                               double scoreCutoff) {
+        checkWeights(insertCost, deleteCost, replaceCost);
+        return nativeNormalizedLevenshtein(s1, s2, insertCost, deleteCost, replaceCost, scoreCutoff);
+    }
+
+    /**
+     * Same as {@link #hamming(String, String, int)} except that the distance is unbounded.
+     */
+    public static int hamming(String s1, String s2) {
+        return hamming(s1, s2, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculates the number of positions at which the characters of two strings of equal length differ.
+     *
+     * @param s1  String to compare with s2
+     * @param s2  String to compare with s1
+     * @param max Maximum distance of interest
+     * @return The distance between s1 and s2 or -1 when distance > max.
+     * @throws IllegalArgumentException If the strings differ in length or max is negative.
+     */
+    public static int hamming(String s1, String s2, int max) {
+        checkLength(s1, s2);
+        checkMax(max);
+        return nativeHamming(s1, s2, max);
+    }
+
+    /**
+     * Same as {@link #normalizedHamming(String, String, double)} except that the score threshold is set to 0.0.
+     */
+    public static double normalizedHamming(String s1, String s2) {
+        return normalizedHamming(s1, s2, 0.0);
+    }
+
+    /**
+     * Calculates the {@link #hamming(String, String, int)} distance normalized by the length of the strings.
+     *
+     * @param s1          String to compare with s2
+     * @param s2          String to compare with s1
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @return The similarity between s1 and s2 or 0 when similarity < score_cutoff.
+     * @throws IllegalArgumentException If the strings differ in length.
+     */
+    public static double normalizedHamming(String s1, String s2, double scoreCutoff) {
+        checkLength(s1, s2);
+        return nativeNormalizedHamming(s1, s2, scoreCutoff);
+    }
+
+    static void checkWeights(int insertCost, int deleteCost, int replaceCost) {
+        if (insertCost < 0 || deleteCost < 0 || replaceCost < 0) {
+            throw new IllegalArgumentException("Invalid weights " + insertCost + ", " + deleteCost + ", "
+                    + replaceCost);
+        }
+    }
+
+    static void checkMax(int max) {
+        if (max < 0) throw new IllegalArgumentException("Invalid max " + max);
+    }
+
+    static void checkLength(String s1, String s2) {
+        if (s1.length() != s2.length()) {
+            throw new IllegalArgumentException("Strings of different lengths " + s1.length() + " and "
+                    + s2.length());
+        }
+    }
+
+    // Native calls
+    private static native int nativeLevenshtein(String s1, String s2, int insertCost, int deleteCost, int replaceCost,
+                                                int max);
+
+    private static native double nativeNormalizedLevenshtein(String s1, String s2, int insertCost, int deleteCost,
+                                                             int replaceCost, double scoreCutoff);
+
+    private static native int nativeHamming(String s1, String s2, int max);
+
+    private static native double nativeNormalizedHamming(String s1, String s2, double scoreCutoff);
+}
@@ -0,0 +1,166 @@
+// SPDX-License-Identifier: Apache-2.0
+
+package io.github.muntashirakon.rapidfuzz;
+
+import java.io.Closeable;
+
+import static io.github.muntashirakon.rapidfuzz.StringMetric.TYPE_HAMMING;
+import static io.github.muntashirakon.rapidfuzz.StringMetric.TYPE_LEVENSHTEIN;
+
+/**
+ * Cached implementation of {@link StringMetric}. If it is necessary to compare multiple choices with the same query
+ * string, cached implementation is much faster. The batch methods compare an array of choices in a single native call.
+ * <p>
+ * Like {@link RapidFuzzCached}, the methods of a single instance may be called concurrently from multiple threads, but
+ * the instance must not be closed while any of them is running.
+ */
+public class StringMetricCached implements Closeable {
+    static {
+        NativeLoader.loadLibrary();
+    }
+
+    private final String mQuery;
+    private final int mMetricType;
+    private final NativeHandle mHandle;
+
+    /**
+     * Create a cached Levenshtein distance where all the operations cost 1.
+     */
+    public StringMetricCached(String query) {
+        this(query, TYPE_LEVENSHTEIN);
+    }
+
+    /**
+     * Create a cached string metric.
+     *
+     * @param query      The query string
+     * @param metricType Metric type. One of the {@code StringMetric#TYPE_*} constants. If it is
+     *                   {@link StringMetric#TYPE_LEVENSHTEIN}, all the operations cost 1.
+     * @throws IllegalArgumentException If the metric type is invalid.
+     */
+    public StringMetricCached(String query, int metricType) {
+        this(query, metricType, 1, 1, 1);
+    }
+
+    /**
+     * Create a cached weighted Levenshtein distance.
+     *
+     * @param query       The query string
+     * @param insertCost  Cost of inserting a character
+     * @param deleteCost  Cost of deleting a character
+     * @param replaceCost Cost of substituting a character
+     * @throws IllegalArgumentException If any of the costs is negative.
+     * @see StringMetric#levenshtein(String, String, int, int, int, int)
+     */
+    public StringMetricCached(String query, int insertCost, int deleteCost, int replaceCost) {
+        this(query, TYPE_LEVENSHTEIN, insertCost, deleteCost, replaceCost);
+    }
+
+    private StringMetricCached(String query, int metricType, int insertCost, int deleteCost, int replaceCost) {
+        if (metricType != TYPE_LEVENSHTEIN && metricType != TYPE_HAMMING) {
+            throw new IllegalArgumentException("Unknown metric type " + metricType);
+        }
+        StringMetric.checkWeights(insertCost, deleteCost, replaceCost);
+        this.mQuery = query;
+        this.mMetricType = metricType;
+        this.mHandle = new NativeHandle(this, nativeNew(query, metricType, insertCost, deleteCost, replaceCost),
+                RapidFuzzCached.estimateNativeBytes(query), StringMetricCached::nativeFree);
+    }
+
+    public int distance(String choice) {
+        return distance(choice, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculate the distance between the query and the choice.
+     *
+     * @param choice Choice to compare with the query
+     * @param max    Maximum distance of interest
+     * @return The distance or -1 when distance > max.
+     * @throws IllegalArgumentException If max is negative or, in case of the Hamming distance, if the choice differs
+     *                                  in length from the query.
+     */
+    public int distance(String choice, int max) {
+        StringMetric.checkMax(max);
+        if (mMetricType == TYPE_HAMMING) {
+            StringMetric.checkLength(mQuery, choice);
+        }
+        return nativeDistance(mHandle.getPtr(), choice, max);
+    }
+
+    /**
+     * Calculate the distances between the query and all the choices in a single native call.
+     *
+     * @param choices Choices to compare with the query
+     * @param max     Maximum distance of interest
+     * @return The distances in the order of the choices. A distance is -1 when distance > max, when the choice is
+     * {@code null}, or, in case of the Hamming distance, when the choice differs in length from the query.
+     * @throws IllegalArgumentException If max is negative.
+     */
+    public int[] distance(String[] choices, int max) {
+        StringMetric.checkMax(max);
+        int[] distances = new int[choices.length];
+        nativeDistances(mHandle.getPtr(), choices, max, distances);
+        return distances;
+    }
+
+    public double normalized(String choice) {
+        return normalized(choice, 0.0);
+    }
+
+    /**
+     * Calculate the normalized similarity between the query and the choice.
+     *
+     * @param choice      Choice to compare with the query
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @return The similarity or 0 when similarity < score_cutoff.
+     * @throws IllegalArgumentException If, in case of the Hamming distance, the choice differs in length from the
+     *                                  query.
+     * @see StringMetric#normalizedLevenshtein(String, String, int, int, int, double)
+     * @see StringMetric#normalizedHamming(String, String, double)
+     */
+    public double normalized(String choice, double scoreCutoff) {
+        if (mMetricType == TYPE_HAMMING) {
+            StringMetric.checkLength(mQuery, choice);
+        }
+        return nativeNormalized(mHandle.getPtr(), choice, scoreCutoff);
+    }
+
+    /**
+     * Calculate the normalized similarities between the query and all the choices in a single native call.
+     *
+     * @param choices     Choices to compare with the query
+     * @param scoreCutoff A score threshold between 0% and 100%. Matches with a lower score than this number will not be
+     *                    returned.
+     * @return The similarities in the order of the choices. A similarity is 0 when similarity < score_cutoff, when the
+     * choice is {@code null}, or, in case of the Hamming distance, when the choice differs in length from the query.
+     */
+    public double[] normalized(String[] choices, double scoreCutoff) {
+        double[] scores = new double[choices.length];
+        nativeNormalizedAll(mHandle.getPtr(), choices, scoreCutoff, scores);
+        return scores;
+    }
+
+    /**
+     * Free the native metric. Closing it more than once has no effect, but using it after it is closed throws
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        mHandle.close();
+    }
+
+    private static native long nativeNew(String query, int metricType, int insertCost, int deleteCost,
+                                         int replaceCost);
+
+    private native int nativeDistance(long ptr, String choice, int max);
+
+    private native void nativeDistances(long ptr, String[] choices, int max, int[] distances);
+
+    private native double nativeNormalized(long ptr, String choice, double scoreCutoff);
+
+    private native void nativeNormalizedAll(long ptr, String[] choices, double scoreCutoff, double[] scores);
+
+    private static native void nativeFree(long ptr);
+}